@@ -7,6 +7,7 @@ import mezz.jei.common.config.file.IConfigSchemaBuilder;
 import mezz.jei.common.config.file.serializers.EnumSerializer;
 import mezz.jei.common.config.file.serializers.ListSerializer;
 import mezz.jei.common.platform.Services;
+import mezz.jei.core.search.SearchStorageType;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
@@ -39,6 +40,13 @@ public final class ClientConfig implements IClientConfig {
 
 	// advanced
 	private final Supplier<Boolean> lowMemorySlowSearchEnabled;
+	private final Supplier<SearchStorageType> searchStorageType;
+	private final Supplier<Boolean> searchIndexCacheEnabled;
+	private final Supplier<Boolean> lazyTooltipSearchIndexEnabled;
+	private final Supplier<Boolean> recipeIndexCacheEnabled;
+	private final Supplier<Boolean> lazyRecipeIndexEnabled;
+	private final Supplier<Boolean> recipeManagerPluginCacheEnabled;
+	private final Supplier<Integer> recipeManagerPluginCacheSize;
 	private final Supplier<Boolean> catchRenderErrorsEnabled;
 	private final Supplier<Boolean> lookupFluidContentsEnabled;
 	private final Supplier<Boolean> lookupBlockTagsEnabled;
@@ -135,6 +143,43 @@ public final class ClientConfig implements IClientConfig {
 			false,
 			"Set low-memory mode (makes search very slow but uses less RAM)."
 		);
+		searchStorageType = advanced.addEnum(
+			"SearchStorageType",
+			SearchStorageType.SUFFIX_TREE,
+			"Data structure used for the search index. SUFFIX_ARRAY uses much less RAM than SUFFIX_TREE, but takes longer to build."
+		);
+		searchIndexCacheEnabled = advanced.addBoolean(
+			"SearchIndexCacheEnabled",
+			false,
+			"Save the search index strings to disk so that the next start can skip getting them from every ingredient."
+		);
+		recipeIndexCacheEnabled = advanced.addBoolean(
+			"RecipeIndexCacheEnabled",
+			false,
+			"Save the ingredients of every recipe to disk so that joining a world with the same mods, recipes and tags can skip getting them from every recipe category."
+		);
+		lazyRecipeIndexEnabled = advanced.addBoolean(
+			"LazyRecipeIndexEnabled",
+			false,
+			"Index the recipes of each recipe category the first time they are looked up (or in the background after startup), instead of at startup. Disables RecipeIndexCacheEnabled."
+		);
+		recipeManagerPluginCacheEnabled = advanced.addBoolean(
+			"RecipeManagerPluginCacheEnabled",
+			false,
+			"Remember the results of mod recipe lookup plugins that allow it, so that looking up the same ingredient again is faster."
+		);
+		recipeManagerPluginCacheSize = advanced.addInteger(
+			"RecipeManagerPluginCacheSize",
+			4096,
+			0,
+			Integer.MAX_VALUE,
+			"Memory budget in KiB for RecipeManagerPluginCacheEnabled. The least recently used results are forgotten when it is full."
+		);
+		lazyTooltipSearchIndexEnabled = advanced.addBoolean(
+			"LazyTooltipSearchIndexEnabled",
+			false,
+			"Build the tooltip search index in the background after startup, or on the first search that needs it, instead of at startup."
+		);
 		catchRenderErrorsEnabled = advanced.addBoolean(
 			"CatchRenderErrorsEnabled",
 			!isDev,
@@ -223,6 +268,41 @@ public final class ClientConfig implements IClientConfig {
 		return lowMemorySlowSearchEnabled.get();
 	}
 
+	@Override
+	public SearchStorageType getSearchStorageType() {
+		return searchStorageType.get();
+	}
+
+	@Override
+	public boolean isSearchIndexCacheEnabled() {
+		return searchIndexCacheEnabled.get();
+	}
+
+	@Override
+	public boolean isRecipeIndexCacheEnabled() {
+		return recipeIndexCacheEnabled.get();
+	}
+
+	@Override
+	public boolean isLazyRecipeIndexEnabled() {
+		return lazyRecipeIndexEnabled.get();
+	}
+
+	@Override
+	public boolean isRecipeManagerPluginCacheEnabled() {
+		return recipeManagerPluginCacheEnabled.get();
+	}
+
+	@Override
+	public int getRecipeManagerPluginCacheSize() {
+		return recipeManagerPluginCacheSize.get();
+	}
+
+	@Override
+	public boolean isLazyTooltipSearchIndexEnabled() {
+		return lazyTooltipSearchIndexEnabled.get();
+	}
+
 	@Override
 	public boolean isCatchRenderErrorsEnabled() {
 		return catchRenderErrorsEnabled.get();
@@ -1,5 +1,7 @@
 package mezz.jei.common.config;
 
+import mezz.jei.core.search.SearchStorageType;
+
 import java.util.List;
 import java.util.Set;
 
@@ -12,6 +14,20 @@ public interface IClientConfig {
 
 	boolean isLowMemorySlowSearchEnabled();
 
+	SearchStorageType getSearchStorageType();
+
+	boolean isSearchIndexCacheEnabled();
+
+	boolean isRecipeIndexCacheEnabled();
+
+	boolean isLazyRecipeIndexEnabled();
+
+	boolean isRecipeManagerPluginCacheEnabled();
+
+	int getRecipeManagerPluginCacheSize();
+
+	boolean isLazyTooltipSearchIndexEnabled();
+
 	boolean isCatchRenderErrorsEnabled();
 
 	boolean isCheatToHotbarUsingHotkeysEnabled();
@@ -15,6 +15,8 @@ public interface IIngredientFilterConfig {
 
 	SearchMode getCreativeTabSearchMode();
 
+	SearchMode getFuzzySearchMode();
+
 	boolean getSearchAdvancedTooltips();
 
 	boolean getSearchModIds();
@@ -13,6 +13,7 @@ public class IngredientFilterConfig implements IIngredientFilterConfig {
 	public final Supplier<SearchMode> colorSearchMode;
 	public final Supplier<SearchMode> resourceLocationSearchMode;
 	public final Supplier<SearchMode> creativeTabSearchMode;
+	public final Supplier<SearchMode> fuzzySearchMode;
 	public final Supplier<Boolean> searchAdvancedTooltips;
 	public final Supplier<Boolean> searchModIds;
 	public final Supplier<Boolean> searchModAliases;
@@ -51,6 +52,11 @@ public class IngredientFilterConfig implements IIngredientFilterConfig {
 			SearchMode.DISABLED,
 			"Search mode for creative mode tab names (prefix: %)."
 		);
+		fuzzySearchMode = search.addEnum(
+			"FuzzySearchMode",
+			SearchMode.DISABLED,
+			"Search mode for ingredient names that tolerates typos (prefix: ~)."
+		);
 		searchAdvancedTooltips = search.addBoolean(
 			"SearchAdvancedTooltips",
 			false,
@@ -108,6 +114,11 @@ public class IngredientFilterConfig implements IIngredientFilterConfig {
 		return creativeTabSearchMode.get();
 	}
 
+	@Override
+	public SearchMode getFuzzySearchMode() {
+		return fuzzySearchMode.get();
+	}
+
 	@Override
 	public boolean getSearchAdvancedTooltips() {
 		return searchAdvancedTooltips.get();
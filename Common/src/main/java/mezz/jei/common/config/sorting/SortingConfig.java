@@ -1,5 +1,7 @@
 package mezz.jei.common.config.sorting;
 
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import mezz.jei.common.config.sorting.serializers.ISortingSerializer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -14,6 +16,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 public abstract class SortingConfig<T> {
 	private static final Logger LOGGER = LogManager.getLogger();
@@ -89,11 +92,24 @@ public abstract class SortingConfig<T> {
 	}
 
 	public <V> Comparator<V> getComparator(Collection<T> allValues, Function<V, T> mapping) {
+		return Comparator.comparingInt(getSortIndexFunction(allValues, mapping));
+	}
+
+	/**
+	 * Returns the position of each value in the sort order, to be used as a precomputed sort key.
+	 * Values that are not sorted come last.
+	 */
+	public <V> ToIntFunction<V> getSortIndexFunction(Collection<T> allValues, Function<V, T> mapping) {
 		List<T> sorted = getSorted(allValues);
-		return Comparator.comparingInt(o -> {
+		Object2IntMap<T> sortIndexes = new Object2IntOpenHashMap<>(sorted.size());
+		sortIndexes.defaultReturnValue(indexOfSort(-1));
+		for (int i = 0; i < sorted.size(); i++) {
+			sortIndexes.putIfAbsent(sorted.get(i), i);
+		}
+		return o -> {
 			T value = mapping.apply(o);
-			return indexOfSort(sorted.indexOf(value));
-		});
+			return sortIndexes.getInt(value);
+		};
 	}
 
 }
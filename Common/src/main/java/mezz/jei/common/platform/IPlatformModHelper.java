@@ -1,7 +1,14 @@
 package mezz.jei.common.platform;
 
+import java.util.Map;
+
 public interface IPlatformModHelper {
 	String getModNameForModId(String modId);
 
 	boolean isInDev();
+
+	/**
+	 * @return the version of every loaded mod, by mod id
+	 */
+	Map<String, String> getModVersions();
 }
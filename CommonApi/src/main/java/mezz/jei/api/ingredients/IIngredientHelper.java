@@ -247,6 +247,20 @@ public interface IIngredientHelper<V> {
 		return isHiddenFromRecipeViewersByTags(ingredient.getIngredient());
 	}
 
+	/**
+	 * Return true if this helper can be called from several threads at once.
+	 * JEI uses this to build its ingredient list in parallel.
+	 * <p>
+	 * Return false if {@link #getDisplayName}, {@link #getResourceLocation} or {@link #getDisplayModId}
+	 * read or write state that is not safe to share between threads.
+	 * All ingredients from a helper that returns false are handled on the main thread.
+	 *
+	 * @since 19.21.0
+	 */
+	default boolean isThreadSafe() {
+		return true;
+	}
+
 	/**
 	 * Get information for error messages involving this ingredient.
 	 * Be extremely careful not to crash here, get as much useful info as possible.
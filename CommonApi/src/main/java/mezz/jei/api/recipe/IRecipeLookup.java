@@ -1,6 +1,7 @@
 package mezz.jei.api.recipe;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -32,4 +33,35 @@ public interface IRecipeLookup<R> {
 	 * @since 9.5.0
 	 */
 	Stream<R> get();
+
+	/**
+	 * Get one page of the recipe results for this lookup,
+	 * in the same order as {@link #get()}.
+	 * Only the recipes up to the end of the page are looked up,
+	 * so this is much cheaper than collecting {@link #get()} when there are many results.
+	 * The same lookup remembers where each page that it returned starts,
+	 * so reading an earlier page again does not look up the recipes before it.
+	 *
+	 * @param skip  the number of results to skip before the page starts
+	 * @param limit the maximum number of results on the page
+	 * @return the results on the page, or an empty list if there are no results after {@code skip}
+	 *
+	 * @since 19.21.0
+	 */
+	default List<R> getPage(int skip, int limit) {
+		return get()
+			.skip(skip)
+			.limit(limit)
+			.toList();
+	}
+
+	/**
+	 * Get the number of recipe results for this lookup, without collecting them.
+	 * JEI remembers the counts for recently looked up focuses, so calling this again is cheap.
+	 *
+	 * @since 19.21.0
+	 */
+	default int count() {
+		return Math.toIntExact(get().count());
+	}
 }
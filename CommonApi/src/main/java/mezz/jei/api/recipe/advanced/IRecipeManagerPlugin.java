@@ -43,4 +43,17 @@ public interface IRecipeManagerPlugin {
 	 * This is used internally by JEI to implement {@link IRecipeManager#createRecipeLookup(RecipeType)}.
 	 */
 	<T> List<T> getRecipes(IRecipeCategory<T> recipeCategory);
+
+	/**
+	 * Return true if JEI may remember the results of this plugin, when the player has enabled caching.
+	 *
+	 * Only return true if the results never change while JEI is running,
+	 * and only depend on the recipe category, the focus role,
+	 * and the uid of the focused ingredient (see {@link mezz.jei.api.ingredients.subtypes.UidContext#Recipe}).
+	 *
+	 * @since 19.21.0
+	 */
+	default boolean isCacheable() {
+		return false;
+	}
 }
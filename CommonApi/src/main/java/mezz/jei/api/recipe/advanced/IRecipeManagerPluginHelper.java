@@ -1,7 +1,12 @@
 package mezz.jei.api.recipe.advanced;
 
+import mezz.jei.api.ingredients.ITypedIngredient;
 import mezz.jei.api.recipe.IFocus;
 import mezz.jei.api.recipe.RecipeType;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Helpers for implementing {@link IRecipeManagerPlugin}s.
@@ -14,4 +19,19 @@ public interface IRecipeManagerPluginHelper {
 	 * @since 19.15.1
 	 */
 	boolean isRecipeCatalyst(RecipeType<?> recipeType, IFocus<?> focus);
+
+	/**
+	 * @return the recipe types that the given ingredient is a registered catalyst for, in recipe category sort order.
+	 * @since 19.21.0
+	 */
+	@Unmodifiable
+	List<RecipeType<?>> getCatalystRecipeTypes(ITypedIngredient<?> catalyst);
+
+	/**
+	 * @return every recipe type that any of the given ingredients is a registered catalyst for,
+	 * without duplicates, in recipe category sort order.
+	 * @since 19.21.0
+	 */
+	@Unmodifiable
+	List<RecipeType<?>> getCatalystRecipeTypes(Collection<? extends ITypedIngredient<?>> catalysts);
 }
@@ -50,4 +50,14 @@ public interface ISimpleRecipeManagerPlugin<T> {
 	 * @since 19.16.0
 	 */
 	List<T> getAllRecipes();
+
+	/**
+	 * Return true if JEI may remember the results of this plugin, when the player has enabled caching.
+	 *
+	 * @see IRecipeManagerPlugin#isCacheable()
+	 * @since 19.21.0
+	 */
+	default boolean isCacheable() {
+		return false;
+	}
 }
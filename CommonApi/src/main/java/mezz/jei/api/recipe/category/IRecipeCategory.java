@@ -307,4 +307,28 @@ public interface IRecipeCategory<T> {
 	default boolean needsRecipeBorder() {
 		return true;
 	}
+
+	/**
+	 * Return true if {@link #isHandled} and {@link #setRecipe} can be called from several threads at once.
+	 * JEI uses this to read the ingredients of this category's recipes in parallel when they are registered.
+	 * <p>
+	 * Only return true if setting a recipe does not read or write state that is not safe to share between threads.
+	 * If only some of this category's recipes are thread safe, also override {@link #isThreadSafe(Object)}.
+	 *
+	 * @since 19.21.0
+	 */
+	default boolean isThreadSafe() {
+		return false;
+	}
+
+	/**
+	 * Return false for a recipe that must be set on the thread that registers it,
+	 * even though {@link #isThreadSafe()} is true for this category.
+	 * Only called when {@link #isThreadSafe()} returns true.
+	 *
+	 * @since 19.21.0
+	 */
+	default boolean isThreadSafe(T recipe) {
+		return isThreadSafe();
+	}
 }
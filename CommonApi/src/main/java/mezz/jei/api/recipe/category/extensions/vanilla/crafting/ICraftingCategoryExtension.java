@@ -103,6 +103,19 @@ public interface ICraftingCategoryExtension<R extends CraftingRecipe> extends IR
 		return getHeight();
 	}
 
+	/**
+	 * Return true if {@link #isHandled} and {@link #setRecipe(RecipeHolder, IRecipeLayoutBuilder, ICraftingGridHelper, IFocusGroup)}
+	 * can be called from several threads at once.
+	 * JEI reads the ingredients of recipes with thread safe extensions in parallel,
+	 * and the rest on the thread that registers them.
+	 *
+	 * @see IRecipeCategory#isThreadSafe()
+	 * @since 19.21.0
+	 */
+	default boolean isThreadSafe() {
+		return false;
+	}
+
 	/**
 	 * Override the default {@link IRecipeCategory} behavior.
 	 *
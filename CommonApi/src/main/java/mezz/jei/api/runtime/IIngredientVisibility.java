@@ -5,6 +5,8 @@ import mezz.jei.api.ingredients.IIngredientType;
 import mezz.jei.api.ingredients.ITypedIngredient;
 import org.jetbrains.annotations.ApiStatus;
 
+import java.util.Collection;
+
 /**
  * The {@link IIngredientVisibility} allows mod plugins to do advanced filtering of
  * ingredients based on what is visible in JEI.
@@ -53,5 +55,18 @@ public interface IIngredientVisibility {
 		 * @since 11.5.0
 		 */
 		<V> void onIngredientVisibilityChanged(ITypedIngredient<V> ingredient, boolean visible);
+
+		/**
+		 * Called when several ingredients are made visible or invisible at once,
+		 * for example when a whole group of ingredients is hidden.
+		 * Only the ingredients whose visibility actually changed are included.
+		 *
+		 * @since 19.21.0
+		 */
+		default void onIngredientsVisibilityChanged(Collection<ITypedIngredient<?>> ingredients, boolean visible) {
+			for (ITypedIngredient<?> ingredient : ingredients) {
+				onIngredientVisibilityChanged(ingredient, visible);
+			}
+		}
 	}
 }
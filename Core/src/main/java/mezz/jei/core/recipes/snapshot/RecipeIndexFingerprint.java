@@ -0,0 +1,39 @@
+package mezz.jei.core.recipes.snapshot;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Builds a hash of everything that the ingredients in a {@link RecipeIndexSnapshot} depend on.
+ * A snapshot is only reused when the fingerprint is exactly the same, so every value that can change
+ * the ingredients of a recipe (the mods, the recipes, the tags, the config) must be added.
+ */
+public class RecipeIndexFingerprint {
+	private final Hasher hasher = Hashing.sha256().newHasher();
+
+	public RecipeIndexFingerprint() {
+		hasher.putInt(RecipeIndexSnapshot.FORMAT_VERSION);
+	}
+
+	public RecipeIndexFingerprint add(String value) {
+		// the length keeps consecutive strings from running together
+		hasher.putInt(value.length());
+		hasher.putUnencodedChars(value);
+		return this;
+	}
+
+	public RecipeIndexFingerprint add(int value) {
+		hasher.putInt(value);
+		return this;
+	}
+
+	public RecipeIndexFingerprint add(byte[] value) {
+		hasher.putInt(value.length);
+		hasher.putBytes(value);
+		return this;
+	}
+
+	public byte[] build() {
+		return hasher.hash().asBytes();
+	}
+}
@@ -0,0 +1,192 @@
+package mezz.jei.core.recipes.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * The ingredients of every recipe, saved to disk so that the recipe index can be rebuilt
+ * without asking every recipe category to lay out every recipe again.
+ * <p>
+ * The file starts with a header holding the fingerprint of everything the ingredients depend on,
+ * followed by a table of every distinct ingredient (saved as bytes) and then the recipes of each recipe type.
+ * Each recipe is saved as its id, a hash of its contents and, for each ingredient role, the indexes of its ingredients in the table.
+ * A snapshot is only read when its fingerprint matches,
+ * and a recipe is only read from it when its content hash matches too.
+ *
+ * @see RecipeIndexSnapshotWriter
+ */
+public class RecipeIndexSnapshot {
+	private static final Logger LOGGER = LogManager.getLogger();
+	static final int MAGIC = 0x4A454952; // "JEIR"
+	static final int FORMAT_VERSION = 3;
+	/**
+	 * magic, format version, fingerprint length
+	 */
+	static final int PREAMBLE_SIZE = Integer.BYTES * 3;
+
+	private final byte[][] ingredients;
+	private final Map<String, Map<String, SavedRecipe>> recipeTypes;
+
+	private RecipeIndexSnapshot(byte[][] ingredients, Map<String, Map<String, SavedRecipe>> recipeTypes) {
+		this.ingredients = ingredients;
+		this.recipeTypes = recipeTypes;
+	}
+
+	/**
+	 * Reads the snapshot at the given path.
+	 *
+	 * @return the snapshot, or {@link Optional#empty()} if the file is missing, corrupt,
+	 * or was saved for a different fingerprint or number of ingredient roles.
+	 */
+	public static Optional<RecipeIndexSnapshot> read(Path path, byte[] fingerprint, int roleCount) {
+		if (!Files.isRegularFile(path)) {
+			return Optional.empty();
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+			return read(buffer, fingerprint, roleCount);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Failed to read the recipe index snapshot: {}", path, e);
+			return Optional.empty();
+		}
+	}
+
+	private static Optional<RecipeIndexSnapshot> read(ByteBuffer buffer, byte[] fingerprint, int expectedRoleCount) {
+		if (buffer.remaining() < PREAMBLE_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+			return Optional.empty();
+		}
+		int fingerprintLength = buffer.getInt();
+		if (fingerprintLength != fingerprint.length || fingerprintLength > buffer.remaining()) {
+			return Optional.empty();
+		}
+		byte[] savedFingerprint = new byte[fingerprintLength];
+		buffer.get(savedFingerprint);
+		if (!Arrays.equals(savedFingerprint, fingerprint)) {
+			return Optional.empty();
+		}
+		int roleCount = buffer.getInt();
+		if (roleCount != expectedRoleCount) {
+			return Optional.empty();
+		}
+		long checksum = buffer.getLong();
+
+		ByteBuffer data = buffer.slice();
+		CRC32 crc = new CRC32();
+		crc.update(data.duplicate());
+		if (crc.getValue() != checksum) {
+			LOGGER.warn("The recipe index snapshot is corrupt, ignoring it.");
+			return Optional.empty();
+		}
+
+		byte[][] ingredients = new byte[readCount(data)][];
+		for (int i = 0; i < ingredients.length; i++) {
+			ingredients[i] = readBytes(data);
+		}
+
+		int recipeTypeCount = readCount(data);
+		Map<String, Map<String, SavedRecipe>> recipeTypes = new HashMap<>(recipeTypeCount);
+		for (int i = 0; i < recipeTypeCount; i++) {
+			String recipeTypeUid = readString(data);
+			int recipeCount = readCount(data);
+			Map<String, SavedRecipe> recipes = new HashMap<>(recipeCount);
+			for (int j = 0; j < recipeCount; j++) {
+				String recipeId = readString(data);
+				long contentHash = data.getLong();
+				int[][] ingredientIndexes = new int[roleCount][];
+				for (int role = 0; role < roleCount; role++) {
+					int[] indexes = new int[readCount(data)];
+					for (int k = 0; k < indexes.length; k++) {
+						int index = data.getInt();
+						if (index < 0 || index >= ingredients.length) {
+							throw new IllegalStateException("Invalid ingredient index: " + index);
+						}
+						indexes[k] = index;
+					}
+					ingredientIndexes[role] = indexes;
+				}
+				recipes.put(recipeId, new SavedRecipe(contentHash, ingredientIndexes));
+			}
+			recipeTypes.put(recipeTypeUid, recipes);
+		}
+		if (data.hasRemaining()) {
+			throw new IllegalStateException("Unexpected data at the end of the recipe index snapshot");
+		}
+		return Optional.of(new RecipeIndexSnapshot(ingredients, recipeTypes));
+	}
+
+	private static int readCount(ByteBuffer data) {
+		int count = data.getInt();
+		// every counted entry takes at least one int, so a larger count can only come from a corrupt file
+		if (count < 0 || count > data.remaining() / Integer.BYTES) {
+			throw new IllegalStateException("Invalid count: " + count);
+		}
+		return count;
+	}
+
+	private static byte[] readBytes(ByteBuffer data) {
+		int length = data.getInt();
+		if (length < 0 || length > data.remaining()) {
+			throw new IllegalStateException("Invalid length: " + length);
+		}
+		byte[] bytes = new byte[length];
+		data.get(bytes);
+		return bytes;
+	}
+
+	private static String readString(ByteBuffer data) {
+		int length = data.getInt();
+		if (length < 0 || length > data.remaining() / Character.BYTES) {
+			throw new IllegalStateException("Invalid string length: " + length);
+		}
+		char[] chars = new char[length];
+		data.asCharBuffer().get(chars);
+		data.position(data.position() + length * Character.BYTES);
+		return new String(chars);
+	}
+
+	public int getIngredientCount() {
+		return ingredients.length;
+	}
+
+	/**
+	 * Returns the saved ingredient at the given index. The array must not be modified.
+	 *
+	 * @throws IndexOutOfBoundsException if there is no ingredient at the given index
+	 */
+	public byte[] getIngredient(int index) {
+		return ingredients[index];
+	}
+
+	/**
+	 * Returns the indexes of the ingredients of the given recipe, for each ingredient role.
+	 * The arrays must not be modified.
+	 *
+	 * @param contentHash a hash of the recipe's current contents, see {@link RecipeIndexSnapshotWriter#addRecipe}
+	 * @return the ingredient indexes, or null if the recipe is not in the snapshot or its contents have changed
+	 */
+	@Nullable
+	public int[][] getRecipeIngredients(String recipeTypeUid, String recipeId, long contentHash) {
+		Map<String, SavedRecipe> recipes = recipeTypes.get(recipeTypeUid);
+		if (recipes == null) {
+			return null;
+		}
+		SavedRecipe savedRecipe = recipes.get(recipeId);
+		if (savedRecipe == null || savedRecipe.contentHash() != contentHash) {
+			return null;
+		}
+		return savedRecipe.ingredientIndexes();
+	}
+
+	private record SavedRecipe(long contentHash, int[][] ingredientIndexes) {}
+}
@@ -0,0 +1,161 @@
+package mezz.jei.core.recipes.snapshot;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import mezz.jei.core.util.PathUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Collects the ingredients of every recipe while the recipe index is built,
+ * and writes them as a {@link RecipeIndexSnapshot}.
+ */
+public class RecipeIndexSnapshotWriter {
+	private final int roleCount;
+	private final List<byte[]> ingredients = new ArrayList<>();
+	/**
+	 * The index of each ingredient, keyed by a buffer wrapping its bytes because buffers are compared by their contents.
+	 */
+	private final Object2IntMap<ByteBuffer> ingredientIndexes = new Object2IntOpenHashMap<>();
+	private final Map<String, Map<String, SavedRecipe>> recipeTypes = new LinkedHashMap<>();
+	/**
+	 * Recipe ids that were added more than once for the same recipe type.
+	 * They can't be told apart when the snapshot is read, so they are left out of it.
+	 */
+	private final Map<String, Set<String>> ambiguousRecipeIds = new LinkedHashMap<>();
+
+	public RecipeIndexSnapshotWriter(int roleCount) {
+		this.roleCount = roleCount;
+		this.ingredientIndexes.defaultReturnValue(-1);
+	}
+
+	/**
+	 * The array must not be modified after it is added.
+	 *
+	 * @return the index of the ingredient, adding it if it has not been added before
+	 */
+	public synchronized int addIngredient(byte[] ingredient) {
+		ByteBuffer key = ByteBuffer.wrap(ingredient);
+		int index = ingredientIndexes.getInt(key);
+		if (index < 0) {
+			index = ingredients.size();
+			ingredients.add(ingredient);
+			ingredientIndexes.put(key, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Adds the ingredients of a recipe, as indexes from {@link #addIngredient} for each ingredient role.
+	 *
+	 * @param contentHash a hash of the recipe's contents, so that a recipe that changed without changing its id is not read
+	 *
+	 * @throws IllegalArgumentException if there is not one array of indexes for each role,
+	 * or an index was not returned by {@link #addIngredient}
+	 */
+	public synchronized void addRecipe(String recipeTypeUid, String recipeId, long contentHash, int[][] ingredientIndexes) {
+		if (ingredientIndexes.length != roleCount) {
+			throw new IllegalArgumentException("Expected ingredients for " + roleCount + " roles, got " + ingredientIndexes.length);
+		}
+		for (int[] indexes : ingredientIndexes) {
+			for (int index : indexes) {
+				if (index < 0 || index >= ingredients.size()) {
+					throw new IllegalArgumentException("Unknown ingredient index: " + index);
+				}
+			}
+		}
+
+		Set<String> ambiguous = ambiguousRecipeIds.computeIfAbsent(recipeTypeUid, k -> new HashSet<>());
+		if (ambiguous.contains(recipeId)) {
+			return;
+		}
+		Map<String, SavedRecipe> recipes = recipeTypes.computeIfAbsent(recipeTypeUid, k -> new LinkedHashMap<>());
+		if (recipes.putIfAbsent(recipeId, new SavedRecipe(contentHash, ingredientIndexes)) != null) {
+			recipes.remove(recipeId);
+			ambiguous.add(recipeId);
+		}
+	}
+
+	/**
+	 * Writes the snapshot to a temporary file and then moves it to the given path,
+	 * so that a partly written snapshot is never read.
+	 */
+	public synchronized void write(Path path, byte[] fingerprint) throws IOException {
+		byte[] data = toBytes();
+		CRC32 crc = new CRC32();
+		crc.update(data);
+
+		ByteBuffer header = ByteBuffer.allocate(
+			RecipeIndexSnapshot.PREAMBLE_SIZE +
+			fingerprint.length + Integer.BYTES + Long.BYTES
+		);
+		header.putInt(RecipeIndexSnapshot.MAGIC);
+		header.putInt(RecipeIndexSnapshot.FORMAT_VERSION);
+		header.putInt(fingerprint.length);
+		header.put(fingerprint);
+		header.putInt(roleCount);
+		header.putLong(crc.getValue());
+
+		Files.createDirectories(path.getParent());
+		Path tempFile = Files.createTempFile(path.getParent(), null, null);
+		try {
+			try (OutputStream out = Files.newOutputStream(tempFile)) {
+				out.write(header.array());
+				out.write(data);
+			}
+			PathUtil.moveAtomicReplace(tempFile, path);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private byte[] toBytes() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(ingredients.size());
+			for (byte[] ingredient : ingredients) {
+				out.writeInt(ingredient.length);
+				out.write(ingredient);
+			}
+
+			out.writeInt(recipeTypes.size());
+			for (Map.Entry<String, Map<String, SavedRecipe>> recipeType : recipeTypes.entrySet()) {
+				writeString(out, recipeType.getKey());
+				Map<String, SavedRecipe> recipes = recipeType.getValue();
+				out.writeInt(recipes.size());
+				for (Map.Entry<String, SavedRecipe> recipe : recipes.entrySet()) {
+					writeString(out, recipe.getKey());
+					SavedRecipe savedRecipe = recipe.getValue();
+					out.writeLong(savedRecipe.contentHash());
+					for (int[] indexes : savedRecipe.ingredientIndexes()) {
+						out.writeInt(indexes.length);
+						for (int index : indexes) {
+							out.writeInt(index);
+						}
+					}
+				}
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		out.writeInt(string.length());
+		out.writeChars(string);
+	}
+
+	private record SavedRecipe(long contentHash, int[][] ingredientIndexes) {}
+}
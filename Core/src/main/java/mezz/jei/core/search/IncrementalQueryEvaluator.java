@@ -0,0 +1,184 @@
+package mezz.jei.core.search;
+
+import mezz.jei.core.util.CancellationToken;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Evaluates search queries into the ids of the matching elements.
+ * <p>
+ * The results for each part of the last query are remembered.
+ * When the next query only extends it (for example typing "iro" and then "iron"),
+ * the unchanged tokens are not searched again, and the previous results are narrowed
+ * with the results for the extended token.
+ * <p>
+ * Call {@link #invalidate()} whenever the searched elements change.
+ */
+public class IncrementalQueryEvaluator<T> {
+	private final ITokenSearcher<T> tokenSearcher;
+	private final IRefinementChecker<T> refinementChecker;
+
+	private List<CachedTokens<T>> lastResults = List.of();
+	private int lastElementCount = -1;
+
+	/**
+	 * @param tokenSearcher     finds the element ids for a single token.
+	 * @param refinementChecker returns true if every element found by the next token is also found by the previous token.
+	 */
+	public IncrementalQueryEvaluator(ITokenSearcher<T> tokenSearcher, IRefinementChecker<T> refinementChecker) {
+		this.tokenSearcher = tokenSearcher;
+		this.refinementChecker = refinementChecker;
+	}
+
+	/**
+	 * @param query        the non-empty parts of the query, matching elements from any part are included.
+	 * @param elementCount the number of elements, element ids are from 0 to elementCount - 1.
+	 * @return a new set containing the ids of all elements that match the query.
+	 */
+	public BitSet evaluate(List<SearchTokens<T>> query, int elementCount) {
+		return evaluate(query, elementCount, CancellationToken.NONE);
+	}
+
+	/**
+	 * @param query             the non-empty parts of the query, matching elements from any part are included.
+	 * @param elementCount      the number of elements, element ids are from 0 to elementCount - 1.
+	 * @param cancellationToken checked before searching each token, and passed to the token searcher.
+	 * @return a new set containing the ids of all elements that match the query.
+	 * @throws java.util.concurrent.CancellationException if the token is cancelled, the remembered results are not changed.
+	 */
+	public BitSet evaluate(List<SearchTokens<T>> query, int elementCount, CancellationToken cancellationToken) {
+		if (elementCount != lastElementCount) {
+			invalidate();
+			lastElementCount = elementCount;
+		}
+
+		List<CachedTokens<T>> results = new ArrayList<>(query.size());
+		BitSet combinedResults = new BitSet(elementCount);
+		for (int i = 0; i < query.size(); i++) {
+			SearchTokens<T> searchTokens = query.get(i);
+			CachedTokens<T> previous = i < lastResults.size() ? lastResults.get(i) : null;
+			CachedTokens<T> cachedTokens = evaluate(searchTokens, previous, cancellationToken);
+			results.add(cachedTokens);
+			combinedResults.or(cachedTokens.getResults(elementCount));
+		}
+		lastResults = results;
+		return combinedResults;
+	}
+
+	public void invalidate() {
+		lastResults = List.of();
+	}
+
+	private CachedTokens<T> evaluate(SearchTokens<T> searchTokens, @Nullable CachedTokens<T> previous, CancellationToken cancellationToken) {
+		List<T> toSearch = searchTokens.toSearch();
+		List<T> toRemove = searchTokens.toRemove();
+
+		final BitSet found;
+		if (previous != null && previous.toSearch.equals(toSearch)) {
+			found = previous.found;
+		} else if (previous != null && isRefinement(previous.toSearch, toSearch)) {
+			found = (BitSet) previous.found.clone();
+			if (!found.isEmpty()) {
+				T refinedToken = toSearch.getLast();
+				cancellationToken.throwIfCancelled();
+				found.and(tokenSearcher.getSearchResults(refinedToken, cancellationToken));
+			}
+		} else {
+			found = intersection(toSearch, cancellationToken);
+		}
+
+		final BitSet removed;
+		if (previous != null && previous.toRemove.equals(toRemove)) {
+			removed = previous.removed;
+		} else {
+			removed = union(toRemove, cancellationToken);
+		}
+
+		return new CachedTokens<>(List.copyOf(toSearch), List.copyOf(toRemove), found, removed);
+	}
+
+	/**
+	 * The next tokens are a refinement of the previous ones if they are the same
+	 * except for the last token, which only finds a subset of what the previous last token found.
+	 */
+	private boolean isRefinement(List<T> previous, List<T> next) {
+		int size = next.size();
+		if (size == 0 || size != previous.size()) {
+			return false;
+		}
+		int last = size - 1;
+		if (!previous.subList(0, last).equals(next.subList(0, last))) {
+			return false;
+		}
+		return refinementChecker.isRefinement(previous.get(last), next.get(last));
+	}
+
+	/**
+	 * Get the element ids that are found by every token.
+	 */
+	private BitSet intersection(List<T> tokens, CancellationToken cancellationToken) {
+		List<BitSet> sets = new ArrayList<>(tokens.size());
+		for (T token : tokens) {
+			cancellationToken.throwIfCancelled();
+			sets.add(tokenSearcher.getSearchResults(token, cancellationToken));
+		}
+
+		BitSet smallestSet = sets.stream()
+			.min(Comparator.comparingInt(BitSet::cardinality))
+			.orElseGet(BitSet::new);
+
+		BitSet results = (BitSet) smallestSet.clone();
+		for (BitSet set : sets) {
+			if (set == smallestSet) {
+				continue;
+			}
+			results.and(set);
+			if (results.isEmpty()) {
+				break;
+			}
+		}
+		return results;
+	}
+
+	private BitSet union(List<T> tokens, CancellationToken cancellationToken) {
+		BitSet results = new BitSet();
+		for (T token : tokens) {
+			cancellationToken.throwIfCancelled();
+			results.or(tokenSearcher.getSearchResults(token, cancellationToken));
+		}
+		return results;
+	}
+
+	private record CachedTokens<T>(List<T> toSearch, List<T> toRemove, BitSet found, BitSet removed) {
+		public BitSet getResults(int elementCount) {
+			if (toRemove.isEmpty()) {
+				return found;
+			}
+			BitSet results = (BitSet) found.clone();
+			if (results.isEmpty()) {
+				// when only removing, or when nothing was found, start from all elements
+				results.set(0, elementCount);
+			}
+			results.andNot(removed);
+			return results;
+		}
+	}
+
+	@FunctionalInterface
+	public interface ITokenSearcher<T> {
+		/**
+		 * Slow searches should check the cancellation token while they search,
+		 * and throw {@link java.util.concurrent.CancellationException} when it is cancelled.
+		 */
+		BitSet getSearchResults(T token, CancellationToken cancellationToken);
+	}
+
+	@FunctionalInterface
+	public interface IRefinementChecker<T> {
+		boolean isRefinement(T previous, T next);
+	}
+}
@@ -0,0 +1,100 @@
+package mezz.jei.core.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Fills the storage of a {@link PrefixedSearchable} a few elements at a time,
+ * so that an expensive storage can be built lazily in small steps instead of all at once.
+ * <p>
+ * Elements are added to the storage in the order they were given,
+ * so the finished storage is the same as one that was built eagerly.
+ */
+public class IncrementalStorageBuilder<T, I> {
+	private final PrefixedSearchable<T, I> searchable;
+	private final Function<T, I> valueGetter;
+	private final List<T> pending = new ArrayList<>();
+	private int nextIndex;
+	private int builtCount;
+
+	public IncrementalStorageBuilder(PrefixedSearchable<T, I> searchable, Function<T, I> valueGetter) {
+		this.searchable = searchable;
+		this.valueGetter = valueGetter;
+	}
+
+	public void add(T element) {
+		pending.add(element);
+	}
+
+	public void addAll(Collection<? extends T> elements) {
+		pending.addAll(elements);
+	}
+
+	public boolean isComplete() {
+		return nextIndex >= pending.size();
+	}
+
+	/**
+	 * Returns the number of elements that have been added to the storage so far.
+	 */
+	public int getBuiltCount() {
+		return builtCount;
+	}
+
+	/**
+	 * Returns the number of elements that still have to be added to the storage.
+	 */
+	public int getRemainingCount() {
+		return pending.size() - nextIndex;
+	}
+
+	/**
+	 * Adds pending elements to the storage until they are all added or the deadline has passed.
+	 * At least one element is added each call, so repeated calls always make progress.
+	 *
+	 * @param deadlineNanoTime the {@link System#nanoTime()} to stop at
+	 * @return true if the storage is complete
+	 */
+	public boolean build(long deadlineNanoTime) {
+		ISearchStorage<I> storage = searchable.getSearchStorage();
+		while (!isComplete()) {
+			buildNext(storage);
+			if (System.nanoTime() - deadlineNanoTime >= 0) {
+				break;
+			}
+		}
+		return onBuilt();
+	}
+
+	/**
+	 * Adds all pending elements to the storage.
+	 */
+	public void buildAll() {
+		ISearchStorage<I> storage = searchable.getSearchStorage();
+		while (!isComplete()) {
+			buildNext(storage);
+		}
+		onBuilt();
+	}
+
+	private void buildNext(ISearchStorage<I> storage) {
+		T element = pending.get(nextIndex++);
+		I value = valueGetter.apply(element);
+		for (String string : searchable.getStrings(element)) {
+			storage.put(string, value);
+		}
+		builtCount++;
+	}
+
+	private boolean onBuilt() {
+		if (isComplete()) {
+			// release the elements, they are referenced by the storage now
+			pending.clear();
+			nextIndex = 0;
+			return true;
+		}
+		return false;
+	}
+}
@@ -1,6 +1,7 @@
 package mezz.jei.core.search;
 
 import mezz.jei.core.collect.SetMultiMap;
+import mezz.jei.core.search.suffixarray.SuffixArray;
 import mezz.jei.core.search.suffixtree.GeneralizedSuffixTree;
 
 import java.util.Collection;
@@ -14,16 +15,26 @@ import java.util.function.Consumer;
  * when there are many values for each key.
  *
  * It stores a map of keys to a set of values.
- * The set values are shared with the internal {@link GeneralizedSuffixTree} to index and find them.
+ * The set values are shared with the internal storage ({@link GeneralizedSuffixTree} by default) to index and find them.
  * The sets values are modified directly when values with the same key are added.
+ *
+ * The internal storage can be swapped for a {@link SuffixArray} to save more memory.
  */
 public class LimitedStringStorage<T> implements ISearchStorage<T> {
 	private final SetMultiMap<String, T> multiMap = new SetMultiMap<>(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
-	private final GeneralizedSuffixTree<Set<T>> generalizedSuffixTree = new GeneralizedSuffixTree<>();
+	private final ISearchStorage<Set<T>> searchStorage;
+
+	public LimitedStringStorage() {
+		this(new GeneralizedSuffixTree<>());
+	}
+
+	public LimitedStringStorage(ISearchStorage<Set<T>> searchStorage) {
+		this.searchStorage = searchStorage;
+	}
 
 	@Override
 	public void getSearchResults(String token, Consumer<Collection<T>> resultsConsumer) {
-		generalizedSuffixTree.getSearchResults(token, resultSet -> {
+		searchStorage.getSearchResults(token, resultSet -> {
 			for (Collection<T> result : resultSet) {
 				resultsConsumer.accept(result);
 			}
@@ -42,12 +53,12 @@ public class LimitedStringStorage<T> implements ISearchStorage<T> {
 		multiMap.put(key, value);
 		if (isNewKey) {
 			Set<T> set = multiMap.get(key);
-			generalizedSuffixTree.put(key, set);
+			searchStorage.put(key, set);
 		}
 	}
 
 	@Override
 	public String statistics() {
-		return "LimitedStringStorage: " + generalizedSuffixTree.statistics();
+		return "LimitedStringStorage: " + searchStorage.statistics();
 	}
 }
@@ -3,24 +3,39 @@ package mezz.jei.core.search;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.util.Collection;
-import java.util.function.Supplier;
 
 public class PrefixInfo<T, I> {
 	private final char prefix;
 	private final IModeGetter modeGetter;
 	private final IStringsGetter<T> stringsGetter;
-	private final Supplier<ISearchStorage<I>> storageSupplier;
+	private final IStorageFactory<I> storageFactory;
+	private final boolean threadSafe;
 
 	public PrefixInfo(
 		char prefix,
 		IModeGetter modeGetter,
 		IStringsGetter<T> stringsGetter,
-		Supplier<ISearchStorage<I>> storageSupplier
+		IStorageFactory<I> storageFactory
+	) {
+		this(prefix, modeGetter, stringsGetter, storageFactory, true);
+	}
+
+	/**
+	 * @param threadSafe false if the strings getter must be called on the thread that created the search index,
+	 *                   for example because it calls into rendering code.
+	 */
+	public PrefixInfo(
+		char prefix,
+		IModeGetter modeGetter,
+		IStringsGetter<T> stringsGetter,
+		IStorageFactory<I> storageFactory,
+		boolean threadSafe
 	) {
 		this.prefix = prefix;
 		this.modeGetter = modeGetter;
 		this.stringsGetter = stringsGetter;
-		this.storageSupplier = storageSupplier;
+		this.storageFactory = storageFactory;
+		this.threadSafe = threadSafe;
 	}
 
 	public char getPrefix() {
@@ -31,8 +46,15 @@ public class PrefixInfo<T, I> {
 		return modeGetter.getMode();
 	}
 
-	public ISearchStorage<I> createStorage() {
-		return this.storageSupplier.get();
+	public ISearchStorage<I> createStorage(SearchStorageType storageType) {
+		return this.storageFactory.create(storageType);
+	}
+
+	/**
+	 * Returns true if {@link #getStrings} can be called from a background thread.
+	 */
+	public boolean isThreadSafe() {
+		return threadSafe;
 	}
 
 	@Unmodifiable
@@ -46,6 +68,11 @@ public class PrefixInfo<T, I> {
 		Collection<String> getStrings(T element);
 	}
 
+	@FunctionalInterface
+	public interface IStorageFactory<I> {
+		ISearchStorage<I> create(SearchStorageType storageType);
+	}
+
 	@FunctionalInterface
 	public interface IModeGetter {
 		SearchMode getMode();
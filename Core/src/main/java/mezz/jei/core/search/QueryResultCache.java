@@ -0,0 +1,100 @@
+package mezz.jei.core.search;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache of search results, keyed by the normalized query text.
+ * Results are stored as arrays of element ids to keep them compact.
+ * <p>
+ * The cache is bounded by both the number of queries and the total number of ids it holds.
+ * Every {@link #invalidate()} starts a new generation, and results that were computed
+ * for an older generation are not stored, so a search that raced with an invalidation cannot be cached.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class QueryResultCache {
+	private final int maxQueries;
+	private final long maxTotalIds;
+	private final LinkedHashMap<String, int[]> results = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalIds;
+	private int generation;
+	private long hitCount;
+	private long missCount;
+
+	public QueryResultCache(int maxQueries, long maxTotalIds) {
+		this.maxQueries = maxQueries;
+		this.maxTotalIds = maxTotalIds;
+	}
+
+	/**
+	 * Returns the cached element ids for the query, or null if they are not cached.
+	 */
+	@Nullable
+	public int[] get(String query) {
+		int[] ids = results.get(query);
+		if (ids == null) {
+			missCount++;
+		} else {
+			hitCount++;
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns the current generation, to be passed to {@link #put} with results computed from now on.
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Caches the element ids for the query, if they were computed in the current generation.
+	 */
+	public void put(String query, int[] ids, int generation) {
+		if (generation != this.generation || ids.length > maxTotalIds) {
+			return;
+		}
+		int[] previous = results.put(query, ids);
+		if (previous != null) {
+			totalIds -= previous.length;
+		}
+		totalIds += ids.length;
+
+		Iterator<Map.Entry<String, int[]>> iterator = results.entrySet().iterator();
+		while ((results.size() > maxQueries || totalIds > maxTotalIds) && iterator.hasNext()) {
+			Map.Entry<String, int[]> eldest = iterator.next();
+			totalIds -= eldest.getValue().length;
+			iterator.remove();
+		}
+	}
+
+	public void invalidate() {
+		results.clear();
+		totalIds = 0;
+		generation++;
+	}
+
+	public int size() {
+		return results.size();
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	public String statistics() {
+		return "QueryResultCache:" +
+			"\nQueries: " + results.size() +
+			"\nIds: " + totalIds +
+			"\nHits: " + hitCount +
+			"\nMisses: " + missCount;
+	}
+}
@@ -0,0 +1,15 @@
+package mezz.jei.core.search;
+
+import mezz.jei.core.search.suffixarray.SuffixArray;
+import mezz.jei.core.search.suffixtree.GeneralizedSuffixTree;
+
+public enum SearchStorageType {
+	SUFFIX_TREE, SUFFIX_ARRAY;
+
+	public <T> ISearchStorage<T> createStorage() {
+		return switch (this) {
+			case SUFFIX_TREE -> new GeneralizedSuffixTree<>();
+			case SUFFIX_ARRAY -> new SuffixArray<>();
+		};
+	}
+}
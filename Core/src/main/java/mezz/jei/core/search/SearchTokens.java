@@ -0,0 +1,13 @@
+package mezz.jei.core.search;
+
+import java.util.List;
+
+/**
+ * One "|"-separated part of a search query.
+ * An element matches if it is found by every token in {@link #toSearch} and by none of the tokens in {@link #toRemove}.
+ */
+public record SearchTokens<T>(List<T> toSearch, List<T> toRemove) {
+	public boolean isEmpty() {
+		return toSearch.isEmpty() && toRemove.isEmpty();
+	}
+}
@@ -0,0 +1,160 @@
+package mezz.jei.core.search.pattern;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the regular expression tokens in search filter text, like {@code /^minecraft:.*_log$/} or {@code &/Ingot|Nugget/},
+ * so that the rest of the filter text can be handled without changing them.
+ * <p>
+ * A regular expression token starts with a slash, after an optional {@code -} and prefix,
+ * and ends with a slash that is followed by whitespace, {@code |} or the end of the text.
+ * It can only contain whitespace when the token is in quotes.
+ */
+public final class RegexTokens {
+	private RegexTokens() {
+
+	}
+
+	/**
+	 * Lowercases the filter text, except for its regular expression tokens.
+	 * Regular expressions are matched ignoring case instead, see {@link SearchPattern#parse},
+	 * so that escapes like {@code \D} or {@code \W} keep their meaning.
+	 */
+	public static String toLowerCase(String filterText) {
+		List<Span> regexes = findRegexes(filterText);
+		if (regexes.isEmpty()) {
+			return filterText.toLowerCase();
+		}
+		StringBuilder builder = new StringBuilder(filterText.length());
+		int start = 0;
+		for (Span regex : regexes) {
+			builder.append(filterText.substring(start, regex.start()).toLowerCase());
+			builder.append(filterText, regex.start(), regex.end());
+			start = regex.end();
+		}
+		builder.append(filterText.substring(start).toLowerCase());
+		return builder.toString();
+	}
+
+	/**
+	 * Splits the filter text at each {@code |}, except for the ones in regular expression tokens,
+	 * where they are an alternation in the regular expression.
+	 */
+	public static List<String> splitAlternatives(String filterText) {
+		List<String> alternatives = new ArrayList<>();
+		List<Span> regexes = findRegexes(filterText);
+		int regexIndex = 0;
+		int start = 0;
+		int i = 0;
+		while (i < filterText.length()) {
+			if (regexIndex < regexes.size() && regexes.get(regexIndex).start() == i) {
+				i = regexes.get(regexIndex).end();
+				regexIndex++;
+				continue;
+			}
+			if (filterText.charAt(i) == '|') {
+				alternatives.add(filterText.substring(start, i));
+				start = i + 1;
+			}
+			i++;
+		}
+		alternatives.add(filterText.substring(start));
+		return alternatives;
+	}
+
+	private static List<Span> findRegexes(String filterText) {
+		List<Span> regexes = new ArrayList<>();
+		int i = 0;
+		while (i < filterText.length()) {
+			Span regex = findRegex(filterText, i);
+			if (regex != null) {
+				regexes.add(regex);
+				i = regex.end();
+				if (i < filterText.length() && filterText.charAt(i) == '"') {
+					i++;
+				}
+			} else {
+				i = skipToken(filterText, i);
+			}
+			while (i < filterText.length() && isSeparator(filterText.charAt(i))) {
+				i++;
+			}
+		}
+		return regexes;
+	}
+
+	/**
+	 * Returns the span from the opening slash to after the closing slash,
+	 * if the token that starts at the given index is a regular expression.
+	 */
+	@Nullable
+	private static Span findRegex(String filterText, int tokenStart) {
+		int length = filterText.length();
+		int i = tokenStart;
+		if (i < length && filterText.charAt(i) == '-') {
+			i++;
+		}
+		boolean quoted = i < length && filterText.charAt(i) == '"';
+		if (quoted) {
+			i++;
+		}
+		// prefixes like @ or & are symbols
+		if (i + 1 < length && filterText.charAt(i + 1) == '/' && isPrefix(filterText.charAt(i))) {
+			i++;
+		}
+		if (i >= length || filterText.charAt(i) != '/') {
+			return null;
+		}
+		int open = i;
+		for (i = open + 1; i < length; i++) {
+			char c = filterText.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '/' && i > open + 1 && isRegexEnd(filterText, i + 1, quoted)) {
+				return new Span(open, i + 1);
+			} else if (!quoted && isSeparator(c) && c != '|') {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private static boolean isRegexEnd(String filterText, int next, boolean quoted) {
+		if (next >= filterText.length()) {
+			return true;
+		}
+		char c = filterText.charAt(next);
+		return quoted ? c == '"' : isSeparator(c);
+	}
+
+	/**
+	 * Returns the index after the token that starts at the given index, which is not a regular expression.
+	 */
+	private static int skipToken(String filterText, int tokenStart) {
+		int i = tokenStart;
+		if (i < filterText.length() && filterText.charAt(i) == '-') {
+			i++;
+		}
+		if (i < filterText.length() && filterText.charAt(i) == '"') {
+			int end = filterText.indexOf('"', i + 1);
+			return end < 0 ? filterText.length() : end + 1;
+		}
+		while (i < filterText.length() && !isSeparator(filterText.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isSeparator(char c) {
+		return Character.isWhitespace(c) || c == '|';
+	}
+
+	private static boolean isPrefix(char c) {
+		return c != '/' && c != '"' && !isSeparator(c) && !Character.isLetterOrDigit(c);
+	}
+
+	private record Span(int start, int end) {}
+}
@@ -0,0 +1,351 @@
+package mezz.jei.core.search.pattern;
+
+import mezz.jei.core.search.ISearchable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A search token that is a glob or a regular expression instead of plain text.
+ * <p>
+ * Globs contain {@code *} (any number of characters) and some other text, like {@code ingot_*}.
+ * In a glob, {@code ?} matches one character, like {@code c?al*}.
+ * Tokens with only {@code ?} are searched as plain text, so that searching for names like "what?" still works.
+ * Regular expressions are wrapped in slashes, like {@code /^minecraft:.*_log$/}, and ignore case like the rest of the search.
+ * Like the rest of the search, patterns match anywhere in a string unless they are anchored with {@code ^} or {@code $}.
+ * <p>
+ * Patterns are found with an index by first searching for the literal text that every match must contain,
+ * and then only checking the elements found that way against the full pattern.
+ */
+public class SearchPattern {
+	/**
+	 * Once there are this few candidates, checking them is cheaper than searching for more literals.
+	 */
+	private static final int MAX_CANDIDATES_TO_CHECK = 256;
+
+	private final Pattern pattern;
+	private final List<String> requiredLiterals;
+
+	private SearchPattern(Pattern pattern, List<String> requiredLiterals) {
+		this.pattern = pattern;
+		this.requiredLiterals = requiredLiterals;
+	}
+
+	/**
+	 * Returns the pattern for a glob or regular expression token,
+	 * or empty if the token is plain text or an invalid regular expression.
+	 */
+	public static Optional<SearchPattern> parse(String token) {
+		if (isRegex(token)) {
+			String regex = token.substring(1, token.length() - 1);
+			try {
+				// the regex keeps its case, so that escapes like \D keep their meaning, and matches the lowercase text ignoring case
+				Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+				List<String> requiredLiterals = extractRequiredLiterals(regex).stream()
+					.map(String::toLowerCase)
+					.toList();
+				return Optional.of(new SearchPattern(pattern, requiredLiterals));
+			} catch (PatternSyntaxException e) {
+				return Optional.empty();
+			}
+		}
+		if (isGlob(token)) {
+			return Optional.of(new SearchPattern(globToPattern(token), extractGlobLiterals(token)));
+		}
+		return Optional.empty();
+	}
+
+	public static boolean isRegex(String token) {
+		return token.length() > 2 && token.charAt(0) == '/' && token.charAt(token.length() - 1) == '/';
+	}
+
+	public static boolean isGlob(String token) {
+		if (token.indexOf('*') < 0) {
+			return false;
+		}
+		// a token of only wildcards would match everything, search for it as plain text instead
+		for (int i = 0; i < token.length(); i++) {
+			char c = token.charAt(i);
+			if (c != '*' && c != '?') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the literal strings that every match must contain, longest first.
+	 */
+	public List<String> getRequiredLiterals() {
+		return requiredLiterals;
+	}
+
+	public boolean matches(String string) {
+		return pattern.matcher(string).find();
+	}
+
+	public boolean matchesAny(Collection<String> strings) {
+		for (String string : strings) {
+			if (matches(string)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the elements that might match: the ones found by searching for every required literal.
+	 * The elements still have to be checked with {@link #matches}.
+	 * Returns every element if the pattern has no required literals.
+	 */
+	public <T> Set<T> findCandidates(ISearchable<T> searchable) {
+		Set<T> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+		if (requiredLiterals.isEmpty()) {
+			searchable.getAllElements(candidates::addAll);
+			return candidates;
+		}
+		searchable.getSearchResults(requiredLiterals.getFirst(), candidates::addAll);
+		for (int i = 1; i < requiredLiterals.size() && candidates.size() > MAX_CANDIDATES_TO_CHECK; i++) {
+			Set<T> found = Collections.newSetFromMap(new IdentityHashMap<>());
+			searchable.getSearchResults(requiredLiterals.get(i), found::addAll);
+			candidates.retainAll(found);
+		}
+		return candidates;
+	}
+
+	private static Pattern globToPattern(String glob) {
+		StringBuilder regex = new StringBuilder();
+		StringBuilder literal = new StringBuilder();
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+			if (c == '*' || c == '?') {
+				if (!literal.isEmpty()) {
+					regex.append(Pattern.quote(literal.toString()));
+					literal.setLength(0);
+				}
+				regex.append(c == '*' ? ".*" : ".");
+			} else {
+				literal.append(c);
+			}
+		}
+		if (!literal.isEmpty()) {
+			regex.append(Pattern.quote(literal.toString()));
+		}
+		return Pattern.compile(regex.toString());
+	}
+
+	private static List<String> extractGlobLiterals(String glob) {
+		List<String> literals = new ArrayList<>();
+		for (String literal : glob.split("[*?]")) {
+			if (!literal.isEmpty()) {
+				literals.add(literal);
+			}
+		}
+		return sortLongestFirst(literals);
+	}
+
+	/**
+	 * Returns literal strings that every match of the regular expression must contain.
+	 * <p>
+	 * This is conservative: anything that is not plain text, like groups, character classes, optional characters
+	 * and escapes like {@code \d} or {@code \x2d}, ends the current literal and is skipped along with any operand.
+	 * An alternation anywhere outside a group means nothing is required.
+	 */
+	public static List<String> extractRequiredLiterals(String regex) {
+		List<String> literals = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		// true if the last atom was a character that was added to the literal
+		boolean lastAtomIsLiteral = false;
+		int i = 0;
+		while (i < regex.length()) {
+			char c = regex.charAt(i);
+			switch (c) {
+				case '\\' -> {
+					if (i + 1 >= regex.length()) {
+						return List.of();
+					}
+					char escaped = regex.charAt(i + 1);
+					if (escaped == 'Q') {
+						// quoted text is literal, but it is rare enough that it is not worth handling
+						addLiteral(literals, literal);
+						return sortLongestFirst(literals);
+					}
+					if (Character.isLetterOrDigit(escaped)) {
+						// character classes like \d, anchors like \b, back references and escapes with operands like \x2d
+						addLiteral(literals, literal);
+						lastAtomIsLiteral = false;
+						i = skipEscape(regex, i);
+					} else {
+						literal.append(escaped);
+						lastAtomIsLiteral = true;
+						i += 2;
+					}
+				}
+				case '[' -> {
+					addLiteral(literals, literal);
+					lastAtomIsLiteral = false;
+					i = skipCharacterClass(regex, i);
+				}
+				case '(' -> {
+					addLiteral(literals, literal);
+					lastAtomIsLiteral = false;
+					i = skipGroup(regex, i);
+				}
+				case '|' -> {
+					return List.of();
+				}
+				case '*', '?', '{' -> {
+					// the previous character is optional
+					if (lastAtomIsLiteral) {
+						literal.setLength(literal.length() - 1);
+					}
+					addLiteral(literals, literal);
+					lastAtomIsLiteral = false;
+					if (c == '{') {
+						int end = regex.indexOf('}', i);
+						i = end < 0 ? regex.length() : end + 1;
+					} else {
+						i++;
+					}
+				}
+				case '+' -> {
+					// the previous character is required, but it may repeat
+					addLiteral(literals, literal);
+					lastAtomIsLiteral = false;
+					i++;
+				}
+				case '.', '^', '$' -> {
+					addLiteral(literals, literal);
+					lastAtomIsLiteral = false;
+					i++;
+				}
+				default -> {
+					literal.append(c);
+					lastAtomIsLiteral = true;
+					i++;
+				}
+			}
+		}
+		addLiteral(literals, literal);
+		return sortLongestFirst(literals);
+	}
+
+	private static void addLiteral(List<String> literals, StringBuilder literal) {
+		if (!literal.isEmpty()) {
+			literals.add(literal.toString());
+			literal.setLength(0);
+		}
+	}
+
+	private static List<String> sortLongestFirst(List<String> literals) {
+		literals.sort(Comparator.comparingInt(String::length).reversed());
+		return Collections.unmodifiableList(literals);
+	}
+
+	/**
+	 * Returns the index after the escape that starts at the given index, including its operand,
+	 * like the digits of {@code \x2d} or {@code \0101}, or the name in {@code \p{L}}.
+	 */
+	private static int skipEscape(String regex, int start) {
+		char escaped = regex.charAt(start + 1);
+		int i = start + 2;
+		return switch (escaped) {
+			case 'x' -> i < regex.length() && regex.charAt(i) == '{' ? skipPast(regex, i, '}') : Math.min(i + 2, regex.length());
+			case 'u' -> Math.min(i + 4, regex.length());
+			case 'c' -> Math.min(i + 1, regex.length());
+			case 'p', 'P' -> i < regex.length() && regex.charAt(i) == '{' ? skipPast(regex, i, '}') : Math.min(i + 1, regex.length());
+			case 'N' -> skipPast(regex, i, '}');
+			case 'k' -> skipPast(regex, i, '>');
+			case '0' -> {
+				// octal escapes have up to three digits
+				int end = Math.min(i + 3, regex.length());
+				while (i < end && regex.charAt(i) >= '0' && regex.charAt(i) <= '7') {
+					i++;
+				}
+				yield i;
+			}
+			default -> {
+				// back references can have more than one digit
+				if (Character.isDigit(escaped)) {
+					while (i < regex.length() && Character.isDigit(regex.charAt(i))) {
+						i++;
+					}
+				}
+				yield i;
+			}
+		};
+	}
+
+	private static int skipPast(String regex, int start, char end) {
+		int index = regex.indexOf(end, start);
+		return index < 0 ? regex.length() : index + 1;
+	}
+
+	/**
+	 * Returns the index after the character class that starts at the given index.
+	 */
+	private static int skipCharacterClass(String regex, int start) {
+		int depth = 0;
+		int i = start;
+		while (i < regex.length()) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i += 2;
+				continue;
+			}
+			if (c == '[') {
+				depth++;
+				// a ']' right after the opening bracket is part of the class
+				if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+					i++;
+				} else if (i + 2 < regex.length() && regex.charAt(i + 1) == '^' && regex.charAt(i + 2) == ']') {
+					i += 2;
+				}
+			} else if (c == ']') {
+				depth--;
+				if (depth == 0) {
+					return i + 1;
+				}
+			}
+			i++;
+		}
+		return regex.length();
+	}
+
+	/**
+	 * Returns the index after the group that starts at the given index.
+	 */
+	private static int skipGroup(String regex, int start) {
+		int depth = 0;
+		int i = start;
+		while (i < regex.length()) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i += 2;
+				continue;
+			}
+			if (c == '[') {
+				i = skipCharacterClass(regex, i);
+				continue;
+			}
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+				if (depth == 0) {
+					return i + 1;
+				}
+			}
+			i++;
+		}
+		return regex.length();
+	}
+}
@@ -0,0 +1,38 @@
+package mezz.jei.core.search.snapshot;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Builds a hash of everything that the strings in a {@link SearchIndexSnapshot} depend on.
+ * A snapshot is only reused when the fingerprint is exactly the same, so every value that can change
+ * the search strings (the elements, the language, the search config) must be added.
+ */
+public class SearchIndexFingerprint {
+	private final Hasher hasher = Hashing.sha256().newHasher();
+
+	public SearchIndexFingerprint() {
+		hasher.putInt(SearchIndexSnapshot.FORMAT_VERSION);
+	}
+
+	public SearchIndexFingerprint add(String value) {
+		// the length keeps consecutive strings from running together
+		hasher.putInt(value.length());
+		hasher.putUnencodedChars(value);
+		return this;
+	}
+
+	public SearchIndexFingerprint add(boolean value) {
+		hasher.putBoolean(value);
+		return this;
+	}
+
+	public SearchIndexFingerprint add(int value) {
+		hasher.putInt(value);
+		return this;
+	}
+
+	public byte[] build() {
+		return hasher.hash().asBytes();
+	}
+}
@@ -0,0 +1,204 @@
+package mezz.jei.core.search.snapshot;
+
+import it.unimi.dsi.fastutil.chars.Char2ObjectMap;
+import it.unimi.dsi.fastutil.chars.Char2ObjectOpenHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * The search strings of every element for each search prefix, saved to disk
+ * so that a search index can be rebuilt without asking every element for its strings again.
+ * <p>
+ * The file starts with a header holding the fingerprint of everything the strings depend on,
+ * followed by one section per prefix. A snapshot is only read when its fingerprint matches,
+ * and the sections are memory-mapped instead of being read into the heap.
+ * <p>
+ * Each section holds the strings for every element in order:
+ * the number of strings, then the length and UTF-16 chars of each string.
+ *
+ * @see SearchIndexSnapshotWriter
+ */
+public class SearchIndexSnapshot {
+	private static final Logger LOGGER = LogManager.getLogger();
+	static final int MAGIC = 0x4A454953; // "JEIS"
+	static final int FORMAT_VERSION = 1;
+	static final int MAX_SECTIONS = 256;
+	/**
+	 * magic, format version, fingerprint length
+	 */
+	static final int PREAMBLE_SIZE = Integer.BYTES * 3;
+	/**
+	 * prefix, offset, length
+	 */
+	static final int SECTION_ENTRY_SIZE = Character.BYTES + Integer.BYTES * 2;
+
+	private final ByteBuffer data;
+	private final Char2ObjectMap<Section> sections;
+	private final int elementCount;
+
+	private SearchIndexSnapshot(ByteBuffer data, Char2ObjectMap<Section> sections, int elementCount) {
+		this.data = data;
+		this.sections = sections;
+		this.elementCount = elementCount;
+	}
+
+	/**
+	 * Reads the snapshot at the given path.
+	 *
+	 * @return the snapshot, or {@link Optional#empty()} if the file is missing, corrupt,
+	 * or was saved for a different fingerprint or element count.
+	 */
+	public static Optional<SearchIndexSnapshot> read(Path path, byte[] fingerprint, int elementCount) {
+		if (!Files.isRegularFile(path)) {
+			return Optional.empty();
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return read(channel, fingerprint, elementCount);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Failed to read the search index snapshot: {}", path, e);
+			return Optional.empty();
+		}
+	}
+
+	private static Optional<SearchIndexSnapshot> read(FileChannel channel, byte[] fingerprint, int expectedElementCount) throws IOException {
+		// read the header normally, so that nothing is mapped if the snapshot is out of date
+		ByteBuffer preamble = readFully(channel, 0, PREAMBLE_SIZE);
+		if (preamble.getInt() != MAGIC || preamble.getInt() != FORMAT_VERSION) {
+			return Optional.empty();
+		}
+		int fingerprintLength = preamble.getInt();
+		if (fingerprintLength != fingerprint.length) {
+			return Optional.empty();
+		}
+
+		long position = PREAMBLE_SIZE;
+		ByteBuffer fingerprintHeader = readFully(channel, position, fingerprintLength + Integer.BYTES * 2);
+		position += fingerprintHeader.capacity();
+		byte[] savedFingerprint = new byte[fingerprintLength];
+		fingerprintHeader.get(savedFingerprint);
+		if (!Arrays.equals(savedFingerprint, fingerprint)) {
+			return Optional.empty();
+		}
+		int elementCount = fingerprintHeader.getInt();
+		if (elementCount != expectedElementCount) {
+			return Optional.empty();
+		}
+		int sectionCount = fingerprintHeader.getInt();
+		if (sectionCount < 0 || sectionCount > MAX_SECTIONS) {
+			return Optional.empty();
+		}
+
+		ByteBuffer sectionTable = readFully(channel, position, sectionCount * SECTION_ENTRY_SIZE + Long.BYTES);
+		position += sectionTable.capacity();
+		long dataLength = channel.size() - position;
+		if (dataLength > Integer.MAX_VALUE) {
+			return Optional.empty();
+		}
+
+		Char2ObjectMap<Section> sections = new Char2ObjectOpenHashMap<>(sectionCount);
+		for (int i = 0; i < sectionCount; i++) {
+			char prefix = sectionTable.getChar();
+			int offset = sectionTable.getInt();
+			int length = sectionTable.getInt();
+			if (offset < 0 || length < 0 || (long) offset + length > dataLength) {
+				return Optional.empty();
+			}
+			sections.put(prefix, new Section(offset, length));
+		}
+		long checksum = sectionTable.getLong();
+
+		MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, position, dataLength);
+		CRC32 crc = new CRC32();
+		crc.update(data.duplicate());
+		if (crc.getValue() != checksum) {
+			LOGGER.warn("The search index snapshot is corrupt, ignoring it.");
+			return Optional.empty();
+		}
+		return Optional.of(new SearchIndexSnapshot(data, sections, elementCount));
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position + buffer.position());
+			if (read < 0) {
+				throw new EOFException("Unexpected end of file");
+			}
+		}
+		return buffer.flip();
+	}
+
+	public boolean hasSection(char prefix) {
+		return sections.containsKey(prefix);
+	}
+
+	/**
+	 * Returns a reader for the strings saved for the given prefix.
+	 * Readers for different prefixes can be used from different threads.
+	 *
+	 * @throws IllegalArgumentException if there is no section for the prefix
+	 */
+	public SectionReader getSectionReader(char prefix) {
+		Section section = sections.get(prefix);
+		if (section == null) {
+			throw new IllegalArgumentException("The search index snapshot has no strings for prefix: " + prefix);
+		}
+		ByteBuffer sectionData = data.slice(section.offset(), section.length());
+		return new SectionReader(sectionData, elementCount);
+	}
+
+	private record Section(int offset, int length) {}
+
+	public static class SectionReader {
+		private final ByteBuffer buffer;
+		private int remainingElements;
+
+		private SectionReader(ByteBuffer buffer, int elementCount) {
+			this.buffer = buffer;
+			this.remainingElements = elementCount;
+		}
+
+		/**
+		 * Returns the strings for the next element.
+		 *
+		 * @throws IllegalStateException if the section is corrupt or has no more elements
+		 */
+		public List<String> next() {
+			if (remainingElements <= 0) {
+				throw new IllegalStateException("The search index snapshot section has no more elements");
+			}
+			remainingElements--;
+
+			int count = buffer.getInt();
+			if (count < 0) {
+				throw new IllegalStateException("Invalid string count: " + count);
+			}
+			List<String> strings = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				int length = buffer.getInt();
+				if (length < 0 || length > buffer.remaining() / Character.BYTES) {
+					throw new IllegalStateException("Invalid string length: " + length);
+				}
+				char[] chars = new char[length];
+				buffer.asCharBuffer().get(chars);
+				buffer.position(buffer.position() + length * Character.BYTES);
+				strings.add(new String(chars));
+			}
+			return strings;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package mezz.jei.core.search.snapshot;
+
+import it.unimi.dsi.fastutil.chars.Char2ObjectMap;
+import it.unimi.dsi.fastutil.chars.Char2ObjectRBTreeMap;
+import mezz.jei.core.util.PathUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Collects the strings of every element for each search prefix while a search index is built,
+ * and writes them as a {@link SearchIndexSnapshot}.
+ */
+public class SearchIndexSnapshotWriter {
+	private final Char2ObjectMap<SectionWriter> sections = new Char2ObjectRBTreeMap<>();
+
+	/**
+	 * Returns the writer for the strings of the given prefix.
+	 * Writers for different prefixes can be used from different threads.
+	 */
+	public synchronized SectionWriter getSectionWriter(char prefix) {
+		return sections.computeIfAbsent(prefix, p -> new SectionWriter());
+	}
+
+	/**
+	 * Writes the snapshot to a temporary file and then moves it to the given path,
+	 * so that a partly written snapshot is never read.
+	 *
+	 * @throws IllegalStateException if the sections have different numbers of elements
+	 */
+	public synchronized void write(Path path, byte[] fingerprint) throws IOException {
+		int elementCount = -1;
+		for (SectionWriter section : sections.values()) {
+			int size = section.elementStrings.size();
+			if (elementCount == -1) {
+				elementCount = size;
+			} else if (elementCount != size) {
+				throw new IllegalStateException("Search index snapshot sections have different element counts: " + elementCount + ", " + size);
+			}
+		}
+		elementCount = Math.max(elementCount, 0);
+
+		List<byte[]> sectionData = new ArrayList<>(sections.size());
+		for (SectionWriter section : sections.values()) {
+			sectionData.add(section.toBytes());
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(
+			SearchIndexSnapshot.PREAMBLE_SIZE +
+			fingerprint.length + Integer.BYTES * 2 +
+			sections.size() * SearchIndexSnapshot.SECTION_ENTRY_SIZE + Long.BYTES
+		);
+		header.putInt(SearchIndexSnapshot.MAGIC);
+		header.putInt(SearchIndexSnapshot.FORMAT_VERSION);
+		header.putInt(fingerprint.length);
+		header.put(fingerprint);
+		header.putInt(elementCount);
+		header.putInt(sections.size());
+		CRC32 crc = new CRC32();
+		int offset = 0;
+		int i = 0;
+		for (char prefix : sections.keySet()) {
+			byte[] data = sectionData.get(i++);
+			if (offset + (long) data.length > Integer.MAX_VALUE) {
+				throw new IOException("The search index snapshot is too large");
+			}
+			header.putChar(prefix);
+			header.putInt(offset);
+			header.putInt(data.length);
+			crc.update(data);
+			offset += data.length;
+		}
+		header.putLong(crc.getValue());
+		header.flip();
+
+		Files.createDirectories(path.getParent());
+		Path tempFile = Files.createTempFile(path.getParent(), null, null);
+		try {
+			try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				writeFully(channel, header);
+				for (byte[] data : sectionData) {
+					writeFully(channel, ByteBuffer.wrap(data));
+				}
+			}
+			PathUtil.moveAtomicReplace(tempFile, path);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	public static class SectionWriter {
+		private final List<Collection<String>> elementStrings = new ArrayList<>();
+
+		private SectionWriter() {}
+
+		/**
+		 * Adds the strings for the next element.
+		 * The collection is kept until the snapshot is written, so it must not be modified.
+		 */
+		public void add(Collection<String> strings) {
+			elementStrings.add(strings);
+		}
+
+		private byte[] toBytes() throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (DataOutputStream out = new DataOutputStream(bytes)) {
+				for (Collection<String> strings : elementStrings) {
+					out.writeInt(strings.size());
+					for (String string : strings) {
+						out.writeInt(string.length());
+						out.writeChars(string);
+					}
+				}
+			}
+			return bytes.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,307 @@
+package mezz.jei.core.search.suffixarray;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import mezz.jei.core.search.ISearchStorage;
+import mezz.jei.core.search.suffixtree.GeneralizedSuffixTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A compact alternative to {@link GeneralizedSuffixTree} that stores the index in a few primitive arrays.
+ * <p>
+ * All keys are concatenated into one char array (separated by {@link #TERMINATOR}),
+ * and the suffix array holds the start position of every suffix of every key, sorted lexicographically.
+ * A search is two binary searches for the range of suffixes that start with the word,
+ * so it has the same results as {@link GeneralizedSuffixTree#getSearchResults} while using
+ * about 6 bytes per indexed character instead of a tree of node objects.
+ * <p>
+ * Keys that are put after the array has been built are kept in a small pending list and searched linearly,
+ * they are merged into the suffix array once there are enough of them to make rebuilding worthwhile.
+ * This keeps adding ingredients at runtime cheap.
+ * <p>
+ * Values are compared by identity, like the sets used by {@link mezz.jei.core.search.LimitedStringStorage}.
+ */
+public class SuffixArray<T> implements ISearchStorage<T> {
+	/**
+	 * Separates keys in {@link #text}.
+	 * U+FFFF is a Unicode noncharacter, so it does not appear in display names or tooltips.
+	 */
+	private static final char TERMINATOR = '\uFFFF';
+	private static final int MIN_PENDING_KEYS_FOR_REBUILD = 256;
+
+	private final List<T> values = new ArrayList<>();
+	private final Reference2IntMap<T> valueIds = new Reference2IntOpenHashMap<>();
+
+	/**
+	 * Indexed keys, each followed by a {@link #TERMINATOR}.
+	 */
+	private char[] text = new char[0];
+	/**
+	 * The start position of each indexed key in {@link #text}, plus one final entry for the end of the text.
+	 */
+	private int[] keyStarts = new int[]{0};
+	/**
+	 * The value ids for indexed key k are keyValues[keyValueStarts[k]] to keyValues[keyValueStarts[k + 1] - 1].
+	 */
+	private int[] keyValueStarts = new int[]{0};
+	private int[] keyValues = new int[0];
+	/**
+	 * Positions in {@link #text} of every suffix, sorted.
+	 */
+	private int[] suffixes = new int[0];
+
+	private final Object2IntMap<String> pendingKeys = new Object2IntOpenHashMap<>();
+	private final List<IntArrayList> pendingKeyValues = new ArrayList<>();
+
+	public SuffixArray() {
+		this.valueIds.defaultReturnValue(-1);
+		this.pendingKeys.defaultReturnValue(-1);
+	}
+
+	@Override
+	public void getSearchResults(String token, Consumer<Collection<T>> resultsConsumer) {
+		if (token.isEmpty()) {
+			return;
+		}
+		if (shouldRebuild()) {
+			rebuild();
+		}
+
+		BitSet foundKeys = new BitSet();
+		BitSet foundValues = new BitSet(values.size());
+
+		int start = lowerBound(token);
+		int end = upperBound(token, start);
+		for (int i = start; i < end; i++) {
+			int key = getKey(suffixes[i]);
+			if (!foundKeys.get(key)) {
+				foundKeys.set(key);
+				for (int v = keyValueStarts[key]; v < keyValueStarts[key + 1]; v++) {
+					foundValues.set(keyValues[v]);
+				}
+			}
+		}
+
+		for (Object2IntMap.Entry<String> entry : pendingKeys.object2IntEntrySet()) {
+			if (entry.getKey().contains(token)) {
+				IntArrayList valueIds = pendingKeyValues.get(entry.getIntValue());
+				for (int i = 0; i < valueIds.size(); i++) {
+					foundValues.set(valueIds.getInt(i));
+				}
+			}
+		}
+
+		if (!foundValues.isEmpty()) {
+			List<T> results = new ArrayList<>(foundValues.cardinality());
+			for (int v = foundValues.nextSetBit(0); v >= 0; v = foundValues.nextSetBit(v + 1)) {
+				results.add(values.get(v));
+			}
+			resultsConsumer.accept(Collections.unmodifiableList(results));
+		}
+	}
+
+	@Override
+	public void getAllElements(Consumer<Collection<T>> resultsConsumer) {
+		if (!values.isEmpty()) {
+			resultsConsumer.accept(Collections.unmodifiableList(values));
+		}
+	}
+
+	@Override
+	public void put(String key, T value) {
+		if (key.isEmpty()) {
+			return;
+		}
+		int valueId = getValueId(value);
+		int pendingKey = pendingKeys.getInt(key);
+		if (pendingKey < 0) {
+			pendingKey = pendingKeyValues.size();
+			pendingKeys.put(key, pendingKey);
+			pendingKeyValues.add(new IntArrayList(1));
+		}
+		pendingKeyValues.get(pendingKey).add(valueId);
+	}
+
+	private int getValueId(T value) {
+		int valueId = valueIds.getInt(value);
+		if (valueId < 0) {
+			valueId = values.size();
+			values.add(value);
+			valueIds.put(value, valueId);
+		}
+		return valueId;
+	}
+
+	private boolean shouldRebuild() {
+		int pendingCount = pendingKeys.size();
+		if (pendingCount == 0) {
+			return false;
+		}
+		int indexedKeyCount = keyStarts.length - 1;
+		return pendingCount >= Math.max(MIN_PENDING_KEYS_FOR_REBUILD, indexedKeyCount / 16);
+	}
+
+	/**
+	 * Merges the pending keys into the indexed arrays and sorts all suffixes again.
+	 */
+	private void rebuild() {
+		final int oldKeyCount = keyStarts.length - 1;
+		final int newKeyCount = oldKeyCount + pendingKeys.size();
+
+		String[] newKeys = new String[pendingKeys.size()];
+		int addedLength = 0;
+		for (Object2IntMap.Entry<String> entry : pendingKeys.object2IntEntrySet()) {
+			String key = entry.getKey();
+			newKeys[entry.getIntValue()] = key;
+			addedLength += key.length() + 1;
+		}
+
+		// text and key starts
+		char[] newText = Arrays.copyOf(text, text.length + addedLength);
+		int[] newKeyStarts = Arrays.copyOf(keyStarts, newKeyCount + 1);
+		int position = text.length;
+		for (int i = 0; i < newKeys.length; i++) {
+			String key = newKeys[i];
+			newKeyStarts[oldKeyCount + i] = position;
+			key.getChars(0, key.length(), newText, position);
+			position += key.length();
+			newText[position++] = TERMINATOR;
+		}
+		newKeyStarts[newKeyCount] = position;
+
+		// key values
+		IntArrayList newKeyValues = new IntArrayList(keyValues.length + pendingKeyValues.size());
+		newKeyValues.addElements(0, keyValues);
+		int[] newKeyValueStarts = Arrays.copyOf(keyValueStarts, newKeyCount + 1);
+		for (int i = 0; i < newKeys.length; i++) {
+			int[] valueIds = pendingKeyValues.get(i).toIntArray();
+			IntArrays.quickSort(valueIds);
+			int previous = -1;
+			for (int valueId : valueIds) {
+				if (valueId != previous) {
+					newKeyValues.add(valueId);
+					previous = valueId;
+				}
+			}
+			newKeyValueStarts[oldKeyCount + i + 1] = newKeyValues.size();
+		}
+
+		// suffixes
+		int[] newSuffixes = new int[newText.length - newKeyCount];
+		int suffixCount = 0;
+		for (int i = 0; i < newText.length; i++) {
+			if (newText[i] != TERMINATOR) {
+				newSuffixes[suffixCount++] = i;
+			}
+		}
+		if (suffixCount != newSuffixes.length) {
+			newSuffixes = Arrays.copyOf(newSuffixes, suffixCount);
+		}
+		IntArrays.quickSort(newSuffixes, (a, b) -> compareSuffixes(newText, a, b));
+
+		this.text = newText;
+		this.keyStarts = newKeyStarts;
+		this.keyValueStarts = newKeyValueStarts;
+		this.keyValues = newKeyValues.toIntArray();
+		this.suffixes = newSuffixes;
+		this.pendingKeys.clear();
+		this.pendingKeyValues.clear();
+	}
+
+	private static int compareSuffixes(char[] text, int a, int b) {
+		while (true) {
+			char ca = text[a++];
+			char cb = text[b++];
+			if (ca != cb) {
+				if (ca == TERMINATOR) {
+					return -1;
+				}
+				if (cb == TERMINATOR) {
+					return 1;
+				}
+				return Character.compare(ca, cb);
+			}
+			if (ca == TERMINATOR) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * Compares the suffix at the given position with the token,
+	 * treating a suffix that starts with the token as equal to it.
+	 */
+	private int compareToToken(int position, String token) {
+		final int length = token.length();
+		for (int i = 0; i < length; i++) {
+			char c = text[position + i];
+			if (c == TERMINATOR) {
+				return -1;
+			}
+			char t = token.charAt(i);
+			if (c != t) {
+				return Character.compare(c, t);
+			}
+		}
+		return 0;
+	}
+
+	private int lowerBound(String token) {
+		int low = 0;
+		int high = suffixes.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compareToToken(suffixes[mid], token) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int upperBound(String token, int start) {
+		int low = start;
+		int high = suffixes.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compareToToken(suffixes[mid], token) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int getKey(int position) {
+		int index = Arrays.binarySearch(keyStarts, position);
+		if (index >= 0) {
+			return index;
+		}
+		return -index - 2;
+	}
+
+	@Override
+	public String statistics() {
+		int indexedKeyCount = keyStarts.length - 1;
+		return "SuffixArray:" +
+			"\nValues: " + values.size() +
+			"\nIndexed keys: " + indexedKeyCount +
+			"\nPending keys: " + pendingKeys.size() +
+			"\nText length: " + text.length +
+			"\nSuffixes: " + suffixes.length +
+			"\nKey values: " + keyValues.length;
+	}
+}
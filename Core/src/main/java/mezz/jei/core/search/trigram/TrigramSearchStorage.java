@@ -0,0 +1,326 @@
+package mezz.jei.core.search.trigram;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import mezz.jei.core.search.ISearchStorage;
+import mezz.jei.core.util.CancellationToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A typo-tolerant search storage.
+ * <p>
+ * Every key is indexed by its trigrams (three character substrings).
+ * A search first counts how many trigrams of the token each key shares, which cheaply finds the few keys
+ * that could contain the token with a small number of typos. Those candidates are then checked by computing
+ * the edit distance between the token and the closest substring of the key, where swapping two neighbouring
+ * characters counts as one edit.
+ * <p>
+ * A typo can change every trigram of a short token, so those typos are only found when the token is long enough
+ * to keep at least one trigram intact. Exact matches are always found.
+ * <p>
+ * Results are ranked by edit distance, then by the number of shared trigrams, then by key length.
+ * Values are compared by identity, like the other storages.
+ */
+public class TrigramSearchStorage<T> implements ISearchStorage<T> {
+	private static final int MIN_FUZZY_TOKEN_LENGTH = 4;
+	private static final int MIN_TWO_EDIT_TOKEN_LENGTH = 8;
+	/**
+	 * One edit changes at most this many trigrams of the token.
+	 */
+	private static final int TRIGRAMS_PER_EDIT = 4;
+	private static final int MAX_PACKED_VALUE = 0xFFFF;
+	private static final long KEY_ID_MASK = (1L << 28) - 1;
+	/**
+	 * The number of keys checked between checks of the cancellation token.
+	 */
+	private static final int KEYS_PER_CANCELLATION_CHECK = 1024;
+
+	private final List<T> values = new ArrayList<>();
+	private final Reference2IntMap<T> valueIds = new Reference2IntOpenHashMap<>();
+
+	private final Object2IntMap<String> keyIds = new Object2IntOpenHashMap<>();
+	private final List<String> keys = new ArrayList<>();
+	private final List<IntArrayList> keyValues = new ArrayList<>();
+	/**
+	 * The ids of the keys containing each trigram, in increasing order.
+	 */
+	private final Long2ObjectMap<IntArrayList> postings = new Long2ObjectOpenHashMap<>();
+
+	public TrigramSearchStorage() {
+		this.valueIds.defaultReturnValue(-1);
+		this.keyIds.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Returns the maximum number of edits allowed for a token of the given length.
+	 * Short tokens have to match exactly, otherwise almost everything would match them.
+	 */
+	public static int getMaxEdits(int tokenLength) {
+		if (tokenLength < MIN_FUZZY_TOKEN_LENGTH) {
+			return 0;
+		}
+		if (tokenLength < MIN_TWO_EDIT_TOKEN_LENGTH) {
+			return 1;
+		}
+		return 2;
+	}
+
+	@Override
+	public void getSearchResults(String token, Consumer<Collection<T>> resultsConsumer) {
+		List<T> results = getRankedResults(token);
+		if (!results.isEmpty()) {
+			resultsConsumer.accept(results);
+		}
+	}
+
+	/**
+	 * Returns the values of every key that contains the token with at most {@link #getMaxEdits} edits,
+	 * best matches first.
+	 */
+	public List<T> getRankedResults(String token) {
+		return getRankedResults(token, CancellationToken.NONE);
+	}
+
+	/**
+	 * Like {@link #getRankedResults(String)}, but checks the cancellation token while the keys are checked.
+	 *
+	 * @throws java.util.concurrent.CancellationException if the token is cancelled
+	 */
+	public List<T> getRankedResults(String token, CancellationToken cancellationToken) {
+		if (token.isEmpty()) {
+			return List.of();
+		}
+		final int maxEdits = getMaxEdits(token.length());
+		LongArrayList matches = token.length() < 3 ? findShortMatches(token, cancellationToken) : findMatches(token, maxEdits, cancellationToken);
+		if (matches.isEmpty()) {
+			return List.of();
+		}
+		// the packed matches sort by rank, see packMatch
+		matches.sort(null);
+
+		BitSet foundValues = new BitSet(values.size());
+		List<T> results = new ArrayList<>(matches.size());
+		for (int m = 0; m < matches.size(); m++) {
+			int keyId = (int) (matches.getLong(m) & KEY_ID_MASK);
+			IntArrayList valueIdList = keyValues.get(keyId);
+			for (int i = 0; i < valueIdList.size(); i++) {
+				int valueId = valueIdList.getInt(i);
+				if (!foundValues.get(valueId)) {
+					foundValues.set(valueId);
+					results.add(values.get(valueId));
+				}
+			}
+		}
+		return Collections.unmodifiableList(results);
+	}
+
+	/**
+	 * Packs a match into a long that sorts by edit distance, then by shared trigrams (most first),
+	 * then by key length, and finally by key id.
+	 * Sorting primitives is much faster than sorting match objects with a comparator.
+	 */
+	private static long packMatch(int keyId, int keyLength, int distance, int sharedTrigrams) {
+		long unsharedRank = MAX_PACKED_VALUE - Math.min(sharedTrigrams, MAX_PACKED_VALUE);
+		long lengthRank = Math.min(keyLength, MAX_PACKED_VALUE);
+		return ((long) distance << 60) | (unsharedRank << 44) | (lengthRank << 28) | keyId;
+	}
+
+	/**
+	 * Tokens without a trigram can only be matched exactly, by checking every key.
+	 */
+	private LongArrayList findShortMatches(String token, CancellationToken cancellationToken) {
+		LongArrayList matches = new LongArrayList();
+		for (int keyId = 0; keyId < keys.size(); keyId++) {
+			if (keyId % KEYS_PER_CANCELLATION_CHECK == 0) {
+				cancellationToken.throwIfCancelled();
+			}
+			String key = keys.get(keyId);
+			if (key.contains(token)) {
+				matches.add(packMatch(keyId, key.length(), 0, 0));
+			}
+		}
+		return matches;
+	}
+
+	private LongArrayList findMatches(String token, int maxEdits, CancellationToken cancellationToken) {
+		LongSet tokenTrigrams = getTrigrams(token);
+		int[] sharedCounts = new int[keys.size()];
+		IntArrayList touchedKeys = new IntArrayList();
+		for (long trigram : tokenTrigrams) {
+			IntArrayList keyIdList = postings.get(trigram);
+			if (keyIdList == null) {
+				continue;
+			}
+			for (int i = 0; i < keyIdList.size(); i++) {
+				int keyId = keyIdList.getInt(i);
+				if (sharedCounts[keyId]++ == 0) {
+					touchedKeys.add(keyId);
+				}
+			}
+		}
+
+		// q-gram lemma: a key containing the token with k edits shares at least this many trigrams with it
+		final int minShared = Math.max(1, tokenTrigrams.size() - TRIGRAMS_PER_EDIT * maxEdits);
+		EditDistance editDistance = new EditDistance(token, maxEdits);
+		LongArrayList matches = new LongArrayList();
+		for (int i = 0; i < touchedKeys.size(); i++) {
+			if (i % KEYS_PER_CANCELLATION_CHECK == 0) {
+				cancellationToken.throwIfCancelled();
+			}
+			int keyId = touchedKeys.getInt(i);
+			int shared = sharedCounts[keyId];
+			if (shared >= minShared) {
+				String key = keys.get(keyId);
+				// most candidates contain the token exactly, which is much cheaper to check
+				int distance = key.contains(token) ? 0 : editDistance.compute(key);
+				if (distance <= maxEdits) {
+					matches.add(packMatch(keyId, key.length(), distance, shared));
+				}
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Returns the smallest edit distance between the pattern and any substring of the text,
+	 * counting insertions, deletions, substitutions and swaps of neighbouring characters.
+	 * Returns a value greater than maxEdits as soon as that bound can no longer be met.
+	 */
+	public static int substringEditDistance(String pattern, String text, int maxEdits) {
+		return new EditDistance(pattern, maxEdits).compute(text);
+	}
+
+	/**
+	 * Computes {@link #substringEditDistance} for one pattern against many texts, reusing its buffers.
+	 */
+	private static class EditDistance {
+		private final char[] pattern;
+		private final int maxEdits;
+		// rows of the distance table for pattern prefixes of length i - 2, i - 1 and i
+		private int[] previous2 = new int[0];
+		private int[] previous = new int[0];
+		private int[] current = new int[0];
+
+		public EditDistance(String pattern, int maxEdits) {
+			this.pattern = pattern.toCharArray();
+			this.maxEdits = maxEdits;
+		}
+
+		public int compute(String text) {
+			final int m = pattern.length;
+			final int n = text.length();
+			if (current.length < n + 1) {
+				previous2 = new int[n + 1];
+				previous = new int[n + 1];
+				current = new int[n + 1];
+			}
+			// any substring can be the start of the match, so the first row is free
+			Arrays.fill(previous, 0, n + 1, 0);
+			for (int i = 1; i <= m; i++) {
+				current[0] = i;
+				int rowMin = i;
+				char p = pattern[i - 1];
+				for (int j = 1; j <= n; j++) {
+					char t = text.charAt(j - 1);
+					int cost = p == t ? 0 : 1;
+					int value = Math.min(
+						Math.min(previous[j] + 1, current[j - 1] + 1),
+						previous[j - 1] + cost
+					);
+					if (i > 1 && j > 1 && p == text.charAt(j - 2) && pattern[i - 2] == t) {
+						value = Math.min(value, previous2[j - 2] + 1);
+					}
+					current[j] = value;
+					rowMin = Math.min(rowMin, value);
+				}
+				if (rowMin > maxEdits) {
+					return rowMin;
+				}
+				int[] recycled = previous2;
+				previous2 = previous;
+				previous = current;
+				current = recycled;
+			}
+			int best = m;
+			for (int j = 0; j <= n; j++) {
+				best = Math.min(best, previous[j]);
+			}
+			return best;
+		}
+	}
+
+	private static LongSet getTrigrams(String string) {
+		LongSet trigrams = new LongOpenHashSet(Math.max(0, string.length() - 2));
+		for (int i = 0; i + 3 <= string.length(); i++) {
+			trigrams.add(encodeTrigram(string.charAt(i), string.charAt(i + 1), string.charAt(i + 2)));
+		}
+		return trigrams;
+	}
+
+	private static long encodeTrigram(char a, char b, char c) {
+		return ((long) a << 32) | ((long) b << 16) | c;
+	}
+
+	@Override
+	public void getAllElements(Consumer<Collection<T>> resultsConsumer) {
+		if (!values.isEmpty()) {
+			resultsConsumer.accept(Collections.unmodifiableList(values));
+		}
+	}
+
+	@Override
+	public void put(String key, T value) {
+		if (key.isEmpty()) {
+			return;
+		}
+		int valueId = valueIds.getInt(value);
+		if (valueId < 0) {
+			valueId = values.size();
+			values.add(value);
+			valueIds.put(value, valueId);
+		}
+
+		int keyId = keyIds.getInt(key);
+		if (keyId < 0) {
+			keyId = keys.size();
+			keys.add(key);
+			keyIds.put(key, keyId);
+			keyValues.add(new IntArrayList(1));
+			for (long trigram : getTrigrams(key)) {
+				postings.computeIfAbsent(trigram, t -> new IntArrayList()).add(keyId);
+			}
+		}
+		IntArrayList valueIdList = keyValues.get(keyId);
+		if (!valueIdList.contains(valueId)) {
+			valueIdList.add(valueId);
+		}
+	}
+
+	@Override
+	public String statistics() {
+		long postingCount = 0;
+		for (IntArrayList keyIdList : postings.values()) {
+			postingCount += keyIdList.size();
+		}
+		return "TrigramSearchStorage:" +
+			"\nValues: " + values.size() +
+			"\nKeys: " + keys.size() +
+			"\nTrigrams: " + postings.size() +
+			"\nPostings: " + postingCount;
+	}
+}
@@ -0,0 +1,96 @@
+package mezz.jei.core.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs computations on a background executor and hands their results to a consumer on the result executor.
+ * <p>
+ * Only the newest computation can deliver a result.
+ * Scheduling a new computation cancels the previous one, and a result that arrives after it was cancelled is dropped,
+ * so the consumer never sees an outdated result.
+ * <p>
+ * {@link #schedule}, {@link #cancel} and {@link #isPending} must be called on the thread that runs the result executor.
+ */
+public class AsyncResultScheduler<T> {
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private final Executor backgroundExecutor;
+	private final Executor resultExecutor;
+	private final Consumer<T> resultConsumer;
+	private final Consumer<RuntimeException> failureConsumer;
+	@Nullable
+	private CancellationToken pending;
+
+	public AsyncResultScheduler(Executor backgroundExecutor, Executor resultExecutor, Consumer<T> resultConsumer) {
+		this(backgroundExecutor, resultExecutor, resultConsumer, e -> {});
+	}
+
+	/**
+	 * @param failureConsumer receives the exception of the newest computation when it fails, on the result executor.
+	 *                        Failures are already logged, this lets the caller avoid retrying the same computation.
+	 */
+	public AsyncResultScheduler(Executor backgroundExecutor, Executor resultExecutor, Consumer<T> resultConsumer, Consumer<RuntimeException> failureConsumer) {
+		this.backgroundExecutor = backgroundExecutor;
+		this.resultExecutor = resultExecutor;
+		this.resultConsumer = resultConsumer;
+		this.failureConsumer = failureConsumer;
+	}
+
+	/**
+	 * Cancel any pending computation and start a new one.
+	 * The computation should check its {@link CancellationToken} regularly and stop early when it is cancelled.
+	 */
+	public void schedule(Function<CancellationToken, T> computation) {
+		cancel();
+		CancellationToken token = new CancellationToken();
+		this.pending = token;
+		backgroundExecutor.execute(() -> run(computation, token));
+	}
+
+	public void cancel() {
+		if (this.pending != null) {
+			this.pending.cancel();
+			this.pending = null;
+		}
+	}
+
+	public boolean isPending() {
+		return this.pending != null;
+	}
+
+	private void run(Function<CancellationToken, T> computation, CancellationToken token) {
+		if (token.isCancelled()) {
+			return;
+		}
+		T result;
+		try {
+			result = computation.apply(token);
+		} catch (CancellationException e) {
+			return;
+		} catch (RuntimeException e) {
+			LOGGER.error("Background computation failed", e);
+			resultExecutor.execute(() -> {
+				if (this.pending == token) {
+					this.pending = null;
+					if (!token.isCancelled()) {
+						failureConsumer.accept(e);
+					}
+				}
+			});
+			return;
+		}
+		resultExecutor.execute(() -> {
+			if (this.pending == token && !token.isCancelled()) {
+				this.pending = null;
+				resultConsumer.accept(result);
+			}
+		});
+	}
+}
@@ -0,0 +1,34 @@
+package mezz.jei.core.util;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Lets a long-running computation check whether its result is still wanted.
+ */
+public class CancellationToken {
+	/**
+	 * A token for computations that can never be cancelled.
+	 */
+	public static final CancellationToken NONE = new CancellationToken();
+
+	private volatile boolean cancelled;
+
+	public void cancel() {
+		if (this != NONE) {
+			this.cancelled = true;
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @throws CancellationException if this token has been cancelled.
+	 */
+	public void throwIfCancelled() {
+		if (cancelled) {
+			throw new CancellationException();
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package mezz.jei.core.util;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorts elements by precomputed sort keys instead of calling a comparator that computes them on every comparison.
+ * <p>
+ * Each key is a column with one int per element, compared in ascending order.
+ * Columns are compared in the order they were added, like a chain of {@link Comparator#thenComparing}.
+ * Elements with equal keys keep their original order, like a stable sort.
+ * <p>
+ * The columns are packed into as few longs per element as possible,
+ * so most sorts only compare one long per element.
+ */
+public class PackedSortKeys {
+	/**
+	 * Packed keys stay positive so that they can be compared as signed longs.
+	 */
+	private static final int BITS_PER_WORD = Long.SIZE - 1;
+
+	private final int size;
+	private final List<int[]> columns = new ArrayList<>();
+
+	public PackedSortKeys(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Adds a key column, compared after all the previously added columns.
+	 */
+	public void addColumn(int[] values) {
+		if (values.length != size) {
+			throw new IllegalArgumentException("Expected " + size + " values but got " + values.length);
+		}
+		columns.add(values);
+	}
+
+	/**
+	 * Returns the dense rank of each value, in the order of the comparator.
+	 * Equal values get the same rank, so the ranks can be used as a key column.
+	 */
+	public static <T> int[] rank(List<T> values, Comparator<? super T> comparator) {
+		int[] order = new int[values.size()];
+		Arrays.setAll(order, i -> i);
+		IntArrays.mergeSort(order, (a, b) -> comparator.compare(values.get(a), values.get(b)));
+
+		int[] ranks = new int[values.size()];
+		int rank = 0;
+		for (int i = 0; i < order.length; i++) {
+			if (i > 0 && comparator.compare(values.get(order[i - 1]), values.get(order[i])) != 0) {
+				rank++;
+			}
+			ranks[order[i]] = rank;
+		}
+		return ranks;
+	}
+
+	/**
+	 * Returns the original indexes of the elements, in sorted order.
+	 */
+	public int[] sort() {
+		if (size == 0) {
+			return new int[0];
+		}
+		List<int[]> rankColumns = new ArrayList<>();
+		IntArrayList bits = new IntArrayList();
+		for (int[] column : columns) {
+			int[] ranks = denseRanks(column);
+			int distinct = Arrays.stream(ranks).max().orElse(0) + 1;
+			// a column with one value does not change the order
+			if (distinct > 1) {
+				rankColumns.add(ranks);
+				bits.add(bitsFor(distinct));
+			}
+		}
+		// the original index breaks ties, which keeps the sort stable and makes every key unique
+		int[] indexes = new int[size];
+		Arrays.setAll(indexes, i -> i);
+		rankColumns.add(indexes);
+		bits.add(bitsFor(size));
+
+		long[][] words = pack(rankColumns, bits.toIntArray());
+		if (words.length == 1) {
+			long[] keys = words[0];
+			Arrays.sort(keys);
+			int indexBits = bitsFor(size);
+			long indexMask = (1L << indexBits) - 1;
+			int[] order = new int[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = (int) (keys[i] & indexMask);
+			}
+			return order;
+		}
+
+		int[] order = new int[size];
+		Arrays.setAll(order, i -> i);
+		IntArrays.parallelQuickSort(order, (a, b) -> {
+			for (long[] word : words) {
+				int compare = Long.compare(word[a], word[b]);
+				if (compare != 0) {
+					return compare;
+				}
+			}
+			return 0;
+		});
+		return order;
+	}
+
+	/**
+	 * Packs the columns into words, starting a new word when the next column does not fit.
+	 */
+	private long[][] pack(List<int[]> rankColumns, int[] columnBits) {
+		List<long[]> words = new ArrayList<>();
+		long[] word = new long[size];
+		int usedBits = 0;
+		for (int c = 0; c < rankColumns.size(); c++) {
+			int bits = columnBits[c];
+			if (usedBits + bits > BITS_PER_WORD) {
+				words.add(word);
+				word = new long[size];
+				usedBits = 0;
+			}
+			int[] ranks = rankColumns.get(c);
+			for (int i = 0; i < size; i++) {
+				word[i] = (word[i] << bits) | ranks[i];
+			}
+			usedBits += bits;
+		}
+		words.add(word);
+		return words.toArray(long[][]::new);
+	}
+
+	private static int[] denseRanks(int[] column) {
+		int[] distinct = column.clone();
+		Arrays.sort(distinct);
+		int distinctCount = 0;
+		for (int i = 0; i < distinct.length; i++) {
+			if (i == 0 || distinct[i] != distinct[i - 1]) {
+				distinct[distinctCount++] = distinct[i];
+			}
+		}
+		int[] ranks = new int[column.length];
+		for (int i = 0; i < column.length; i++) {
+			ranks[i] = Arrays.binarySearch(distinct, 0, distinctCount, column[i]);
+		}
+		return ranks;
+	}
+
+	/**
+	 * Returns the number of bits needed to store values from 0 to count - 1.
+	 */
+	private static int bitsFor(int count) {
+		return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(count - 1));
+	}
+}
@@ -0,0 +1,157 @@
+package mezz.jei.test.recipes;
+
+import mezz.jei.core.recipes.snapshot.RecipeIndexFingerprint;
+import mezz.jei.core.recipes.snapshot.RecipeIndexSnapshot;
+import mezz.jei.core.recipes.snapshot.RecipeIndexSnapshotWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+public class RecipeIndexSnapshotTest {
+	private static final int ROLE_COUNT = 2;
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		Path path = tempDir.resolve("recipes.bin");
+		byte[] fingerprint = fingerprint("1.0");
+		write(path, fingerprint);
+
+		RecipeIndexSnapshot snapshot = RecipeIndexSnapshot.read(path, fingerprint, ROLE_COUNT).orElseThrow();
+		Assertions.assertEquals(3, snapshot.getIngredientCount());
+
+		int[][] furnace = snapshot.getRecipeIngredients("minecraft:smelting", "minecraft:iron_ingot", 1);
+		Assertions.assertNotNull(furnace);
+		Assertions.assertArrayEquals(bytes("iron_ore"), snapshot.getIngredient(furnace[0][0]));
+		Assertions.assertArrayEquals(bytes("iron_ingot"), snapshot.getIngredient(furnace[1][0]));
+
+		int[][] block = snapshot.getRecipeIngredients("minecraft:crafting", "minecraft:iron_block", 2);
+		Assertions.assertNotNull(block);
+		Assertions.assertArrayEquals(bytes("iron_ingot"), snapshot.getIngredient(block[0][0]));
+		Assertions.assertArrayEquals(bytes("iron_block"), snapshot.getIngredient(block[1][0]));
+
+		Assertions.assertNull(snapshot.getRecipeIngredients("minecraft:crafting", "minecraft:iron_ingot", 1));
+		Assertions.assertNull(snapshot.getRecipeIngredients("minecraft:blasting", "minecraft:iron_ingot", 1));
+	}
+
+	@Test
+	public void testChangedRecipeContents() throws IOException {
+		Path path = tempDir.resolve("recipes.bin");
+		byte[] fingerprint = fingerprint("1.0");
+		write(path, fingerprint);
+
+		RecipeIndexSnapshot snapshot = RecipeIndexSnapshot.read(path, fingerprint, ROLE_COUNT).orElseThrow();
+		// same id, but the recipe's contents are different now
+		Assertions.assertNull(snapshot.getRecipeIngredients("minecraft:smelting", "minecraft:iron_ingot", 2));
+		Assertions.assertNotNull(snapshot.getRecipeIngredients("minecraft:crafting", "minecraft:iron_block", 2));
+	}
+
+	@Test
+	public void testDuplicateRecipeIdsAreLeftOut() throws IOException {
+		Path path = tempDir.resolve("recipes.bin");
+		byte[] fingerprint = fingerprint("1.0");
+
+		RecipeIndexSnapshotWriter writer = new RecipeIndexSnapshotWriter(ROLE_COUNT);
+		int stone = writer.addIngredient(bytes("stone"));
+		int[][] ingredients = {{stone}, {}};
+		writer.addRecipe("minecraft:crafting", "a", 0, ingredients);
+		writer.addRecipe("minecraft:crafting", "a", 0, ingredients);
+		writer.addRecipe("minecraft:crafting", "a", 0, ingredients);
+		writer.addRecipe("minecraft:crafting", "b", 0, ingredients);
+		writer.write(path, fingerprint);
+
+		RecipeIndexSnapshot snapshot = RecipeIndexSnapshot.read(path, fingerprint, ROLE_COUNT).orElseThrow();
+		Assertions.assertNull(snapshot.getRecipeIngredients("minecraft:crafting", "a", 0));
+		Assertions.assertNotNull(snapshot.getRecipeIngredients("minecraft:crafting", "b", 0));
+	}
+
+	@Test
+	public void testFingerprintMismatch() throws IOException {
+		Path path = tempDir.resolve("recipes.bin");
+		write(path, fingerprint("1.0"));
+
+		Assertions.assertTrue(RecipeIndexSnapshot.read(path, fingerprint("1.0"), ROLE_COUNT).isPresent());
+		Assertions.assertEquals(Optional.empty(), RecipeIndexSnapshot.read(path, fingerprint("1.1"), ROLE_COUNT));
+		Assertions.assertEquals(Optional.empty(), RecipeIndexSnapshot.read(path, fingerprint("1.0"), ROLE_COUNT + 1));
+	}
+
+	@Test
+	public void testFingerprint() {
+		Assertions.assertArrayEquals(fingerprint("1.0"), fingerprint("1.0"));
+		Assertions.assertFalse(Arrays.equals(fingerprint("1.0"), fingerprint("1.1")));
+
+		byte[] ab = new RecipeIndexFingerprint().add("a").add("b").build();
+		byte[] abJoined = new RecipeIndexFingerprint().add("ab").add("").build();
+		Assertions.assertFalse(Arrays.equals(ab, abJoined));
+	}
+
+	@Test
+	public void testMissingFile() {
+		Path path = tempDir.resolve("missing.bin");
+		Assertions.assertEquals(Optional.empty(), RecipeIndexSnapshot.read(path, fingerprint("1.0"), ROLE_COUNT));
+	}
+
+	@Test
+	public void testCorruptFile() throws IOException {
+		Path path = tempDir.resolve("recipes.bin");
+		byte[] fingerprint = fingerprint("1.0");
+		write(path, fingerprint);
+
+		byte[] bytes = Files.readAllBytes(path);
+		bytes[bytes.length - 3] ^= 0x5A;
+		Files.write(path, bytes);
+		Assertions.assertEquals(Optional.empty(), RecipeIndexSnapshot.read(path, fingerprint, ROLE_COUNT));
+	}
+
+	@Test
+	public void testTruncatedFile() throws IOException {
+		Path path = tempDir.resolve("recipes.bin");
+		byte[] fingerprint = fingerprint("1.0");
+		write(path, fingerprint);
+
+		byte[] bytes = Files.readAllBytes(path);
+		for (int length : new int[]{0, 5, 20, 50, bytes.length - 1}) {
+			Files.write(path, Arrays.copyOf(bytes, length));
+			Assertions.assertEquals(Optional.empty(), RecipeIndexSnapshot.read(path, fingerprint, ROLE_COUNT), "length " + length);
+		}
+	}
+
+	@Test
+	public void testUnknownIngredientIndex() {
+		RecipeIndexSnapshotWriter writer = new RecipeIndexSnapshotWriter(ROLE_COUNT);
+		int stone = writer.addIngredient(bytes("stone"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> writer.addRecipe("minecraft:crafting", "a", 0, new int[][]{{stone + 1}, {}}));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> writer.addRecipe("minecraft:crafting", "a", 0, new int[][]{{stone}}));
+	}
+
+	private static byte[] bytes(String ingredient) {
+		return ingredient.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] fingerprint(String version) {
+		return new RecipeIndexFingerprint()
+			.add(version)
+			.add(3)
+			.build();
+	}
+
+	private static void write(Path path, byte[] fingerprint) throws IOException {
+		RecipeIndexSnapshotWriter writer = new RecipeIndexSnapshotWriter(ROLE_COUNT);
+		int ironOre = writer.addIngredient(bytes("iron_ore"));
+		int ironIngot = writer.addIngredient(bytes("iron_ingot"));
+		Assertions.assertEquals(ironIngot, writer.addIngredient(bytes("iron_ingot")));
+		int ironBlock = writer.addIngredient(bytes("iron_block"));
+		writer.addRecipe("minecraft:smelting", "minecraft:iron_ingot", 1, new int[][]{{ironOre}, {ironIngot}});
+		writer.addRecipe("minecraft:crafting", "minecraft:iron_block", 2, new int[][]{{ironIngot}, {ironBlock}});
+		writer.write(path, fingerprint);
+	}
+}
@@ -0,0 +1,190 @@
+package mezz.jei.test.search;
+
+import mezz.jei.core.search.IncrementalQueryEvaluator;
+import mezz.jei.core.search.SearchTokens;
+import mezz.jei.core.util.CancellationToken;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+public class IncrementalQueryEvaluatorTest {
+	private static final String ALPHABET = "abcdef";
+	private static final String TYPED_CHARACTERS = "abcdef  -|";
+
+	@Test
+	public void testExtendingLastTokenOnlySearchesThatToken() {
+		List<String> elements = List.of("iron ingot", "iron ore", "gold ingot", "gold ore");
+		CountingSearcher searcher = new CountingSearcher(elements);
+		IncrementalQueryEvaluator<String> evaluator = new IncrementalQueryEvaluator<>(searcher, (previous, next) -> next.contains(previous));
+
+		BitSet results = evaluator.evaluate(parse("ing ir"), elements.size());
+		Assertions.assertEquals(bitSet(0), results);
+		Assertions.assertEquals(2, searcher.searchCount);
+
+		results = evaluator.evaluate(parse("ing iro"), elements.size());
+		Assertions.assertEquals(bitSet(0), results);
+		Assertions.assertEquals(3, searcher.searchCount);
+
+		results = evaluator.evaluate(parse("ing iron"), elements.size());
+		Assertions.assertEquals(bitSet(0), results);
+		Assertions.assertEquals(4, searcher.searchCount);
+
+		results = evaluator.evaluate(parse("ing ironz"), elements.size());
+		Assertions.assertEquals(bitSet(), results);
+		Assertions.assertEquals(5, searcher.searchCount);
+
+		// nothing left to narrow, so the token is not searched
+		results = evaluator.evaluate(parse("ing ironzz"), elements.size());
+		Assertions.assertEquals(bitSet(), results);
+		Assertions.assertEquals(5, searcher.searchCount);
+	}
+
+	@Test
+	public void testRemovingWhenNothingIsFound() {
+		List<String> elements = List.of("iron ingot", "iron ore", "gold ingot", "gold ore");
+		CountingSearcher searcher = new CountingSearcher(elements);
+		IncrementalQueryEvaluator<String> evaluator = new IncrementalQueryEvaluator<>(searcher, (previous, next) -> next.contains(previous));
+
+		// when the search tokens find nothing, the removed tokens are removed from all elements
+		Assertions.assertEquals(bitSet(1, 3), evaluator.evaluate(parse("x -ingot"), elements.size()));
+		Assertions.assertEquals(bitSet(1, 3), evaluator.evaluate(parse("xy -ingot"), elements.size()));
+		Assertions.assertEquals(bitSet(2, 3), evaluator.evaluate(parse("o -iron"), elements.size()));
+		Assertions.assertEquals(bitSet(3), evaluator.evaluate(parse("ore -iron"), elements.size()));
+		Assertions.assertEquals(bitSet(2, 3), evaluator.evaluate(parse("orez -iron"), elements.size()));
+	}
+
+	@Test
+	public void testCancelledBetweenTokens() {
+		List<String> elements = List.of("iron ingot", "iron ore", "gold ingot", "gold ore");
+		CancellationToken cancellationToken = new CancellationToken();
+		CountingSearcher countingSearcher = new CountingSearcher(elements);
+		IncrementalQueryEvaluator.ITokenSearcher<String> searcher = (token, searchCancellationToken) -> {
+			// the search is cancelled while the first token is being searched
+			cancellationToken.cancel();
+			return countingSearcher.getSearchResults(token, searchCancellationToken);
+		};
+		IncrementalQueryEvaluator<String> evaluator = new IncrementalQueryEvaluator<>(searcher, (previous, next) -> next.contains(previous));
+
+		Assertions.assertThrows(CancellationException.class, () -> evaluator.evaluate(parse("ing ir ore"), elements.size(), cancellationToken));
+		Assertions.assertEquals(1, countingSearcher.searchCount);
+
+		// the cancelled search is not remembered, so every token is searched again
+		Assertions.assertEquals(bitSet(), evaluator.evaluate(parse("ing ir ore"), elements.size()));
+		Assertions.assertEquals(4, countingSearcher.searchCount);
+	}
+
+	@Test
+	public void testCancelledInsideToken() {
+		List<String> elements = List.of("iron ingot", "iron ore", "gold ingot", "gold ore");
+		CancellationToken cancellationToken = new CancellationToken();
+		CountingSearcher countingSearcher = new CountingSearcher(elements);
+		IncrementalQueryEvaluator.ITokenSearcher<String> searcher = (token, searchCancellationToken) -> {
+			BitSet results = countingSearcher.getSearchResults(token, searchCancellationToken);
+			// a slow token checks the cancellation token that it is given while it searches
+			cancellationToken.cancel();
+			searchCancellationToken.throwIfCancelled();
+			return results;
+		};
+		IncrementalQueryEvaluator<String> evaluator = new IncrementalQueryEvaluator<>(searcher, (previous, next) -> next.contains(previous));
+
+		Assertions.assertThrows(CancellationException.class, () -> evaluator.evaluate(parse("ing"), elements.size(), cancellationToken));
+		Assertions.assertEquals(1, countingSearcher.searchCount);
+	}
+
+	@Test
+	public void testRandomTypingMatchesFullEvaluation() {
+		Random random = new Random(42);
+		List<String> elements = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			elements.add(randomString(random, 3 + random.nextInt(10)));
+		}
+		CountingSearcher searcher = new CountingSearcher(elements);
+
+		for (int sequence = 0; sequence < 200; sequence++) {
+			IncrementalQueryEvaluator<String> incremental = new IncrementalQueryEvaluator<>(searcher, (previous, next) -> next.contains(previous));
+			StringBuilder filterText = new StringBuilder();
+			for (int step = 0; step < 30; step++) {
+				int action = random.nextInt(10);
+				if (action == 0 && !filterText.isEmpty()) {
+					filterText.setLength(filterText.length() - 1);
+				} else if (action == 1) {
+					filterText.setLength(random.nextInt(filterText.length() + 1));
+				} else {
+					filterText.append(TYPED_CHARACTERS.charAt(random.nextInt(TYPED_CHARACTERS.length())));
+				}
+
+				List<SearchTokens<String>> query = parse(filterText.toString());
+				IncrementalQueryEvaluator<String> full = new IncrementalQueryEvaluator<>(searcher, (previous, next) -> false);
+				BitSet expected = full.evaluate(query, elements.size());
+				BitSet actual = incremental.evaluate(query, elements.size());
+				Assertions.assertEquals(expected, actual, filterText.toString());
+			}
+		}
+	}
+
+	/**
+	 * A simplified version of the ingredient filter's query parsing.
+	 */
+	private static List<SearchTokens<String>> parse(String filterText) {
+		List<SearchTokens<String>> query = new ArrayList<>();
+		for (String part : filterText.split("\\|")) {
+			SearchTokens<String> searchTokens = new SearchTokens<>(new ArrayList<>(), new ArrayList<>());
+			for (String token : part.split(" ")) {
+				if (token.startsWith("-")) {
+					token = token.substring(1);
+					if (!token.isEmpty()) {
+						searchTokens.toRemove().add(token);
+					}
+				} else if (!token.isEmpty()) {
+					searchTokens.toSearch().add(token);
+				}
+			}
+			if (!searchTokens.isEmpty()) {
+				query.add(searchTokens);
+			}
+		}
+		return query;
+	}
+
+	private static BitSet bitSet(int... ids) {
+		BitSet bitSet = new BitSet();
+		for (int id : ids) {
+			bitSet.set(id);
+		}
+		return bitSet;
+	}
+
+	private static String randomString(Random random, int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		}
+		return sb.toString();
+	}
+
+	private static class CountingSearcher implements IncrementalQueryEvaluator.ITokenSearcher<String> {
+		private final List<String> elements;
+		private int searchCount = 0;
+
+		public CountingSearcher(List<String> elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		public BitSet getSearchResults(String token, CancellationToken cancellationToken) {
+			searchCount++;
+			BitSet results = new BitSet();
+			for (int i = 0; i < elements.size(); i++) {
+				if (elements.get(i).contains(token)) {
+					results.set(i);
+				}
+			}
+			return results;
+		}
+	}
+}
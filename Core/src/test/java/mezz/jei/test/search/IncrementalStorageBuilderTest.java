@@ -0,0 +1,89 @@
+package mezz.jei.test.search;
+
+import mezz.jei.core.search.IncrementalStorageBuilder;
+import mezz.jei.core.search.PrefixInfo;
+import mezz.jei.core.search.PrefixedSearchable;
+import mezz.jei.core.search.SearchMode;
+import mezz.jei.core.search.SearchStorageType;
+import mezz.jei.core.search.suffixtree.GeneralizedSuffixTree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class IncrementalStorageBuilderTest {
+	private static final List<String> ELEMENTS = List.of("stone", "iron ingot", "gold ingot", "stone bricks", "oak log");
+
+	@Test
+	public void testBuildInSteps() {
+		PrefixedSearchable<String, String> searchable = createSearchable();
+		IncrementalStorageBuilder<String, String> builder = new IncrementalStorageBuilder<>(searchable, s -> s);
+		builder.addAll(ELEMENTS);
+		Assertions.assertFalse(builder.isComplete());
+		Assertions.assertEquals(ELEMENTS.size(), builder.getRemainingCount());
+
+		// a deadline in the past still builds one element each step
+		int steps = 0;
+		while (!builder.build(System.nanoTime() - 1_000_000)) {
+			steps++;
+			Assertions.assertEquals(steps, builder.getBuiltCount());
+			Assertions.assertEquals(ELEMENTS.size() - steps, builder.getRemainingCount());
+		}
+		Assertions.assertEquals(ELEMENTS.size() - 1, steps);
+		Assertions.assertEquals(ELEMENTS.size(), builder.getBuiltCount());
+		Assertions.assertTrue(builder.isComplete());
+
+		Assertions.assertEquals(Set.of("iron ingot", "gold ingot"), search(searchable, "ingot"));
+	}
+
+	@Test
+	public void testResumesAfterMoreElementsAreAdded() {
+		PrefixedSearchable<String, String> searchable = createSearchable();
+		IncrementalStorageBuilder<String, String> builder = new IncrementalStorageBuilder<>(searchable, s -> s);
+		builder.addAll(ELEMENTS.subList(0, 2));
+		builder.buildAll();
+		Assertions.assertTrue(builder.isComplete());
+		Assertions.assertEquals(Set.of("stone"), search(searchable, "stone"));
+
+		builder.add(ELEMENTS.get(3));
+		Assertions.assertFalse(builder.isComplete());
+		Assertions.assertEquals(Set.of("stone"), search(searchable, "stone"));
+
+		builder.buildAll();
+		Assertions.assertEquals(3, builder.getBuiltCount());
+		Assertions.assertEquals(0, builder.getRemainingCount());
+		Assertions.assertEquals(Set.of("stone", "stone bricks"), search(searchable, "stone"));
+	}
+
+	@Test
+	public void testSameResultsAsEagerBuild() {
+		PrefixedSearchable<String, String> lazy = createSearchable();
+		IncrementalStorageBuilder<String, String> builder = new IncrementalStorageBuilder<>(lazy, s -> s);
+		builder.addAll(ELEMENTS);
+		builder.buildAll();
+
+		GeneralizedSuffixTree<String> eager = new GeneralizedSuffixTree<>();
+		for (String element : ELEMENTS) {
+			eager.put(element, element);
+		}
+
+		for (String token : List.of("o", "st", "ingot", "k l", "x")) {
+			Set<String> expected = new HashSet<>();
+			eager.getSearchResults(token, expected::addAll);
+			Assertions.assertEquals(expected, search(lazy, token), token);
+		}
+	}
+
+	private static PrefixedSearchable<String, String> createSearchable() {
+		PrefixInfo<String, String> prefixInfo = new PrefixInfo<>('#', () -> SearchMode.ENABLED, List::of, SearchStorageType::createStorage);
+		return new PrefixedSearchable<>(prefixInfo.createStorage(SearchStorageType.SUFFIX_TREE), prefixInfo);
+	}
+
+	private static Set<String> search(PrefixedSearchable<String, String> searchable, String token) {
+		Set<String> results = new HashSet<>();
+		searchable.getSearchResults(token, results::addAll);
+		return results;
+	}
+}
@@ -0,0 +1,68 @@
+package mezz.jei.test.search;
+
+import mezz.jei.core.search.QueryResultCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class QueryResultCacheTest {
+	@Test
+	public void testHitsAndMisses() {
+		QueryResultCache cache = new QueryResultCache(4, 100);
+		Assertions.assertNull(cache.get("@mekanism"));
+		cache.put("@mekanism", new int[]{1, 2, 3}, cache.getGeneration());
+		Assertions.assertArrayEquals(new int[]{1, 2, 3}, cache.get("@mekanism"));
+		Assertions.assertNull(cache.get("@thermal"));
+
+		Assertions.assertEquals(1, cache.getHitCount());
+		Assertions.assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() {
+		QueryResultCache cache = new QueryResultCache(2, 100);
+		cache.put("a", new int[]{1}, cache.getGeneration());
+		cache.put("b", new int[]{2}, cache.getGeneration());
+		// use "a" so that "b" is the least recently used
+		Assertions.assertNotNull(cache.get("a"));
+		cache.put("c", new int[]{3}, cache.getGeneration());
+
+		Assertions.assertEquals(2, cache.size());
+		Assertions.assertNotNull(cache.get("a"));
+		Assertions.assertNull(cache.get("b"));
+		Assertions.assertNotNull(cache.get("c"));
+	}
+
+	@Test
+	public void testTotalIdsAreBounded() {
+		QueryResultCache cache = new QueryResultCache(10, 5);
+		cache.put("a", new int[]{1, 2, 3}, cache.getGeneration());
+		cache.put("b", new int[]{4, 5}, cache.getGeneration());
+		Assertions.assertEquals(2, cache.size());
+
+		cache.put("c", new int[]{6}, cache.getGeneration());
+		Assertions.assertNull(cache.get("a"));
+		Assertions.assertNotNull(cache.get("b"));
+		Assertions.assertNotNull(cache.get("c"));
+
+		// too large to ever be cached
+		cache.put("d", new int[6], cache.getGeneration());
+		Assertions.assertNull(cache.get("d"));
+		Assertions.assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testInvalidate() {
+		QueryResultCache cache = new QueryResultCache(4, 100);
+		int generation = cache.getGeneration();
+		cache.put("a", new int[]{1}, generation);
+		cache.invalidate();
+		Assertions.assertNull(cache.get("a"));
+
+		// results computed before the invalidation are not cached
+		cache.put("b", new int[]{2}, generation);
+		Assertions.assertNull(cache.get("b"));
+
+		cache.put("b", new int[]{2}, cache.getGeneration());
+		Assertions.assertNotNull(cache.get("b"));
+	}
+}
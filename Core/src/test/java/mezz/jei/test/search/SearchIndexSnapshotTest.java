@@ -0,0 +1,131 @@
+package mezz.jei.test.search;
+
+import mezz.jei.core.search.snapshot.SearchIndexFingerprint;
+import mezz.jei.core.search.snapshot.SearchIndexSnapshot;
+import mezz.jei.core.search.snapshot.SearchIndexSnapshotWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public class SearchIndexSnapshotTest {
+	private static final List<List<String>> NAMES = List.of(
+		List.of("stone"),
+		List.of(),
+		List.of("iron ingot", "ingot")
+	);
+	private static final List<List<String>> MOD_NAMES = List.of(
+		List.of("minecraft"),
+		List.of("minecraft", "mc"),
+		List.of("")
+	);
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		Path path = tempDir.resolve("index.bin");
+		byte[] fingerprint = fingerprint("en_us");
+		write(path, fingerprint);
+
+		SearchIndexSnapshot snapshot = SearchIndexSnapshot.read(path, fingerprint, NAMES.size()).orElseThrow();
+		Assertions.assertTrue(snapshot.hasSection('\0'));
+		Assertions.assertTrue(snapshot.hasSection('@'));
+		Assertions.assertFalse(snapshot.hasSection('#'));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> snapshot.getSectionReader('#'));
+
+		SearchIndexSnapshot.SectionReader names = snapshot.getSectionReader('\0');
+		SearchIndexSnapshot.SectionReader modNames = snapshot.getSectionReader('@');
+		for (int i = 0; i < NAMES.size(); i++) {
+			Assertions.assertEquals(NAMES.get(i), names.next());
+			Assertions.assertEquals(MOD_NAMES.get(i), modNames.next());
+		}
+		Assertions.assertThrows(IllegalStateException.class, names::next);
+	}
+
+	@Test
+	public void testFingerprintMismatch() throws IOException {
+		Path path = tempDir.resolve("index.bin");
+		write(path, fingerprint("en_us"));
+
+		Assertions.assertTrue(SearchIndexSnapshot.read(path, fingerprint("en_us"), NAMES.size()).isPresent());
+		Assertions.assertEquals(Optional.empty(), SearchIndexSnapshot.read(path, fingerprint("de_de"), NAMES.size()));
+		Assertions.assertEquals(Optional.empty(), SearchIndexSnapshot.read(path, fingerprint("en_us"), NAMES.size() + 1));
+	}
+
+	@Test
+	public void testFingerprint() {
+		Assertions.assertArrayEquals(fingerprint("en_us"), fingerprint("en_us"));
+		Assertions.assertFalse(Arrays.equals(fingerprint("en_us"), fingerprint("de_de")));
+
+		byte[] ab = new SearchIndexFingerprint().add("a").add("b").build();
+		byte[] abJoined = new SearchIndexFingerprint().add("ab").add("").build();
+		Assertions.assertFalse(Arrays.equals(ab, abJoined));
+	}
+
+	@Test
+	public void testMissingFile() {
+		Path path = tempDir.resolve("missing.bin");
+		Assertions.assertEquals(Optional.empty(), SearchIndexSnapshot.read(path, fingerprint("en_us"), NAMES.size()));
+	}
+
+	@Test
+	public void testCorruptFile() throws IOException {
+		Path path = tempDir.resolve("index.bin");
+		byte[] fingerprint = fingerprint("en_us");
+		write(path, fingerprint);
+
+		byte[] bytes = Files.readAllBytes(path);
+		bytes[bytes.length - 3] ^= 0x5A;
+		Files.write(path, bytes);
+		Assertions.assertEquals(Optional.empty(), SearchIndexSnapshot.read(path, fingerprint, NAMES.size()));
+	}
+
+	@Test
+	public void testTruncatedFile() throws IOException {
+		Path path = tempDir.resolve("index.bin");
+		byte[] fingerprint = fingerprint("en_us");
+		write(path, fingerprint);
+
+		byte[] bytes = Files.readAllBytes(path);
+		for (int length : new int[]{0, 5, 20, bytes.length - 1}) {
+			Files.write(path, Arrays.copyOf(bytes, length));
+			Assertions.assertEquals(Optional.empty(), SearchIndexSnapshot.read(path, fingerprint, NAMES.size()), "length " + length);
+		}
+	}
+
+	@Test
+	public void testSectionsMustHaveTheSameElementCount() {
+		SearchIndexSnapshotWriter writer = new SearchIndexSnapshotWriter();
+		writer.getSectionWriter('\0').add(Set.of("stone"));
+		writer.getSectionWriter('@').add(Set.of("minecraft"));
+		writer.getSectionWriter('@').add(Set.of("minecraft"));
+		Assertions.assertThrows(IllegalStateException.class, () -> writer.write(tempDir.resolve("index.bin"), fingerprint("en_us")));
+	}
+
+	private static byte[] fingerprint(String language) {
+		return new SearchIndexFingerprint()
+			.add(language)
+			.add(true)
+			.build();
+	}
+
+	private static void write(Path path, byte[] fingerprint) throws IOException {
+		SearchIndexSnapshotWriter writer = new SearchIndexSnapshotWriter();
+		SearchIndexSnapshotWriter.SectionWriter names = writer.getSectionWriter('\0');
+		SearchIndexSnapshotWriter.SectionWriter modNames = writer.getSectionWriter('@');
+		for (int i = 0; i < NAMES.size(); i++) {
+			names.add(NAMES.get(i));
+			modNames.add(MOD_NAMES.get(i));
+		}
+		writer.write(path, fingerprint);
+	}
+}
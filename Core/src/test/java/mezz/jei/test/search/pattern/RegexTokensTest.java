@@ -0,0 +1,48 @@
+package mezz.jei.test.search.pattern;
+
+import mezz.jei.core.search.pattern.RegexTokens;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class RegexTokensTest {
+	@Test
+	public void testToLowerCase() {
+		Assertions.assertEquals("iron ingot", RegexTokens.toLowerCase("Iron Ingot"));
+		Assertions.assertEquals("iron /\\D+_\\W/", RegexTokens.toLowerCase("IRON /\\D+_\\W/"));
+		Assertions.assertEquals("@/Mine\\Wcraft/ -&/^A/ ingot", RegexTokens.toLowerCase("@/Mine\\Wcraft/ -&/^A/ INGOT"));
+		Assertions.assertEquals("\"/Oak Log/\" planks", RegexTokens.toLowerCase("\"/Oak Log/\" Planks"));
+		Assertions.assertEquals("/A|B/|c", RegexTokens.toLowerCase("/A|B/|C"));
+	}
+
+	@Test
+	public void testNotRegexes() {
+		// not closed before whitespace
+		Assertions.assertEquals("/a b/", RegexTokens.toLowerCase("/A B/"));
+		// not a whole token
+		Assertions.assertEquals("a/b/ /c/d", RegexTokens.toLowerCase("A/B/ /C/D"));
+		Assertions.assertEquals("//", RegexTokens.toLowerCase("//"));
+		// in a quoted plain text token
+		Assertions.assertEquals("\"oak /log/\"", RegexTokens.toLowerCase("\"Oak /Log/\""));
+	}
+
+	@Test
+	public void testEscapedSlash() {
+		Assertions.assertEquals("/A\\/B/ c", RegexTokens.toLowerCase("/A\\/B/ C"));
+		Assertions.assertEquals(List.of("/a\\/|b/", "c"), RegexTokens.splitAlternatives("/a\\/|b/|c"));
+	}
+
+	@Test
+	public void testSplitAlternatives() {
+		Assertions.assertEquals(List.of("iron", "gold"), RegexTokens.splitAlternatives("iron|gold"));
+		Assertions.assertEquals(List.of("iron ", " gold ingot"), RegexTokens.splitAlternatives("iron | gold ingot"));
+		Assertions.assertEquals(List.of("/ingot|nugget/"), RegexTokens.splitAlternatives("/ingot|nugget/"));
+		Assertions.assertEquals(List.of("&/ingot|nugget/ iron", "gold"), RegexTokens.splitAlternatives("&/ingot|nugget/ iron|gold"));
+		Assertions.assertEquals(List.of("/a/", "/b|c/"), RegexTokens.splitAlternatives("/a/|/b|c/"));
+		Assertions.assertEquals(List.of("\"/a b|c/\"", "d"), RegexTokens.splitAlternatives("\"/a b|c/\"|d"));
+		// an unclosed regex is plain text
+		Assertions.assertEquals(List.of("/a", "b"), RegexTokens.splitAlternatives("/a|b"));
+		Assertions.assertEquals(List.of("a", ""), RegexTokens.splitAlternatives("a|"));
+	}
+}
@@ -0,0 +1,204 @@
+package mezz.jei.test.search.pattern;
+
+import mezz.jei.core.search.PrefixInfo;
+import mezz.jei.core.search.PrefixedSearchable;
+import mezz.jei.core.search.SearchMode;
+import mezz.jei.core.search.pattern.SearchPattern;
+import mezz.jei.core.search.suffixtree.GeneralizedSuffixTree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+public class SearchPatternTest {
+	private static SearchPattern parse(String token) {
+		Optional<SearchPattern> pattern = SearchPattern.parse(token);
+		Assertions.assertTrue(pattern.isPresent(), "not a pattern: " + token);
+		return pattern.get();
+	}
+
+	@Test
+	public void testParse() {
+		Assertions.assertTrue(SearchPattern.parse("ingot").isEmpty());
+		Assertions.assertTrue(SearchPattern.parse("/").isEmpty());
+		Assertions.assertTrue(SearchPattern.parse("//").isEmpty());
+		// invalid regular expression
+		Assertions.assertTrue(SearchPattern.parse("/(ingot/").isEmpty());
+
+		Assertions.assertTrue(SearchPattern.parse("ingot_*").isPresent());
+		Assertions.assertTrue(SearchPattern.parse("/ingot/").isPresent());
+	}
+
+	@Test
+	public void testPlainTextWithWildcardCharacters() {
+		// question marks without a star are plain text
+		Assertions.assertTrue(SearchPattern.parse("what?").isEmpty());
+		Assertions.assertTrue(SearchPattern.parse("c?al").isEmpty());
+		// only wildcards would match everything
+		Assertions.assertTrue(SearchPattern.parse("*").isEmpty());
+		Assertions.assertTrue(SearchPattern.parse("?").isEmpty());
+		Assertions.assertTrue(SearchPattern.parse("*?*").isEmpty());
+
+		Assertions.assertTrue(SearchPattern.parse("c?al*").isPresent());
+		Assertions.assertTrue(SearchPattern.parse("*ore").isPresent());
+	}
+
+	@Test
+	public void testGlob() {
+		SearchPattern pattern = parse("ingot_*");
+		Assertions.assertEquals(List.of("ingot_"), pattern.getRequiredLiterals());
+		Assertions.assertTrue(pattern.matches("ingot_iron"));
+		Assertions.assertTrue(pattern.matches("gold_ingot_block"));
+		Assertions.assertFalse(pattern.matches("iron_ingot"));
+
+		pattern = parse("c?al*ore");
+		Assertions.assertEquals(List.of("ore", "al", "c"), pattern.getRequiredLiterals());
+		Assertions.assertTrue(pattern.matches("minecraft:coal_ore"));
+		Assertions.assertFalse(pattern.matches("minecraft:coal_block"));
+
+		// regular expression characters are literal in globs
+		pattern = parse("a.b*");
+		Assertions.assertTrue(pattern.matches("a.bc"));
+		Assertions.assertFalse(pattern.matches("axbc"));
+	}
+
+	@Test
+	public void testRegex() {
+		SearchPattern pattern = parse("/^minecraft:.*_log$/");
+		Assertions.assertEquals(List.of("minecraft:", "_log"), pattern.getRequiredLiterals());
+		Assertions.assertTrue(pattern.matches("minecraft:oak_log"));
+		Assertions.assertFalse(pattern.matches("minecraft:oak_log_stairs"));
+		Assertions.assertFalse(pattern.matches("othermod:minecraft:oak_log"));
+	}
+
+	@Test
+	public void testRegexIgnoresCase() {
+		// the search text is lowercase, regular expressions keep their case
+		SearchPattern pattern = parse("/^Minecraft:.*_Log$/");
+		Assertions.assertEquals(List.of("minecraft:", "_log"), pattern.getRequiredLiterals());
+		Assertions.assertTrue(pattern.matches("minecraft:oak_log"));
+
+		// upper case escapes keep their meaning
+		pattern = parse("/^\\D+_\\d$/");
+		Assertions.assertTrue(pattern.matches("wool_1"));
+		Assertions.assertFalse(pattern.matches("wool1_1"));
+		pattern = parse("/\\W/");
+		Assertions.assertTrue(pattern.matches("oak log"));
+		Assertions.assertFalse(pattern.matches("oak_log"));
+	}
+
+	@Test
+	public void testRegexAlternation() {
+		SearchPattern pattern = parse("/Ingot$|^Nugget/");
+		Assertions.assertEquals(List.of(), pattern.getRequiredLiterals());
+		Assertions.assertTrue(pattern.matches("iron_ingot"));
+		Assertions.assertTrue(pattern.matches("nugget_gold"));
+		Assertions.assertFalse(pattern.matches("gold_nugget"));
+	}
+
+	@Test
+	public void testExtractRequiredLiterals() {
+		Assertions.assertEquals(List.of("abc"), SearchPattern.extractRequiredLiterals("abc"));
+		// optional characters are not required
+		Assertions.assertEquals(List.of("ab", "d"), SearchPattern.extractRequiredLiterals("abc?d"));
+		Assertions.assertEquals(List.of("ab", "d"), SearchPattern.extractRequiredLiterals("abc*d"));
+		Assertions.assertEquals(List.of("ab", "d"), SearchPattern.extractRequiredLiterals("abc{0,2}d"));
+		// repeated characters are required
+		Assertions.assertEquals(List.of("abc", "d"), SearchPattern.extractRequiredLiterals("abc+d"));
+		// groups and classes are skipped
+		Assertions.assertEquals(List.of("ab", "ef"), SearchPattern.extractRequiredLiterals("ab(c|d)ef"));
+		Assertions.assertEquals(List.of("ab", "ef"), SearchPattern.extractRequiredLiterals("ab[c)\\]d]ef"));
+		Assertions.assertEquals(List.of("ab", "ef"), SearchPattern.extractRequiredLiterals("ab(c[)]d)?ef"));
+		// escaped characters are literal, escaped letters are not
+		Assertions.assertEquals(List.of("a.b"), SearchPattern.extractRequiredLiterals("a\\.b\\d"));
+		// alternation means that nothing is required
+		Assertions.assertEquals(List.of(), SearchPattern.extractRequiredLiterals("abc|def"));
+	}
+
+	@Test
+	public void testEscapeOperandsAreNotLiterals() {
+		Assertions.assertEquals(List.of(), SearchPattern.extractRequiredLiterals("\\x2d"));
+		Assertions.assertEquals(List.of("ab", "c"), SearchPattern.extractRequiredLiterals("ab\\x2dc"));
+		Assertions.assertEquals(List.of("ab"), SearchPattern.extractRequiredLiterals("\\x{2d}ab"));
+		Assertions.assertEquals(List.of(), SearchPattern.extractRequiredLiterals("\\p{L}"));
+		Assertions.assertEquals(List.of("ab"), SearchPattern.extractRequiredLiterals("\\pLab"));
+		Assertions.assertEquals(List.of("ab"), SearchPattern.extractRequiredLiterals("\\P{Lu}ab"));
+		Assertions.assertEquals(List.of(), SearchPattern.extractRequiredLiterals("\\u0041"));
+		Assertions.assertEquals(List.of("bc"), SearchPattern.extractRequiredLiterals("\\u0041bc"));
+		Assertions.assertEquals(List.of(), SearchPattern.extractRequiredLiterals("\\0101"));
+		Assertions.assertEquals(List.of("8"), SearchPattern.extractRequiredLiterals("\\0778"));
+		Assertions.assertEquals(List.of("b"), SearchPattern.extractRequiredLiterals("\\cAb"));
+		Assertions.assertEquals(List.of("b"), SearchPattern.extractRequiredLiterals("\\N{LATIN SMALL LETTER A}b"));
+		Assertions.assertEquals(List.of("b"), SearchPattern.extractRequiredLiterals("(?<x>a)\\k<x>b"));
+		Assertions.assertEquals(List.of("b"), SearchPattern.extractRequiredLiterals("(a)\\12b"));
+
+		// every match of these must still contain the literals
+		for (String regex : List.of("ab\\x2dc", "\\p{L}ab", "\\u0041bc", "\\0101xy", "\\cAb")) {
+			SearchPattern pattern = parse("/" + regex + "/");
+			Assertions.assertFalse(pattern.getRequiredLiterals().isEmpty(), regex);
+		}
+		Assertions.assertTrue(parse("/a\\x2db/").matches("a-b"));
+		Assertions.assertTrue(parse("/\\u0041bc/").matches("Abc"));
+	}
+
+	/**
+	 * Searching with the index must find the same elements as checking every element,
+	 * while only checking a small part of them for a selective pattern.
+	 * The time taken by the index depends on how many elements contain the literals that are searched for,
+	 * so a selective pattern must only produce a small number of candidates.
+	 */
+	@Test
+	public void testIndexedSearchMatchesLinearScan() {
+		final int elementCount = 150_000;
+		Random random = new Random(0);
+		String[] namespaces = {"minecraft", "create", "mekanism", "thermal", "ae2"};
+		String[] words = new String[1000];
+		for (int i = 0; i < words.length; i++) {
+			StringBuilder word = new StringBuilder();
+			int length = 3 + random.nextInt(6);
+			for (int j = 0; j < length; j++) {
+				word.append((char) ('a' + random.nextInt(26)));
+			}
+			words[i] = word.toString();
+		}
+		words[0] = "log";
+		words[1] = "ingot";
+
+		List<String> strings = new ArrayList<>(elementCount);
+		GeneralizedSuffixTree<Integer> suffixTree = new GeneralizedSuffixTree<>();
+		for (int i = 0; i < elementCount; i++) {
+			String string = namespaces[random.nextInt(namespaces.length)] + ":" +
+				words[random.nextInt(words.length)] + "_" + words[random.nextInt(words.length)];
+			strings.add(string);
+			suffixTree.put(string, i);
+		}
+		PrefixInfo<Integer, Integer> prefixInfo = new PrefixInfo<>('&', () -> SearchMode.ENABLED, i -> List.of(strings.get(i)), storageType -> suffixTree);
+		PrefixedSearchable<Integer, Integer> searchable = new PrefixedSearchable<>(suffixTree, prefixInfo);
+
+		for (String token : List.of("/^minecraft:.*_log$/", "ingot_*", "/^ae2:ingot_/", "c?eate:*_log")) {
+			SearchPattern pattern = parse(token);
+
+			Set<Integer> expected = new HashSet<>();
+			for (int i = 0; i < elementCount; i++) {
+				if (pattern.matches(strings.get(i))) {
+					expected.add(i);
+				}
+			}
+			Set<Integer> candidates = pattern.findCandidates(searchable);
+			Set<Integer> results = new HashSet<>();
+			for (Integer candidate : candidates) {
+				if (pattern.matchesAny(searchable.getStrings(candidate))) {
+					results.add(candidate);
+				}
+			}
+
+			Assertions.assertEquals(expected, results, token);
+			Assertions.assertTrue(candidates.size() < elementCount / 10, "pattern is not selective: " + token);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package mezz.jei.test.search.suffixarray;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import mezz.jei.core.search.ISearchStorage;
+import mezz.jei.core.search.LimitedStringStorage;
+import mezz.jei.core.search.suffixarray.SuffixArray;
+import mezz.jei.core.search.suffixtree.GeneralizedSuffixTree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class SuffixArrayTest {
+	private static final String ALPHABET = "abcde ";
+
+	private static Set<Integer> search(ISearchStorage<Integer> storage, String word) {
+		IntSet results = new IntOpenHashSet();
+		storage.getSearchResults(word, results::addAll);
+		return results;
+	}
+
+	private static Set<Integer> allElements(ISearchStorage<Integer> storage) {
+		IntSet results = new IntOpenHashSet();
+		storage.getAllElements(results::addAll);
+		return results;
+	}
+
+	@Test
+	public void testSearch() {
+		SuffixArray<Integer> suffixArray = new SuffixArray<>();
+
+		suffixArray.put("a", 0);
+		suffixArray.put("ab", 1);
+		suffixArray.put("cab", 2);
+		suffixArray.put("abcabxabcd", 3);
+
+		Assertions.assertEquals(Set.of(3), search(suffixArray, "abcabxabcd"));
+		Assertions.assertEquals(Set.of(3), search(suffixArray, "bxa"));
+		Assertions.assertEquals(Set.of(3), search(suffixArray, "d"));
+		Assertions.assertEquals(Set.of(2, 3), search(suffixArray, "cab"));
+		Assertions.assertEquals(Set.of(1, 2, 3), search(suffixArray, "ab"));
+		Assertions.assertEquals(Set.of(0, 1, 2, 3), search(suffixArray, "a"));
+		Assertions.assertEquals(Set.of(0, 1, 2, 3), allElements(suffixArray));
+	}
+
+	@Test
+	public void testNonMatchingSearches() {
+		SuffixArray<Integer> suffixArray = new SuffixArray<>();
+
+		suffixArray.put("ab", 0);
+		Assertions.assertEquals(Set.of(), search(suffixArray, ""));
+		Assertions.assertEquals(Set.of(), search(suffixArray, "abc"));
+		Assertions.assertEquals(Set.of(), search(suffixArray, "ac"));
+		Assertions.assertEquals(Set.of(), search(suffixArray, "ba"));
+		Assertions.assertEquals(Set.of(), search(suffixArray, "c"));
+	}
+
+	@Test
+	public void testSearchDoesNotCrossKeys() {
+		SuffixArray<Integer> suffixArray = new SuffixArray<>();
+
+		suffixArray.put("ab", 0);
+		suffixArray.put("cd", 1);
+		Assertions.assertEquals(Set.of(), search(suffixArray, "bc"));
+		Assertions.assertEquals(Set.of(), search(suffixArray, "abcd"));
+	}
+
+	@Test
+	public void testMatchesSuffixTreeOnSyntheticCorpus() {
+		Random random = new Random(1234);
+		GeneralizedSuffixTree<Integer> tree = new GeneralizedSuffixTree<>();
+		SuffixArray<Integer> suffixArray = new SuffixArray<>();
+
+		List<String> keys = new ArrayList<>();
+		for (int value = 0; value < 2000; value++) {
+			int keyCount = 1 + random.nextInt(3);
+			for (int k = 0; k < keyCount; k++) {
+				String key = randomString(random, 1 + random.nextInt(12));
+				keys.add(key);
+				tree.put(key, value);
+				suffixArray.put(key, value);
+			}
+
+			// search while adding, so that values are found in both the pending keys and the sorted suffixes
+			if (value % 97 == 0) {
+				assertSameResults(random, keys, tree, suffixArray);
+			}
+		}
+
+		assertSameResults(random, keys, tree, suffixArray);
+		Assertions.assertEquals(allElements(tree), allElements(suffixArray));
+	}
+
+	@Test
+	public void testLimitedStringStorageMatchesSuffixTree() {
+		Random random = new Random(5678);
+		LimitedStringStorage<Integer> treeStorage = new LimitedStringStorage<>();
+		LimitedStringStorage<Integer> arrayStorage = new LimitedStringStorage<>(new SuffixArray<>());
+
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			keys.add(randomString(random, 2 + random.nextInt(8)));
+		}
+		for (int value = 0; value < 3000; value++) {
+			String key = keys.get(random.nextInt(keys.size()));
+			treeStorage.put(key, value);
+			arrayStorage.put(key, value);
+		}
+
+		assertSameResults(random, keys, treeStorage, arrayStorage);
+		Assertions.assertEquals(allElements(treeStorage), allElements(arrayStorage));
+	}
+
+	private static void assertSameResults(Random random, List<String> keys, ISearchStorage<Integer> expected, ISearchStorage<Integer> actual) {
+		for (int i = 0; i < 200; i++) {
+			String word;
+			if (random.nextBoolean()) {
+				String key = keys.get(random.nextInt(keys.size()));
+				int start = random.nextInt(key.length());
+				int end = start + 1 + random.nextInt(key.length() - start);
+				word = key.substring(start, end);
+			} else {
+				word = randomString(random, 1 + random.nextInt(4));
+			}
+			Assertions.assertEquals(search(expected, word), search(actual, word), word);
+		}
+	}
+
+	private static String randomString(Random random, int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,128 @@
+package mezz.jei.test.search.trigram;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import mezz.jei.core.search.ISearchStorage;
+import mezz.jei.core.search.suffixtree.GeneralizedSuffixTree;
+import mezz.jei.core.search.trigram.TrigramSearchStorage;
+import mezz.jei.core.util.CancellationToken;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+public class TrigramSearchStorageTest {
+	private static Set<Integer> search(ISearchStorage<Integer> storage, String word) {
+		IntSet results = new IntOpenHashSet();
+		storage.getSearchResults(word, results::addAll);
+		return results;
+	}
+
+	@Test
+	public void testTypos() {
+		TrigramSearchStorage<Integer> storage = new TrigramSearchStorage<>();
+		storage.put("diamond pickaxe", 0);
+		storage.put("diamond", 1);
+		storage.put("iron pickaxe", 2);
+		storage.put("redstone dust", 3);
+
+		Assertions.assertEquals(Set.of(0, 1), search(storage, "diamond"));
+		// swapped letters
+		Assertions.assertEquals(Set.of(0, 1), search(storage, "diamnod"));
+		// missing letter
+		Assertions.assertEquals(Set.of(0, 1), search(storage, "diamon"));
+		// wrong letter
+		Assertions.assertEquals(Set.of(0, 2), search(storage, "pickaxr"));
+		// two typos in a long word
+		Assertions.assertEquals(Set.of(3), search(storage, "redstoen dutt"));
+		// too many typos
+		Assertions.assertEquals(Set.of(), search(storage, "daimnod"));
+		// short tokens must match exactly
+		Assertions.assertEquals(Set.of(2), search(storage, "iro"));
+		Assertions.assertEquals(Set.of(), search(storage, "irn"));
+		Assertions.assertEquals(Set.of(3), search(storage, "du"));
+	}
+
+	@Test
+	public void testRanking() {
+		TrigramSearchStorage<Integer> storage = new TrigramSearchStorage<>();
+		storage.put("golden carrot", 0);
+		storage.put("gold ingot", 1);
+		storage.put("gold", 2);
+		storage.put("golf", 3);
+
+		// exact matches first, shorter keys before longer ones, then matches with a typo
+		Assertions.assertEquals(List.of(2, 1, 0, 3), storage.getRankedResults("gold"));
+	}
+
+	@Test
+	public void testCancelled() {
+		TrigramSearchStorage<Integer> storage = new TrigramSearchStorage<>();
+		storage.put("gold ingot", 0);
+		storage.put("gold", 1);
+
+		CancellationToken cancellationToken = new CancellationToken();
+		cancellationToken.cancel();
+		Assertions.assertThrows(CancellationException.class, () -> storage.getRankedResults("gold", cancellationToken));
+		Assertions.assertThrows(CancellationException.class, () -> storage.getRankedResults("go", cancellationToken));
+		Assertions.assertEquals(List.of(1, 0), storage.getRankedResults("gold", new CancellationToken()));
+	}
+
+	@Test
+	public void testSubstringEditDistance() {
+		Assertions.assertEquals(0, TrigramSearchStorage.substringEditDistance("mond", "diamond", 2));
+		Assertions.assertEquals(1, TrigramSearchStorage.substringEditDistance("mnod", "diamond", 2));
+		Assertions.assertEquals(1, TrigramSearchStorage.substringEditDistance("diamonds", "diamond", 2));
+		Assertions.assertEquals(2, TrigramSearchStorage.substringEditDistance("xxamond", "diamond", 2));
+		Assertions.assertTrue(TrigramSearchStorage.substringEditDistance("zzzz", "diamond", 1) > 1);
+	}
+
+	/**
+	 * Every exact match must also be found, so the results are always a superset of the suffix tree's results,
+	 * and a long word with two swapped letters must still find the exact matches of the word.
+	 * It uses a realistic number of names.
+	 */
+	@Test
+	public void testMatchesSuffixTree() {
+		final int nameCount = 150_000;
+		Random random = new Random(0);
+		String[] words = new String[2000];
+		for (int i = 0; i < words.length; i++) {
+			StringBuilder word = new StringBuilder();
+			int length = 4 + random.nextInt(7);
+			for (int j = 0; j < length; j++) {
+				word.append((char) ('a' + random.nextInt(26)));
+			}
+			words[i] = word.toString();
+		}
+
+		TrigramSearchStorage<Integer> trigramStorage = new TrigramSearchStorage<>();
+		GeneralizedSuffixTree<Integer> suffixTree = new GeneralizedSuffixTree<>();
+		for (int i = 0; i < nameCount; i++) {
+			String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+			trigramStorage.put(name, i);
+			suffixTree.put(name, i);
+		}
+
+		final int searchCount = 500;
+		for (int i = 0; i < searchCount; i++) {
+			String word = words[random.nextInt(words.length)];
+			char[] typo = word.toCharArray();
+			int swap = random.nextInt(typo.length - 1);
+			typo[swap] = word.charAt(swap + 1);
+			typo[swap + 1] = word.charAt(swap);
+
+			Set<Integer> expected = search(suffixTree, word);
+			Set<Integer> results = search(trigramStorage, word);
+			Set<Integer> typoResults = search(trigramStorage, new String(typo));
+
+			Assertions.assertTrue(results.containsAll(expected), "missing exact matches for " + word);
+			if (word.length() >= 7) {
+				Assertions.assertTrue(typoResults.containsAll(expected), "missing typo matches for " + new String(typo));
+			}
+		}
+	}
+}
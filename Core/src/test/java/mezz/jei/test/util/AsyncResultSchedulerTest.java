@@ -0,0 +1,189 @@
+package mezz.jei.test.util;
+
+import mezz.jei.core.util.AsyncResultScheduler;
+import mezz.jei.core.util.CancellationToken;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+public class AsyncResultSchedulerTest {
+	@Test
+	public void testResultIsDeliveredOnResultExecutor() {
+		QueueExecutor background = new QueueExecutor();
+		QueueExecutor main = new QueueExecutor();
+		List<String> results = new ArrayList<>();
+		AsyncResultScheduler<String> scheduler = new AsyncResultScheduler<>(background, main, results::add);
+
+		scheduler.schedule(token -> "a");
+		Assertions.assertTrue(scheduler.isPending());
+
+		background.runAll();
+		Assertions.assertEquals(List.of(), results);
+		Assertions.assertTrue(scheduler.isPending());
+
+		main.runAll();
+		Assertions.assertEquals(List.of("a"), results);
+		Assertions.assertFalse(scheduler.isPending());
+	}
+
+	@Test
+	public void testNewerScheduleCancelsQueuedComputation() {
+		QueueExecutor background = new QueueExecutor();
+		QueueExecutor main = new QueueExecutor();
+		List<String> results = new ArrayList<>();
+		List<String> computed = new ArrayList<>();
+		AsyncResultScheduler<String> scheduler = new AsyncResultScheduler<>(background, main, results::add);
+
+		scheduler.schedule(token -> {
+			computed.add("a");
+			return "a";
+		});
+		scheduler.schedule(token -> {
+			computed.add("b");
+			return "b";
+		});
+
+		background.runAll();
+		main.runAll();
+		Assertions.assertEquals(List.of("b"), computed);
+		Assertions.assertEquals(List.of("b"), results);
+	}
+
+	@Test
+	public void testNewerScheduleCancelsRunningComputation() {
+		QueueExecutor background = new QueueExecutor();
+		QueueExecutor main = new QueueExecutor();
+		List<String> results = new ArrayList<>();
+		AsyncResultScheduler<String> scheduler = new AsyncResultScheduler<>(background, main, results::add);
+
+		scheduler.schedule(token -> {
+			// a newer keystroke arrives while this computation is running
+			scheduler.schedule(t -> "b");
+			token.throwIfCancelled();
+			return "a";
+		});
+
+		background.runAll();
+		main.runAll();
+		Assertions.assertEquals(List.of("b"), results);
+	}
+
+	@Test
+	public void testFinishedResultIsDroppedAfterNewerSchedule() {
+		QueueExecutor background = new QueueExecutor();
+		QueueExecutor main = new QueueExecutor();
+		List<String> results = new ArrayList<>();
+		AsyncResultScheduler<String> scheduler = new AsyncResultScheduler<>(background, main, results::add);
+
+		scheduler.schedule(token -> "a");
+		background.runAll();
+
+		// "a" is finished and waiting on the result executor
+		scheduler.schedule(token -> "b");
+		main.runAll();
+		Assertions.assertEquals(List.of(), results);
+		Assertions.assertTrue(scheduler.isPending());
+
+		background.runAll();
+		main.runAll();
+		Assertions.assertEquals(List.of("b"), results);
+	}
+
+	@Test
+	public void testCancel() {
+		QueueExecutor background = new QueueExecutor();
+		QueueExecutor main = new QueueExecutor();
+		List<String> results = new ArrayList<>();
+		AsyncResultScheduler<String> scheduler = new AsyncResultScheduler<>(background, main, results::add);
+
+		scheduler.schedule(token -> "a");
+		scheduler.cancel();
+		Assertions.assertFalse(scheduler.isPending());
+
+		background.runAll();
+		main.runAll();
+		Assertions.assertEquals(List.of(), results);
+	}
+
+	@Test
+	public void testFailedComputationIsNoLongerPending() {
+		QueueExecutor background = new QueueExecutor();
+		QueueExecutor main = new QueueExecutor();
+		List<String> results = new ArrayList<>();
+		AsyncResultScheduler<String> scheduler = new AsyncResultScheduler<>(background, main, results::add);
+
+		scheduler.schedule(token -> {
+			throw new IllegalStateException("expected by test");
+		});
+		background.runAll();
+		main.runAll();
+		Assertions.assertFalse(scheduler.isPending());
+		Assertions.assertEquals(List.of(), results);
+	}
+
+	@Test
+	public void testFailureIsDeliveredOnResultExecutor() {
+		QueueExecutor background = new QueueExecutor();
+		QueueExecutor main = new QueueExecutor();
+		List<String> results = new ArrayList<>();
+		List<RuntimeException> failures = new ArrayList<>();
+		AsyncResultScheduler<String> scheduler = new AsyncResultScheduler<>(background, main, results::add, failures::add);
+
+		IllegalStateException exception = new IllegalStateException("expected by test");
+		scheduler.schedule(token -> {
+			throw exception;
+		});
+		background.runAll();
+		Assertions.assertEquals(List.of(), failures);
+
+		main.runAll();
+		Assertions.assertEquals(List.of(exception), failures);
+		Assertions.assertEquals(List.of(), results);
+	}
+
+	@Test
+	public void testFailureIsDroppedAfterNewerSchedule() {
+		QueueExecutor background = new QueueExecutor();
+		QueueExecutor main = new QueueExecutor();
+		List<String> results = new ArrayList<>();
+		List<RuntimeException> failures = new ArrayList<>();
+		AsyncResultScheduler<String> scheduler = new AsyncResultScheduler<>(background, main, results::add, failures::add);
+
+		scheduler.schedule(token -> {
+			throw new IllegalStateException("expected by test");
+		});
+		background.runAll();
+		scheduler.schedule(token -> "b");
+		background.runAll();
+		main.runAll();
+		Assertions.assertEquals(List.of(), failures);
+		Assertions.assertEquals(List.of("b"), results);
+	}
+
+	@Test
+	public void testNoneTokenCannotBeCancelled() {
+		CancellationToken.NONE.cancel();
+		Assertions.assertFalse(CancellationToken.NONE.isCancelled());
+	}
+
+	private static class QueueExecutor implements Executor {
+		private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		public void runAll() {
+			Runnable task;
+			while ((task = tasks.poll()) != null) {
+				task.run();
+			}
+		}
+	}
+}
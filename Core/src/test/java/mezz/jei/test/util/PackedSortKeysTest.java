@@ -0,0 +1,118 @@
+package mezz.jei.test.util;
+
+import mezz.jei.core.util.PackedSortKeys;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class PackedSortKeysTest {
+	private record Ingredient(int createdIndex, String modName, String name, String tag, boolean armor, float toughness, int durability) {}
+
+	private static List<Ingredient> createIngredients(int count, long seed) {
+		Random random = new Random(seed);
+		String[] mods = {"minecraft", "create", "mekanism", "thermal", "ae2", "botania"};
+		List<Ingredient> ingredients = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			StringBuilder name = new StringBuilder();
+			int length = 1 + random.nextInt(4);
+			for (int j = 0; j < length; j++) {
+				name.append((char) ('a' + random.nextInt(6)));
+			}
+			String tag = random.nextInt(3) == 0 ? "" : "tag" + random.nextInt(20);
+			boolean armor = random.nextInt(5) == 0;
+			float toughness = armor ? random.nextInt(4) - 1.5f : 0;
+			ingredients.add(new Ingredient(i, mods[random.nextInt(mods.length)], name.toString(), tag, armor, toughness, random.nextInt(10)));
+		}
+		// sorting must be stable, so start from an order that is not the created order
+		Collections.shuffle(ingredients, random);
+		return ingredients;
+	}
+
+	private static int[] floatKeys(List<Ingredient> ingredients) {
+		return ingredients.stream()
+			.mapToInt(i -> {
+				int bits = Float.floatToIntBits(i.toughness());
+				return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+			})
+			.toArray();
+	}
+
+	private static List<Ingredient> sortWithKeys(List<Ingredient> ingredients, PackedSortKeys keys) {
+		int[] order = keys.sort();
+		return Arrays.stream(order)
+			.mapToObj(ingredients::get)
+			.toList();
+	}
+
+	@Test
+	public void testMatchesComparator() {
+		List<Ingredient> ingredients = createIngredients(5000, 0);
+
+		Comparator<Ingredient> comparator = Comparator.comparing(Ingredient::modName)
+			.thenComparing(Comparator.comparing((Ingredient i) -> !i.tag().isEmpty()).reversed())
+			.thenComparing(Ingredient::tag)
+			.thenComparing(Ingredient::name);
+		List<Ingredient> expected = new ArrayList<>(ingredients);
+		expected.sort(comparator);
+
+		PackedSortKeys keys = new PackedSortKeys(ingredients.size());
+		keys.addColumn(PackedSortKeys.rank(ingredients, Comparator.comparing(Ingredient::modName)));
+		keys.addColumn(ingredients.stream().mapToInt(i -> i.tag().isEmpty() ? 1 : 0).toArray());
+		keys.addColumn(PackedSortKeys.rank(ingredients, Comparator.comparing(Ingredient::tag)));
+		keys.addColumn(PackedSortKeys.rank(ingredients, Comparator.comparing(Ingredient::name)));
+
+		Assertions.assertEquals(expected, sortWithKeys(ingredients, keys));
+	}
+
+	@Test
+	public void testReversedAndFloatKeys() {
+		List<Ingredient> ingredients = createIngredients(5000, 1);
+
+		Comparator<Ingredient> comparator = Comparator.comparing(Ingredient::armor).reversed()
+			.thenComparing(Comparator.comparing(Ingredient::toughness).reversed())
+			.thenComparing(Comparator.comparing(Ingredient::durability).reversed());
+		List<Ingredient> expected = new ArrayList<>(ingredients);
+		expected.sort(comparator);
+
+		PackedSortKeys keys = new PackedSortKeys(ingredients.size());
+		keys.addColumn(ingredients.stream().mapToInt(i -> i.armor() ? 0 : 1).toArray());
+		keys.addColumn(Arrays.stream(floatKeys(ingredients)).map(k -> ~k).toArray());
+		keys.addColumn(ingredients.stream().mapToInt(i -> ~i.durability()).toArray());
+
+		Assertions.assertEquals(expected, sortWithKeys(ingredients, keys));
+	}
+
+	@Test
+	public void testManyColumns() {
+		List<Ingredient> ingredients = createIngredients(20000, 2);
+
+		// the created index is unique, so repeating it makes the keys too big for one long
+		Comparator<Ingredient> comparator = Comparator.comparing(Ingredient::name)
+			.thenComparing(Ingredient::durability)
+			.thenComparing(Comparator.comparingInt(Ingredient::createdIndex).reversed());
+		List<Ingredient> expected = new ArrayList<>(ingredients);
+		expected.sort(comparator);
+
+		PackedSortKeys keys = new PackedSortKeys(ingredients.size());
+		keys.addColumn(PackedSortKeys.rank(ingredients, Comparator.comparing(Ingredient::name)));
+		keys.addColumn(ingredients.stream().mapToInt(Ingredient::durability).toArray());
+		keys.addColumn(ingredients.stream().mapToInt(i -> ~i.createdIndex()).toArray());
+		keys.addColumn(ingredients.stream().mapToInt(Ingredient::createdIndex).toArray());
+		keys.addColumn(ingredients.stream().mapToInt(Ingredient::createdIndex).toArray());
+
+		Assertions.assertEquals(expected, sortWithKeys(ingredients, keys));
+	}
+
+	@Test
+	public void testEmpty() {
+		PackedSortKeys keys = new PackedSortKeys(0);
+		keys.addColumn(new int[0]);
+		Assertions.assertArrayEquals(new int[0], keys.sort());
+	}
+}
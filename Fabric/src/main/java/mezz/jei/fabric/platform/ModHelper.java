@@ -30,4 +30,14 @@ public class ModHelper implements IPlatformModHelper {
 		FabricLoader loader = FabricLoader.getInstance();
 		return loader.isDevelopmentEnvironment();
 	}
+
+	@Override
+	public Map<String, String> getModVersions() {
+		Map<String, String> modVersions = new HashMap<>();
+		for (ModContainer modContainer : FabricLoader.getInstance().getAllMods()) {
+			ModMetadata metadata = modContainer.getMetadata();
+			modVersions.put(metadata.getId(), metadata.getVersion().getFriendlyString());
+		}
+		return modVersions;
+	}
 }
@@ -152,6 +152,17 @@ public class BookmarkList implements IIngredientGridSource {
 			.toList();
 	}
 
+	public boolean hasRecipeBookmarks(RecipeType<?> recipeType) {
+		for (IBookmark bookmark : bookmarksList) {
+			if (bookmark instanceof RecipeBookmark<?,?> recipeBookmark) {
+				if (recipeBookmark.getRecipeCategory().getRecipeType().equals(recipeType)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
 	@Nullable
 	public <R> RecipeBookmark<R,?> getMatchingBookmark(RecipeType<R> recipeType, R recipe) {
 		for (IBookmark bookmark : bookmarksList) {
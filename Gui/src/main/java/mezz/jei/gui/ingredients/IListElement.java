@@ -11,6 +11,14 @@ public interface IListElement<V> {
 
 	int getCreatedIndex();
 
+	/**
+	 * A dense id assigned by the ingredient filter, used to store search results in a {@link java.util.BitSet}.
+	 * Returns -1 if the element has not been added to a filter.
+	 */
+	int getElementId();
+
+	void setElementId(int elementId);
+
 	boolean isVisible();
 
 	void setVisible(boolean visible);
@@ -12,6 +12,15 @@ import mezz.jei.common.config.DebugConfig;
 import mezz.jei.common.config.IClientConfig;
 import mezz.jei.common.config.IClientToggleState;
 import mezz.jei.common.config.IIngredientFilterConfig;
+import mezz.jei.core.search.IncrementalQueryEvaluator;
+import mezz.jei.core.search.PrefixInfo;
+import mezz.jei.core.search.QueryResultCache;
+import mezz.jei.core.search.SearchMode;
+import mezz.jei.core.search.SearchStorageType;
+import mezz.jei.core.search.SearchTokens;
+import mezz.jei.core.search.pattern.RegexTokens;
+import mezz.jei.core.util.AsyncResultScheduler;
+import mezz.jei.core.util.CancellationToken;
 import mezz.jei.gui.filter.IFilterTextSource;
 import mezz.jei.gui.overlay.IIngredientGridSource;
 import mezz.jei.gui.overlay.elements.IElement;
@@ -20,20 +29,27 @@ import mezz.jei.gui.search.ElementPrefixParser;
 import mezz.jei.gui.search.ElementSearch;
 import mezz.jei.gui.search.ElementSearchLowMem;
 import mezz.jei.gui.search.IElementSearch;
+import mezz.jei.gui.search.SearchIndexCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.IdentityHashMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.function.Function;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -47,19 +63,80 @@ public class IngredientFilter implements
 	private static final Logger LOGGER = LogManager.getLogger();
 	private static final Pattern QUOTE_PATTERN = Pattern.compile("\"");
 	private static final Pattern FILTER_SPLIT_PATTERN = Pattern.compile("(-?\".*?(?:\"|$)|\\S+)");
+	private static final long LAZY_INDEX_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+	private static final long LAZY_INDEX_STEP_DELAY_MILLIS = 50;
+	/**
+	 * The delay between lazy index steps while a search is waiting for the lazy index.
+	 */
+	private static final long LAZY_INDEX_PRIORITY_STEP_DELAY_MILLIS = 10;
+	private static final long LAZY_INDEX_WAIT_MILLIS = 50;
+	private static final int LAZY_INDEX_STEPS_PER_PROGRESS_LOG = 100;
+	private static final int MAX_CACHED_QUERIES = 32;
+	private static final long MAX_CACHED_QUERY_RESULT_IDS = 1 << 20;
 
 	private final IClientConfig clientConfig;
 	private final IFilterTextSource filterTextSource;
 	private final IIngredientManager ingredientManager;
-	private final Comparator<IListElement<?>> ingredientComparator;
+	private final IngredientSorter ingredientSorter;
 	private final IModIdHelper modIdHelper;
 	private final IIngredientVisibility ingredientVisibility;
 
 	private final ElementPrefixParser elementPrefixParser;
+	@Nullable
+	private final SearchIndexCache searchIndexCache;
 	private IElementSearch elementSearch;
+	/**
+	 * Every element in the filter, indexed by {@link IListElement#getElementId()}.
+	 */
+	private final List<IListElement<?>> elementsById = new ArrayList<>();
+	/**
+	 * Every element in the filter, indexed by ingredient type and {@link UidContext#Ingredient} uid,
+	 * so that added, removed and hidden ingredients can be found without a search.
+	 */
+	private final Map<IIngredientType<?>, Map<Object, IListElement<?>>> elementsByUid = new HashMap<>();
+	private final IncrementalQueryEvaluator<ElementPrefixParser.TokenInfo> queryEvaluator;
+	/**
+	 * Sorted ids of the visible elements found for recent filter texts.
+	 */
+	private final QueryResultCache queryResultCache = new QueryResultCache(MAX_CACHED_QUERIES, MAX_CACHED_QUERY_RESULT_IDS);
+	/**
+	 * The search modes that the cached search results were found with.
+	 */
+	private List<SearchMode> cachedSearchModes = List.of();
+	/**
+	 * Guards {@link #elementSearch}, {@link #elementsById}, {@link #elementsByUid} and {@link #queryResultCache},
+	 * which are read by searches running on the search executor.
+	 * Searches only hold it while they search one token or take a short snapshot,
+	 * so that the client thread never waits for a whole search.
+	 * Only the client thread changes the guarded state, so it can read it without the lock.
+	 */
+	private final ReentrantLock searchLock = new ReentrantLock();
+	/**
+	 * Guards {@link #queryEvaluator} and {@link #queryEvaluatorGeneration}.
+	 * A search that can't get it right away searches without the remembered results instead of waiting.
+	 */
+	private final ReentrantLock queryEvaluatorLock = new ReentrantLock();
+	/**
+	 * Changed whenever the searched elements change, so that the query evaluator forgets results from before the change.
+	 */
+	private final AtomicInteger indexGeneration = new AtomicInteger();
+	private int queryEvaluatorGeneration;
+	private final AsyncResultScheduler<List<IElement<?>>> searchScheduler;
+	private final Executor clientExecutor;
+	private boolean lazyIndexScheduled;
+	private int lazyIndexSteps;
+	/**
+	 * Completed when the lazily built part of the search index is finished, so that waiting searches can continue.
+	 */
+	private volatile CompletableFuture<Void> lazyIndexComplete = CompletableFuture.completedFuture(null);
+	private final AtomicInteger searchesWaitingForLazyIndex = new AtomicInteger();
 
+	/**
+	 * The last good search result. It is kept on screen while a newer search is running.
+	 */
 	@Nullable
 	private List<IElement<?>> ingredientListCached;
+	private boolean ingredientListCurrent;
 	private final List<SourceListChangedListener> listeners = new ArrayList<>();
 
 	public IngredientFilter(
@@ -67,85 +144,397 @@ public class IngredientFilter implements
 		IClientConfig clientConfig,
 		IIngredientFilterConfig config,
 		IIngredientManager ingredientManager,
-		Comparator<IListElement<?>> ingredientComparator,
+		IngredientSorter ingredientSorter,
 		List<IListElementInfo<?>> ingredients,
 		IModIdHelper modIdHelper,
 		IIngredientVisibility ingredientVisibility,
 		IColorHelper colorHelper,
 		IClientToggleState clientToggleState
+	) {
+		this(
+			filterTextSource,
+			clientConfig,
+			config,
+			ingredientManager,
+			ingredientSorter,
+			ingredients,
+			modIdHelper,
+			ingredientVisibility,
+			colorHelper,
+			clientToggleState,
+			Runnable::run,
+			Runnable::run,
+			null
+		);
+	}
+
+	/**
+	 * @param searchExecutor runs searches, so that typing in the search box does not block rendering
+	 * @param resultExecutor receives finished searches, it must run tasks on the thread that uses this filter
+	 * @param searchIndexCache saves the search index to disk to speed up the next start, or null to always build it
+	 */
+	public IngredientFilter(
+		IFilterTextSource filterTextSource,
+		IClientConfig clientConfig,
+		IIngredientFilterConfig config,
+		IIngredientManager ingredientManager,
+		IngredientSorter ingredientSorter,
+		List<IListElementInfo<?>> ingredients,
+		IModIdHelper modIdHelper,
+		IIngredientVisibility ingredientVisibility,
+		IColorHelper colorHelper,
+		IClientToggleState clientToggleState,
+		Executor searchExecutor,
+		Executor resultExecutor,
+		@Nullable SearchIndexCache searchIndexCache
 	) {
 		this.filterTextSource = filterTextSource;
 		this.clientConfig = clientConfig;
 		this.ingredientManager = ingredientManager;
-		this.ingredientComparator = ingredientComparator;
+		this.ingredientSorter = ingredientSorter;
 		this.modIdHelper = modIdHelper;
 		this.ingredientVisibility = ingredientVisibility;
 		this.elementPrefixParser = new ElementPrefixParser(ingredientManager, config, colorHelper, modIdHelper);
+		this.searchIndexCache = searchIndexCache;
 
-		this.elementSearch = createElementSearch(clientConfig, elementPrefixParser);
+		this.queryEvaluator = createQueryEvaluator();
+		this.searchScheduler = new AsyncResultScheduler<>(searchExecutor, resultExecutor, this::onSearchCompleted, this::onSearchFailed);
+		this.clientExecutor = resultExecutor;
 
 		LOGGER.info("Adding {} ingredients", ingredients.size());
 		for (IListElementInfo<?> ingredient : ingredients) {
-			addIngredient(ingredient);
+			IListElement<?> element = ingredient.getElement();
+			updateHiddenState(element);
+			addElementId(element);
 		}
+		this.elementSearch = createElementSearch(ingredients);
+		startLazyIndex();
 		LOGGER.info("Added {} ingredients", ingredients.size());
 		if (DebugConfig.isLogSuffixTreeStatsEnabled()) {
 			this.elementSearch.logStatistics();
 		}
 
 		this.filterTextSource.addListener(filterText -> {
-			ingredientListCached = null;
-			notifyListenersOfChange();
+			ingredientListCurrent = false;
+			startSearch();
 		});
 
 		clientToggleState.addEditModeToggleListener(this);
 	}
 
-	private static IElementSearch createElementSearch(IClientConfig clientConfig, ElementPrefixParser elementPrefixParser) {
+	private IncrementalQueryEvaluator<ElementPrefixParser.TokenInfo> createQueryEvaluator() {
+		return new IncrementalQueryEvaluator<>(
+			(tokenInfo, cancellationToken) -> {
+				// only held for one token at a time, so the client thread can change the index between tokens
+				searchLock.lock();
+				try {
+					return this.elementSearch.getSearchResults(tokenInfo, cancellationToken);
+				} finally {
+					searchLock.unlock();
+				}
+			},
+			elementPrefixParser::isRefinement
+		);
+	}
+
+	private IElementSearch createElementSearch(List<IListElementInfo<?>> infos) {
 		if (clientConfig.isLowMemorySlowSearchEnabled()) {
-			return new ElementSearchLowMem();
-		} else {
-			return new ElementSearch(elementPrefixParser);
+			IElementSearch elementSearch = new ElementSearchLowMem();
+			elementSearch.addAll(infos);
+			return elementSearch;
+		}
+		SearchStorageType storageType = clientConfig.getSearchStorageType();
+		List<PrefixInfo<IListElementInfo<?>, IListElement<?>>> lazyPrefixInfos = getLazyPrefixInfos();
+		if (searchIndexCache != null) {
+			return searchIndexCache.createElementSearch(() -> new ElementSearch(elementPrefixParser, storageType, lazyPrefixInfos), infos);
 		}
+		IElementSearch elementSearch = new ElementSearch(elementPrefixParser, storageType, lazyPrefixInfos);
+		elementSearch.addAll(infos);
+		return elementSearch;
 	}
 
 	public <V> void addIngredient(IListElementInfo<V> info) {
 		IListElement<V> element = info.getElement();
 		updateHiddenState(element);
-
-		this.elementSearch.add(info);
+		// a cancelled search stops at its next check, so this does not wait for it to finish
+		searchScheduler.cancel();
+		searchLock.lock();
+		try {
+			addElementId(element);
+			this.elementSearch.add(info);
+			this.ingredientSorter.add(info);
+		} finally {
+			searchLock.unlock();
+		}
 
 		invalidateCache();
 	}
 
+	private List<PrefixInfo<IListElementInfo<?>, IListElement<?>>> getLazyPrefixInfos() {
+		if (clientConfig.isLazyTooltipSearchIndexEnabled()) {
+			return List.of(elementPrefixParser.getTooltipPrefixInfo());
+		}
+		return List.of();
+	}
+
+	/**
+	 * Builds the lazily built part of the search index on the client thread,
+	 * a few milliseconds at a time so that it does not cause lag.
+	 */
+	private void startLazyIndex() {
+		if (!clientConfig.isLazyTooltipSearchIndexEnabled() || lazyIndexScheduled) {
+			return;
+		}
+		lazyIndexScheduled = true;
+		lazyIndexSteps = 0;
+		lazyIndexComplete = new CompletableFuture<>();
+		LOGGER.info("Building the lazy search index in the background");
+		scheduleLazyIndexStep();
+	}
+
+	private void scheduleLazyIndexStep() {
+		// steps still wait between each other while a search is waiting, so that the client stays responsive
+		long delay = searchesWaitingForLazyIndex.get() > 0 ? LAZY_INDEX_PRIORITY_STEP_DELAY_MILLIS : LAZY_INDEX_STEP_DELAY_MILLIS;
+		CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, clientExecutor)
+			.execute(this::buildLazyIndexStep);
+	}
+
+	private void buildLazyIndexStep() {
+		boolean complete;
+		String progress;
+		if (!searchLock.tryLock()) {
+			// a search is using the index, try again on a later frame instead of waiting for it
+			scheduleLazyIndexStep();
+			return;
+		}
+		try {
+			complete = elementSearch.buildLazyIndex(System.nanoTime() + LAZY_INDEX_STEP_NANOS);
+			progress = elementSearch.getLazyIndexProgress();
+		} finally {
+			searchLock.unlock();
+		}
+		lazyIndexSteps++;
+		if (complete) {
+			lazyIndexScheduled = false;
+			lazyIndexComplete.complete(null);
+			LOGGER.info("Finished building the lazy search index in {} steps: {}", lazyIndexSteps, progress);
+		} else {
+			if (lazyIndexSteps % LAZY_INDEX_STEPS_PER_PROGRESS_LOG == 0) {
+				LOGGER.info("Building the lazy search index: {}", progress);
+			}
+			scheduleLazyIndexStep();
+		}
+	}
+
+	private List<ElementPrefixParser.TokenInfo> parseAllTokens(String filterText) {
+		List<ElementPrefixParser.TokenInfo> tokenInfos = new ArrayList<>();
+		for (String filter : RegexTokens.splitAlternatives(filterText)) {
+			SearchTokens<ElementPrefixParser.TokenInfo> searchTokens = parseSearchTokens(filter);
+			tokenInfos.addAll(searchTokens.toSearch());
+			tokenInfos.addAll(searchTokens.toRemove());
+		}
+		return tokenInfos;
+	}
+
+	/**
+	 * Finishes any lazily built part of the search index that the tokens need,
+	 * so that searches for them have complete results.
+	 * This calls ingredient code, so it must be called on the client thread.
+	 */
+	private void buildIndexFor(List<ElementPrefixParser.TokenInfo> tokenInfos) {
+		searchLock.lock();
+		try {
+			for (ElementPrefixParser.TokenInfo tokenInfo : tokenInfos) {
+				elementSearch.buildIndexFor(tokenInfo);
+			}
+		} finally {
+			searchLock.unlock();
+		}
+	}
+
+	/**
+	 * Only the client thread changes the search index, so it can check this without the search lock.
+	 *
+	 * @return true if the tokens can be searched in the background
+	 */
+	private boolean supportsBackgroundSearch(List<ElementPrefixParser.TokenInfo> tokenInfos) {
+		for (ElementPrefixParser.TokenInfo tokenInfo : tokenInfos) {
+			if (!elementSearch.supportsBackgroundSearch(tokenInfo)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isIndexBuiltFor(List<ElementPrefixParser.TokenInfo> tokenInfos) {
+		searchLock.lock();
+		try {
+			for (ElementPrefixParser.TokenInfo tokenInfo : tokenInfos) {
+				if (!elementSearch.isIndexBuiltFor(tokenInfo)) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			searchLock.unlock();
+		}
+	}
+
+	/**
+	 * Waits on the search executor until the lazily built part of the search index that the tokens need is finished.
+	 * The lazy index is built on the client thread a step at a time, and the steps run more often while a search waits.
+	 */
+	private void awaitIndexFor(List<ElementPrefixParser.TokenInfo> tokenInfos, CancellationToken cancellationToken) {
+		if (isIndexBuiltFor(tokenInfos)) {
+			return;
+		}
+		searchesWaitingForLazyIndex.incrementAndGet();
+		try {
+			// the lazy index may have been completed before a prefix was enabled, so make sure it is being built
+			clientExecutor.execute(this::startLazyIndex);
+			while (!isIndexBuiltFor(tokenInfos)) {
+				cancellationToken.throwIfCancelled();
+				try {
+					lazyIndexComplete.get(LAZY_INDEX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// check the index and the cancellation token again
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("Failed to build the lazy search index", e);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new CancellationException("Interrupted while waiting for the lazy search index");
+				}
+			}
+		} finally {
+			searchesWaitingForLazyIndex.decrementAndGet();
+		}
+	}
+
+	private void addElementId(IListElement<?> element) {
+		element.setElementId(this.elementsById.size());
+		this.elementsById.add(element);
+		addElementUid(element);
+	}
+
+	private <V> void addElementUid(IListElement<V> element) {
+		ITypedIngredient<V> typedIngredient = element.getTypedIngredient();
+		IIngredientType<V> type = typedIngredient.getType();
+		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(type);
+		Object uid = ingredientHelper.getUid(typedIngredient, UidContext.Ingredient);
+		// keep the first element with a uid, like a search for it would find
+		this.elementsByUid.computeIfAbsent(type, t -> new HashMap<>())
+			.putIfAbsent(uid, element);
+	}
+
+	private List<IListElement<?>> getElements(BitSet elementIds) {
+		List<IListElement<?>> elements = new ArrayList<>(elementIds.cardinality());
+		searchLock.lock();
+		try {
+			for (int id = elementIds.nextSetBit(0); id >= 0; id = elementIds.nextSetBit(id + 1)) {
+				elements.add(this.elementsById.get(id));
+			}
+		} finally {
+			searchLock.unlock();
+		}
+		return elements;
+	}
+
 	public void invalidateCache() {
-		ingredientListCached = null;
+		ingredientListCurrent = false;
+		searchScheduler.cancel();
+		indexGeneration.incrementAndGet();
+		searchLock.lock();
+		try {
+			queryResultCache.invalidate();
+		} finally {
+			searchLock.unlock();
+		}
+	}
+
+	/**
+	 * Search modes are read from the config when searching, so cached results are invalid once they change.
+	 */
+	private void invalidateCacheIfSearchModesChanged() {
+		List<SearchMode> searchModes = elementPrefixParser.allPrefixInfos()
+			.stream()
+			.map(PrefixInfo::getMode)
+			.toList();
+		if (!searchModes.equals(cachedSearchModes)) {
+			cachedSearchModes = searchModes;
+			indexGeneration.incrementAndGet();
+			queryResultCache.invalidate();
+		}
+	}
+
+	public String getQueryResultCacheStatistics() {
+		searchLock.lock();
+		try {
+			return queryResultCache.statistics();
+		} finally {
+			searchLock.unlock();
+		}
+	}
+
+	public long getQueryResultCacheHitCount() {
+		searchLock.lock();
+		try {
+			return queryResultCache.getHitCount();
+		} finally {
+			searchLock.unlock();
+		}
 	}
 
 	public void rebuildItemFilter() {
 		this.invalidateCache();
-		Collection<IListElement<?>> ingredients = this.elementSearch.getAllIngredients();
-		this.elementSearch = createElementSearch(this.clientConfig, this.elementPrefixParser);
-		List<IListElementInfo<?>> elementInfos = IngredientListElementFactory.rebuildList(ingredientManager, ingredients, modIdHelper);
-		this.elementSearch.addAll(elementInfos);
+		searchLock.lock();
+		try {
+			List<IListElement<?>> elements = List.copyOf(this.elementsById);
+			List<IListElementInfo<?>> elementInfos = IngredientListElementFactory.rebuildList(ingredientManager, elements, modIdHelper);
+			if (elementInfos.size() == elements.size() && this.elementSearch instanceof ElementSearch previousSearch && !clientConfig.isLowMemorySlowSearchEnabled()) {
+				// the elements and their ids are unchanged, so only the storages with changed strings need to be rebuilt
+				ElementSearch elementSearch = new ElementSearch(elementPrefixParser, clientConfig.getSearchStorageType(), getLazyPrefixInfos());
+				List<PrefixInfo<IListElementInfo<?>, IListElement<?>>> rebuiltPrefixes = elementSearch.addAll(elementInfos, previousSearch);
+				LOGGER.info("Rebuilt the search index for prefixes: {}", rebuiltPrefixes);
+				this.elementSearch = elementSearch;
+			} else {
+				// some elements are broken now, so every element id changes
+				this.elementsById.clear();
+				this.elementsByUid.clear();
+				for (IListElementInfo<?> elementInfo : elementInfos) {
+					addElementId(elementInfo.getElement());
+				}
+				this.elementSearch = createElementSearch(elementInfos);
+			}
+			this.ingredientSorter.replaceInfos(elementInfos);
+			// drop anything a search cached while this was waiting for the lock
+			this.indexGeneration.incrementAndGet();
+			this.queryResultCache.invalidate();
+		} finally {
+			searchLock.unlock();
+		}
+		startLazyIndex();
 	}
 
-	public <V> Optional<IListElement<V>> searchForMatchingElement(
+	public <V> Optional<IListElement<V>> getMatchingElement(
 		IIngredientHelper<V> ingredientHelper,
 		ITypedIngredient<V> typedIngredient
 	) {
-		V ingredient = typedIngredient.getIngredient();
 		IIngredientType<V> type = typedIngredient.getType();
-		Function<ITypedIngredient<V>, Object> uidFunction = (i) -> ingredientHelper.getUid(i, UidContext.Ingredient);
-		Object ingredientUid = uidFunction.apply(typedIngredient);
-		String lowercaseDisplayName = DisplayNameUtil.getLowercaseDisplayNameForSearch(ingredient, ingredientHelper);
-
-		ElementPrefixParser.TokenInfo tokenInfo = new ElementPrefixParser.TokenInfo(lowercaseDisplayName, ElementPrefixParser.NO_PREFIX);
-		return this.elementSearch.getSearchResults(tokenInfo)
-			.stream()
-			.map(elementInfo -> checkForMatch(elementInfo, type, ingredientUid, uidFunction))
-			.flatMap(Optional::stream)
-			.findFirst();
+		Object uid = ingredientHelper.getUid(typedIngredient, UidContext.Ingredient);
+		searchLock.lock();
+		try {
+			Map<Object, IListElement<?>> elements = this.elementsByUid.get(type);
+			if (elements == null) {
+				return Optional.empty();
+			}
+			IListElement<?> element = elements.get(uid);
+			if (element == null) {
+				return Optional.empty();
+			}
+			return optionalCast(element, type);
+		} finally {
+			searchLock.unlock();
+		}
 	}
 
 	@Override
@@ -155,12 +544,13 @@ public class IngredientFilter implements
 
 	public void updateHidden() {
 		boolean changed = false;
+		// only the client thread changes the elements, so they can be read here without the search lock
 		for (IListElement<?> element : this.elementSearch.getAllIngredients()) {
 			changed |= updateHiddenState(element);
 		}
 		if (changed) {
-			ingredientListCached = null;
-			notifyListenersOfChange();
+			invalidateCache();
+			startSearch();
 		}
 	}
 
@@ -176,31 +566,172 @@ public class IngredientFilter implements
 
 	@Override
 	public <V> void onIngredientVisibilityChanged(ITypedIngredient<V> ingredient, boolean visible) {
+		if (setVisible(ingredient, visible)) {
+			invalidateCache();
+			notifyListenersOfChange();
+		}
+	}
+
+	@Override
+	public void onIngredientsVisibilityChanged(Collection<ITypedIngredient<?>> ingredients, boolean visible) {
+		boolean changed = false;
+		for (ITypedIngredient<?> ingredient : ingredients) {
+			changed |= setVisible(ingredient, visible);
+		}
+		if (changed) {
+			invalidateCache();
+			notifyListenersOfChange();
+		}
+	}
+
+	private <V> boolean setVisible(ITypedIngredient<V> ingredient, boolean visible) {
 		IIngredientType<V> ingredientType = ingredient.getType();
 		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(ingredientType);
-		searchForMatchingElement(ingredientHelper, ingredient)
-			.ifPresent(element -> {
-				if (element.isVisible() != visible) {
-					element.setVisible(visible);
-					notifyListenersOfChange();
-				}
-			});
+		Optional<IListElement<V>> matchingElement = getMatchingElement(ingredientHelper, ingredient);
+		if (matchingElement.isPresent() && matchingElement.get().isVisible() != visible) {
+			matchingElement.get().setVisible(visible);
+			return true;
+		}
+		return false;
 	}
 
+	/**
+	 * Returns the last good search result.
+	 * If it is out of date, a new search is started and listeners are notified when it completes.
+	 */
 	@Override
 	public List<IElement<?>> getElements() {
-		String filterText = this.filterTextSource.getFilterText();
-		filterText = filterText.toLowerCase();
 		if (ingredientListCached == null) {
-			ingredientListCached = getIngredientListUncached(filterText)
-				.<IElement<?>>map(IngredientElement::new)
-				.toList();
+			// nothing to show yet, so search right away
+			return getCurrentElements();
+		}
+		if (!ingredientListCurrent && !searchScheduler.isPending()) {
+			startSearch();
+		}
+		return ingredientListCached;
+	}
+
+	/**
+	 * Returns the search result for the current filter text, searching on this thread if needed.
+	 */
+	private List<IElement<?>> getCurrentElements() {
+		if (ingredientListCached == null || !ingredientListCurrent) {
+			searchScheduler.cancel();
+			boolean replaced = ingredientListCached != null;
+			String filterText = getFilterText();
+			buildIndexFor(parseAllTokens(filterText));
+			ingredientListCached = search(filterText, CancellationToken.NONE);
+			ingredientListCurrent = true;
+			if (replaced) {
+				// a pending search was cancelled, let listeners know about this result instead
+				notifyListenersOfChange();
+			}
 		}
 		return ingredientListCached;
 	}
 
+	/**
+	 * Starts a search for the current filter text.
+	 * Searches that can run in the background are only queued here, they wait on the search executor
+	 * for any part of the lazy index that they need, so typing does not block the client thread.
+	 */
+	private void startSearch() {
+		String filterText = getFilterText();
+		List<ElementPrefixParser.TokenInfo> tokenInfos = parseAllTokens(filterText);
+		if (!supportsBackgroundSearch(tokenInfos)) {
+			searchScheduler.cancel();
+			buildIndexFor(tokenInfos);
+			onSearchCompleted(search(filterText, CancellationToken.NONE));
+			return;
+		}
+		searchScheduler.schedule(cancellationToken -> {
+			awaitIndexFor(tokenInfos, cancellationToken);
+			return search(filterText, cancellationToken);
+		});
+	}
+
+	private void onSearchCompleted(List<IElement<?>> elements) {
+		ingredientListCached = elements;
+		ingredientListCurrent = true;
+		notifyListenersOfChange();
+	}
+
+	/**
+	 * Keeps showing the last good result instead of retrying the same search every frame.
+	 * The search runs again when the filter text or the ingredient index changes.
+	 */
+	private void onSearchFailed(RuntimeException e) {
+		ingredientListCurrent = true;
+	}
+
+	private String getFilterText() {
+		return RegexTokens.toLowerCase(this.filterTextSource.getFilterText());
+	}
+
+	private List<IElement<?>> search(String filterText, CancellationToken cancellationToken) {
+		// the filter text is already lowercase outside of regular expressions, and surrounding whitespace does not change the results
+		String query = filterText.strip();
+		List<SearchTokens<ElementPrefixParser.TokenInfo>> searchTokens = parseQuery(filterText);
+		int cacheGeneration;
+		int generation;
+		int elementCount;
+		searchLock.lock();
+		try {
+			cancellationToken.throwIfCancelled();
+			invalidateCacheIfSearchModesChanged();
+			int[] cachedIds = queryResultCache.get(query);
+			if (cachedIds != null) {
+				return Arrays.stream(cachedIds)
+					.mapToObj(this.elementsById::get)
+					.map(IListElement::getTypedIngredient)
+					.<IElement<?>>map(IngredientElement::new)
+					.toList();
+			}
+			cacheGeneration = queryResultCache.getGeneration();
+			generation = indexGeneration.get();
+			elementCount = this.elementsById.size();
+		} finally {
+			searchLock.unlock();
+		}
+
+		// the search lock is only taken for each token and for short snapshots,
+		// so that a slow token does not block the client thread while it changes the index
+		List<IListElement<?>> elements = getIngredientListUncached(searchTokens, elementCount, generation, cancellationToken)
+			.filter(IListElement::isVisible)
+			.toList();
+		List<IListElement<?>> sortedElements = getRankedElements(filterText, elements, cancellationToken);
+		if (sortedElements == null) {
+			long[] sortKeys;
+			searchLock.lock();
+			try {
+				// adding an ingredient can renumber every sorted index, so read them while holding the lock
+				sortKeys = ingredientSorter.getSortKeys(elements);
+			} finally {
+				searchLock.unlock();
+			}
+			cancellationToken.throwIfCancelled();
+			sortedElements = ingredientSorter.sort(elements, sortKeys);
+		}
+
+		int[] ids = new int[sortedElements.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = sortedElements.get(i).getElementId();
+		}
+		searchLock.lock();
+		try {
+			queryResultCache.put(query, ids, cacheGeneration);
+		} finally {
+			searchLock.unlock();
+		}
+
+		return sortedElements.stream()
+			.map(IListElement::getTypedIngredient)
+			.<IElement<?>>map(IngredientElement::new)
+			.toList();
+	}
+
 	public <T> List<T> getFilteredIngredients(IIngredientType<T> ingredientType) {
-		return getElements()
+		return getCurrentElements()
 			.stream()
 			.map(IElement::getTypedIngredient)
 			.map(i -> i.getIngredient(ingredientType))
@@ -208,37 +739,90 @@ public class IngredientFilter implements
 			.toList();
 	}
 
-	private Stream<ITypedIngredient<?>> getIngredientListUncached(String filterText) {
-		String[] filters = filterText.split("\\|");
-		List<SearchTokens> searchTokens = Arrays.stream(filters)
+	/**
+	 * Keeps the order of a ranked search, like a fuzzy search, instead of sorting its results like other searches.
+	 * Only filter texts without alternatives ("|") are ranked, by their first ranked token.
+	 *
+	 * @return the elements in ranked order, or null if the filter text is not ranked
+	 */
+	@Nullable
+	private List<IListElement<?>> getRankedElements(String filterText, List<IListElement<?>> elements, CancellationToken cancellationToken) {
+		if (filterText.contains("|")) {
+			return null;
+		}
+		SearchTokens<ElementPrefixParser.TokenInfo> searchTokens = parseSearchTokens(filterText);
+		for (ElementPrefixParser.TokenInfo tokenInfo : searchTokens.toSearch()) {
+			Optional<List<IListElement<?>>> rankedResults;
+			searchLock.lock();
+			try {
+				rankedResults = this.elementSearch.getRankedSearchResults(tokenInfo, cancellationToken);
+			} finally {
+				searchLock.unlock();
+			}
+			if (rankedResults.isPresent()) {
+				BitSet elementIds = new BitSet();
+				for (IListElement<?> element : elements) {
+					elementIds.set(element.getElementId());
+				}
+				return rankedResults.get()
+					.stream()
+					.filter(element -> elementIds.get(element.getElementId()))
+					.toList();
+			}
+		}
+		return null;
+	}
+
+	private List<SearchTokens<ElementPrefixParser.TokenInfo>> parseQuery(String filterText) {
+		return RegexTokens.splitAlternatives(filterText).stream()
 			.map(this::parseSearchTokens)
 			.filter(s -> !s.isEmpty())
 			.toList();
+	}
 
-		Stream<IListElement<?>> elementStream;
+	private Stream<IListElement<?>> getIngredientListUncached(
+		List<SearchTokens<ElementPrefixParser.TokenInfo>> searchTokens,
+		int elementCount,
+		int generation,
+		CancellationToken cancellationToken
+	) {
 		if (searchTokens.isEmpty()) {
-			elementStream = this.elementSearch.getAllIngredients()
-				.parallelStream();
-		} else {
-			elementStream = searchTokens.stream()
-				.map(this::getSearchResults)
-				.flatMap(Set::stream)
-				.distinct();
+			List<IListElement<?>> allElements;
+			searchLock.lock();
+			try {
+				allElements = List.copyOf(this.elementSearch.getAllIngredients());
+			} finally {
+				searchLock.unlock();
+			}
+			return allElements.parallelStream();
 		}
-
-		return elementStream
-			.filter(IListElement::isVisible)
-			.sorted(ingredientComparator)
-			.map(IListElement::getTypedIngredient);
+		BitSet results = evaluate(searchTokens, elementCount, generation, cancellationToken);
+		cancellationToken.throwIfCancelled();
+		return getElements(results).stream();
 	}
 
-	private static <T> Optional<IListElement<T>> checkForMatch(IListElement<?> element, IIngredientType<T> ingredientType, Object uid, Function<ITypedIngredient<T>, Object> uidFunction) {
-		return optionalCast(element, ingredientType)
-			.filter(cast -> {
-				ITypedIngredient<T> typedIngredient = cast.getTypedIngredient();
-				Object elementUid = uidFunction.apply(typedIngredient);
-				return uid.equals(elementUid);
-			});
+	/**
+	 * Evaluates the query with the remembered results of the last query, if no other search is using them.
+	 */
+	private BitSet evaluate(
+		List<SearchTokens<ElementPrefixParser.TokenInfo>> searchTokens,
+		int elementCount,
+		int generation,
+		CancellationToken cancellationToken
+	) {
+		if (!queryEvaluatorLock.tryLock()) {
+			// a cancelled search may still be finishing its current token, don't wait for it
+			return createQueryEvaluator().evaluate(searchTokens, elementCount, cancellationToken);
+		}
+		try {
+			if (queryEvaluatorGeneration != generation) {
+				queryEvaluator.invalidate();
+				queryEvaluatorGeneration = generation;
+			}
+			return queryEvaluator.evaluate(searchTokens, elementCount, cancellationToken);
+		} finally {
+			queryEvaluatorLock.unlock();
+		}
 	}
 
 	private static <T> Optional<IListElement<T>> optionalCast(IListElement<?> element, IIngredientType<T> ingredientType) {
@@ -254,7 +838,7 @@ public class IngredientFilter implements
 	@Override
 	public <V> void onIngredientsAdded(IIngredientHelper<V> ingredientHelper, Collection<ITypedIngredient<V>> ingredients) {
 		for (ITypedIngredient<V> value : ingredients) {
-			Optional<IListElement<V>> matchingElementOptional = searchForMatchingElement(ingredientHelper, value);
+			Optional<IListElement<V>> matchingElementOptional = getMatchingElement(ingredientHelper, value);
 			if (matchingElementOptional.isPresent()) {
 				IListElement<V> matchingElement = matchingElementOptional.get();
 				updateHiddenState(matchingElement);
@@ -277,7 +861,7 @@ public class IngredientFilter implements
 	@Override
 	public <V> void onIngredientsRemoved(IIngredientHelper<V> ingredientHelper, Collection<ITypedIngredient<V>> ingredients) {
 		for (ITypedIngredient<V> typedIngredient : ingredients) {
-			Optional<IListElement<V>> matchingElementOptional = searchForMatchingElement(ingredientHelper, typedIngredient);
+			Optional<IListElement<V>> matchingElementOptional = getMatchingElement(ingredientHelper, typedIngredient);
 			if (matchingElementOptional.isEmpty()) {
 				String errorInfo = ingredientHelper.getErrorInfo(typedIngredient.getIngredient());
 				LOGGER.error("Could not find a matching ingredient to remove: {}", errorInfo);
@@ -293,14 +877,8 @@ public class IngredientFilter implements
 		invalidateCache();
 	}
 
-	private record SearchTokens(List<ElementPrefixParser.TokenInfo> toSearch, List<ElementPrefixParser.TokenInfo> toRemove) {
-		public boolean isEmpty() {
-			return toSearch.isEmpty() && toRemove.isEmpty();
-		}
-	}
-
-	private SearchTokens parseSearchTokens(String filterText) {
-		SearchTokens searchTokens = new SearchTokens(new ArrayList<>(), new ArrayList<>());
+	private SearchTokens<ElementPrefixParser.TokenInfo> parseSearchTokens(String filterText) {
+		SearchTokens<ElementPrefixParser.TokenInfo> searchTokens = new SearchTokens<>(new ArrayList<>(), new ArrayList<>());
 
 		if (filterText.isEmpty()) {
 			return searchTokens;
@@ -319,60 +897,15 @@ public class IngredientFilter implements
 			this.elementPrefixParser.parseToken(string)
 				.ifPresent(result -> {
 					if (remove) {
-						searchTokens.toRemove.add(result);
+						searchTokens.toRemove().add(result);
 					} else {
-						searchTokens.toSearch.add(result);
+						searchTokens.toSearch().add(result);
 					}
 				});
 		}
 		return searchTokens;
 	}
 
-	private Set<IListElement<?>> getSearchResults(SearchTokens searchTokens) {
-		List<Set<IListElement<?>>> resultsPerToken = searchTokens.toSearch.stream()
-			.map(this.elementSearch::getSearchResults)
-			.toList();
-		Set<IListElement<?>> results = intersection(resultsPerToken);
-
-		if (results.isEmpty() && !searchTokens.toRemove.isEmpty()) {
-			results.addAll(this.elementSearch.getAllIngredients());
-		}
-
-		if (!results.isEmpty() && !searchTokens.toRemove.isEmpty()) {
-			for (ElementPrefixParser.TokenInfo tokenInfo : searchTokens.toRemove) {
-				Set<IListElement<?>> resultsToRemove = this.elementSearch.getSearchResults(tokenInfo);
-				results.removeAll(resultsToRemove);
-				if (results.isEmpty()) {
-					break;
-				}
-			}
-		}
-		return results;
-
-	}
-
-	/**
-	 * Get the elements that are contained in every set.
-	 */
-	private static <T> Set<T> intersection(List<Set<T>> sets) {
-		Set<T> smallestSet = sets.stream()
-			.min(Comparator.comparing(Set::size))
-			.orElseGet(Set::of);
-
-		Set<T> results = Collections.newSetFromMap(new IdentityHashMap<>());
-		results.addAll(smallestSet);
-
-		for (Set<T> set : sets) {
-			if (set == smallestSet) {
-				continue;
-			}
-			if (results.retainAll(set) && results.isEmpty()) {
-				break;
-			}
-		}
-		return results;
-	}
-
 	@Override
 	public void addSourceListChangedListener(SourceListChangedListener listener) {
 		listeners.add(listener);
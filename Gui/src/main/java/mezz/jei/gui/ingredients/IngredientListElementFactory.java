@@ -1,8 +1,9 @@
 package mezz.jei.gui.ingredients;
 
+import com.google.common.collect.Lists;
 import mezz.jei.api.helpers.IModIdHelper;
+import mezz.jei.api.ingredients.IIngredientHelper;
 import mezz.jei.api.ingredients.IIngredientType;
-import mezz.jei.api.ingredients.ITypedIngredient;
 import mezz.jei.api.runtime.IIngredientManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -12,20 +13,38 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public final class IngredientListElementFactory {
 	private static final Logger LOGGER = LogManager.getLogger();
+	/**
+	 * Number of ingredients that each task creates infos for, when creating them in parallel.
+	 */
+	private static final int BATCH_SIZE = 1024;
 
 	private IngredientListElementFactory() {
 	}
 
 	public static List<IListElementInfo<?>> createBaseList(IIngredientManager ingredientManager, IModIdHelper modIdHelper) {
-		List<IListElementInfo<?>> ingredientListElements = new ArrayList<>();
+		return createBaseList(ingredientManager, modIdHelper, Runnable::run);
+	}
 
+	/**
+	 * Creates the element info for every ingredient.
+	 * Infos for ingredients with a thread safe {@link IIngredientHelper} are created on the executor,
+	 * the rest on this thread. The list has the same order no matter which threads did the work.
+	 */
+	public static List<IListElementInfo<?>> createBaseList(IIngredientManager ingredientManager, IModIdHelper modIdHelper, Executor executor) {
+		List<CompletableFuture<List<IListElementInfo<?>>>> batches = new ArrayList<>();
 		for (IIngredientType<?> ingredientType : ingredientManager.getRegisteredIngredientTypes()) {
-			addToBaseList(ingredientListElements, ingredientManager, ingredientType, modIdHelper);
+			addToBaseList(batches, ingredientManager, ingredientType, modIdHelper, executor);
 		}
 
+		List<IListElementInfo<?>> ingredientListElements = new ArrayList<>();
+		for (CompletableFuture<List<IListElementInfo<?>>> batch : batches) {
+			ingredientListElements.addAll(batch.join());
+		}
 		return ingredientListElements;
 	}
 
@@ -51,18 +70,42 @@ public final class IngredientListElementFactory {
 		return results;
 	}
 
-	private static <V> void addToBaseList(List<IListElementInfo<?>> baseList, IIngredientManager ingredientManager, IIngredientType<V> ingredientType, IModIdHelper modIdHelper) {
+	private static <V> void addToBaseList(
+		List<CompletableFuture<List<IListElementInfo<?>>>> batches,
+		IIngredientManager ingredientManager,
+		IIngredientType<V> ingredientType,
+		IModIdHelper modIdHelper,
+		Executor executor
+	) {
 		Collection<V> ingredients = ingredientManager.getAllIngredients(ingredientType);
 		LOGGER.debug("Registering ingredients: {}", ingredientType.getIngredientClass().getSimpleName());
+
+		// created indexes are given out in order here, so that they are the same every time
+		List<IListElement<V>> elements = new ArrayList<>(ingredients.size());
 		for (V ingredient : ingredients) {
-			Optional<ITypedIngredient<V>> typedIngredient = ingredientManager.createTypedIngredient(ingredientType, ingredient);
-			if (typedIngredient.isPresent()) {
-				IListElementInfo<V> orderedElement = ListElementInfo.create(typedIngredient.get(), ingredientManager, modIdHelper);
-				if (orderedElement != null) {
-					baseList.add(orderedElement);
-				}
-			}
+			ingredientManager.createTypedIngredient(ingredientType, ingredient)
+				.map(ListElementInfo::createElement)
+				.ifPresent(elements::add);
+		}
+
+		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(ingredientType);
+		if (!ingredientHelper.isThreadSafe()) {
+			batches.add(CompletableFuture.completedFuture(createInfos(elements, ingredientManager, modIdHelper)));
+			return;
+		}
+		for (List<IListElement<V>> batch : Lists.partition(elements, BATCH_SIZE)) {
+			batches.add(CompletableFuture.supplyAsync(() -> createInfos(batch, ingredientManager, modIdHelper), executor));
 		}
 	}
 
+	private static <V> List<IListElementInfo<?>> createInfos(List<IListElement<V>> elements, IIngredientManager ingredientManager, IModIdHelper modIdHelper) {
+		List<IListElementInfo<?>> infos = new ArrayList<>(elements.size());
+		for (IListElement<V> element : elements) {
+			IListElementInfo<V> info = ListElementInfo.createFromElement(element, ingredientManager, modIdHelper);
+			if (info != null) {
+				infos.add(info);
+			}
+		}
+		return infos;
+	}
 }
@@ -3,19 +3,48 @@ package mezz.jei.gui.ingredients;
 import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.common.config.IClientConfig;
 import mezz.jei.common.config.IngredientSortStage;
+import mezz.jei.core.util.PackedSortKeys;
 import mezz.jei.gui.config.IngredientTypeSortingConfig;
 import mezz.jei.gui.config.ModNameSortingConfig;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Keeps the ingredients in sorted order by giving each element a {@link IListElement#getSortedIndex()}.
+ * <p>
+ * The full list is only sorted once, when the sorter is created.
+ * Ingredients added at runtime are inserted into the sorted order with a binary search,
+ * in the same place that a full sort would put them.
+ * Removed ingredients stay in the sorted order, they are hidden instead.
+ * <p>
+ * Sorted indexes are spread out, so that inserted ingredients can usually take an unused index
+ * between their neighbours without changing the index of any other ingredient.
+ */
 public final class IngredientSorter {
-	private static final Comparator<IListElement<?>> COMPARE_SORT_INDEX =
-		Comparator.comparing(IListElement::getSortedIndex);
+	private static final int MAX_SORTED_INDEX_SPACING = 1 << 8;
 
-	public static Comparator<IListElement<?>> sortIngredients(
+	private final Comparator<IListElementInfo<?>> comparator;
+	private final List<IListElementInfo<?>> sortedIngredients;
+	private int renumberCount;
+
+	private IngredientSorter(Comparator<IListElementInfo<?>> comparator, List<IListElementInfo<?>> sortedIngredients) {
+		this.comparator = comparator;
+		this.sortedIngredients = new ArrayList<>(sortedIngredients);
+		renumber();
+	}
+
+	/**
+	 * Sorts the ingredients in place, in the order from the client config.
+	 */
+	public static IngredientSorter sortIngredients(
 		IClientConfig clientConfig,
 		ModNameSortingConfig modNameSortingConfig,
 		IngredientTypeSortingConfig ingredientTypeSortingConfig,
@@ -30,21 +59,153 @@ public final class IngredientSorter {
 
 		List<IngredientSortStage> ingredientSorterStages = clientConfig.getIngredientSorterStages();
 
-		Comparator<IListElementInfo<?>> completeComparator = comparators.getComparator(ingredientSorterStages);
+		// Compute every sort key once, instead of in every comparison.
+		PackedSortKeys sortKeys = comparators.getSortKeys(ingredientSorterStages, ingredients);
+		int[] sortedOrder = sortKeys.sort();
+
+		// Get all of the items sorted by their keys.
+		List<IListElementInfo<?>> unsorted = List.copyOf(ingredients);
+		for (int i = 0; i < sortedOrder.length; i++) {
+			ingredients.set(i, unsorted.get(sortedOrder[i]));
+		}
+
+		// Ingredients added later are only compared with their neighbours, so the comparator is fine for them.
+		Comparator<IListElementInfo<?>> comparator = comparators.getComparator(ingredientSorterStages);
+		return new IngredientSorter(comparator, ingredients);
+	}
+
+	/**
+	 * Sorts the ingredients with the given comparator, without changing the given list.
+	 */
+	public static IngredientSorter sortIngredients(Comparator<IListElementInfo<?>> comparator, Collection<IListElementInfo<?>> ingredients) {
+		List<IListElementInfo<?>> sortedIngredients = new ArrayList<>(ingredients);
+		sortedIngredients.sort(comparator);
+		return new IngredientSorter(comparator, sortedIngredients);
+	}
+
+	/**
+	 * Inserts an ingredient into the sorted order.
+	 * It goes after any ingredients that compare equal to it, like a stable sort of the list with the ingredient added at the end.
+	 */
+	public void add(IListElementInfo<?> info) {
+		int position = findInsertPosition(info);
+		sortedIngredients.add(position, info);
 
-		// Get all of the items sorted with our custom comparator.
-		ingredients.sort(completeComparator);
+		long before = position == 0 ? 0 : getSortedIndex(position - 1);
+		long after = position + 1 < sortedIngredients.size() ? getSortedIndex(position + 1) : before + 2L * getSpacing();
+		after = Math.min(after, Integer.MAX_VALUE);
+		if (after - before >= 2) {
+			info.getElement().setSortedIndex((int) ((before + after) / 2));
+		} else {
+			renumberCount++;
+			renumber();
+		}
+	}
 
-		// Go through all of the items and set their sorted index.
-		final int size = ingredients.size();
-		for (int i = 0; i < size; i++) {
-			IListElementInfo<?> elementInfo = ingredients.get(i);
-			IListElement<?> element = elementInfo.getElement();
-			element.setSortedIndex(i);
+	/**
+	 * Replaces the infos of the sorted ingredients with the rebuilt ones, keeping the sorted order,
+	 * so that the sorter does not keep the old infos alive.
+	 * Ingredients without a rebuilt info are dropped, and rebuilt infos for new elements are inserted like {@link #add}.
+	 */
+	public void replaceInfos(Collection<IListElementInfo<?>> infos) {
+		Map<IListElement<?>, IListElementInfo<?>> infosByElement = new IdentityHashMap<>(infos.size());
+		for (IListElementInfo<?> info : infos) {
+			infosByElement.put(info.getElement(), info);
+		}
+		List<IListElementInfo<?>> replaced = new ArrayList<>(infos.size());
+		for (IListElementInfo<?> info : sortedIngredients) {
+			IListElementInfo<?> rebuiltInfo = infosByElement.remove(info.getElement());
+			if (rebuiltInfo != null) {
+				replaced.add(rebuiltInfo);
+			}
+		}
+		sortedIngredients.clear();
+		sortedIngredients.addAll(replaced);
+		for (IListElementInfo<?> info : infos) {
+			if (infosByElement.containsKey(info.getElement())) {
+				add(info);
+			}
 		}
+	}
+
+	/**
+	 * Returns the elements in sorted order.
+	 * This reads the sorted indexes, so it must not run while ingredients are added.
+	 */
+	public List<IListElement<?>> sort(Collection<IListElement<?>> elements) {
+		List<IListElement<?>> elementList = List.copyOf(elements);
+		return sort(elementList, getSortKeys(elementList));
+	}
 
-		//Now the comparator just uses that index value to order everything.
-		return COMPARE_SORT_INDEX;
+	/**
+	 * Takes a snapshot of the sorted indexes of the elements, for {@link #sort(List, long[])}.
+	 * Adding an ingredient can change every sorted index, so the filter takes the snapshot under its search lock
+	 * and sorts it after releasing the lock.
+	 */
+	public long[] getSortKeys(List<IListElement<?>> elements) {
+		long[] keys = new long[elements.size()];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = ((long) elements.get(i).getSortedIndex() << 32) | i;
+		}
+		return keys;
 	}
 
+	/**
+	 * Returns the elements in sorted order, from a snapshot of their sorted indexes taken by {@link #getSortKeys}.
+	 * The keys array is sorted in place.
+	 */
+	public List<IListElement<?>> sort(List<IListElement<?>> elements, long[] sortKeys) {
+		Arrays.parallelSort(sortKeys);
+
+		List<IListElement<?>> sorted = new ArrayList<>(sortKeys.length);
+		for (long key : sortKeys) {
+			sorted.add(elements.get((int) key));
+		}
+		return sorted;
+	}
+
+	/**
+	 * Returns the ingredients in sorted order.
+	 */
+	public List<IListElementInfo<?>> getSortedIngredients() {
+		return List.copyOf(sortedIngredients);
+	}
+
+	/**
+	 * Returns how many times every sorted index had to be reassigned because there was no room to insert an ingredient.
+	 */
+	public int getRenumberCount() {
+		return renumberCount;
+	}
+
+	private int findInsertPosition(IListElementInfo<?> info) {
+		int low = 0;
+		int high = sortedIngredients.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (comparator.compare(sortedIngredients.get(middle), info) <= 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int getSortedIndex(int position) {
+		return sortedIngredients.get(position).getElement().getSortedIndex();
+	}
+
+	private int getSpacing() {
+		long spacing = (Integer.MAX_VALUE - 1L) / (sortedIngredients.size() + 1L);
+		return (int) Math.max(1, Math.min(MAX_SORTED_INDEX_SPACING, spacing));
+	}
+
+	private void renumber() {
+		int spacing = getSpacing();
+		for (int i = 0; i < sortedIngredients.size(); i++) {
+			IListElement<?> element = sortedIngredients.get(i).getElement();
+			element.setSortedIndex((i + 1) * spacing);
+		}
+	}
 }
@@ -1,10 +1,13 @@
 package mezz.jei.gui.ingredients;
 
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import mezz.jei.api.ingredients.IIngredientType;
 import mezz.jei.api.ingredients.ITypedIngredient;
 import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.common.config.IngredientSortStage;
 import mezz.jei.common.util.RegistryUtil;
+import mezz.jei.core.util.PackedSortKeys;
 import mezz.jei.gui.config.IngredientTypeSortingConfig;
 import mezz.jei.gui.config.ModNameSortingConfig;
 import net.minecraft.core.HolderSet.ListBacked;
@@ -19,6 +22,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 public class IngredientSorterComparators {
@@ -58,6 +62,106 @@ public class IngredientSorterComparators {
 		};
 	}
 
+	/**
+	 * Computes the sort keys of every ingredient once, in the same order as {@link #getComparator(List)}.
+	 */
+	public PackedSortKeys getSortKeys(List<IngredientSortStage> ingredientSorterStages, List<IListElementInfo<?>> ingredients) {
+		PackedSortKeys sortKeys = new PackedSortKeys(ingredients.size());
+		if (ingredientSorterStages.isEmpty()) {
+			addModNameSortKeys(sortKeys, ingredients);
+			addIngredientTypeSortKeys(sortKeys, ingredients);
+			addCreativeMenuSortKeys(sortKeys, ingredients);
+			return sortKeys;
+		}
+		for (IngredientSortStage ingredientSortStage : ingredientSorterStages) {
+			switch (ingredientSortStage) {
+				case ALPHABETICAL -> addAlphabeticalSortKeys(sortKeys, ingredients);
+				case CREATIVE_MENU -> addCreativeMenuSortKeys(sortKeys, ingredients);
+				case INGREDIENT_TYPE -> addIngredientTypeSortKeys(sortKeys, ingredients);
+				case MOD_NAME -> addModNameSortKeys(sortKeys, ingredients);
+				case TAG -> addTagSortKeys(sortKeys, ingredients);
+				case ARMOR -> addArmorSortKeys(sortKeys, ingredients);
+				case MAX_DURABILITY -> addMaxDurabilitySortKeys(sortKeys, ingredients);
+			}
+		}
+		return sortKeys;
+	}
+
+	private static void addCreativeMenuSortKeys(PackedSortKeys sortKeys, List<IListElementInfo<?>> ingredients) {
+		sortKeys.addColumn(getIntKeys(ingredients, IListElementInfo::getCreatedIndex));
+	}
+
+	private static void addAlphabeticalSortKeys(PackedSortKeys sortKeys, List<IListElementInfo<?>> ingredients) {
+		List<String> names = ingredients.stream()
+			.map(i -> i.getNames().getFirst())
+			.toList();
+		sortKeys.addColumn(PackedSortKeys.rank(names, Comparator.naturalOrder()));
+	}
+
+	private void addModNameSortKeys(PackedSortKeys sortKeys, List<IListElementInfo<?>> ingredients) {
+		ToIntFunction<IListElementInfo<?>> sortIndex = this.modNameSortingConfig.getSortIndexFunctionFromMappedValues(modNames);
+		sortKeys.addColumn(getIntKeys(ingredients, sortIndex));
+	}
+
+	private void addIngredientTypeSortKeys(PackedSortKeys sortKeys, List<IListElementInfo<?>> ingredients) {
+		Set<String> ingredientTypeStrings = getIngredientTypeStrings();
+		ToIntFunction<IListElementInfo<?>> sortIndex = this.ingredientTypeSortingConfig.getSortIndexFunctionFromMappedValues(ingredientTypeStrings);
+		sortKeys.addColumn(getIntKeys(ingredients, sortIndex));
+	}
+
+	private static void addMaxDurabilitySortKeys(PackedSortKeys sortKeys, List<IListElementInfo<?>> ingredients) {
+		// inverting the bits reverses the order
+		sortKeys.addColumn(getIntKeys(ingredients, i -> ~getItemStack(i).getMaxDamage()));
+	}
+
+	private void addTagSortKeys(PackedSortKeys sortKeys, List<IListElementInfo<?>> ingredients) {
+		// many ingredients share tags, so only look up the size of each tag once
+		Object2IntMap<ResourceLocation> tagCounts = new Object2IntOpenHashMap<>();
+		tagCounts.defaultReturnValue(-1);
+		ToIntFunction<ResourceLocation> cachedTagCount = tagId -> {
+			int count = tagCounts.getInt(tagId);
+			if (count < 0) {
+				count = tagCount(tagId);
+				tagCounts.put(tagId, count);
+			}
+			return count;
+		};
+		List<String> tags = ingredients.stream()
+			.map(i -> getTagForSorting(i, cachedTagCount))
+			.toList();
+		// tagged ingredients come first
+		sortKeys.addColumn(tags.stream().mapToInt(tag -> tag.isEmpty() ? 1 : 0).toArray());
+		sortKeys.addColumn(PackedSortKeys.rank(tags, Comparator.naturalOrder()));
+	}
+
+	private static void addArmorSortKeys(PackedSortKeys sortKeys, List<IListElementInfo<?>> ingredients) {
+		List<ItemStack> itemStacks = ingredients.stream()
+			.<ItemStack>map(IngredientSorterComparators::getItemStack)
+			.toList();
+		// armor comes first, and inverting the bits reverses the order of the other keys
+		sortKeys.addColumn(itemStacks.stream().mapToInt(i -> isArmor(i) ? 0 : 1).toArray());
+		sortKeys.addColumn(itemStacks.stream().mapToInt(i -> ~getArmorSlotIndex(i)).toArray());
+		sortKeys.addColumn(itemStacks.stream().mapToInt(i -> ~getArmorDamageReduce(i)).toArray());
+		sortKeys.addColumn(itemStacks.stream().mapToInt(i -> ~getFloatSortKey(getArmorToughness(i))).toArray());
+		sortKeys.addColumn(itemStacks.stream().mapToInt(i -> ~getArmorDurability(i)).toArray());
+	}
+
+	/**
+	 * Returns an int that sorts in the same order as {@link Float#compare}.
+	 */
+	private static int getFloatSortKey(float value) {
+		int bits = Float.floatToIntBits(value);
+		return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+	}
+
+	private static int[] getIntKeys(List<IListElementInfo<?>> ingredients, ToIntFunction<IListElementInfo<?>> keyFunction) {
+		int[] keys = new int[ingredients.size()];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = keyFunction.applyAsInt(ingredients.get(i));
+		}
+		return keys;
+	}
+
 	public Comparator<IListElementInfo<?>> getDefault() {
 		return getModNameComparator()
 			.thenComparing(getIngredientTypeComparator())
@@ -77,11 +181,15 @@ public class IngredientSorterComparators {
 	}
 
 	private Comparator<IListElementInfo<?>> getIngredientTypeComparator() {
+		Set<String> ingredientTypeStrings = getIngredientTypeStrings();
+		return this.ingredientTypeSortingConfig.getComparatorFromMappedValues(ingredientTypeStrings);
+	}
+
+	private Set<String> getIngredientTypeStrings() {
 		Collection<IIngredientType<?>> ingredientTypes = this.ingredientManager.getRegisteredIngredientTypes();
-		Set<String> ingredientTypeStrings = ingredientTypes.stream()
+		return ingredientTypes.stream()
 			.map(IngredientTypeSortingConfig::getIngredientTypeString)
 			.collect(Collectors.toSet());
-		return this.ingredientTypeSortingConfig.getComparatorFromMappedValues(ingredientTypeStrings);
 	}
 
 	private static Comparator<IListElementInfo<?>> getMaxDurabilityComparator() {
@@ -153,9 +261,13 @@ public class IngredientSorterComparators {
 	}
 
 	private String getTagForSorting(IListElementInfo<?> elementInfo) {
+		return getTagForSorting(elementInfo, IngredientSorterComparators::tagCount);
+	}
+
+	private String getTagForSorting(IListElementInfo<?> elementInfo, ToIntFunction<ResourceLocation> tagCount) {
 		// Choose the most popular tag it has.
 		return elementInfo.getTagIds(ingredientManager)
-			.max(Comparator.comparing(IngredientSorterComparators::tagCount))
+			.max(Comparator.comparingInt(tagCount))
 			.map(ResourceLocation::getPath)
 			.orElse("");
 	}
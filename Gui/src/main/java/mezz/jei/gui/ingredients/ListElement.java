@@ -6,6 +6,7 @@ public class ListElement<V> implements IListElement<V> {
 	private final ITypedIngredient<V> ingredient;
 	private final int createdIndex;
 	private int sortIndex;
+	private int elementId = -1;
 	private boolean visible = true;
 
 	public ListElement(ITypedIngredient<V> ingredient, int createdIndex) {
@@ -34,6 +35,16 @@ public class ListElement<V> implements IListElement<V> {
 		return createdIndex;
 	}
 
+	@Override
+	public int getElementId() {
+		return elementId;
+	}
+
+	@Override
+	public void setElementId(int elementId) {
+		this.elementId = elementId;
+	}
+
 	@Override
 	public boolean isVisible() {
 		return visible;
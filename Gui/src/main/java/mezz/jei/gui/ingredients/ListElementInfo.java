@@ -40,11 +40,19 @@ public class ListElementInfo<V> implements IListElementInfo<V> {
 
 	@Nullable
 	public static <V> IListElementInfo<V> create(ITypedIngredient<V> value, IIngredientManager ingredientManager, IModIdHelper modIdHelper) {
-		int createdIndex = elementCount++;
-		ListElement<V> element = new ListElement<>(value, createdIndex);
+		IListElement<V> element = createElement(value);
 		return createFromElement(element, ingredientManager, modIdHelper);
 	}
 
+	/**
+	 * Creates an element with the next created index.
+	 * Not thread safe, elements must be created in order so that their created index is deterministic.
+	 */
+	public static <V> IListElement<V> createElement(ITypedIngredient<V> value) {
+		int createdIndex = elementCount++;
+		return new ListElement<>(value, createdIndex);
+	}
+
 	@Nullable
 	public static <V> IListElementInfo<V> createFromElement(IListElement<V> element, IIngredientManager ingredientManager, IModIdHelper modIdHelper) {
 		try {
@@ -261,8 +261,8 @@ public class RecipeGuiLogic implements IRecipeGuiLogic {
 
 	@Override
 	public boolean hasMultiplePages() {
-		List<?> recipes = state.getFocusedRecipes().getRecipes();
-		return recipes.size() > state.getRecipesPerPage();
+		int recipeCount = state.getFocusedRecipes().getRecipeCount();
+		return recipeCount > state.getRecipesPerPage();
 	}
 
 	@Override
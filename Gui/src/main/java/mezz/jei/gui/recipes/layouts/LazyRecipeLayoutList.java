@@ -24,19 +24,33 @@ import net.minecraft.world.inventory.AbstractContainerMenu;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 public class LazyRecipeLayoutList<T> implements IRecipeLayoutList {
+	/**
+	 * The number of recipes to look up at once.
+	 */
+	private static final int PAGE_SIZE = 64;
+
 	private final IRecipeManager recipeManager;
 	private final IRecipeCategory<T> recipeCategory;
 	private final RecipesGui recipesGui;
 	private final IFocusGroup focusGroup;
 	private final List<RecipeLayoutWithButtons<?>> results;
 	private final List<RecipeLayoutWithButtons<?>> craftMissing;
-	private final Iterator<T> unsortedIterator;
+	private final IFocusedRecipes<T> selectedRecipes;
+	/**
+	 * Recipes that were already added to the results because they are bookmarked.
+	 */
+	private final Set<T> bookmarkedRecipes = Collections.newSetFromMap(new IdentityHashMap<>());
+	private List<T> unsortedPage = List.of();
+	private int unsortedPageIndex = 0;
+	private int nextUnsortedPageStart = 0;
+	private boolean foundAllUnsortedRecipes = false;
 	private final int size;
 
 	private final boolean matchingCraftable;
@@ -60,9 +74,8 @@ public class LazyRecipeLayoutList<T> implements IRecipeLayoutList {
 		this.results = new ArrayList<>();
 		this.craftMissing = new ArrayList<>();
 		this.recipeCategory = selectedRecipes.getRecipeCategory();
-
-		List<T> recipes = selectedRecipes.getRecipes();
-		this.size = recipes.size();
+		this.selectedRecipes = selectedRecipes;
+		this.size = selectedRecipes.getRecipeCount();
 
 		if (matchingCraftable && container != null) {
 			IRecipeTransferManager recipeTransferManager = Internal.getJeiRuntime().getRecipeTransferManager();
@@ -71,25 +84,26 @@ public class LazyRecipeLayoutList<T> implements IRecipeLayoutList {
 			this.matchingCraftable = false;
 		}
 
-		if (matchingBookmarks) {
-			// if bookmarks go first, start by grabbing all the bookmarked elements, it's relatively cheap
-			RecipeType<T> recipeType = recipeCategory.getRecipeType();
-
-			recipes = new ArrayList<>(recipes);
-			Iterator<T> iterator = recipes.iterator();
-			while (iterator.hasNext()) {
-				T recipe = iterator.next();
-				RecipeBookmark<T, ?> recipeBookmark = bookmarkList.getMatchingBookmark(recipeType, recipe);
-				if (recipeBookmark != null) {
-					IRecipeLayoutDrawable<T> recipeLayout = recipeManager.createRecipeLayoutDrawableOrShowError(recipeCategory, recipe, focusGroup);
-					RecipeLayoutWithButtons<T> recipeLayoutWithButtons = createRecipeLayoutWithButtons(recipeLayout, recipeBookmark, bookmarkList, recipesGui, container);
-					results.add(recipeLayoutWithButtons);
-					iterator.remove();
+		RecipeType<T> recipeType = recipeCategory.getRecipeType();
+		if (matchingBookmarks && bookmarkList.hasRecipeBookmarks(recipeType)) {
+			// if bookmarks go first, start by grabbing all the bookmarked elements.
+			// this has to look at every recipe, so it is skipped when none of this recipe type are bookmarked
+			for (int start = 0; ; start += PAGE_SIZE) {
+				List<T> page = selectedRecipes.getRecipes(start, PAGE_SIZE);
+				for (T recipe : page) {
+					RecipeBookmark<T, ?> recipeBookmark = bookmarkList.getMatchingBookmark(recipeType, recipe);
+					if (recipeBookmark != null) {
+						IRecipeLayoutDrawable<T> recipeLayout = recipeManager.createRecipeLayoutDrawableOrShowError(recipeCategory, recipe, focusGroup);
+						RecipeLayoutWithButtons<T> recipeLayoutWithButtons = createRecipeLayoutWithButtons(recipeLayout, recipeBookmark, bookmarkList, recipesGui, container);
+						results.add(recipeLayoutWithButtons);
+						bookmarkedRecipes.add(recipe);
+					}
+				}
+				if (page.size() < PAGE_SIZE) {
+					break;
 				}
 			}
 		}
-
-		this.unsortedIterator = recipes.iterator();
 	}
 
 	private static <T> RecipeLayoutWithButtons<T> createRecipeLayoutWithButtons(
@@ -157,8 +171,8 @@ public class LazyRecipeLayoutList<T> implements IRecipeLayoutList {
 		IJeiRuntime jeiRuntime = Internal.getJeiRuntime();
 		IIngredientManager ingredientManager = jeiRuntime.getIngredientManager();
 
-		while (unsortedIterator.hasNext()) {
-			T recipe = unsortedIterator.next();
+		T recipe;
+		while ((recipe = nextUnsortedRecipe()) != null) {
 			IRecipeLayoutDrawable<T> recipeLayout = createRecipeLayout(recipe);
 			RecipeLayoutWithButtons<T> recipeLayoutWithButtons = createRecipeLayoutWithButtons(recipeLayout, ingredientManager, container);
 			RecipeTransferButton transferButton = recipeLayoutWithButtons.transferButton();
@@ -189,4 +203,24 @@ public class LazyRecipeLayoutList<T> implements IRecipeLayoutList {
 
 		return false;
 	}
+
+	@Nullable
+	private T nextUnsortedRecipe() {
+		while (true) {
+			if (unsortedPageIndex >= unsortedPage.size()) {
+				if (foundAllUnsortedRecipes) {
+					return null;
+				}
+				unsortedPage = selectedRecipes.getRecipes(nextUnsortedPageStart, PAGE_SIZE);
+				unsortedPageIndex = 0;
+				nextUnsortedPageStart += unsortedPage.size();
+				foundAllUnsortedRecipes = unsortedPage.size() < PAGE_SIZE;
+				continue;
+			}
+			T recipe = unsortedPage.get(unsortedPageIndex++);
+			if (!bookmarkedRecipes.contains(recipe)) {
+				return recipe;
+			}
+		}
+	}
 }
@@ -1,33 +1,32 @@
 package mezz.jei.gui.recipes.lookups;
 
 import mezz.jei.api.recipe.IFocusGroup;
+import mezz.jei.api.recipe.IRecipeLookup;
 import mezz.jei.api.recipe.IRecipeManager;
 import mezz.jei.api.recipe.category.IRecipeCategory;
 
-import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.util.List;
 
+/**
+ * Looks up the recipes for the focuses one page at a time.
+ * The same recipe lookup is used for every page, so it remembers where each page starts,
+ * and going back to an earlier page only looks up that page again.
+ */
 public class FocusedRecipes<T> implements IFocusedRecipes<T> {
-	private final IRecipeManager recipeManager;
 	private final IRecipeCategory<T> recipeCategory;
-	private final IFocusGroup focuses;
-
-	/**
-	 * List of recipes for the currently selected recipeClass
-	 */
-	private @Nullable List<T> recipes;
+	private final IRecipeLookup<T> recipeLookup;
+	private int recipeCount = -1;
 
 	public static <T> IFocusedRecipes<T> create(IFocusGroup focuses, IRecipeManager recipeManager, IRecipeCategory<T> recipeCategory) {
 		return new FocusedRecipes<>(focuses, recipeManager, recipeCategory);
 	}
 
 	private FocusedRecipes(IFocusGroup focuses, IRecipeManager recipeManager, IRecipeCategory<T> recipeCategory) {
-		this.focuses = focuses;
-		this.recipeManager = recipeManager;
 		this.recipeCategory = recipeCategory;
-		this.recipes = null;
+		this.recipeLookup = recipeManager.createRecipeLookup(recipeCategory.getRecipeType())
+			.limitFocus(focuses.getAllFocuses());
 	}
 
 	@Override
@@ -36,14 +35,16 @@ public class FocusedRecipes<T> implements IFocusedRecipes<T> {
 	}
 
 	@Override
-	@Unmodifiable
-	public List<T> getRecipes() {
-		if (recipes == null) {
-			recipes = recipeManager.createRecipeLookup(recipeCategory.getRecipeType())
-				.limitFocus(focuses.getAllFocuses())
-				.get()
-				.toList();
+	public int getRecipeCount() {
+		if (recipeCount < 0) {
+			recipeCount = recipeLookup.count();
 		}
-		return recipes;
+		return recipeCount;
+	}
+
+	@Override
+	@Unmodifiable
+	public List<T> getRecipes(int skip, int limit) {
+		return recipeLookup.getPage(skip, limit);
 	}
 }
@@ -8,6 +8,12 @@ import java.util.List;
 public interface IFocusedRecipes<T> {
 	IRecipeCategory<T> getRecipeCategory();
 
+	int getRecipeCount();
+
+	/**
+	 * Returns up to {@code limit} recipes, starting at the recipe with index {@code skip}.
+	 * Returns an empty list when there are no recipes after {@code skip}.
+	 */
 	@Unmodifiable
-	List<T> getRecipes();
+	List<T> getRecipes(int skip, int limit);
 }
@@ -109,7 +109,7 @@ public class IngredientLookupState implements ILookupState {
 	}
 
 	public int recipeCount() {
-		return getFocusedRecipes().getRecipes().size();
+		return getFocusedRecipes().getRecipeCount();
 	}
 
 	@Override
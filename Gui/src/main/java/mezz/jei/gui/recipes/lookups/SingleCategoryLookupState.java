@@ -88,7 +88,7 @@ public class SingleCategoryLookupState implements ILookupState {
 	}
 
 	public int recipeCount() {
-		return getFocusedRecipes().getRecipes().size();
+		return getFocusedRecipes().getRecipeCount();
 	}
 
 	@Override
@@ -15,7 +15,14 @@ public record StaticFocusedRecipes<T>(
 	}
 
 	@Override
-	public @Unmodifiable List<T> getRecipes() {
-		return recipes;
+	public int getRecipeCount() {
+		return recipes.size();
+	}
+
+	@Override
+	public @Unmodifiable List<T> getRecipes(int skip, int limit) {
+		int from = Math.min(skip, recipes.size());
+		int to = (int) Math.min((long) from + limit, recipes.size());
+		return List.copyOf(recipes.subList(from, to));
 	}
 }
@@ -4,13 +4,16 @@ import it.unimi.dsi.fastutil.chars.Char2ObjectMap;
 import it.unimi.dsi.fastutil.chars.Char2ObjectOpenHashMap;
 import mezz.jei.api.helpers.IColorHelper;
 import mezz.jei.api.helpers.IModIdHelper;
+import mezz.jei.api.ingredients.IIngredientType;
 import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.common.config.IIngredientFilterConfig;
 import mezz.jei.common.util.Translator;
 import mezz.jei.core.search.LimitedStringStorage;
 import mezz.jei.core.search.PrefixInfo;
 import mezz.jei.core.search.SearchMode;
-import mezz.jei.core.search.suffixtree.GeneralizedSuffixTree;
+import mezz.jei.core.search.SearchStorageType;
+import mezz.jei.core.search.pattern.SearchPattern;
+import mezz.jei.core.search.trigram.TrigramSearchStorage;
 import mezz.jei.gui.ingredients.IListElement;
 import mezz.jei.gui.ingredients.IListElementInfo;
 
@@ -28,14 +31,18 @@ public class ElementPrefixParser {
 			'\0',
 			() -> SearchMode.ENABLED,
 			IListElementInfo::getNames,
-			GeneralizedSuffixTree::new
+			SearchStorageType::createStorage
 	);
 	private static final Pattern SPACE_PATTERN = Pattern.compile("\\s");
 	private static final Pattern MOD_NAME_SEPARATOR_PATTERN = Pattern.compile("(?=[A-Z_-])|\\s+");
 
 	private final Char2ObjectMap<PrefixInfo<IListElementInfo<?>, IListElement<?>>> map = new Char2ObjectOpenHashMap<>();
+	private final IIngredientManager ingredientManager;
+	private final PrefixInfo<IListElementInfo<?>, IListElement<?>> tooltipPrefixInfo;
+	private final PrefixInfo<IListElementInfo<?>, IListElement<?>> fuzzyPrefixInfo;
 
 	public ElementPrefixParser(IIngredientManager ingredientManager, IIngredientFilterConfig config, IColorHelper colorHelper, IModIdHelper modIdHelper) {
+		this.ingredientManager = ingredientManager;
 		addPrefix(new PrefixInfo<>(
 			'@',
 			config::getModNameSearchMode,
@@ -69,25 +76,29 @@ public class ElementPrefixParser {
 
 				return sanitizedModNames;
 			},
-			LimitedStringStorage::new
+			storageType -> new LimitedStringStorage<>(storageType.createStorage())
 		));
-		addPrefix(new PrefixInfo<>(
+		this.tooltipPrefixInfo = new PrefixInfo<>(
 			'#',
 			config::getTooltipSearchMode,
 			e -> e.getTooltipStrings(config, ingredientManager),
-			GeneralizedSuffixTree::new
-		));
+			SearchStorageType::createStorage,
+			false
+		);
+		addPrefix(tooltipPrefixInfo);
 		addPrefix(new PrefixInfo<>(
 			'$',
 			config::getTagSearchMode,
 			e -> e.getTagStrings(ingredientManager),
-			LimitedStringStorage::new
+			storageType -> new LimitedStringStorage<>(storageType.createStorage())
 		));
 		addPrefix(new PrefixInfo<>(
 			'%',
 			config::getCreativeTabSearchMode,
 			e -> e.getCreativeTabsStrings(ingredientManager),
-			LimitedStringStorage::new
+			storageType -> new LimitedStringStorage<>(storageType.createStorage()),
+			// creative tab contents are built by client code that expects to run on the client thread
+			false
 		));
 		addPrefix(new PrefixInfo<>(
 			'^',
@@ -100,26 +111,73 @@ public class ElementPrefixParser {
 					.distinct()
 					.toList();
 			},
-			LimitedStringStorage::new
+			storageType -> new LimitedStringStorage<>(storageType.createStorage()),
+			// colors are read from item and block color handlers, models and textures
+			false
 		));
 		addPrefix(new PrefixInfo<>(
 			'&',
 			config::getResourceLocationSearchMode,
 			element -> List.of(element.getResourceLocation().toString()),
-			GeneralizedSuffixTree::new
+			SearchStorageType::createStorage
 		));
+		this.fuzzyPrefixInfo = new PrefixInfo<>(
+			'~',
+			config::getFuzzySearchMode,
+			IListElementInfo::getNames,
+			storageType -> new TrigramSearchStorage<>()
+		);
+		addPrefix(fuzzyPrefixInfo);
 	}
 
 	private void addPrefix(PrefixInfo<IListElementInfo<?>, IListElement<?>> info) {
 		this.map.put(info.getPrefix(), info);
 	}
 
+	public PrefixInfo<IListElementInfo<?>, IListElement<?>> getTooltipPrefixInfo() {
+		return tooltipPrefixInfo;
+	}
+
+	/**
+	 * Returns true if the element's ingredient helper can be called from a background thread,
+	 * see {@link mezz.jei.api.ingredients.IIngredientHelper#isThreadSafe()}.
+	 */
+	public boolean isThreadSafe(IListElementInfo<?> info) {
+		IIngredientType<?> type = info.getTypedIngredient().getType();
+		return ingredientManager.getIngredientHelper(type).isThreadSafe();
+	}
+
 	public Collection<PrefixInfo<IListElementInfo<?>, IListElement<?>>> allPrefixInfos() {
 		Collection<PrefixInfo<IListElementInfo<?>, IListElement<?>>> values = new ArrayList<>(map.values());
 		values.add(NO_PREFIX);
 		return values;
 	}
 
+	/**
+	 * Returns true if every element matching the next token also matches the previous token,
+	 * so the next results can be found by filtering the previous ones.
+	 * This does not hold for typo-tolerant searches, which allow more typos for longer tokens,
+	 * or for regular expressions.
+	 * It also does not hold when a plain token with a literal "?" becomes a glob, where "?" matches any character.
+	 */
+	public boolean isRefinement(TokenInfo previous, TokenInfo next) {
+		if (previous.prefixInfo() != next.prefixInfo()) {
+			return false;
+		}
+		if (SearchPattern.isRegex(previous.token()) || SearchPattern.isRegex(next.token())) {
+			return false;
+		}
+		if (SearchPattern.isGlob(next.token()) && !SearchPattern.isGlob(previous.token()) && previous.token().indexOf('?') >= 0) {
+			return false;
+		}
+		PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo = next.prefixInfo();
+		if (prefixInfo == fuzzyPrefixInfo ||
+			(prefixInfo == NO_PREFIX && fuzzyPrefixInfo.getMode() == SearchMode.ENABLED)) {
+			return false;
+		}
+		return next.token().contains(previous.token());
+	}
+
 	public record TokenInfo(String token, PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo) {}
 
 	public Optional<TokenInfo> parseToken(String token) {
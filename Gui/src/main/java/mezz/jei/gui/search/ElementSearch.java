@@ -1,90 +1,602 @@
 package mezz.jei.gui.search;
 
+import com.google.common.hash.Hashing;
 import mezz.jei.core.search.CombinedSearchables;
 import mezz.jei.core.search.ISearchStorage;
 import mezz.jei.core.search.ISearchable;
+import mezz.jei.core.search.IncrementalStorageBuilder;
 import mezz.jei.core.search.PrefixInfo;
 import mezz.jei.core.search.PrefixedSearchable;
 import mezz.jei.core.search.SearchMode;
+import mezz.jei.core.search.SearchStorageType;
+import mezz.jei.core.search.pattern.SearchPattern;
+import mezz.jei.core.search.snapshot.SearchIndexSnapshot;
+import mezz.jei.core.search.snapshot.SearchIndexSnapshotWriter;
+import mezz.jei.core.search.trigram.TrigramSearchStorage;
+import mezz.jei.core.util.CancellationToken;
 import mezz.jei.gui.ingredients.IListElement;
 import mezz.jei.gui.ingredients.IListElementInfo;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
 
 public class ElementSearch implements IElementSearch {
 	private static final Logger LOGGER = LogManager.getLogger();
+	/**
+	 * The number of pattern candidates checked between checks of the cancellation token.
+	 */
+	private static final int PATTERN_CANDIDATES_PER_CANCELLATION_CHECK = 256;
 
 	private final Map<PrefixInfo<IListElementInfo<?>, IListElement<?>>, PrefixedSearchable<IListElementInfo<?>, IListElement<?>>> prefixedSearchables = new IdentityHashMap<>();
-	private final CombinedSearchables<IListElement<?>> combinedSearchables = new CombinedSearchables<>();
+	private CombinedSearchables<IListElement<?>> combinedSearchables = new CombinedSearchables<>();
+	/**
+	 * Storages that are built a few elements at a time by {@link #buildLazyIndex}, instead of when elements are added.
+	 */
+	private final Map<PrefixInfo<IListElementInfo<?>, IListElement<?>>, IncrementalStorageBuilder<IListElementInfo<?>, IListElement<?>>> lazyBuilders = new IdentityHashMap<>();
+	/**
+	 * The info for each element, by {@link IListElement#getElementId()}, used to check {@link SearchPattern} candidates.
+	 */
+	private final List<IListElementInfo<?>> infosById = new ArrayList<>();
+	/**
+	 * A digest of the strings in each storage that is built eagerly, see {@link #getStringDigest}.
+	 * Storages whose strings are unchanged can be reused by {@link #addAll(Collection, ElementSearch)}.
+	 */
+	private final Map<PrefixInfo<IListElementInfo<?>, IListElement<?>>, Long> stringDigests = new ConcurrentHashMap<>();
+	private final SearchStorageType storageType;
+	private final ElementPrefixParser elementPrefixParser;
+	/**
+	 * True if any element has an ingredient helper that is not thread safe,
+	 * see {@link ElementPrefixParser#isThreadSafe(IListElementInfo)}.
+	 */
+	private boolean hasThreadUnsafeElements;
 
-	public ElementSearch(ElementPrefixParser elementPrefixParser) {
+	public ElementSearch(ElementPrefixParser elementPrefixParser, SearchStorageType storageType) {
+		this(elementPrefixParser, storageType, List.of());
+	}
+
+	/**
+	 * @param lazyPrefixInfos prefixes with expensive strings, their storages are only built by {@link #buildLazyIndex}
+	 *                        or when a search needs them.
+	 */
+	public ElementSearch(
+		ElementPrefixParser elementPrefixParser,
+		SearchStorageType storageType,
+		Collection<PrefixInfo<IListElementInfo<?>, IListElement<?>>> lazyPrefixInfos
+	) {
+		this.storageType = storageType;
+		this.elementPrefixParser = elementPrefixParser;
 		for (PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo : elementPrefixParser.allPrefixInfos()) {
-			ISearchStorage<IListElement<?>> storage = prefixInfo.createStorage();
+			ISearchStorage<IListElement<?>> storage = prefixInfo.createStorage(storageType);
 			var prefixedSearchable = new PrefixedSearchable<>(storage, prefixInfo);
 			this.prefixedSearchables.put(prefixInfo, prefixedSearchable);
 			this.combinedSearchables.addSearchable(prefixedSearchable);
+			if (lazyPrefixInfos.contains(prefixInfo)) {
+				this.lazyBuilders.put(prefixInfo, new IncrementalStorageBuilder<>(prefixedSearchable, IListElementInfo::getElement));
+			}
 		}
 	}
 
 	@Override
-	public Set<IListElement<?>> getSearchResults(ElementPrefixParser.TokenInfo tokenInfo) {
+	public BitSet getSearchResults(ElementPrefixParser.TokenInfo tokenInfo) {
+		return getSearchResults(tokenInfo, CancellationToken.NONE);
+	}
+
+	@Override
+	public BitSet getSearchResults(ElementPrefixParser.TokenInfo tokenInfo, CancellationToken cancellationToken) {
 		String token = tokenInfo.token();
+		BitSet results = new BitSet();
 		if (token.isEmpty()) {
-			return Set.of();
+			return results;
 		}
 
-		Set<IListElement<?>> results = Collections.newSetFromMap(new IdentityHashMap<>());
+		Consumer<Collection<IListElement<?>>> resultsConsumer = elements -> {
+			// storages hand over their results in many small collections, so this is checked often
+			cancellationToken.throwIfCancelled();
+			for (IListElement<?> element : elements) {
+				results.set(element.getElementId());
+			}
+		};
 
-		PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo = tokenInfo.prefixInfo();
-		if (prefixInfo == ElementPrefixParser.NO_PREFIX) {
-			combinedSearchables.getSearchResults(token, results::addAll);
+		List<PrefixedSearchable<IListElementInfo<?>, IListElement<?>>> searchedPrefixes = getSearchedPrefixes(tokenInfo);
+		Optional<SearchPattern> pattern = SearchPattern.parse(token);
+		if (pattern.isPresent()) {
+			addPatternResults(pattern.get(), searchedPrefixes, results, cancellationToken);
 			return results;
 		}
-		final ISearchable<IListElement<?>> searchable = this.prefixedSearchables.get(prefixInfo);
-		if (searchable == null || searchable.getMode() == SearchMode.DISABLED) {
-			combinedSearchables.getSearchResults(token, results::addAll);
-			return results;
+		if (searchedPrefixes.size() == 1) {
+			searchedPrefixes.getFirst().getSearchResults(token, resultsConsumer);
+		} else {
+			combinedSearchables.getSearchResults(token, resultsConsumer);
 		}
-		searchable.getSearchResults(token, results::addAll);
 		return results;
 	}
 
+	/**
+	 * Fuzzy tokens are ranked by the {@link TrigramSearchStorage}, by how closely each name matches.
+	 */
+	@Override
+	public Optional<List<IListElement<?>>> getRankedSearchResults(ElementPrefixParser.TokenInfo tokenInfo, CancellationToken cancellationToken) {
+		PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo = tokenInfo.prefixInfo();
+		if (prefixInfo == ElementPrefixParser.NO_PREFIX || SearchPattern.parse(tokenInfo.token()).isPresent()) {
+			return Optional.empty();
+		}
+		PrefixedSearchable<IListElementInfo<?>, IListElement<?>> searchable = this.prefixedSearchables.get(prefixInfo);
+		if (searchable != null &&
+			searchable.getMode() != SearchMode.DISABLED &&
+			searchable.getSearchStorage() instanceof TrigramSearchStorage<IListElement<?>> trigramSearchStorage
+		) {
+			return Optional.of(trigramSearchStorage.getRankedResults(tokenInfo.token(), cancellationToken));
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Finds the elements matching a pattern by searching the index for its required literals,
+	 * and checking only the elements found that way against the full pattern.
+	 */
+	private void addPatternResults(
+		SearchPattern pattern,
+		List<PrefixedSearchable<IListElementInfo<?>, IListElement<?>>> searchedPrefixes,
+		BitSet results,
+		CancellationToken cancellationToken
+	) {
+		ISearchable<IListElement<?>> searchable = searchedPrefixes.size() == 1 ? searchedPrefixes.getFirst() : combinedSearchables;
+		int checked = 0;
+		for (IListElement<?> candidate : pattern.findCandidates(searchable)) {
+			// a pattern without literals checks every element
+			if (checked++ % PATTERN_CANDIDATES_PER_CANCELLATION_CHECK == 0) {
+				cancellationToken.throwIfCancelled();
+			}
+			IListElementInfo<?> info = this.infosById.get(candidate.getElementId());
+			for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable : searchedPrefixes) {
+				if (pattern.matchesAny(prefixedSearchable.getStrings(info))) {
+					results.set(candidate.getElementId());
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the searchables that a token searches.
+	 * Searches without a prefix (or with a disabled one) search every storage that is enabled without a prefix.
+	 */
+	private List<PrefixedSearchable<IListElementInfo<?>, IListElement<?>>> getSearchedPrefixes(ElementPrefixParser.TokenInfo tokenInfo) {
+		PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo = tokenInfo.prefixInfo();
+		if (prefixInfo != ElementPrefixParser.NO_PREFIX) {
+			PrefixedSearchable<IListElementInfo<?>, IListElement<?>> searchable = this.prefixedSearchables.get(prefixInfo);
+			if (searchable != null && searchable.getMode() != SearchMode.DISABLED) {
+				return List.of(searchable);
+			}
+		}
+		List<PrefixedSearchable<IListElementInfo<?>, IListElement<?>>> searchables = new ArrayList<>();
+		for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> searchable : this.prefixedSearchables.values()) {
+			if (searchable.getMode() == SearchMode.ENABLED) {
+				searchables.add(searchable);
+			}
+		}
+		return searchables;
+	}
+
+	/**
+	 * Patterns are checked against the strings of each element, which calls ingredient code
+	 * for prefixes that are not thread safe and for ingredient helpers that are not thread safe.
+	 */
+	@Override
+	public boolean supportsBackgroundSearch(ElementPrefixParser.TokenInfo tokenInfo) {
+		if (SearchPattern.parse(tokenInfo.token()).isEmpty()) {
+			return true;
+		}
+		if (hasThreadUnsafeElements) {
+			return false;
+		}
+		for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> searchable : getSearchedPrefixes(tokenInfo)) {
+			if (!searchable.getPrefixInfo().isThreadSafe()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void buildIndexFor(ElementPrefixParser.TokenInfo tokenInfo) {
+		PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo = tokenInfo.prefixInfo();
+		IncrementalStorageBuilder<IListElementInfo<?>, IListElement<?>> builder = this.lazyBuilders.get(prefixInfo);
+		if (builder != null && prefixInfo.getMode() != SearchMode.DISABLED) {
+			builder.buildAll();
+			return;
+		}
+		// searches without a prefix (or with a disabled one) also search every storage that is enabled without a prefix
+		this.lazyBuilders.forEach((lazyPrefixInfo, lazyBuilder) -> {
+			if (lazyPrefixInfo.getMode() == SearchMode.ENABLED) {
+				lazyBuilder.buildAll();
+			}
+		});
+	}
+
+	@Override
+	public boolean isIndexBuiltFor(ElementPrefixParser.TokenInfo tokenInfo) {
+		PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo = tokenInfo.prefixInfo();
+		IncrementalStorageBuilder<IListElementInfo<?>, IListElement<?>> builder = this.lazyBuilders.get(prefixInfo);
+		if (builder != null && prefixInfo.getMode() != SearchMode.DISABLED) {
+			return builder.isComplete();
+		}
+		for (Map.Entry<PrefixInfo<IListElementInfo<?>, IListElement<?>>, IncrementalStorageBuilder<IListElementInfo<?>, IListElement<?>>> entry : this.lazyBuilders.entrySet()) {
+			if (entry.getKey().getMode() == SearchMode.ENABLED && !entry.getValue().isComplete()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean buildLazyIndex(long deadlineNanoTime) {
+		for (Map.Entry<PrefixInfo<IListElementInfo<?>, IListElement<?>>, IncrementalStorageBuilder<IListElementInfo<?>, IListElement<?>>> entry : this.lazyBuilders.entrySet()) {
+			IncrementalStorageBuilder<IListElementInfo<?>, IListElement<?>> builder = entry.getValue();
+			if (!builder.isComplete() && entry.getKey().getMode() != SearchMode.DISABLED) {
+				if (!builder.build(deadlineNanoTime)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String getLazyIndexProgress() {
+		StringBuilder progress = new StringBuilder();
+		this.lazyBuilders.forEach((prefixInfo, builder) -> {
+			int built = builder.getBuiltCount();
+			int total = built + builder.getRemainingCount();
+			if (!progress.isEmpty()) {
+				progress.append(", ");
+			}
+			progress.append(prefixInfo).append(": ").append(built).append('/').append(total);
+		});
+		return progress.toString();
+	}
+
+	private void addInfo(IListElementInfo<?> info) {
+		int elementId = info.getElement().getElementId();
+		while (this.infosById.size() <= elementId) {
+			this.infosById.add(null);
+		}
+		this.infosById.set(elementId, info);
+		if (!hasThreadUnsafeElements && !elementPrefixParser.isThreadSafe(info)) {
+			hasThreadUnsafeElements = true;
+		}
+	}
+
 	@Override
 	public void add(IListElementInfo<?> info) {
+		addInfo(info);
 		for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable : this.prefixedSearchables.values()) {
 			SearchMode searchMode = prefixedSearchable.getMode();
 			if (searchMode != SearchMode.DISABLED) {
+				IncrementalStorageBuilder<IListElementInfo<?>, IListElement<?>> lazyBuilder = this.lazyBuilders.get(prefixedSearchable.getPrefixInfo());
+				if (lazyBuilder != null && !lazyBuilder.isComplete()) {
+					lazyBuilder.add(info);
+					continue;
+				}
 				Collection<String> strings = prefixedSearchable.getStrings(info);
 				ISearchStorage<IListElement<?>> storage = prefixedSearchable.getSearchStorage();
 				for (String string : strings) {
 					storage.put(string, info.getElement());
 				}
+				if (lazyBuilder == null) {
+					this.stringDigests.merge(prefixedSearchable.getPrefixInfo(), getStringDigest(info, strings), Long::sum);
+				}
 			}
 		}
 	}
 
+	/**
+	 * Adds all the elements, building each prefix storage in its own task.
+	 * <p>
+	 * Every storage is only written to by one task, which adds the elements in the given order,
+	 * so the finished storages are the same as the ones built by calling {@link #add} for each element.
+	 * Storages for prefixes that are not {@link PrefixInfo#isThreadSafe() thread safe} are built on the calling thread
+	 * while the others are built in the background.
+	 */
 	@Override
 	public void addAll(Collection<IListElementInfo<?>> infos) {
-		for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable : this.prefixedSearchables.values()) {
-			SearchMode searchMode = prefixedSearchable.getMode();
-			if (searchMode != SearchMode.DISABLED) {
-				ISearchStorage<IListElement<?>> storage = prefixedSearchable.getSearchStorage();
-				for (IListElementInfo<?> info : infos) {
-					Collection<String> strings = prefixedSearchable.getStrings(info);
-					for (String string : strings) {
-						storage.put(string, info.getElement());
-					}
+		infos.forEach(this::addInfo);
+		addAllLazy(infos);
+		buildStorages(infos, (prefixedSearchable, stringsGetter) -> addAllToStorage(prefixedSearchable, stringsGetter, infos, null), true);
+	}
+
+	/**
+	 * Adds all the elements like {@link #addAll(Collection)},
+	 * but reuses the storages of the previous search whose strings have not changed.
+	 * After a resource reload this avoids rebuilding the storages that the reload did not affect,
+	 * for example a language change only changes the storages for names and tooltips.
+	 * <p>
+	 * The strings of every element are still computed and compared with a digest of the previous search's strings,
+	 * so the result is the same as a full rebuild.
+	 *
+	 * @param infos    the same elements as the previous search, with the same element ids
+	 * @param previous a search built with the same prefix infos, it must not be used afterward
+	 * @return the prefixes whose storages were rebuilt instead of reused
+	 */
+	public List<PrefixInfo<IListElementInfo<?>, IListElement<?>>> addAll(Collection<IListElementInfo<?>> infos, ElementSearch previous) {
+		infos.forEach(this::addInfo);
+		addAllLazy(infos);
+		if (previous.storageType != this.storageType) {
+			buildStorages(infos, (prefixedSearchable, stringsGetter) -> addAllToStorage(prefixedSearchable, stringsGetter, infos, null), true);
+			return getEnabledSearchables().stream()
+				.map(PrefixedSearchable::getPrefixInfo)
+				.toList();
+		}
+
+		Map<PrefixInfo<IListElementInfo<?>, IListElement<?>>, Boolean> rebuilt = new ConcurrentHashMap<>();
+		buildStorages(infos, (prefixedSearchable, stringsGetter) -> {
+			PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo = prefixedSearchable.getPrefixInfo();
+			Long previousDigest = previous.stringDigests.get(prefixInfo);
+			if (previousDigest == null) {
+				addAllToStorage(prefixedSearchable, stringsGetter, infos, null);
+				rebuilt.put(prefixInfo, true);
+				return;
+			}
+			List<Collection<String>> strings = new ArrayList<>(infos.size());
+			long digest = 0;
+			for (IListElementInfo<?> info : infos) {
+				Collection<String> elementStrings = stringsGetter.getStrings(info);
+				strings.add(elementStrings);
+				digest += getStringDigest(info, elementStrings);
+			}
+			if (digest == previousDigest) {
+				rebuilt.put(prefixInfo, false);
+				return;
+			}
+			ISearchStorage<IListElement<?>> storage = prefixedSearchable.getSearchStorage();
+			int i = 0;
+			for (IListElementInfo<?> info : infos) {
+				for (String string : strings.get(i++)) {
+					storage.put(string, info.getElement());
 				}
 			}
+			this.stringDigests.put(prefixInfo, digest);
+			rebuilt.put(prefixInfo, true);
+		}, true);
+
+		rebuilt.forEach((prefixInfo, wasRebuilt) -> {
+			if (!wasRebuilt) {
+				this.prefixedSearchables.put(prefixInfo, previous.prefixedSearchables.get(prefixInfo));
+				this.stringDigests.put(prefixInfo, previous.stringDigests.get(prefixInfo));
+			}
+		});
+		this.combinedSearchables = new CombinedSearchables<>();
+		this.prefixedSearchables.values().forEach(this.combinedSearchables::addSearchable);
+
+		List<PrefixInfo<IListElementInfo<?>, IListElement<?>>> rebuiltPrefixes = new ArrayList<>();
+		rebuilt.forEach((prefixInfo, wasRebuilt) -> {
+			if (wasRebuilt) {
+				rebuiltPrefixes.add(prefixInfo);
+			}
+		});
+		return rebuiltPrefixes;
+	}
+
+	/**
+	 * Returns a hash of an element's strings for one storage.
+	 * The digest of a storage is the sum of the hashes of its elements, so it does not depend on the order
+	 * the elements were added in, and a changed string is only missed if two 64-bit hashes collide.
+	 */
+	private static long getStringDigest(IListElementInfo<?> info, Collection<String> strings) {
+		long digest = 0;
+		for (String string : strings) {
+			digest += Hashing.murmur3_128().newHasher()
+				.putInt(info.getElement().getElementId())
+				.putUnencodedChars(string)
+				.hash()
+				.asLong();
+		}
+		return digest;
+	}
+
+	/**
+	 * Adds all the elements like {@link #addAll(Collection)},
+	 * and records the strings of each prefix so that they can be saved as a snapshot.
+	 * Strings for lazily built prefixes are not recorded.
+	 */
+	public void addAll(Collection<IListElementInfo<?>> infos, SearchIndexSnapshotWriter snapshotWriter) {
+		infos.forEach(this::addInfo);
+		addAllLazy(infos);
+		buildStorages(infos, (prefixedSearchable, stringsGetter) -> {
+			char prefix = prefixedSearchable.getPrefixInfo().getPrefix();
+			SearchIndexSnapshotWriter.SectionWriter sectionWriter = snapshotWriter.getSectionWriter(prefix);
+			addAllToStorage(prefixedSearchable, stringsGetter, infos, sectionWriter);
+		}, true);
+	}
+
+	/**
+	 * Adds all the elements using the strings saved in the snapshot instead of getting them from each element.
+	 * The elements must be in the same order as when the snapshot was saved.
+	 * Lazily built prefixes are loaded from the snapshot if it has them, otherwise they are still built lazily.
+	 *
+	 * @throws IllegalArgumentException if the snapshot is missing strings for an enabled prefix
+	 * @throws IllegalStateException if the snapshot is corrupt
+	 */
+	public void addAll(Collection<IListElementInfo<?>> infos, SearchIndexSnapshot snapshot) {
+		for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable : getEnabledSearchables()) {
+			char prefix = prefixedSearchable.getPrefixInfo().getPrefix();
+			if (!snapshot.hasSection(prefix)) {
+				throw new IllegalArgumentException("The search index snapshot has no strings for prefix: " + prefix);
+			}
+		}
+		for (Map.Entry<PrefixInfo<IListElementInfo<?>, IListElement<?>>, IncrementalStorageBuilder<IListElementInfo<?>, IListElement<?>>> entry : this.lazyBuilders.entrySet()) {
+			PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo = entry.getKey();
+			if (prefixInfo.getMode() == SearchMode.DISABLED) {
+				continue;
+			}
+			if (snapshot.hasSection(prefixInfo.getPrefix())) {
+				restoreStorage(this.prefixedSearchables.get(prefixInfo), infos, snapshot);
+			} else {
+				entry.getValue().addAll(infos);
+			}
+		}
+		infos.forEach(this::addInfo);
+		// no ingredient code is called here, so every storage can be built in the background
+		buildStorages(infos, (prefixedSearchable, stringsGetter) -> restoreStorage(prefixedSearchable, infos, snapshot), false);
+	}
+
+	private void restoreStorage(
+		PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable,
+		Collection<IListElementInfo<?>> infos,
+		SearchIndexSnapshot snapshot
+	) {
+		char prefix = prefixedSearchable.getPrefixInfo().getPrefix();
+		SearchIndexSnapshot.SectionReader sectionReader = snapshot.getSectionReader(prefix);
+		ISearchStorage<IListElement<?>> storage = prefixedSearchable.getSearchStorage();
+		long digest = 0;
+		for (IListElementInfo<?> info : infos) {
+			Collection<String> strings = sectionReader.next();
+			for (String string : strings) {
+				storage.put(string, info.getElement());
+			}
+			digest += getStringDigest(info, strings);
+		}
+		if (!this.lazyBuilders.containsKey(prefixedSearchable.getPrefixInfo())) {
+			this.stringDigests.put(prefixedSearchable.getPrefixInfo(), digest);
+		}
+	}
+
+	private void addAllLazy(Collection<IListElementInfo<?>> infos) {
+		for (IncrementalStorageBuilder<IListElementInfo<?>, IListElement<?>> builder : this.lazyBuilders.values()) {
+			builder.addAll(infos);
 		}
 	}
 
+	/**
+	 * Returns the enabled searchables that are built eagerly.
+	 */
+	private List<PrefixedSearchable<IListElementInfo<?>, IListElement<?>>> getEnabledSearchables() {
+		List<PrefixedSearchable<IListElementInfo<?>, IListElement<?>>> enabledSearchables = new ArrayList<>();
+		for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable : this.prefixedSearchables.values()) {
+			if (prefixedSearchable.getMode() != SearchMode.DISABLED && !this.lazyBuilders.containsKey(prefixedSearchable.getPrefixInfo())) {
+				enabledSearchables.add(prefixedSearchable);
+			}
+		}
+		return enabledSearchables;
+	}
+
+	/**
+	 * Runs the storage builder once for each enabled prefix, in parallel where possible.
+	 *
+	 * @param callsIngredientCode true if the builder gets strings from the elements,
+	 *                            so storages for prefixes that are not thread safe must be built on the calling thread,
+	 *                            and elements with ingredient helpers that are not thread safe get their strings there too.
+	 */
+	private void buildStorages(Collection<IListElementInfo<?>> infos, IStorageBuilder storageBuilder, boolean callsIngredientCode) {
+		List<PrefixedSearchable<IListElementInfo<?>, IListElement<?>>> backgroundSearchables = new ArrayList<>();
+		List<PrefixedSearchable<IListElementInfo<?>, IListElement<?>>> callingThreadSearchables = new ArrayList<>();
+		for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable : getEnabledSearchables()) {
+			if (!callsIngredientCode || prefixedSearchable.getPrefixInfo().isThreadSafe()) {
+				backgroundSearchables.add(prefixedSearchable);
+			} else {
+				callingThreadSearchables.add(prefixedSearchable);
+			}
+		}
+
+		// the calling thread is busy too, so leave one processor for it
+		int parallelism = Math.min(backgroundSearchables.size(), Runtime.getRuntime().availableProcessors() - 1);
+		if (parallelism < 1 || (parallelism == 1 && callingThreadSearchables.isEmpty())) {
+			callingThreadSearchables.addAll(backgroundSearchables);
+			for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable : callingThreadSearchables) {
+				storageBuilder.build(prefixedSearchable, prefixedSearchable::getStrings);
+			}
+			return;
+		}
+
+		List<IListElementInfo<?>> threadUnsafeInfos = List.of();
+		if (callsIngredientCode && hasThreadUnsafeElements) {
+			threadUnsafeInfos = infos.stream()
+				.filter(info -> !elementPrefixParser.isThreadSafe(info))
+				.toList();
+		}
+
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable : backgroundSearchables) {
+			PrefixInfo.IStringsGetter<IListElementInfo<?>> stringsGetter = getBackgroundStringsGetter(prefixedSearchable, threadUnsafeInfos);
+			tasks.add(IndexerPool.POOL.submit(() -> storageBuilder.build(prefixedSearchable, stringsGetter)));
+		}
+		for (PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable : callingThreadSearchables) {
+			storageBuilder.build(prefixedSearchable, prefixedSearchable::getStrings);
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+	}
+
+	/**
+	 * Gets the strings of the elements with ingredient helpers that are not thread safe on the calling thread,
+	 * so that a storage built on another thread only calls thread safe ingredient helpers.
+	 */
+	private static PrefixInfo.IStringsGetter<IListElementInfo<?>> getBackgroundStringsGetter(
+		PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable,
+		List<IListElementInfo<?>> threadUnsafeInfos
+	) {
+		if (threadUnsafeInfos.isEmpty()) {
+			return prefixedSearchable::getStrings;
+		}
+		Map<IListElementInfo<?>, Collection<String>> strings = new IdentityHashMap<>(threadUnsafeInfos.size());
+		for (IListElementInfo<?> info : threadUnsafeInfos) {
+			strings.put(info, prefixedSearchable.getStrings(info));
+		}
+		return info -> {
+			Collection<String> infoStrings = strings.get(info);
+			if (infoStrings != null) {
+				return infoStrings;
+			}
+			return prefixedSearchable.getStrings(info);
+		};
+	}
+
+	private void addAllToStorage(
+		PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable,
+		PrefixInfo.IStringsGetter<IListElementInfo<?>> stringsGetter,
+		Collection<IListElementInfo<?>> infos,
+		@Nullable SearchIndexSnapshotWriter.SectionWriter sectionWriter
+	) {
+		ISearchStorage<IListElement<?>> storage = prefixedSearchable.getSearchStorage();
+		long digest = 0;
+		for (IListElementInfo<?> info : infos) {
+			Collection<String> strings = stringsGetter.getStrings(info);
+			if (sectionWriter != null) {
+				sectionWriter.add(strings);
+			}
+			for (String string : strings) {
+				storage.put(string, info.getElement());
+			}
+			digest += getStringDigest(info, strings);
+		}
+		this.stringDigests.put(prefixedSearchable.getPrefixInfo(), digest);
+	}
+
+	private static ForkJoinWorkerThread createWorkerThread(ForkJoinPool pool) {
+		ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("JEI Search Indexer-" + thread.getPoolIndex());
+		// mod loaders need the mod class loader to find classes from other mods
+		thread.setContextClassLoader(ElementSearch.class.getClassLoader());
+		thread.setDaemon(true);
+		return thread;
+	}
+
 	@Override
 	public Set<IListElement<?>> getAllIngredients() {
 		Set<IListElement<?>> results = Collections.newSetFromMap(new IdentityHashMap<>());
@@ -102,4 +614,25 @@ public class ElementSearch implements IElementSearch {
 			}
 		});
 	}
+
+	@FunctionalInterface
+	private interface IStorageBuilder {
+		/**
+		 * @param stringsGetter gets the strings of an element for the storage, use it instead of the prefixed searchable's strings.
+		 */
+		void build(PrefixedSearchable<IListElementInfo<?>, IListElement<?>> prefixedSearchable, PrefixInfo.IStringsGetter<IListElementInfo<?>> stringsGetter);
+	}
+
+	/**
+	 * One pool shared by every search index build. Its threads exit when it is idle.
+	 */
+	private static final class IndexerPool {
+		// the calling thread is busy too, so leave one processor for it
+		private static final ForkJoinPool POOL = new ForkJoinPool(
+			Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+			ElementSearch::createWorkerThread,
+			null,
+			false
+		);
+	}
 }
@@ -1,16 +1,18 @@
 package mezz.jei.gui.search;
 
 import mezz.jei.core.search.PrefixInfo;
+import mezz.jei.core.search.pattern.SearchPattern;
 import mezz.jei.gui.ingredients.IListElement;
 import mezz.jei.gui.ingredients.IListElementInfo;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 public class ElementSearchLowMem implements IElementSearch {
 	private static final Logger LOGGER = LogManager.getLogger();
@@ -22,25 +24,30 @@ public class ElementSearchLowMem implements IElementSearch {
 	}
 
 	@Override
-	public Set<IListElement<?>> getSearchResults(ElementPrefixParser.TokenInfo tokenInfo) {
+	public BitSet getSearchResults(ElementPrefixParser.TokenInfo tokenInfo) {
 		String token = tokenInfo.token();
+		BitSet results = new BitSet();
 		if (token.isEmpty()) {
-			return Set.of();
+			return results;
 		}
 
 		PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo = tokenInfo.prefixInfo();
-		return this.elementInfoList.stream()
-			.filter(elementInfo -> matches(token, prefixInfo, elementInfo))
-			.map(IListElementInfo::getElement)
-			.collect(Collectors.toSet());
+		Optional<SearchPattern> pattern = SearchPattern.parse(token);
+		Predicate<String> matcher = pattern.isPresent() ? pattern.get()::matches : string -> string.contains(token);
+		for (IListElementInfo<?> elementInfo : this.elementInfoList) {
+			if (matches(matcher, prefixInfo, elementInfo)) {
+				results.set(elementInfo.getElement().getElementId());
+			}
+		}
+		return results;
 	}
 
-	private static boolean matches(String word, PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo, IListElementInfo<?> elementInfo) {
+	private static boolean matches(Predicate<String> matcher, PrefixInfo<IListElementInfo<?>, IListElement<?>> prefixInfo, IListElementInfo<?> elementInfo) {
 		IListElement<?> element = elementInfo.getElement();
 		if (element.isVisible()) {
 			Collection<String> strings = prefixInfo.getStrings(elementInfo);
 			for (String string : strings) {
-				if (string.contains(word)) {
+				if (matcher.test(string)) {
 					return true;
 				}
 			}
@@ -48,6 +55,12 @@ public class ElementSearchLowMem implements IElementSearch {
 		return false;
 	}
 
+	@Override
+	public boolean supportsBackgroundSearch() {
+		// strings like tooltips are created while searching
+		return false;
+	}
+
 	@Override
 	public void add(IListElementInfo<?> info) {
 		this.elementInfoList.add(info);
@@ -1,10 +1,13 @@
 package mezz.jei.gui.search;
 
+import mezz.jei.core.util.CancellationToken;
 import mezz.jei.gui.ingredients.IListElement;
 import mezz.jei.gui.ingredients.IListElementInfo;
 
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.Set;
+import java.util.List;
+import java.util.Optional;
 
 public interface IElementSearch {
 	void add(IListElementInfo<?> info);
@@ -13,7 +16,79 @@ public interface IElementSearch {
 
 	Collection<IListElement<?>> getAllIngredients();
 
-	Set<IListElement<?>> getSearchResults(ElementPrefixParser.TokenInfo tokenInfo);
+	/**
+	 * Returns the {@link IListElement#getElementId()} of every matching element.
+	 */
+	BitSet getSearchResults(ElementPrefixParser.TokenInfo tokenInfo);
+
+	/**
+	 * Like {@link #getSearchResults(ElementPrefixParser.TokenInfo)}, but slow searches check the cancellation token
+	 * while they search, so that a search that is no longer wanted stops early.
+	 *
+	 * @throws java.util.concurrent.CancellationException if the token is cancelled
+	 */
+	default BitSet getSearchResults(ElementPrefixParser.TokenInfo tokenInfo, CancellationToken cancellationToken) {
+		return getSearchResults(tokenInfo);
+	}
+
+	/**
+	 * Returns the matching elements best matches first, if the token searches a storage that ranks its results.
+	 * Otherwise, the results of {@link #getSearchResults} are sorted like every other search.
+	 *
+	 * @throws java.util.concurrent.CancellationException if the token is cancelled
+	 */
+	default Optional<List<IListElement<?>>> getRankedSearchResults(ElementPrefixParser.TokenInfo tokenInfo, CancellationToken cancellationToken) {
+		return Optional.empty();
+	}
+
+	/**
+	 * Finishes building any lazily built part of the index that the token searches,
+	 * so that {@link #getSearchResults} returns complete results for it.
+	 * Must be called on the client thread.
+	 */
+	default void buildIndexFor(ElementPrefixParser.TokenInfo tokenInfo) {
+
+	}
+
+	/**
+	 * Returns true if every lazily built part of the index that the token searches is complete.
+	 * Must be called while holding the lock that guards this search.
+	 */
+	default boolean isIndexBuiltFor(ElementPrefixParser.TokenInfo tokenInfo) {
+		return true;
+	}
+
+	/**
+	 * Builds more of the lazily built part of the index, until it is complete or the deadline has passed.
+	 * Must be called on the client thread.
+	 *
+	 * @param deadlineNanoTime the {@link System#nanoTime()} to stop at
+	 * @return true if the index is complete
+	 */
+	default boolean buildLazyIndex(long deadlineNanoTime) {
+		return true;
+	}
+
+	/**
+	 * Returns a description of how much of the lazily built part of the index has been built.
+	 */
+	default String getLazyIndexProgress() {
+		return "";
+	}
+
+	/**
+	 * Returns false if {@link #getSearchResults} calls into ingredient code and must be called on the client thread.
+	 */
+	default boolean supportsBackgroundSearch() {
+		return true;
+	}
+
+	/**
+	 * Returns false if searching for this token calls into ingredient code and must be done on the client thread.
+	 */
+	default boolean supportsBackgroundSearch(ElementPrefixParser.TokenInfo tokenInfo) {
+		return supportsBackgroundSearch();
+	}
 
 	void logStatistics();
 }
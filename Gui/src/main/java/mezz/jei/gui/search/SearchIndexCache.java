@@ -0,0 +1,235 @@
+package mezz.jei.gui.search;
+
+import mezz.jei.api.helpers.IModIdHelper;
+import mezz.jei.api.ingredients.IIngredientHelper;
+import mezz.jei.api.ingredients.IIngredientType;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.ingredients.subtypes.UidContext;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.common.config.IIngredientFilterConfig;
+import mezz.jei.common.platform.Services;
+import mezz.jei.core.search.SearchMode;
+import mezz.jei.core.search.snapshot.SearchIndexFingerprint;
+import mezz.jei.core.search.snapshot.SearchIndexSnapshot;
+import mezz.jei.core.search.snapshot.SearchIndexSnapshotWriter;
+import mezz.jei.core.util.LoggedTimer;
+import mezz.jei.gui.ingredients.IListElementInfo;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.flag.FeatureFlags;
+import net.minecraft.world.item.CreativeModeTab;
+import net.minecraft.world.item.CreativeModeTabs;
+import net.minecraft.world.item.ItemStack;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Saves the strings used to build the {@link ElementSearch} in a {@link SearchIndexSnapshot},
+ * so that the next start can build the search index without getting tooltips, tags and names from every ingredient.
+ * <p>
+ * The snapshot is only used when its fingerprint matches the current ingredients and their tags and aliases, mod versions,
+ * language, resource packs, creative tabs, feature flags and search config.
+ * Otherwise, or if the snapshot cannot be read, the search index is built normally and a new snapshot is saved.
+ */
+public class SearchIndexCache {
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private final Path snapshotPath;
+	private final IIngredientManager ingredientManager;
+	private final IModIdHelper modIdHelper;
+	private final IIngredientFilterConfig config;
+	private final Executor saveExecutor;
+
+	public SearchIndexCache(Path snapshotPath, IIngredientManager ingredientManager, IModIdHelper modIdHelper, IIngredientFilterConfig config, Executor saveExecutor) {
+		this.snapshotPath = snapshotPath;
+		this.ingredientManager = ingredientManager;
+		this.modIdHelper = modIdHelper;
+		this.config = config;
+		this.saveExecutor = saveExecutor;
+	}
+
+	public static Path getDefaultSnapshotPath() {
+		Minecraft minecraft = Minecraft.getInstance();
+		return minecraft.gameDirectory.toPath()
+			.resolve(".cache")
+			.resolve("jei")
+			.resolve("search-index.bin");
+	}
+
+	/**
+	 * Creates an element search containing all the elements,
+	 * using the saved snapshot if it is up to date.
+	 */
+	public ElementSearch createElementSearch(Supplier<ElementSearch> elementSearchFactory, List<IListElementInfo<?>> infos) {
+		LoggedTimer timer = new LoggedTimer();
+		timer.start("Fingerprinting the search index");
+		byte[] fingerprint = createFingerprint(infos, ingredientManager, modIdHelper, config, GameState.getCurrent());
+		timer.stop();
+
+		Optional<SearchIndexSnapshot> snapshot = SearchIndexSnapshot.read(snapshotPath, fingerprint, infos.size());
+		if (snapshot.isPresent()) {
+			ElementSearch elementSearch = elementSearchFactory.get();
+			try {
+				timer.start("Loading the search index from a snapshot");
+				elementSearch.addAll(infos, snapshot.get());
+				timer.stop();
+				return elementSearch;
+			} catch (RuntimeException e) {
+				LOGGER.warn("Failed to load the search index snapshot, rebuilding the search index.", e);
+			}
+		}
+
+		ElementSearch elementSearch = elementSearchFactory.get();
+		SearchIndexSnapshotWriter snapshotWriter = new SearchIndexSnapshotWriter();
+		elementSearch.addAll(infos, snapshotWriter);
+		saveExecutor.execute(() -> {
+			try {
+				snapshotWriter.write(snapshotPath, fingerprint);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.warn("Failed to save the search index snapshot: {}", snapshotPath, e);
+			}
+		});
+		return elementSearch;
+	}
+
+	/**
+	 * Creates a hash of everything that the search strings depend on.
+	 */
+	public static byte[] createFingerprint(
+		List<IListElementInfo<?>> infos,
+		IIngredientManager ingredientManager,
+		IModIdHelper modIdHelper,
+		IIngredientFilterConfig config,
+		GameState gameState
+	) {
+		SearchIndexFingerprint fingerprint = new SearchIndexFingerprint()
+			.add(gameState.language());
+		addAll(fingerprint, gameState.resourcePacks());
+
+		Map<String, String> sortedModVersions = new TreeMap<>(gameState.modVersions());
+		fingerprint.add(sortedModVersions.size());
+		sortedModVersions.forEach((modId, version) -> fingerprint.add(modId).add(version));
+
+		addAll(fingerprint, gameState.enabledFeatures());
+		addAll(fingerprint, gameState.creativeTabs());
+
+		for (SearchMode searchMode : List.of(
+			config.getModNameSearchMode(),
+			config.getTooltipSearchMode(),
+			config.getTagSearchMode(),
+			config.getColorSearchMode(),
+			config.getResourceLocationSearchMode(),
+			config.getCreativeTabSearchMode(),
+			config.getFuzzySearchMode()
+		)) {
+			fingerprint.add(searchMode.name());
+		}
+		fingerprint
+			.add(config.getSearchAdvancedTooltips())
+			.add(config.getSearchModIds())
+			.add(config.getSearchModAliases())
+			.add(config.getSearchIngredientAliases())
+			.add(config.getSearchShortModNames());
+
+		fingerprint.add(infos.size());
+		Set<String> modIds = new TreeSet<>();
+		for (IListElementInfo<?> info : infos) {
+			addIngredient(fingerprint, ingredientManager, info.getTypedIngredient());
+			// tags come from the server's data packs, so they can change without any other change here
+			List<String> tags = info.getTagIds(ingredientManager)
+				.map(ResourceLocation::toString)
+				.sorted()
+				.toList();
+			addAll(fingerprint, tags);
+			modIds.addAll(info.getModIds());
+		}
+
+		fingerprint.add(modIds.size());
+		for (String modId : modIds) {
+			fingerprint.add(modId);
+			addAll(fingerprint, new TreeSet<>(modIdHelper.getModAliases(modId)));
+		}
+		return fingerprint.build();
+	}
+
+	private static <V> void addIngredient(SearchIndexFingerprint fingerprint, IIngredientManager ingredientManager, ITypedIngredient<V> typedIngredient) {
+		IIngredientType<V> type = typedIngredient.getType();
+		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(type);
+		Object uid = ingredientHelper.getUid(typedIngredient, UidContext.Ingredient);
+		fingerprint
+			.add(type.getUid())
+			.add(uid.toString());
+		addAll(fingerprint, ingredientManager.getIngredientAliases(typedIngredient));
+	}
+
+	private static void addAll(SearchIndexFingerprint fingerprint, Collection<String> values) {
+		fingerprint.add(values.size());
+		for (String value : values) {
+			fingerprint.add(value);
+		}
+	}
+
+	/**
+	 * The state of the game that the search strings depend on, apart from the ingredients and the search config.
+	 *
+	 * @param creativeTabs a description of each creative tab and a hash of its contents
+	 */
+	public record GameState(
+		String language,
+		Collection<String> resourcePacks,
+		Map<String, String> modVersions,
+		Collection<String> enabledFeatures,
+		List<String> creativeTabs
+	) {
+		public static GameState getCurrent() {
+			Minecraft minecraft = Minecraft.getInstance();
+			List<String> enabledFeatures = List.of();
+			ClientLevel level = minecraft.level;
+			if (level != null) {
+				enabledFeatures = FeatureFlags.REGISTRY.toNames(level.enabledFeatures())
+					.stream()
+					.map(ResourceLocation::toString)
+					.sorted()
+					.toList();
+			}
+			return new GameState(
+				minecraft.getLanguageManager().getSelected(),
+				minecraft.getResourcePackRepository().getSelectedIds(),
+				Services.PLATFORM.getModHelper().getModVersions(),
+				enabledFeatures,
+				getCreativeTabs()
+			);
+		}
+
+		private static List<String> getCreativeTabs() {
+			List<String> creativeTabs = new ArrayList<>();
+			for (CreativeModeTab tab : CreativeModeTabs.allTabs()) {
+				if (tab.getType() != CreativeModeTab.Type.CATEGORY) {
+					continue;
+				}
+				Collection<ItemStack> displayItems = tab.getDisplayItems();
+				int contentsHash = 1;
+				for (ItemStack itemStack : displayItems) {
+					contentsHash = 31 * contentsHash + ItemStack.hashItemAndComponents(itemStack);
+				}
+				creativeTabs.add(BuiltInRegistries.CREATIVE_MODE_TAB.getKey(tab) + " " + tab.shouldDisplay() + " " + displayItems.size() + " " + contentsHash);
+			}
+			return creativeTabs;
+		}
+	}
+}
@@ -32,7 +32,6 @@ import mezz.jei.gui.config.ModNameSortingConfig;
 import mezz.jei.gui.events.GuiEventHandler;
 import mezz.jei.gui.filter.FilterTextSource;
 import mezz.jei.gui.filter.IFilterTextSource;
-import mezz.jei.gui.ingredients.IListElement;
 import mezz.jei.gui.ingredients.IListElementInfo;
 import mezz.jei.gui.ingredients.IngredientFilter;
 import mezz.jei.gui.ingredients.IngredientFilterApi;
@@ -54,14 +53,15 @@ import mezz.jei.gui.overlay.bookmarks.BookmarkOverlay;
 import mezz.jei.gui.overlay.bookmarks.history.HistoryInputHandler;
 import mezz.jei.gui.overlay.bookmarks.history.HistoryList;
 import mezz.jei.gui.recipes.RecipesGui;
+import mezz.jei.gui.search.SearchIndexCache;
 import mezz.jei.gui.util.FocusUtil;
+import net.minecraft.Util;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.RegistryAccess;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Comparator;
 import java.util.List;
 
 public class JeiGuiStarter {
@@ -97,7 +97,7 @@ public class JeiGuiStarter {
 		RegistryAccess registryAccess = level.registryAccess();
 
 		timer.start("Building ingredient list");
-		List<IListElementInfo<?>> ingredientList = IngredientListElementFactory.createBaseList(ingredientManager, modIdHelper);
+		List<IListElementInfo<?>> ingredientList = IngredientListElementFactory.createBaseList(ingredientManager, modIdHelper, Util.backgroundExecutor());
 		timer.stop();
 
 		timer.start("Building ingredient filter");
@@ -114,7 +114,7 @@ public class JeiGuiStarter {
 		IIngredientGridConfig bookmarkListConfig = jeiClientConfigs.getBookmarkListConfig();
 		IIngredientFilterConfig ingredientFilterConfig = jeiClientConfigs.getIngredientFilterConfig();
 
-		Comparator<IListElement<?>> ingredientComparator = IngredientSorter.sortIngredients(
+		IngredientSorter ingredientSorter = IngredientSorter.sortIngredients(
 			clientConfig,
 			modNameSortingConfig,
 			ingredientTypeSortingConfig,
@@ -122,17 +122,31 @@ public class JeiGuiStarter {
 			ingredientList
 		);
 
+		SearchIndexCache searchIndexCache = null;
+		if (clientConfig.isSearchIndexCacheEnabled()) {
+			searchIndexCache = new SearchIndexCache(
+				SearchIndexCache.getDefaultSnapshotPath(),
+				ingredientManager,
+				modIdHelper,
+				ingredientFilterConfig,
+				Util.ioPool()
+			);
+		}
+
 		IngredientFilter ingredientFilter = new IngredientFilter(
 			filterTextSource,
 			clientConfig,
 			ingredientFilterConfig,
 			ingredientManager,
-			ingredientComparator,
+			ingredientSorter,
 			ingredientList,
 			modIdHelper,
 			ingredientVisibility,
 			colorHelper,
-			toggleState
+			toggleState,
+			Util.backgroundExecutor(),
+			minecraft,
+			searchIndexCache
 		);
 		ingredientManager.registerIngredientListener(ingredientFilter);
 		ingredientVisibility.registerListener(ingredientFilter);
@@ -21,6 +21,7 @@ import net.minecraft.core.RegistryAccess;
 import net.minecraft.resources.RegistryOps;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -52,13 +53,15 @@ public class EditModeConfig implements IEditModeConfig {
 	}
 
 	public <V> void addIngredientToConfigBlacklist(ITypedIngredient<V> typedIngredient, HideMode blacklistType, IIngredientHelper<V> ingredientHelper) {
-		if (addIngredientToConfigBlacklistInternal(typedIngredient, blacklistType, ingredientHelper)) {
+		Object addedUid = addIngredientToConfigBlacklistInternal(typedIngredient, blacklistType, ingredientHelper);
+		if (addedUid != null) {
 			serializer.save(this);
-			notifyListenersOfVisibilityChange(typedIngredient, false);
+			notifyListenersOfVisibilityChange(typedIngredient, addedUid, false);
 		}
 	}
 
-	private <V> boolean addIngredientToConfigBlacklistInternal(
+	@Nullable
+	private <V> Object addIngredientToConfigBlacklistInternal(
 		ITypedIngredient<V> typedIngredient,
 		HideMode blacklistType
 	) {
@@ -66,7 +69,11 @@ public class EditModeConfig implements IEditModeConfig {
 		return addIngredientToConfigBlacklistInternal(typedIngredient, blacklistType, ingredientHelper);
 	}
 
-	private <V> boolean addIngredientToConfigBlacklistInternal(
+	/**
+	 * @return the uid that was added to the blacklist, or null if it was already there
+	 */
+	@Nullable
+	private <V> Object addIngredientToConfigBlacklistInternal(
 		ITypedIngredient<V> typedIngredient,
 		HideMode blacklistType,
 		IIngredientHelper<V> ingredientHelper
@@ -78,13 +85,14 @@ public class EditModeConfig implements IEditModeConfig {
 			blacklistType = HideMode.WILDCARD;
 		}
 
-		if (blacklistType == HideMode.SINGLE) {
-			return blacklist.put(uid, new Pair<>(blacklistType, typedIngredient)) == null;
-		} else if (blacklistType == HideMode.WILDCARD) {
-			return blacklist.put(wildcardUid, new Pair<>(blacklistType, typedIngredient)) == null;
+		Object addedUid = switch (blacklistType) {
+			case SINGLE -> uid;
+			case WILDCARD -> wildcardUid;
+		};
+		if (blacklist.put(addedUid, new Pair<>(blacklistType, typedIngredient)) == null) {
+			return addedUid;
 		}
-
-		return false;
+		return null;
 	}
 
 	public <V> void removeIngredientFromConfigBlacklist(
@@ -95,7 +103,7 @@ public class EditModeConfig implements IEditModeConfig {
 		final Object uid = getIngredientUid(typedIngredient, blacklistType, ingredientHelper);
 		if (blacklist.remove(uid) != null) {
 			serializer.save(this);
-			notifyListenersOfVisibilityChange(typedIngredient, true);
+			notifyListenersOfVisibilityChange(typedIngredient, uid, true);
 		}
 	}
 
@@ -258,10 +266,10 @@ public class EditModeConfig implements IEditModeConfig {
 		}
 	}
 
-	private <T> void notifyListenersOfVisibilityChange(ITypedIngredient<T> ingredient, boolean visible) {
+	private <T> void notifyListenersOfVisibilityChange(ITypedIngredient<T> ingredient, Object uid, boolean visible) {
 		IngredientVisibility ingredientVisibility = this.ingredientVisibilityRef.get();
 		if (ingredientVisibility != null) {
-			ingredientVisibility.notifyListeners(ingredient, visible);
+			ingredientVisibility.onBlacklistChanged(ingredient, uid, visible);
 		}
 	}
 }
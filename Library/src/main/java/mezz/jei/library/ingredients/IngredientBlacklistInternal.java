@@ -17,14 +17,14 @@ public class IngredientBlacklistInternal implements IIngredientManager.IIngredie
 	public <V> void addIngredientToBlacklist(ITypedIngredient<V> typedIngredient, IIngredientHelper<V> ingredientHelper) {
 		Object uid = ingredientHelper.getUid(typedIngredient, UidContext.Ingredient);
 		if (uidBlacklist.add(uid)) {
-			notifyListenersOfVisibilityChange(typedIngredient, false);
+			notifyListenersOfVisibilityChange(typedIngredient, uid, false);
 		}
 	}
 
 	public <V> void removeIngredientFromBlacklist(ITypedIngredient<V> typedIngredient, IIngredientHelper<V> ingredientHelper) {
 		Object uid = ingredientHelper.getUid(typedIngredient, UidContext.Ingredient);
 		if (uidBlacklist.remove(uid)) {
-			notifyListenersOfVisibilityChange(typedIngredient, true);
+			notifyListenersOfVisibilityChange(typedIngredient, uid, true);
 		}
 	}
 
@@ -56,10 +56,10 @@ public class IngredientBlacklistInternal implements IIngredientManager.IIngredie
 		}
 	}
 
-	private <T> void notifyListenersOfVisibilityChange(ITypedIngredient<T> ingredient, boolean visible) {
+	private <T> void notifyListenersOfVisibilityChange(ITypedIngredient<T> ingredient, Object uid, boolean visible) {
 		IngredientVisibility ingredientVisibility = ingredientVisibilityRef.get();
 		if (ingredientVisibility != null) {
-			ingredientVisibility.notifyListeners(ingredient, visible);
+			ingredientVisibility.onBlacklistChanged(ingredient, uid, visible);
 		}
 	}
 }
@@ -1,8 +1,13 @@
 package mezz.jei.library.ingredients;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import mezz.jei.api.ingredients.IIngredientHelper;
 import mezz.jei.api.ingredients.IIngredientType;
 import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.ingredients.subtypes.UidContext;
 import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.api.runtime.IIngredientVisibility;
 import mezz.jei.common.config.IClientToggleState;
@@ -10,6 +15,21 @@ import mezz.jei.core.util.WeakList;
 import mezz.jei.library.config.EditModeConfig;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checking whether an ingredient is hidden needs several uid lookups in the blacklists and a tag check,
+ * so the result is cached in bit sets, by an id that each ingredient uid gets the first time it is checked.
+ * Only ingredients registered with the {@link IIngredientManager} are cached. Others, like the stacks shown in recipe slots,
+ * are checked without the cache, so that the cache does not grow without bound.
+ * <p>
+ * When the blacklists change, only the ingredients with the changed uid or grouping uid are checked again,
+ * and listeners are told about the ingredients whose visibility actually flipped.
+ */
 public class IngredientVisibility implements IIngredientVisibility {
 	private final IngredientBlacklistInternal blacklist;
 	private final IClientToggleState toggleState;
@@ -17,6 +37,27 @@ public class IngredientVisibility implements IIngredientVisibility {
 	private final IIngredientManager ingredientManager;
 	private final WeakList<IListener> listeners = new WeakList<>();
 
+	/**
+	 * Guards the cached ids and visibility, which can be read from any thread.
+	 */
+	private final Object cacheLock = new Object();
+	private final Map<IIngredientType<?>, Object2IntMap<Object>> idsByUid = new HashMap<>();
+	private final List<ITypedIngredient<?>> ingredientsById = new ArrayList<>();
+	/**
+	 * The ids of the ingredients with each uid or grouping uid, which are what the blacklists contain.
+	 */
+	private final Map<Object, IntList> idsByBlacklistKey = new HashMap<>();
+	/**
+	 * Ingredients hidden by the API or by tags.
+	 * They are hidden even in edit mode.
+	 */
+	private final BitSet hiddenByMods = new BitSet();
+	/**
+	 * Ingredients hidden by the player using the config file.
+	 * They are shown in edit mode, so that they can be un-hidden.
+	 */
+	private final BitSet hiddenByConfig = new BitSet();
+
 	public IngredientVisibility(
 		IngredientBlacklistInternal blacklist,
 		IClientToggleState toggleState,
@@ -50,13 +91,154 @@ public class IngredientVisibility implements IIngredientVisibility {
 	}
 
 	public <V> boolean isIngredientVisible(ITypedIngredient<V> typedIngredient, IIngredientHelper<V> ingredientHelper) {
-		if (blacklist.isIngredientBlacklistedByApi(typedIngredient, ingredientHelper)) {
+		Object uid = ingredientHelper.getUid(typedIngredient, UidContext.Ingredient);
+		synchronized (cacheLock) {
+			int id = getId(typedIngredient.getType(), uid);
+			if (id >= 0) {
+				return isVisible(id);
+			}
+		}
+		if (!isRegistered(typedIngredient)) {
+			return isIngredientVisibleUncached(typedIngredient, ingredientHelper);
+		}
+		synchronized (cacheLock) {
+			int id = getOrCreateId(typedIngredient, ingredientHelper, uid);
+			return isVisible(id);
+		}
+	}
+
+	/**
+	 * Returns the number of ingredients whose visibility is cached.
+	 */
+	public int getCachedCount() {
+		synchronized (cacheLock) {
+			return ingredientsById.size();
+		}
+	}
+
+	private <V> boolean isRegistered(ITypedIngredient<V> typedIngredient) {
+		// the registered ingredients are a set keyed by uid, so this is a hash lookup
+		return ingredientManager.getAllIngredients(typedIngredient.getType())
+			.contains(typedIngredient.getIngredient());
+	}
+
+	/**
+	 * Checks the blacklists without using the cache.
+	 */
+	public <V> boolean isIngredientVisibleUncached(ITypedIngredient<V> typedIngredient, IIngredientHelper<V> ingredientHelper) {
+		if (isHiddenByMods(typedIngredient, ingredientHelper)) {
 			return false;
 		}
-		if (ingredientHelper.isHiddenFromRecipeViewersByTags(typedIngredient)) {
+		return toggleState.isEditModeEnabled() || !editModeConfig.isIngredientOnConfigBlacklist(typedIngredient, ingredientHelper);
+	}
+
+	private <V> boolean isHiddenByMods(ITypedIngredient<V> typedIngredient, IIngredientHelper<V> ingredientHelper) {
+		return blacklist.isIngredientBlacklistedByApi(typedIngredient, ingredientHelper) ||
+			ingredientHelper.isHiddenFromRecipeViewersByTags(typedIngredient);
+	}
+
+	private boolean isVisible(int id) {
+		if (hiddenByMods.get(id)) {
 			return false;
 		}
-		return toggleState.isEditModeEnabled() || !editModeConfig.isIngredientHiddenUsingConfigFile(typedIngredient);
+		return toggleState.isEditModeEnabled() || !hiddenByConfig.get(id);
+	}
+
+	private int getId(IIngredientType<?> ingredientType, Object uid) {
+		Object2IntMap<Object> ids = idsByUid.get(ingredientType);
+		if (ids == null) {
+			return -1;
+		}
+		return ids.getInt(uid);
+	}
+
+	private <V> int getOrCreateId(ITypedIngredient<V> typedIngredient, IIngredientHelper<V> ingredientHelper, Object uid) {
+		Object2IntMap<Object> ids = idsByUid.computeIfAbsent(typedIngredient.getType(), t -> {
+			Object2IntMap<Object> map = new Object2IntOpenHashMap<>();
+			map.defaultReturnValue(-1);
+			return map;
+		});
+		int id = ids.getInt(uid);
+		if (id >= 0) {
+			return id;
+		}
+
+		id = ingredientsById.size();
+		ingredientsById.add(typedIngredient);
+		ids.put(uid, id);
+		addBlacklistKey(uid, id);
+		Object groupingUid = ingredientHelper.getGroupingUid(typedIngredient);
+		if (!groupingUid.equals(uid)) {
+			addBlacklistKey(groupingUid, id);
+		}
+		hiddenByMods.set(id, isHiddenByMods(typedIngredient, ingredientHelper));
+		hiddenByConfig.set(id, editModeConfig.isIngredientOnConfigBlacklist(typedIngredient, ingredientHelper));
+		return id;
+	}
+
+	private void addBlacklistKey(Object key, int id) {
+		idsByBlacklistKey.computeIfAbsent(key, k -> new IntArrayList(1))
+			.add(id);
+	}
+
+	/**
+	 * Called by {@link IngredientBlacklistInternal} and {@link EditModeConfig} after the given key was added to
+	 * or removed from their blacklist, because the given ingredient was hidden or shown.
+	 */
+	public <V> void onBlacklistChanged(ITypedIngredient<V> changedIngredient, Object blacklistKey, boolean visible) {
+		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(changedIngredient.getType());
+		Object changedUid = ingredientHelper.getUid(changedIngredient, UidContext.Ingredient);
+
+		List<ITypedIngredient<?>> flipped = new ArrayList<>();
+		boolean registered = isRegistered(changedIngredient);
+		synchronized (cacheLock) {
+			Object2IntMap<Object> ids = idsByUid.get(changedIngredient.getType());
+			boolean changedIngredientKnown = ids != null && ids.containsKey(changedUid);
+
+			IntList affectedIds = idsByBlacklistKey.getOrDefault(blacklistKey, IntList.of());
+			for (int i = 0; i < affectedIds.size(); i++) {
+				int id = affectedIds.getInt(i);
+				if (updateHidden(id)) {
+					flipped.add(ingredientsById.get(id));
+				}
+			}
+
+			if (!changedIngredientKnown) {
+				// this ingredient's old visibility was never checked, so tell listeners its new visibility
+				boolean changedVisible;
+				if (registered) {
+					int id = getOrCreateId(changedIngredient, ingredientHelper, changedUid);
+					changedVisible = isVisible(id);
+				} else {
+					changedVisible = isIngredientVisibleUncached(changedIngredient, ingredientHelper);
+				}
+				if (changedVisible == visible) {
+					flipped.add(changedIngredient);
+				}
+			}
+		}
+
+		if (!flipped.isEmpty()) {
+			notifyListeners(flipped, visible);
+		}
+	}
+
+	/**
+	 * Checks the blacklists for the ingredient again.
+	 *
+	 * @return true if its visibility flipped
+	 */
+	private boolean updateHidden(int id) {
+		boolean wasVisible = isVisible(id);
+		ITypedIngredient<?> typedIngredient = ingredientsById.get(id);
+		updateHidden(id, typedIngredient);
+		return isVisible(id) != wasVisible;
+	}
+
+	private <V> void updateHidden(int id, ITypedIngredient<V> typedIngredient) {
+		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(typedIngredient.getType());
+		hiddenByMods.set(id, isHiddenByMods(typedIngredient, ingredientHelper));
+		hiddenByConfig.set(id, editModeConfig.isIngredientOnConfigBlacklist(typedIngredient, ingredientHelper));
 	}
 
 	@Override
@@ -64,7 +246,7 @@ public class IngredientVisibility implements IIngredientVisibility {
 		this.listeners.add(listener);
 	}
 
-	public <V> void notifyListeners(ITypedIngredient<V> ingredient, boolean visible) {
-		listeners.forEach(listener -> listener.onIngredientVisibilityChanged(ingredient, visible));
+	public void notifyListeners(List<ITypedIngredient<?>> ingredients, boolean visible) {
+		listeners.forEach(listener -> listener.onIngredientsVisibilityChanged(ingredients, visible));
 	}
 }
@@ -24,6 +24,7 @@ import mezz.jei.common.config.IIngredientFilterConfig;
 import mezz.jei.common.network.IConnectionToServer;
 import mezz.jei.common.platform.IPlatformFluidHelperInternal;
 import mezz.jei.common.platform.Services;
+import mezz.jei.common.util.RegistryUtil;
 import mezz.jei.common.util.StackHelper;
 import mezz.jei.core.util.LoggedTimer;
 import mezz.jei.library.config.EditModeConfig;
@@ -54,9 +55,13 @@ import mezz.jei.library.plugins.vanilla.anvil.SmithingRecipeCategory;
 import mezz.jei.library.plugins.vanilla.crafting.CraftingRecipeCategory;
 import mezz.jei.library.recipes.RecipeManager;
 import mezz.jei.library.recipes.RecipeManagerInternal;
+import mezz.jei.library.recipes.RecipeManagerPluginCache;
+import mezz.jei.library.recipes.cache.RecipeIndexCache;
 import mezz.jei.library.runtime.JeiHelpers;
 import mezz.jei.library.startup.StartData;
 import mezz.jei.library.transfer.RecipeTransferHandlerHelper;
+import net.minecraft.Util;
+import net.minecraft.client.Minecraft;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.util.List;
@@ -169,7 +174,11 @@ public final class PluginLoader {
 		VanillaPlugin vanillaPlugin,
 		RecipeCategorySortingConfig recipeCategorySortingConfig,
 		JeiHelpers jeiHelpers,
-		IIngredientManager ingredientManager
+		IIngredientManager ingredientManager,
+		boolean recipeIndexCacheEnabled,
+		boolean lazyRecipeIndexEnabled,
+		boolean recipeManagerPluginCacheEnabled,
+		int recipeManagerPluginCacheSizeKiB
 	) {
 		List<IRecipeCategory<?>> recipeCategories = createRecipeCategories(plugins, vanillaPlugin, jeiHelpers);
 
@@ -178,13 +187,31 @@ public final class PluginLoader {
 		ImmutableListMultimap<RecipeType<?>, ITypedIngredient<?>> recipeCatalysts = recipeCatalystRegistration.getRecipeCatalysts();
 
 		LoggedTimer timer = new LoggedTimer();
+		RecipeIndexCache recipeIndexCache = null;
+		// the cache is saved after registering recipes, when lazy indexing has not read any of their ingredients yet
+		if (recipeIndexCacheEnabled && !lazyRecipeIndexEnabled) {
+			timer.start("Loading the recipe index cache");
+			recipeIndexCache = RecipeIndexCache.create(
+				RecipeIndexCache.getDefaultSnapshotPath(),
+				Services.PLATFORM.getConfigHelper().createJeiConfigDir(),
+				recipeCategories,
+				ingredientManager,
+				jeiHelpers.getCodecHelper(),
+				RegistryUtil.getRegistryAccess()
+			);
+			timer.stop();
+		}
+
 		timer.start("Building recipe registry");
 		RecipeManagerInternal recipeManagerInternal = new RecipeManagerInternal(
 			recipeCategories,
 			recipeCatalysts,
 			ingredientManager,
 			recipeCategorySortingConfig,
-			jeiHelpers.getIngredientVisibility()
+			jeiHelpers.getIngredientVisibility(),
+			Util.backgroundExecutor(),
+			recipeIndexCache,
+			lazyRecipeIndexEnabled
 		);
 		timer.stop();
 
@@ -196,12 +223,21 @@ public final class PluginLoader {
 		List<IRecipeManagerPlugin> recipeManagerPlugins = advancedRegistration.getRecipeManagerPlugins();
 		ImmutableListMultimap<RecipeType<?>, IRecipeCategoryDecorator<?>> recipeCategoryDecorators = advancedRegistration.getRecipeCategoryDecorators();
 		recipeManagerInternal.addPlugins(recipeManagerPlugins);
+		if (recipeManagerPluginCacheEnabled) {
+			recipeManagerInternal.setRecipeManagerPluginCache(new RecipeManagerPluginCache(recipeManagerPluginCacheSizeKiB * 1024L));
+		}
 		recipeManagerInternal.addDecorators(recipeCategoryDecorators);
 
 		RecipeRegistration recipeRegistration = new RecipeRegistration(jeiHelpers, ingredientManager, recipeManagerInternal);
 		PluginCaller.callOnPlugins("Registering recipes", plugins, p -> p.registerRecipes(recipeRegistration));
 
+		recipeManagerInternal.finishRecipeIndexCache(Util.ioPool());
 		recipeManagerInternal.compact();
+		if (lazyRecipeIndexEnabled) {
+			recipeManagerInternal.prefetchUnindexedRecipes();
+			recipeManagerInternal.startIndexingOnClientThread(Minecraft.getInstance());
+		}
+		recipeManagerInternal.logIndexStats();
 
 		return new RecipeManager(recipeManagerInternal, ingredientManager);
 	}
@@ -1,10 +1,15 @@
 package mezz.jei.library.load.registration;
 
+import mezz.jei.api.ingredients.ITypedIngredient;
 import mezz.jei.api.recipe.IFocus;
 import mezz.jei.api.recipe.RecipeType;
 import mezz.jei.api.recipe.advanced.IRecipeManagerPluginHelper;
+import mezz.jei.common.util.ErrorUtil;
 import mezz.jei.library.recipes.RecipeManagerInternal;
 
+import java.util.Collection;
+import java.util.List;
+
 public class RecipeManagerPluginHelper implements IRecipeManagerPluginHelper {
 	private final RecipeManagerInternal recipeManager;
 
@@ -16,4 +21,16 @@ public class RecipeManagerPluginHelper implements IRecipeManagerPluginHelper {
 	public boolean isRecipeCatalyst(RecipeType<?> recipeType, IFocus<?> focus) {
 		return recipeManager.isRecipeCatalyst(recipeType, focus);
 	}
+
+	@Override
+	public List<RecipeType<?>> getCatalystRecipeTypes(ITypedIngredient<?> catalyst) {
+		ErrorUtil.checkNotNull(catalyst, "catalyst");
+		return recipeManager.getCatalystRecipeTypes(catalyst);
+	}
+
+	@Override
+	public List<RecipeType<?>> getCatalystRecipeTypes(Collection<? extends ITypedIngredient<?>> catalysts) {
+		ErrorUtil.checkNotNull(catalysts, "catalysts");
+		return recipeManager.getCatalystRecipeTypes(catalysts);
+	}
 }
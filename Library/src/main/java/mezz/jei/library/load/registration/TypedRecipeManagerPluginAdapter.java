@@ -115,4 +115,14 @@ public class TypedRecipeManagerPluginAdapter<T> implements IRecipeManagerPlugin
 		}
 		return List.of();
 	}
+
+	@Override
+	public boolean isCacheable() {
+		return plugin.isCacheable();
+	}
+
+	@Override
+	public String toString() {
+		return plugin.getClass().getName() + " (" + recipeType.getUid() + ")";
+	}
 }
@@ -113,4 +113,9 @@ public abstract class AbstractCookingCategory<T extends AbstractCookingRecipe> e
 	public Codec<RecipeHolder<T>> getCodec(ICodecHelper codecHelper, IRecipeManager recipeManager) {
 		return codecHelper.getRecipeHolderCodec();
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
@@ -61,4 +61,9 @@ public class CraftingCategoryExtension implements ICraftingCategoryExtension<Cra
 		CraftingRecipe recipe = recipeHolder.value();
 		return !recipe.isSpecial();
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
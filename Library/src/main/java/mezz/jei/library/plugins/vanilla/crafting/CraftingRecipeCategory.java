@@ -104,6 +104,22 @@ public class CraftingRecipeCategory extends AbstractRecipeCategory<RecipeHolder<
 			.isPresent();
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
+	/**
+	 * Only recipes with a thread safe extension are read in parallel,
+	 * recipes with extensions from other mods are read on the thread that registers them.
+	 */
+	@Override
+	public boolean isThreadSafe(RecipeHolder<CraftingRecipe> recipeHolder) {
+		return this.extendableHelper.getOptionalRecipeExtension(recipeHolder)
+			.map(ICraftingCategoryExtension::isThreadSafe)
+			.orElse(false);
+	}
+
 	@Override
 	public <R extends CraftingRecipe> void addExtension(Class<? extends R> recipeClass, ICraftingCategoryExtension<R> extension) {
 		ErrorUtil.checkNotNull(recipeClass, "recipeClass");
@@ -63,4 +63,9 @@ public class StoneCuttingRecipeCategory extends AbstractRecipeCategory<RecipeHol
 	public Codec<RecipeHolder<StonecutterRecipe>> getCodec(ICodecHelper codecHelper, IRecipeManager recipeManager) {
 		return codecHelper.getRecipeHolderCodec();
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
@@ -10,6 +10,7 @@ import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -23,7 +24,11 @@ public class CraftingExtensionHelper {
 
 	private final List<Handler<? extends CraftingRecipe>> handlers = new ArrayList<>();
 	private final Set<Class<? extends CraftingRecipe>> handledClasses = new HashSet<>();
-	private final Map<RecipeHolder<? extends CraftingRecipe>, @Nullable ICraftingCategoryExtension<? extends CraftingRecipe>> cache = new IdentityHashMap<>();
+	/**
+	 * Synchronized because the ingredients of crafting recipes are read on several threads at once,
+	 * see {@link mezz.jei.library.plugins.vanilla.crafting.CraftingRecipeCategory#isThreadSafe()}.
+	 */
+	private final Map<RecipeHolder<? extends CraftingRecipe>, @Nullable ICraftingCategoryExtension<? extends CraftingRecipe>> cache = Collections.synchronizedMap(new IdentityHashMap<>());
 
 	public <T extends CraftingRecipe> void addRecipeExtension(Class<? extends T> recipeClass, ICraftingCategoryExtension<T> recipeExtension) {
 		if (!CraftingRecipe.class.isAssignableFrom(recipeClass)) {
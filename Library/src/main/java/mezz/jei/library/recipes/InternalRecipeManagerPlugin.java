@@ -8,10 +8,12 @@ import mezz.jei.api.recipe.advanced.IRecipeManagerPlugin;
 import mezz.jei.api.recipe.category.IRecipeCategory;
 import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.library.focus.Focus;
+import mezz.jei.library.recipes.collect.RecipeCatalystIndex;
 import mezz.jei.library.recipes.collect.RecipeMap;
 import mezz.jei.library.recipes.collect.RecipeTypeData;
 import mezz.jei.library.recipes.collect.RecipeTypeDataMap;
 
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.stream.Stream;
@@ -20,15 +22,21 @@ public class InternalRecipeManagerPlugin implements IRecipeManagerPlugin {
 	private final IIngredientManager ingredientManager;
 	private final RecipeTypeDataMap recipeCategoriesMap;
 	private final EnumMap<RecipeIngredientRole, RecipeMap> recipeMaps;
+	private final RecipeCatalystIndex catalystIndex;
+	private final Comparator<RecipeType<?>> recipeTypeComparator;
 
 	public InternalRecipeManagerPlugin(
 		IIngredientManager ingredientManager,
 		RecipeTypeDataMap recipeCategoriesMap,
-		EnumMap<RecipeIngredientRole, RecipeMap> recipeMaps
+		EnumMap<RecipeIngredientRole, RecipeMap> recipeMaps,
+		RecipeCatalystIndex catalystIndex,
+		Comparator<RecipeType<?>> recipeTypeComparator
 	) {
 		this.ingredientManager = ingredientManager;
 		this.recipeCategoriesMap = recipeCategoriesMap;
 		this.recipeMaps = recipeMaps;
+		this.catalystIndex = catalystIndex;
+		this.recipeTypeComparator = recipeTypeComparator;
 	}
 
 	@Override
@@ -37,8 +45,17 @@ public class InternalRecipeManagerPlugin implements IRecipeManagerPlugin {
 		ITypedIngredient<V> ingredient = focus.getTypedValue();
 		RecipeIngredientRole role = focus.getRole();
 		RecipeMap recipeMap = this.recipeMaps.get(role);
-		return recipeMap.getRecipeTypes(ingredient)
-			.toList();
+		Stream<RecipeType<?>> recipeTypes = recipeMap.getRecipeTypes(ingredient);
+		if (role == RecipeIngredientRole.CATALYST) {
+			List<RecipeType<?>> catalystRecipeTypes = catalystIndex.getRecipeTypes(ingredient);
+			if (!catalystRecipeTypes.isEmpty()) {
+				return Stream.concat(recipeTypes, catalystRecipeTypes.stream())
+					.distinct()
+					.sorted(recipeTypeComparator)
+					.toList();
+			}
+		}
+		return recipeTypes.toList();
 	}
 
 	@Override
@@ -50,7 +67,7 @@ public class InternalRecipeManagerPlugin implements IRecipeManagerPlugin {
 		RecipeMap recipeMap = this.recipeMaps.get(role);
 		RecipeType<T> recipeType = recipeCategory.getRecipeType();
 		List<T> recipes = recipeMap.getRecipes(recipeType, ingredient);
-		if (recipeMap.isCatalystForRecipeCategory(recipeType, ingredient)) {
+		if (role == RecipeIngredientRole.CATALYST && catalystIndex.isCatalyst(recipeType, ingredient)) {
 			List<T> recipesForCategory = getRecipes(recipeCategory);
 			return Stream.concat(recipes.stream(), recipesForCategory.stream())
 				.distinct()
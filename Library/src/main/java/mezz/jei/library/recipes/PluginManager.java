@@ -1,46 +1,73 @@
 package mezz.jei.library.recipes;
 
-import com.google.common.base.Stopwatch;
 import mezz.jei.api.recipe.IFocus;
 import mezz.jei.api.recipe.IFocusGroup;
 import mezz.jei.api.recipe.RecipeType;
 import mezz.jei.api.recipe.advanced.IRecipeManagerPlugin;
 import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.common.config.DebugConfig;
+import mezz.jei.library.load.registration.TypedRecipeManagerPluginAdapter;
+import mezz.jei.library.recipes.collect.FocusKey;
 import mezz.jei.library.recipes.collect.RecipeTypeData;
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 public class PluginManager {
 	private static final Logger LOGGER = LogManager.getLogger();
 
-	private List<IRecipeManagerPlugin> plugins = new ArrayList<>();
+	private static final long SLOW_CALL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
 
-	public PluginManager(IRecipeManagerPlugin internalRecipeManagerPlugin) {
+	private final IIngredientManager ingredientManager;
+	private final IRecipeManagerPlugin internalRecipeManagerPlugin;
+	private List<IRecipeManagerPlugin> plugins = new ArrayList<>();
+	private final Map<IRecipeManagerPlugin, RecipeManagerPluginStats> stats = new IdentityHashMap<>();
+	private @Nullable RecipeManagerPluginCache cache;
+	/**
+	 * Counts the changes to the list of plugins, see {@link #getModCount()}.
+	 */
+	private int modCount;
+
+	public PluginManager(IRecipeManagerPlugin internalRecipeManagerPlugin, IIngredientManager ingredientManager) {
+		this.ingredientManager = ingredientManager;
+		this.internalRecipeManagerPlugin = internalRecipeManagerPlugin;
 		this.plugins.add(internalRecipeManagerPlugin);
 	}
 
-	public <T> Stream<T> getRecipes(RecipeTypeData<T> recipeTypeData, IFocusGroup focusGroup, boolean includeHidden) {
+	/**
+	 * Returns the recipes of every plugin, in plugin order and then in focus order.
+	 *
+	 * @param modCount identifies the recipes this was created from, see {@link RecipeResults#getModCount()}
+	 */
+	public <T> RecipeResults<T> getRecipes(RecipeTypeData<T> recipeTypeData, IFocusGroup focusGroup, boolean includeHidden, int modCount) {
 		IRecipeCategory<T> recipeCategory = recipeTypeData.getRecipeCategory();
-
-		Stream<T> recipes = this.plugins.stream()
-			.flatMap(p -> getPluginRecipeStream(p, recipeCategory, focusGroup))
-			.distinct();
-
-		if (!includeHidden) {
-			Set<T> hiddenRecipes = recipeTypeData.getHiddenRecipes();
-			Predicate<T> notHidden = ((Predicate<T>) hiddenRecipes::contains).negate();
-
-			recipes = recipes.filter(notHidden);
+		List<IFocus<?>> allFocuses = focusGroup.getAllFocuses();
+
+		List<Supplier<List<T>>> sources = new ArrayList<>();
+		for (IRecipeManagerPlugin plugin : this.plugins) {
+			if (allFocuses.isEmpty()) {
+				sources.add(() -> getRecipes(plugin, recipeCategory));
+			} else {
+				for (IFocus<?> focus : allFocuses) {
+					sources.add(() -> getRecipes(plugin, recipeCategory, focus));
+				}
+			}
 		}
-		return recipes;
+
+		Set<T> hiddenRecipes = includeHidden ? Set.of() : recipeTypeData.getHiddenRecipes();
+		return new RecipeResults<>(sources, hiddenRecipes, modCount);
 	}
 
 	public Stream<RecipeType<?>> getRecipeTypes(IFocusGroup focusGroup) {
@@ -55,58 +82,143 @@ public class PluginManager {
 			.flatMap(focus -> getRecipeTypes(plugin, focus));
 	}
 
-	private <T> Stream<T> getPluginRecipeStream(IRecipeManagerPlugin plugin, IRecipeCategory<T> recipeCategory, IFocusGroup focuses) {
-		if (!focuses.isEmpty()) {
-			List<IFocus<?>> allFocuses = focuses.getAllFocuses();
-			return allFocuses.stream()
-				.flatMap(focus -> getRecipes(plugin, recipeCategory, focus));
-		}
-		return getRecipes(plugin, recipeCategory);
-	}
-
 	private Stream<RecipeType<?>> getRecipeTypes(IRecipeManagerPlugin plugin, IFocus<?> focus) {
-		return safeCallPlugin(
+		List<RecipeType<?>> recipeTypes = callPlugin(
 			plugin,
-			() -> plugin.getRecipeTypes(focus).stream(),
-			Stream.of()
+			null,
+			focus,
+			() -> plugin.getRecipeTypes(focus),
+			() -> "getRecipeTypes(" + focus.getRole() + " " + focus.getTypedValue().getIngredient() + ")"
 		);
+		return recipeTypes.stream();
 	}
 
-	private <T> Stream<T> getRecipes(IRecipeManagerPlugin plugin, IRecipeCategory<T> recipeCategory) {
-		return safeCallPlugin(
+	private <T> List<T> getRecipes(IRecipeManagerPlugin plugin, IRecipeCategory<T> recipeCategory) {
+		RecipeType<T> recipeType = recipeCategory.getRecipeType();
+		return callPlugin(
 			plugin,
-			() -> plugin.getRecipes(recipeCategory).stream(),
-			Stream.of()
+			recipeType,
+			null,
+			() -> plugin.getRecipes(recipeCategory),
+			() -> "getRecipes(" + recipeType.getUid() + ")"
 		);
 	}
 
-	private <T> Stream<T> getRecipes(IRecipeManagerPlugin plugin, IRecipeCategory<T> recipeCategory, IFocus<?> focus) {
-		return safeCallPlugin(
+	private <T> List<T> getRecipes(IRecipeManagerPlugin plugin, IRecipeCategory<T> recipeCategory, IFocus<?> focus) {
+		RecipeType<T> recipeType = recipeCategory.getRecipeType();
+		return callPlugin(
 			plugin,
-			() -> plugin.getRecipes(recipeCategory, focus).stream(),
-			Stream.of()
+			recipeType,
+			focus,
+			() -> plugin.getRecipes(recipeCategory, focus),
+			() -> "getRecipes(" + recipeType.getUid() + ", " + focus.getRole() + " " + focus.getTypedValue().getIngredient() + ")"
 		);
 	}
 
-	private <T> T safeCallPlugin(IRecipeManagerPlugin plugin, Supplier<T> supplier, T defaultValue) {
-		Stopwatch stopWatch = Stopwatch.createStarted();
+	private <T> List<T> callPlugin(
+		IRecipeManagerPlugin plugin,
+		@Nullable RecipeType<?> recipeType,
+		@Nullable IFocus<?> focus,
+		Supplier<List<T>> call,
+		Supplier<String> callDescription
+	) {
+		RecipeManagerPluginStats stats = getStats(plugin);
+		if (cache != null && plugin.isCacheable()) {
+			FocusKey focusKey = focus == null ? null : FocusKey.create(ingredientManager, focus);
+			return cache.get(plugin, recipeType, focusKey, stats, () -> safeCallPlugin(plugin, stats, call, callDescription));
+		}
+		return safeCallPlugin(plugin, stats, call, callDescription);
+	}
+
+	private <T> List<T> safeCallPlugin(IRecipeManagerPlugin plugin, RecipeManagerPluginStats stats, Supplier<List<T>> call, Supplier<String> callDescription) {
+		long start = System.nanoTime();
 		try {
-			T result = supplier.get();
-			stopWatch.stop();
-			if (stopWatch.elapsed(TimeUnit.MILLISECONDS) > 10) {
-				LOGGER.warn("Recipe registry plugin is slow, took {}. {}", stopWatch, plugin.getClass());
+			List<T> result = call.get();
+			long nanos = System.nanoTime() - start;
+			stats.addCall(nanos, callDescription);
+			if (nanos > SLOW_CALL_NANOS) {
+				LOGGER.warn("Recipe registry plugin is slow, took {} ms. {}", String.format("%.1f", nanos / 1_000_000.0), stats.getPluginName());
 			}
 			return result;
 		} catch (RuntimeException | LinkageError e) {
-			LOGGER.error("Recipe registry plugin crashed, it is being disabled: {}", plugin.getClass(), e);
+			LOGGER.error("Recipe registry plugin crashed, it is being disabled: {}", stats.getPluginName(), e);
 			// make a copy, in order to avoid modifying the current stream
 			this.plugins = new ArrayList<>(this.plugins);
 			this.plugins.remove(plugin);
-			return defaultValue;
+			this.modCount++;
+			if (cache != null) {
+				cache.remove(plugin);
+			}
+			return List.of();
 		}
 	}
 
+	private RecipeManagerPluginStats getStats(IRecipeManagerPlugin plugin) {
+		return this.stats.computeIfAbsent(plugin, p -> new RecipeManagerPluginStats(getPluginName(p)));
+	}
+
+	private static String getPluginName(IRecipeManagerPlugin plugin) {
+		if (plugin instanceof TypedRecipeManagerPluginAdapter<?>) {
+			return plugin.toString();
+		}
+		return plugin.getClass().getName();
+	}
+
+	/**
+	 * Starts remembering the results of plugins that declare themselves cacheable.
+	 */
+	public void setCache(RecipeManagerPluginCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Returns the call counts and latency of every plugin that has been called, slowest first.
+	 */
+	public List<RecipeManagerPluginStats> getStats() {
+		return this.stats.values()
+			.stream()
+			.sorted(Comparator.comparingLong(RecipeManagerPluginStats::getTotalNanos).reversed())
+			.toList();
+	}
+
+	public void logStats() {
+		boolean debugMode = DebugConfig.isDebugModeEnabled();
+		if (!debugMode && !LOGGER.isDebugEnabled()) {
+			return;
+		}
+		Level level = debugMode ? Level.INFO : Level.DEBUG;
+		LOGGER.log(level, "Recipe manager plugin stats:");
+		for (RecipeManagerPluginStats pluginStats : getStats()) {
+			LOGGER.log(level, "  {}", pluginStats);
+		}
+		if (cache != null) {
+			LOGGER.log(level, "Recipe manager plugin cache: {} results, ~{} / {} KiB", cache.size(), cache.getEstimatedBytes() / 1024, cache.getMaxBytes() / 1024);
+		}
+	}
+
+	/**
+	 * Returns true when the results for a focus only depend on the uid of the focused ingredient,
+	 * because JEI's own plugin is keyed by ingredient uids and every other plugin declares itself
+	 * {@link IRecipeManagerPlugin#isCacheable() cacheable}.
+	 */
+	public boolean isCacheable() {
+		for (IRecipeManagerPlugin plugin : plugins) {
+			if (plugin != internalRecipeManagerPlugin && !plugin.isCacheable()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public void addAll(List<IRecipeManagerPlugin> plugins) {
 		this.plugins.addAll(plugins);
+		this.modCount++;
+	}
+
+	/**
+	 * Returns a number that goes up whenever a plugin is added or removed.
+	 */
+	public int getModCount() {
+		return modCount;
 	}
 }
@@ -1,13 +1,16 @@
 package mezz.jei.library.recipes;
 
+import com.google.common.base.Preconditions;
 import mezz.jei.api.recipe.IFocus;
 import mezz.jei.api.recipe.IFocusGroup;
 import mezz.jei.api.recipe.IRecipeLookup;
 import mezz.jei.api.recipe.RecipeType;
 import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.library.focus.FocusGroup;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Stream;
 
 public class RecipeLookup<R> implements IRecipeLookup<R> {
@@ -17,6 +20,11 @@ public class RecipeLookup<R> implements IRecipeLookup<R> {
 
 	private boolean includeHidden = false;
 	private IFocusGroup focusGroup = FocusGroup.EMPTY;
+	/**
+	 * The results of the last call to {@link #getPage}, reused while the recipes are unchanged,
+	 * so that reading its pages in any order does not read the recipes before each page again.
+	 */
+	private @Nullable RecipeResults<R> results;
 
 	public RecipeLookup(RecipeType<R> recipeType, RecipeManagerInternal recipeManager, IIngredientManager ingredientManager) {
 		this.recipeType = recipeType;
@@ -27,12 +35,14 @@ public class RecipeLookup<R> implements IRecipeLookup<R> {
 	@Override
 	public IRecipeLookup<R> limitFocus(Collection<? extends IFocus<?>> focuses) {
 		this.focusGroup = FocusGroup.create(focuses, ingredientManager);
+		this.results = null;
 		return this;
 	}
 
 	@Override
 	public IRecipeLookup<R> includeHidden() {
 		this.includeHidden = true;
+		this.results = null;
 		return this;
 	}
 
@@ -40,4 +50,18 @@ public class RecipeLookup<R> implements IRecipeLookup<R> {
 	public Stream<R> get() {
 		return recipeManager.getRecipesStream(recipeType, focusGroup, includeHidden);
 	}
+
+	@Override
+	public List<R> getPage(int skip, int limit) {
+		Preconditions.checkArgument(skip >= 0, "skip must be >= 0");
+		Preconditions.checkArgument(limit >= 0, "limit must be >= 0");
+		RecipeResults<R> results = recipeManager.getRecipeResults(recipeType, focusGroup, includeHidden, this.results);
+		this.results = results;
+		return results.getPage(skip, limit);
+	}
+
+	@Override
+	public int count() {
+		return recipeManager.getRecipeCount(recipeType, focusGroup, includeHidden);
+	}
 }
@@ -215,4 +215,11 @@ public class RecipeManager implements IRecipeManager {
 	public Optional<RecipeType<?>> getRecipeType(ResourceLocation recipeUid) {
 		return internal.getRecipeType(recipeUid);
 	}
+
+	/**
+	 * Logs how long each recipe manager plugin took to answer lookups.
+	 */
+	public void logRecipeManagerPluginStats() {
+		internal.logRecipeManagerPluginStats();
+	}
 }
@@ -2,6 +2,9 @@ package mezz.jei.library.recipes;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntList;
 import mezz.jei.api.ingredients.IIngredientSupplier;
 import mezz.jei.api.ingredients.ITypedIngredient;
 import mezz.jei.api.recipe.IFocus;
@@ -15,9 +18,15 @@ import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.api.runtime.IIngredientVisibility;
 import mezz.jei.common.util.ErrorUtil;
 import mezz.jei.library.config.RecipeCategorySortingConfig;
+import mezz.jei.library.recipes.cache.RecipeIndexCache;
+import mezz.jei.library.recipes.collect.FocusedRecipeCategoryCache;
+import mezz.jei.library.recipes.collect.IngredientUidInterner;
+import mezz.jei.library.recipes.collect.RecipeCatalystIndex;
+import mezz.jei.library.recipes.collect.RecipeIndexStats;
 import mezz.jei.library.recipes.collect.RecipeMap;
 import mezz.jei.library.recipes.collect.RecipeTypeData;
 import mezz.jei.library.recipes.collect.RecipeTypeDataMap;
+import mezz.jei.library.recipes.collect.RecipeTypeRegistry;
 import mezz.jei.library.util.IngredientSupplierHelper;
 import mezz.jei.library.util.RecipeErrorUtil;
 import net.minecraft.resources.ResourceLocation;
@@ -27,17 +36,36 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.EnumMap;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 public class RecipeManagerInternal {
 	private static final Logger LOGGER = LogManager.getLogger();
+	/**
+	 * Number of recipes that each task reads the ingredients of, when reading them in parallel.
+	 */
+	private static final int BATCH_SIZE = 256;
+	private static final long INDEX_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+	private static final long INDEX_STEP_DELAY_MILLIS = 50;
+	/**
+	 * The number of recipes of a category that is not thread safe read between checks of the time budget.
+	 */
+	private static final int INDEX_STEP_RECIPES = 16;
 
 	@Unmodifiable
 	private final List<IRecipeCategory<?>> recipeCategories;
@@ -45,36 +73,79 @@ public class RecipeManagerInternal {
 	private final RecipeTypeDataMap recipeTypeDataMap;
 	private final Comparator<IRecipeCategory<?>> recipeCategoryComparator;
 	private final EnumMap<RecipeIngredientRole, RecipeMap> recipeMaps;
+	private final RecipeCatalystIndex catalystIndex;
 	private final PluginManager pluginManager;
-	private final Set<RecipeType<?>> hiddenRecipeTypes = new HashSet<>();
+	private final RecipeTypeRegistry recipeTypeRegistry;
+	/**
+	 * The ordinals of the hidden recipe types, see {@link RecipeTypeRegistry#getOrdinal}.
+	 */
+	private final BitSet hiddenRecipeTypes;
 	private final IIngredientVisibility ingredientVisibility;
+	private final Executor executor;
+	/**
+	 * Only used while plugins register recipes, see {@link #finishRecipeIndexCache}.
+	 */
+	private @Nullable RecipeIndexCache recipeIndexCache;
+	/**
+	 * When true, the recipes of each type are only indexed the first time that a lookup needs them.
+	 */
+	private final boolean lazyIndexing;
+	/**
+	 * Recipe types with recipes that have not been indexed yet, when indexing lazily.
+	 */
+	private final Set<RecipeType<?>> unindexedRecipeTypes = new LinkedHashSet<>();
+	/**
+	 * Ingredients of unindexed recipes that are being read in the background, see {@link #prefetchUnindexedRecipes}.
+	 */
+	private final Map<RecipeType<?>, Prefetch> prefetches = new HashMap<>();
+	/**
+	 * Ingredients of the first unindexed recipes of categories that are not thread safe,
+	 * read on the client thread a few at a time, see {@link #startIndexingOnClientThread}.
+	 */
+	private final Map<RecipeType<?>, List<IIngredientSupplier>> clientThreadPrefetches = new HashMap<>();
+	private @Nullable Executor clientExecutor;
+	private boolean indexStepScheduled;
 	private ImmutableListMultimap<RecipeType<?>, IRecipeCategoryDecorator<?>> recipeCategoryDecorators;
 
 	@Nullable
 	@Unmodifiable
 	private List<IRecipeCategory<?>> recipeCategoriesVisibleCache = null;
+	private final FocusedRecipeCategoryCache focusedRecipeCategoryCache;
+	/**
+	 * Counts the changes to the recipes and hidden recipes, see {@link #getRecipeResults}.
+	 */
+	private int modCount;
 
 	public RecipeManagerInternal(
 		List<IRecipeCategory<?>> recipeCategories,
 		ImmutableListMultimap<RecipeType<?>, ITypedIngredient<?>> recipeCatalysts,
 		IIngredientManager ingredientManager,
 		RecipeCategorySortingConfig recipeCategorySortingConfig,
-		IIngredientVisibility ingredientVisibility
+		IIngredientVisibility ingredientVisibility,
+		Executor executor,
+		@Nullable RecipeIndexCache recipeIndexCache,
+		boolean lazyIndexing
 	) {
 		ErrorUtil.checkNotEmpty(recipeCategories, "recipeCategories");
 
 		this.recipeCategoryDecorators = ImmutableListMultimap.of();
 		this.ingredientManager = ingredientManager;
 		this.ingredientVisibility = ingredientVisibility;
+		this.executor = executor;
+		this.recipeIndexCache = recipeIndexCache;
+		this.lazyIndexing = lazyIndexing;
 
 		Collection<RecipeType<?>> recipeTypes = recipeCategories.stream()
 			.<RecipeType<?>>map(IRecipeCategory::getRecipeType)
 			.toList();
-		Comparator<RecipeType<?>> recipeTypeComparator = recipeCategorySortingConfig.getComparator(recipeTypes);
+		this.recipeTypeRegistry = new RecipeTypeRegistry(recipeTypes);
+		this.hiddenRecipeTypes = new BitSet(recipeTypeRegistry.size());
+		Comparator<RecipeType<?>> recipeTypeComparator = recipeTypeRegistry.createComparator(recipeCategorySortingConfig.getComparator(recipeTypes));
 
+		IngredientUidInterner uidInterner = new IngredientUidInterner();
 		this.recipeMaps = new EnumMap<>(RecipeIngredientRole.class);
 		for (RecipeIngredientRole role : RecipeIngredientRole.values()) {
-			RecipeMap recipeMap = new RecipeMap(recipeTypeComparator, ingredientManager, role);
+			RecipeMap recipeMap = new RecipeMap(recipeTypeComparator, ingredientManager, uidInterner, role);
 			this.recipeMaps.put(role, recipeMap);
 		}
 
@@ -83,29 +154,47 @@ public class RecipeManagerInternal {
 			.sorted(this.recipeCategoryComparator)
 			.toList();
 
-		RecipeCatalystBuilder recipeCatalystBuilder = new RecipeCatalystBuilder(this.recipeMaps.get(RecipeIngredientRole.CATALYST));
-		for (IRecipeCategory<?> recipeCategory : recipeCategories) {
-			RecipeType<?> recipeType = recipeCategory.getRecipeType();
-			if (recipeCatalysts.containsKey(recipeType)) {
-				List<ITypedIngredient<?>> catalysts = recipeCatalysts.get(recipeType);
-				recipeCatalystBuilder.addCategoryCatalysts(recipeCategory, catalysts);
+		this.catalystIndex = new RecipeCatalystIndex(recipeTypeRegistry, recipeCatalysts, recipeTypeComparator, ingredientManager, uidInterner);
+		this.recipeTypeDataMap = new RecipeTypeDataMap(recipeTypeRegistry, recipeCategories);
+
+		this.focusedRecipeCategoryCache = new FocusedRecipeCategoryCache(ingredientManager);
+		ingredientVisibility.registerListener(new IIngredientVisibility.IListener() {
+			@Override
+			public <V> void onIngredientVisibilityChanged(ITypedIngredient<V> ingredient, boolean visible) {
+				// categories are hidden when all of their catalysts are hidden
+				focusedRecipeCategoryCache.invalidate(catalystIndex.getRecipeTypes(ingredient));
 			}
-		}
-		ImmutableListMultimap<IRecipeCategory<?>, ITypedIngredient<?>> recipeCategoryCatalystsMap = recipeCatalystBuilder.buildRecipeCategoryCatalysts();
-		this.recipeTypeDataMap = new RecipeTypeDataMap(recipeCategories, recipeCategoryCatalystsMap);
+		});
 
 		IRecipeManagerPlugin internalRecipeManagerPlugin = new InternalRecipeManagerPlugin(
 			ingredientManager,
 			recipeTypeDataMap,
-			recipeMaps
+			recipeMaps,
+			catalystIndex,
+			recipeTypeComparator
 		);
-		this.pluginManager = new PluginManager(internalRecipeManagerPlugin);
+		this.pluginManager = new PluginManager(internalRecipeManagerPlugin, ingredientManager);
 	}
 
 	public void addPlugins(List<IRecipeManagerPlugin> plugins) {
 		this.pluginManager.addAll(plugins);
 	}
 
+	/**
+	 * Starts remembering the results of recipe manager plugins that declare themselves cacheable.
+	 */
+	public void setRecipeManagerPluginCache(RecipeManagerPluginCache cache) {
+		this.pluginManager.setCache(cache);
+	}
+
+	public List<RecipeManagerPluginStats> getRecipeManagerPluginStats() {
+		return this.pluginManager.getStats();
+	}
+
+	public void logRecipeManagerPluginStats() {
+		this.pluginManager.logStats();
+	}
+
 	public void addDecorators(ImmutableListMultimap<RecipeType<?>, IRecipeCategoryDecorator<?>> decorators) {
 		this.recipeCategoryDecorators = decorators;
 	}
@@ -116,21 +205,55 @@ public class RecipeManagerInternal {
 		IRecipeCategory<T> recipeCategory = recipeTypeData.getRecipeCategory();
 		Set<T> hiddenRecipes = recipeTypeData.getHiddenRecipes();
 
-		List<T> addedRecipes = new ArrayList<>(recipes.size());
+		List<T> handledRecipes = new ArrayList<>(recipes.size());
 		for (T recipe : recipes) {
-			if (addRecipe(recipeCategory, recipe, hiddenRecipes)) {
+			if (canAddRecipe(recipeCategory, recipe, hiddenRecipes)) {
+				handledRecipes.add(recipe);
+			}
+		}
+		if (handledRecipes.isEmpty()) {
+			return;
+		}
+		focusedRecipeCategoryCache.invalidateAll();
+
+		if (lazyIndexing) {
+			synchronized (unindexedRecipeTypes) {
+				recipeTypeData.addUnindexedRecipes(handledRecipes);
+				unindexedRecipeTypes.add(recipeType);
+			}
+			recipeCategoriesVisibleCache = null;
+			scheduleIndexStep();
+			return;
+		}
+
+		long start = System.nanoTime();
+		List<IIngredientSupplier> ingredientSuppliers = getIngredientSuppliers(recipeCategory, handledRecipes);
+		indexRecipes(recipeTypeData, handledRecipes, ingredientSuppliers);
+		recipeTypeData.addIndexNanos(System.nanoTime() - start);
+	}
+
+	private <T> void indexRecipes(RecipeTypeData<T> recipeTypeData, List<T> handledRecipes, List<IIngredientSupplier> ingredientSuppliers) {
+		IRecipeCategory<T> recipeCategory = recipeTypeData.getRecipeCategory();
+		List<T> addedRecipes = new ArrayList<>(handledRecipes.size());
+		for (int i = 0; i < handledRecipes.size(); i++) {
+			T recipe = handledRecipes.get(i);
+			IIngredientSupplier ingredientSupplier = ingredientSuppliers.get(i);
+			if (addRecipe(recipeCategory, recipe, ingredientSupplier)) {
 				addedRecipes.add(recipe);
+				if (recipeIndexCache != null) {
+					recipeIndexCache.addRecipe(recipeCategory, recipe, ingredientSupplier);
+				}
 			}
 		}
 
 		if (!addedRecipes.isEmpty()) {
 			recipeTypeData.addRecipes(addedRecipes);
+			modCount++;
 			recipeCategoriesVisibleCache = null;
 		}
 	}
 
-	private <T> boolean addRecipe(IRecipeCategory<T> recipeCategory, T recipe, Set<T> hiddenRecipes) {
-		RecipeType<T> recipeType = recipeCategory.getRecipeType();
+	private <T> boolean canAddRecipe(IRecipeCategory<T> recipeCategory, T recipe, Set<T> hiddenRecipes) {
 		if (hiddenRecipes.contains(recipe)) {
 			if (LOGGER.isDebugEnabled()) {
 				String recipeInfo = RecipeErrorUtil.getInfoFromRecipe(recipe, recipeCategory, ingredientManager);
@@ -145,8 +268,292 @@ public class RecipeManagerInternal {
 			}
 			return false;
 		}
-		IIngredientSupplier ingredientSupplier = IngredientSupplierHelper.getIngredientSupplier(recipe, recipeCategory, ingredientManager);
+		return true;
+	}
+
+	/**
+	 * Indexes the recipes of the given type that were added but not indexed yet,
+	 * so that lookups for this type return complete results.
+	 */
+	private <T> void ensureIndexed(RecipeTypeData<T> recipeTypeData) {
+		if (!lazyIndexing) {
+			return;
+		}
+		IRecipeCategory<T> recipeCategory = recipeTypeData.getRecipeCategory();
+		RecipeType<T> recipeType = recipeCategory.getRecipeType();
+		synchronized (unindexedRecipeTypes) {
+			if (!unindexedRecipeTypes.remove(recipeType)) {
+				return;
+			}
+			long start = System.nanoTime();
+			List<T> recipes = recipeTypeData.takeUnindexedRecipes();
+			List<IIngredientSupplier> ingredientSuppliers = new ArrayList<>(recipes.size());
+			Prefetch prefetch = prefetches.remove(recipeType);
+			List<IIngredientSupplier> clientThreadPrefetch = clientThreadPrefetches.remove(recipeType);
+			if (prefetch != null) {
+				try {
+					ingredientSuppliers.addAll(prefetch.ingredientSuppliers().join());
+				} catch (CompletionException | CancellationException e) {
+					LOGGER.error("Failed to read the ingredients of {} recipes in the background", recipeType, e);
+					ingredientSuppliers.clear();
+				}
+			} else if (clientThreadPrefetch != null) {
+				ingredientSuppliers.addAll(clientThreadPrefetch);
+			}
+			List<T> remainingRecipes = recipes.subList(ingredientSuppliers.size(), recipes.size());
+			ingredientSuppliers.addAll(getIngredientSuppliers(recipeCategory, remainingRecipes));
+			indexRecipes(recipeTypeData, recipes, ingredientSuppliers);
+			recipeTypeData.addIndexNanos(System.nanoTime() - start);
+
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Indexed recipes on first use: {}", getIndexStats(recipeTypeData));
+			}
+		}
+	}
+
+	private void ensureAllIndexed() {
+		if (!lazyIndexing) {
+			return;
+		}
+		List<RecipeType<?>> recipeTypes;
+		synchronized (unindexedRecipeTypes) {
+			recipeTypes = List.copyOf(unindexedRecipeTypes);
+		}
+		for (RecipeType<?> recipeType : recipeTypes) {
+			ensureIndexed(recipeTypeDataMap.get(recipeType));
+		}
+	}
+
+	/**
+	 * Starts reading the ingredients of the unindexed recipes of thread safe categories in the background,
+	 * so that indexing them on first use is faster.
+	 */
+	public void prefetchUnindexedRecipes() {
+		synchronized (unindexedRecipeTypes) {
+			for (RecipeType<?> recipeType : unindexedRecipeTypes) {
+				if (!prefetches.containsKey(recipeType)) {
+					prefetch(recipeTypeDataMap.get(recipeType));
+				}
+			}
+		}
+	}
+
+	private <T> void prefetch(RecipeTypeData<T> recipeTypeData) {
+		IRecipeCategory<T> recipeCategory = recipeTypeData.getRecipeCategory();
+		if (!recipeCategory.isThreadSafe()) {
+			return;
+		}
+		// only read the recipes up to the first one that is not thread safe, the rest are read when the type is indexed
+		List<T> unindexedRecipes = recipeTypeData.getUnindexedRecipes();
+		int end = 0;
+		while (end < unindexedRecipes.size() && recipeCategory.isThreadSafe(unindexedRecipes.get(end))) {
+			end++;
+		}
+		List<T> recipes = List.copyOf(unindexedRecipes.subList(0, end));
+		CompletableFuture<List<IIngredientSupplier>> ingredientSuppliers = CompletableFuture.supplyAsync(() -> getIngredientSuppliersSequential(recipeCategory, recipes), executor);
+		prefetches.put(recipeCategory.getRecipeType(), new Prefetch(ingredientSuppliers));
+	}
+
+	/**
+	 * Starts indexing the unindexed recipes on the client thread, a few milliseconds at a time,
+	 * so that the first lookup that needs every recipe type does not have to index them all at once.
+	 * <p>
+	 * Recipes of categories that are not thread safe have their ingredients read a few at a time,
+	 * and each recipe type is indexed once all of its ingredients have been read,
+	 * or once its ingredients have been read in the background for thread safe categories.
+	 */
+	public void startIndexingOnClientThread(Executor clientExecutor) {
+		if (!lazyIndexing) {
+			return;
+		}
+		this.clientExecutor = clientExecutor;
+		scheduleIndexStep();
+	}
+
+	private void scheduleIndexStep() {
+		Executor clientExecutor = this.clientExecutor;
+		if (clientExecutor == null || indexStepScheduled) {
+			return;
+		}
+		indexStepScheduled = true;
+		CompletableFuture.delayedExecutor(INDEX_STEP_DELAY_MILLIS, TimeUnit.MILLISECONDS, clientExecutor)
+			.execute(this::indexStep);
+	}
+
+	private void indexStep() {
+		indexStepScheduled = false;
+		long deadline = System.nanoTime() + INDEX_STEP_NANOS;
+		synchronized (unindexedRecipeTypes) {
+			for (RecipeType<?> recipeType : List.copyOf(unindexedRecipeTypes)) {
+				if (System.nanoTime() >= deadline) {
+					break;
+				}
+				indexStep(recipeTypeDataMap.get(recipeType), deadline);
+			}
+			if (!unindexedRecipeTypes.isEmpty()) {
+				scheduleIndexStep();
+			}
+		}
+	}
+
+	private <T> void indexStep(RecipeTypeData<T> recipeTypeData, long deadline) {
+		IRecipeCategory<T> recipeCategory = recipeTypeData.getRecipeCategory();
+		RecipeType<T> recipeType = recipeCategory.getRecipeType();
+		if (recipeCategory.isThreadSafe()) {
+			Prefetch prefetch = prefetches.get(recipeType);
+			if (prefetch == null) {
+				prefetch(recipeTypeData);
+			} else if (prefetch.ingredientSuppliers().isDone()) {
+				ensureIndexed(recipeTypeData);
+			}
+			return;
+		}
+
+		List<T> recipes = recipeTypeData.getUnindexedRecipes();
+		List<IIngredientSupplier> ingredientSuppliers = clientThreadPrefetches.computeIfAbsent(recipeType, k -> new ArrayList<>());
+		while (ingredientSuppliers.size() < recipes.size() && System.nanoTime() < deadline) {
+			int end = Math.min(ingredientSuppliers.size() + INDEX_STEP_RECIPES, recipes.size());
+			ingredientSuppliers.addAll(getIngredientSuppliersSequential(recipeCategory, recipes.subList(ingredientSuppliers.size(), end)));
+		}
+		if (ingredientSuppliers.size() == recipes.size() && System.nanoTime() < deadline) {
+			ensureIndexed(recipeTypeData);
+		}
+	}
+
+	/**
+	 * The ingredients of the first unindexed recipes of a recipe type, being read in the background.
+	 */
+	private record Prefetch(CompletableFuture<List<IIngredientSupplier>> ingredientSuppliers) {}
+
+	public List<RecipeIndexStats> getIndexStats() {
+		return this.recipeCategories.stream()
+			.map(IRecipeCategory::getRecipeType)
+			.map(recipeTypeDataMap::get)
+			.<RecipeIndexStats>map(this::getIndexStats)
+			.toList();
+	}
 
+	private <T> RecipeIndexStats getIndexStats(RecipeTypeData<T> recipeTypeData) {
+		RecipeType<T> recipeType = recipeTypeData.getRecipeCategory().getRecipeType();
+		long estimatedBytes = 0;
+		for (RecipeMap recipeMap : recipeMaps.values()) {
+			estimatedBytes += recipeMap.getEstimatedBytes(recipeType);
+		}
+		return new RecipeIndexStats(
+			recipeType,
+			recipeTypeData.getRecipes().size(),
+			recipeTypeData.getUnindexedRecipes().size(),
+			estimatedBytes,
+			recipeTypeData.getIndexNanos()
+		);
+	}
+
+	public void logIndexStats() {
+		List<RecipeIndexStats> indexStats = getIndexStats();
+		long totalBytes = 0;
+		long totalNanos = 0;
+		for (RecipeIndexStats stats : indexStats) {
+			LOGGER.debug("Recipe index: {}", stats);
+			totalBytes += stats.estimatedBytes();
+			totalNanos += stats.indexNanos();
+		}
+		LOGGER.info("Recipe index: {} recipe types, ~{} KiB, {} ms indexing{}", indexStats.size(), totalBytes / 1024, totalNanos / 1_000_000, lazyIndexing ? " (indexing lazily)" : "");
+	}
+
+	/**
+	 * Gets the ingredients of each recipe, from the recipe index cache if it has them,
+	 * and reads the rest from the recipe category.
+	 */
+	private <T> List<IIngredientSupplier> getIngredientSuppliers(IRecipeCategory<T> recipeCategory, List<T> recipes) {
+		RecipeIndexCache recipeIndexCache = this.recipeIndexCache;
+		if (recipeIndexCache == null) {
+			return createIngredientSuppliers(recipeCategory, recipes);
+		}
+
+		List<IIngredientSupplier> ingredientSuppliers = new ArrayList<>(recipes.size());
+		List<T> uncachedRecipes = new ArrayList<>();
+		IntList uncachedIndexes = new IntArrayList();
+		for (T recipe : recipes) {
+			IIngredientSupplier cached = recipeIndexCache.getIngredientSupplier(recipeCategory, recipe);
+			if (cached == null) {
+				uncachedIndexes.add(ingredientSuppliers.size());
+				uncachedRecipes.add(recipe);
+			}
+			ingredientSuppliers.add(cached);
+		}
+
+		List<IIngredientSupplier> created = createIngredientSuppliers(recipeCategory, uncachedRecipes);
+		for (int i = 0; i < created.size(); i++) {
+			ingredientSuppliers.set(uncachedIndexes.getInt(i), created.get(i));
+		}
+		return ingredientSuppliers;
+	}
+
+	/**
+	 * Reads the ingredients of each recipe.
+	 * Recipes that are thread safe have their ingredients read on the executor, the rest on this thread,
+	 * see {@link IRecipeCategory#isThreadSafe(Object)}.
+	 * The suppliers are returned in the same order as the recipes no matter which threads did the work,
+	 * so that the recipe maps are filled in the same order every time.
+	 */
+	private <T> List<IIngredientSupplier> createIngredientSuppliers(IRecipeCategory<T> recipeCategory, List<T> recipes) {
+		if (!recipeCategory.isThreadSafe() || recipes.size() <= BATCH_SIZE) {
+			return getIngredientSuppliersSequential(recipeCategory, recipes);
+		}
+
+		IIngredientSupplier[] ingredientSuppliers = new IIngredientSupplier[recipes.size()];
+		List<CompletableFuture<Void>> batches = new ArrayList<>();
+		IntList threadUnsafeIndexes = new IntArrayList();
+		IntList batch = new IntArrayList(BATCH_SIZE);
+		for (int i = 0; i < recipes.size(); i++) {
+			if (!recipeCategory.isThreadSafe(recipes.get(i))) {
+				threadUnsafeIndexes.add(i);
+				continue;
+			}
+			batch.add(i);
+			if (batch.size() == BATCH_SIZE) {
+				batches.add(readBatch(recipeCategory, recipes, batch, ingredientSuppliers));
+				batch = new IntArrayList(BATCH_SIZE);
+			}
+		}
+		if (!batch.isEmpty()) {
+			batches.add(readBatch(recipeCategory, recipes, batch, ingredientSuppliers));
+		}
+
+		for (IntIterator iterator = threadUnsafeIndexes.iterator(); iterator.hasNext(); ) {
+			int index = iterator.nextInt();
+			ingredientSuppliers[index] = IngredientSupplierHelper.getIngredientSupplier(recipes.get(index), recipeCategory, ingredientManager);
+		}
+		for (CompletableFuture<Void> future : batches) {
+			future.join();
+		}
+		return Arrays.asList(ingredientSuppliers);
+	}
+
+	/**
+	 * Reads the ingredients of the recipes at the given indexes on the executor.
+	 * Each batch writes different indexes of the array, and joining the batch makes its writes visible.
+	 */
+	private <T> CompletableFuture<Void> readBatch(IRecipeCategory<T> recipeCategory, List<T> recipes, IntList indexes, IIngredientSupplier[] ingredientSuppliers) {
+		return CompletableFuture.runAsync(() -> {
+			for (IntIterator iterator = indexes.iterator(); iterator.hasNext(); ) {
+				int index = iterator.nextInt();
+				ingredientSuppliers[index] = IngredientSupplierHelper.getIngredientSupplier(recipes.get(index), recipeCategory, ingredientManager);
+			}
+		}, executor);
+	}
+
+	private <T> List<IIngredientSupplier> getIngredientSuppliersSequential(IRecipeCategory<T> recipeCategory, List<T> recipes) {
+		List<IIngredientSupplier> ingredientSuppliers = new ArrayList<>(recipes.size());
+		for (T recipe : recipes) {
+			IIngredientSupplier ingredientSupplier = IngredientSupplierHelper.getIngredientSupplier(recipe, recipeCategory, ingredientManager);
+			ingredientSuppliers.add(ingredientSupplier);
+		}
+		return ingredientSuppliers;
+	}
+
+	private <T> boolean addRecipe(IRecipeCategory<T> recipeCategory, T recipe, IIngredientSupplier ingredientSupplier) {
+		RecipeType<T> recipeType = recipeCategory.getRecipeType();
 		try {
 			for (RecipeMap recipeMap : recipeMaps.values()) {
 				recipeMap.addRecipe(recipeType, recipe, ingredientSupplier);
@@ -162,14 +569,14 @@ public class RecipeManagerInternal {
 	public boolean isCategoryHidden(IRecipeCategory<?> recipeCategory, IFocusGroup focuses) {
 		// hide the category if it has been explicitly hidden
 		RecipeType<?> recipeType = recipeCategory.getRecipeType();
-		if (hiddenRecipeTypes.contains(recipeType)) {
+		int ordinal = recipeTypeRegistry.getOrdinal(recipeType);
+		if (ordinal != RecipeTypeRegistry.NO_ORDINAL && hiddenRecipeTypes.get(ordinal)) {
 			return true;
 		}
 
 		// hide the category if it has catalysts, but they have all been hidden
-		if (getRecipeCatalystStream(recipeType, true).findAny().isPresent() &&
-			getRecipeCatalystStream(recipeType, false).findAny().isEmpty())
-		{
+		List<ITypedIngredient<?>> catalysts = catalystIndex.getCatalysts(recipeType);
+		if (!catalysts.isEmpty() && catalysts.stream().noneMatch(ingredientVisibility::isIngredientVisible)) {
 			return true;
 		}
 
@@ -200,6 +607,14 @@ public class RecipeManagerInternal {
 			}
 			return this.recipeCategoriesVisibleCache.stream();
 		}
+		if (recipeCategories.isEmpty() && !focuses.isEmpty() && !includeHidden && pluginManager.isCacheable()) {
+			return this.focusedRecipeCategoryCache.getRecipeCategories(
+					focuses,
+					this::getRecipeTypes,
+					recipeTypes -> getVisibleRecipeCategories(recipeTypes.stream(), focuses).toList()
+				)
+				.stream();
+		}
 
 		return getRecipeCategoriesUncached(recipeCategories, focuses, includeHidden);
 	}
@@ -217,13 +632,25 @@ public class RecipeManagerInternal {
 			}
 		} else {
 			// focus => get all recipe categories from plugins with the focus
-			categoryStream = this.pluginManager.getRecipeTypes(focuses)
+			List<RecipeType<?>> recipeTypes;
+			if (recipeCategories.isEmpty()) {
+				recipeTypes = getRecipeTypes(focuses);
+			} else {
+				// only the recipe types of recipeCategories can be in the results, so only they have to be indexed
+				recipeCategories.stream()
+					.<RecipeType<?>>map(IRecipeCategory::getRecipeType)
+					.map(recipeTypeDataMap::get)
+					.forEach(this::ensureIndexed);
+				recipeTypes = this.pluginManager.getRecipeTypes(focuses).toList();
+			}
+			categoryStream = recipeTypes.stream()
 				.map(recipeTypeDataMap::get)
 				.map(RecipeTypeData::getRecipeCategory);
 
 			// non-empty recipeCategories => narrow the results to just ones in recipeCategories
 			if (!recipeCategories.isEmpty()) {
-				categoryStream = categoryStream.filter(recipeCategories::contains);
+				Set<IRecipeCategory<?>> recipeCategorySet = Set.copyOf(recipeCategories);
+				categoryStream = categoryStream.filter(recipeCategorySet::contains);
 			}
 		}
 
@@ -234,14 +661,73 @@ public class RecipeManagerInternal {
 		return categoryStream.sorted(this.recipeCategoryComparator);
 	}
 
+	private List<RecipeType<?>> getRecipeTypes(IFocusGroup focuses) {
+		// no category says which ingredients its recipes have before they are read,
+		// so any unindexed category could have recipes with the focus and they must all be indexed
+		ensureAllIndexed();
+		return this.pluginManager.getRecipeTypes(focuses).toList();
+	}
+
+	private Stream<IRecipeCategory<?>> getVisibleRecipeCategories(Stream<RecipeType<?>> recipeTypes, IFocusGroup focuses) {
+		return recipeTypes
+			.map(recipeTypeDataMap::get)
+			.<IRecipeCategory<?>>map(RecipeTypeData::getRecipeCategory)
+			.filter(c -> !isCategoryHidden(c, focuses))
+			.sorted(this.recipeCategoryComparator);
+	}
+
+	/**
+	 * Returns the number of recipes of the recipe type for the focuses.
+	 * Counts of visible recipes for focused lookups are remembered until the recipes of the recipe type change,
+	 * unless a recipe manager plugin is not cacheable.
+	 */
+	public int getRecipeCount(RecipeType<?> recipeType, IFocusGroup focuses, boolean includeHidden) {
+		if (focuses.isEmpty() || includeHidden || !pluginManager.isCacheable()) {
+			return getRecipeCountUncached(recipeType, focuses, includeHidden);
+		}
+		return this.focusedRecipeCategoryCache.getRecipeCount(
+			focuses,
+			recipeType,
+			this::getRecipeTypes,
+			t -> getRecipeCountUncached(t, focuses, false)
+		);
+	}
+
+	private <T> int getRecipeCountUncached(RecipeType<T> recipeType, IFocusGroup focuses, boolean includeHidden) {
+		return getRecipeResults(recipeType, focuses, includeHidden, null).count();
+	}
+
 	public <T> Stream<T> getRecipesStream(RecipeType<T> recipeType, IFocusGroup focuses, boolean includeHidden) {
+		return getRecipeResults(recipeType, focuses, includeHidden, null).stream();
+	}
+
+	/**
+	 * Returns the results of a lookup.
+	 *
+	 * @param previous the results of the same lookup from an earlier call, returned again if the recipes are unchanged,
+	 *                 so that the pages that were read from it are remembered
+	 */
+	public <T> RecipeResults<T> getRecipeResults(RecipeType<T> recipeType, IFocusGroup focuses, boolean includeHidden, @Nullable RecipeResults<T> previous) {
 		RecipeTypeData<T> recipeTypeData = this.recipeTypeDataMap.get(recipeType);
-		return this.pluginManager.getRecipes(recipeTypeData, focuses, includeHidden);
+		ensureIndexed(recipeTypeData);
+		int modCount = getModCount();
+		if (previous != null && previous.getModCount() == modCount) {
+			return previous;
+		}
+		return this.pluginManager.getRecipes(recipeTypeData, focuses, includeHidden, modCount);
+	}
+
+	/**
+	 * Returns a number that changes whenever the results of a lookup could change.
+	 * Both counts only go up, so their sum changes whenever either of them does.
+	 */
+	private int getModCount() {
+		return this.modCount + this.pluginManager.getModCount();
 	}
 
 	public <T> Stream<ITypedIngredient<?>> getRecipeCatalystStream(RecipeType<T> recipeType, boolean includeHidden) {
-		RecipeTypeData<T> recipeTypeData = recipeTypeDataMap.get(recipeType);
-		List<ITypedIngredient<?>> catalysts = recipeTypeData.getRecipeCategoryCatalysts();
+		recipeTypeDataMap.validate(recipeType);
+		List<ITypedIngredient<?>> catalysts = catalystIndex.getCatalysts(recipeType);
 		if (includeHidden) {
 			return catalysts.stream();
 		}
@@ -253,25 +739,35 @@ public class RecipeManagerInternal {
 		RecipeTypeData<T> recipeTypeData = recipeTypeDataMap.get(recipeType);
 		Set<T> hiddenRecipes = recipeTypeData.getHiddenRecipes();
 		hiddenRecipes.addAll(recipes);
+		modCount++;
 		recipeCategoriesVisibleCache = null;
+		focusedRecipeCategoryCache.invalidate(recipeType);
 	}
 
 	public <T> void unhideRecipes(RecipeType<T> recipeType, Collection<T> recipes) {
 		RecipeTypeData<T> recipeTypeData = recipeTypeDataMap.get(recipeType);
 		Set<T> hiddenRecipes = recipeTypeData.getHiddenRecipes();
 		hiddenRecipes.removeAll(recipes);
+		modCount++;
 		recipeCategoriesVisibleCache = null;
+		focusedRecipeCategoryCache.invalidate(recipeType);
 	}
 
 	public void hideRecipeCategory(RecipeType<?> recipeType) {
-		hiddenRecipeTypes.add(recipeType);
+		int ordinal = recipeTypeRegistry.getOrdinal(recipeType);
+		// recipe types without a category can't be shown, so there is nothing to hide
+		if (ordinal != RecipeTypeRegistry.NO_ORDINAL) {
+			hiddenRecipeTypes.set(ordinal);
+		}
 		recipeCategoriesVisibleCache = null;
+		focusedRecipeCategoryCache.invalidate(recipeType);
 	}
 
 	public void unhideRecipeCategory(RecipeType<?> recipeType) {
 		recipeTypeDataMap.validate(recipeType);
-		hiddenRecipeTypes.remove(recipeType);
+		hiddenRecipeTypes.clear(recipeTypeRegistry.getOrdinal(recipeType));
 		recipeCategoriesVisibleCache = null;
+		focusedRecipeCategoryCache.invalidate(recipeType);
 	}
 
 	public <T> Optional<RecipeType<T>> getRecipeType(ResourceLocation recipeUid, Class<? extends T> recipeClass) {
@@ -293,8 +789,37 @@ public class RecipeManagerInternal {
 		recipeMaps.values().forEach(RecipeMap::compact);
 	}
 
+	/**
+	 * Called after plugins have registered their recipes.
+	 * Saves the recipe index cache, and stops using it for recipes that are added later.
+	 */
+	public void finishRecipeIndexCache(Executor saveExecutor) {
+		if (recipeIndexCache != null) {
+			recipeIndexCache.save(saveExecutor);
+			recipeIndexCache = null;
+		}
+	}
+
 	public boolean isRecipeCatalyst(RecipeType<?> recipeType, IFocus<?> focus) {
-		RecipeMap recipeMap = recipeMaps.get(focus.getRole());
-		return recipeMap.isCatalystForRecipeCategory(recipeType, focus.getTypedValue());
+		if (focus.getRole() != RecipeIngredientRole.CATALYST) {
+			return false;
+		}
+		return catalystIndex.isCatalyst(recipeType, focus.getTypedValue());
+	}
+
+	/**
+	 * @return the recipe types that the ingredient is a catalyst for, in recipe category sort order
+	 */
+	@Unmodifiable
+	public List<RecipeType<?>> getCatalystRecipeTypes(ITypedIngredient<?> catalyst) {
+		return catalystIndex.getRecipeTypes(catalyst);
+	}
+
+	/**
+	 * @return every recipe type that any of the ingredients is a catalyst for, in recipe category sort order
+	 */
+	@Unmodifiable
+	public List<RecipeType<?>> getCatalystRecipeTypes(Collection<? extends ITypedIngredient<?>> catalysts) {
+		return catalystIndex.getRecipeTypes(catalysts);
 	}
 }
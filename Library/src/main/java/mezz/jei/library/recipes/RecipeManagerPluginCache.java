@@ -0,0 +1,123 @@
+package mezz.jei.library.recipes;
+
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.advanced.IRecipeManagerPlugin;
+import mezz.jei.library.recipes.collect.FocusKey;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the results of {@link IRecipeManagerPlugin}s that declare themselves cacheable,
+ * keyed by plugin, recipe type and focus.
+ * The least recently used results are forgotten when the estimated size of all results goes over the memory budget.
+ * <p>
+ * This is not thread safe, it is only used from the client thread like the rest of the {@link PluginManager}.
+ */
+public class RecipeManagerPluginCache {
+	/**
+	 * Rough size of a cache entry: the map entry, its key, and the result list, not counting the list elements.
+	 */
+	private static final int ENTRY_BYTES = 128;
+	/**
+	 * A compressed object reference.
+	 */
+	private static final int REFERENCE_BYTES = 4;
+
+	private final long maxBytes;
+	private final Map<Key, List<?>> results = new LinkedHashMap<>(16, 0.75f, true);
+	/**
+	 * Plugins that crashed and were disabled, their results are never remembered again.
+	 */
+	private final Set<IRecipeManagerPlugin> removedPlugins = Collections.newSetFromMap(new IdentityHashMap<>());
+	private long estimatedBytes;
+
+	public RecipeManagerPluginCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns the remembered result of the plugin call, or calls it and remembers the result if it fits the budget.
+	 *
+	 * @param recipeType the recipe type of the call, or null for calls that are not for a recipe type
+	 * @param focus      the focus of the call, or null for calls without a focus
+	 */
+	public <T> List<T> get(
+		IRecipeManagerPlugin plugin,
+		@Nullable RecipeType<?> recipeType,
+		@Nullable FocusKey focus,
+		RecipeManagerPluginStats stats,
+		Supplier<List<T>> call
+	) {
+		Key key = new Key(plugin, recipeType, focus);
+		@SuppressWarnings("unchecked")
+		List<T> cached = (List<T>) results.get(key);
+		if (cached != null) {
+			stats.addCacheHit();
+			return cached;
+		}
+
+		List<T> result = Collections.unmodifiableList(new ArrayList<>(call.get()));
+		// the plugin can crash during the call and be removed, its empty result must not be remembered
+		if (removedPlugins.contains(plugin)) {
+			return result;
+		}
+		long bytes = getEstimatedBytes(result);
+		if (bytes <= maxBytes) {
+			results.put(key, result);
+			estimatedBytes += bytes;
+			evict();
+		}
+		return result;
+	}
+
+	/**
+	 * Forgets the results of the plugin and stops remembering new ones, for example when it crashed and was disabled.
+	 */
+	public void remove(IRecipeManagerPlugin plugin) {
+		removedPlugins.add(plugin);
+		Iterator<Map.Entry<Key, List<?>>> iterator = results.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Key, List<?>> entry = iterator.next();
+			if (entry.getKey().plugin() == plugin) {
+				estimatedBytes -= getEstimatedBytes(entry.getValue());
+				iterator.remove();
+			}
+		}
+	}
+
+	public int size() {
+		return results.size();
+	}
+
+	public long getEstimatedBytes() {
+		return estimatedBytes;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	private void evict() {
+		Iterator<List<?>> iterator = results.values().iterator();
+		while (estimatedBytes > maxBytes && iterator.hasNext()) {
+			List<?> eldest = iterator.next();
+			estimatedBytes -= getEstimatedBytes(eldest);
+			iterator.remove();
+		}
+	}
+
+	private static long getEstimatedBytes(List<?> result) {
+		return ENTRY_BYTES + (long) result.size() * REFERENCE_BYTES;
+	}
+
+	private record Key(IRecipeManagerPlugin plugin, @Nullable RecipeType<?> recipeType, @Nullable FocusKey focus) {}
+}
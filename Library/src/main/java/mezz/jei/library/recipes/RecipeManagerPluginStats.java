@@ -0,0 +1,73 @@
+package mezz.jei.library.recipes;
+
+import java.util.function.Supplier;
+
+/**
+ * Call counts and latency of one {@link mezz.jei.api.recipe.advanced.IRecipeManagerPlugin},
+ * for finding plugins that make recipe lookups slow.
+ */
+public class RecipeManagerPluginStats {
+	private final String pluginName;
+	private long calls;
+	private long cacheHits;
+	private long totalNanos;
+	private long slowestCallNanos;
+	private String slowestCall = "";
+
+	public RecipeManagerPluginStats(String pluginName) {
+		this.pluginName = pluginName;
+	}
+
+	/**
+	 * @param callDescription describes the call, only used if it is the slowest one so far
+	 */
+	public void addCall(long nanos, Supplier<String> callDescription) {
+		calls++;
+		totalNanos += nanos;
+		if (nanos > slowestCallNanos) {
+			slowestCallNanos = nanos;
+			slowestCall = callDescription.get();
+		}
+	}
+
+	public void addCacheHit() {
+		cacheHits++;
+	}
+
+	public String getPluginName() {
+		return pluginName;
+	}
+
+	public long getCalls() {
+		return calls;
+	}
+
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getSlowestCallNanos() {
+		return slowestCallNanos;
+	}
+
+	public String getSlowestCall() {
+		return slowestCall;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+			"%s: %d calls, %d cache hits, %.1f ms total, slowest %.1f ms: %s",
+			pluginName,
+			calls,
+			cacheHits,
+			totalNanos / 1_000_000.0,
+			slowestCallNanos / 1_000_000.0,
+			slowestCall
+		);
+	}
+}
@@ -0,0 +1,175 @@
+package mezz.jei.library.recipes;
+
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The recipes of one lookup, read straight from the lists that the recipe manager plugins return.
+ * Each list is only requested from its plugin when the results reach it.
+ * <p>
+ * A recipe that is in an earlier list, from an earlier plugin or for an earlier focus, is left out of the later lists.
+ * Each list only remembers its own recipes that are duplicates, so no set of every recipe is built.
+ * Duplicates within a single list are kept, the plugin returned them that way.
+ * <p>
+ * The position in the lists at the start and end of every page that has been read is remembered,
+ * so reading an earlier page again only reads that page.
+ * The positions are only valid while the recipes are unchanged, see {@link RecipeManagerInternal#getRecipeResults}.
+ */
+public class RecipeResults<T> {
+	private final List<Supplier<List<T>>> sourceSuppliers;
+	private final List<List<T>> sources;
+	/**
+	 * The recipes of each list that are in an earlier list, computed when the results reach that list.
+	 */
+	private final List<Set<T>> duplicates;
+	private final Set<T> hiddenRecipes;
+	private final int modCount;
+	private final TreeMap<Integer, Position> pageStarts = new TreeMap<>();
+	private int count = -1;
+
+	public RecipeResults(List<Supplier<List<T>>> sourceSuppliers, Set<T> hiddenRecipes, int modCount) {
+		this.sourceSuppliers = sourceSuppliers;
+		this.sources = new ArrayList<>(sourceSuppliers.size());
+		this.duplicates = new ArrayList<>(sourceSuppliers.size());
+		this.hiddenRecipes = hiddenRecipes;
+		this.modCount = modCount;
+	}
+
+	public int getModCount() {
+		return modCount;
+	}
+
+	public Stream<T> stream() {
+		return IntStream.range(0, sourceSuppliers.size())
+			.boxed()
+			.flatMap(source -> getSource(source).stream().filter(recipe -> isIncluded(source, recipe)));
+	}
+
+	public int count() {
+		if (count < 0) {
+			int count = 0;
+			for (int source = 0; source < sourceSuppliers.size(); source++) {
+				List<T> recipes = getSource(source);
+				if (hasNoExclusions(source)) {
+					count += recipes.size();
+				} else {
+					for (T recipe : recipes) {
+						if (isIncluded(source, recipe)) {
+							count++;
+						}
+					}
+				}
+			}
+			this.count = count;
+		}
+		return count;
+	}
+
+	@Unmodifiable
+	public List<T> getPage(int skip, int limit) {
+		if (limit == 0) {
+			return List.of();
+		}
+		Map.Entry<Integer, Position> pageStart = pageStarts.floorEntry(skip);
+		int index = pageStart == null ? 0 : pageStart.getKey();
+		Position position = pageStart == null ? Position.START : pageStart.getValue();
+		int source = position.source();
+		int sourceIndex = position.index();
+
+		long end = (long) skip + limit;
+		List<T> page = new ArrayList<>();
+		while (index < end && source < sourceSuppliers.size()) {
+			List<T> recipes = getSource(source);
+			int remaining = recipes.size() - sourceIndex;
+			if (index < skip && index + remaining <= skip && hasNoExclusions(source)) {
+				// the whole rest of this list comes before the page
+				index += remaining;
+				sourceIndex = recipes.size();
+			}
+			if (sourceIndex >= recipes.size()) {
+				source++;
+				sourceIndex = 0;
+				continue;
+			}
+			if (index == skip && page.isEmpty()) {
+				pageStarts.put(skip, new Position(source, sourceIndex));
+			}
+			T recipe = recipes.get(sourceIndex);
+			if (isIncluded(source, recipe)) {
+				if (index >= skip) {
+					page.add(recipe);
+				}
+				index++;
+			}
+			sourceIndex++;
+		}
+		if (index == end) {
+			pageStarts.put(index, new Position(source, sourceIndex));
+		} else if (count < 0) {
+			// read to the end of the results
+			count = index;
+		}
+		return List.copyOf(page);
+	}
+
+	private List<T> getSource(int source) {
+		while (sources.size() <= source) {
+			List<T> recipes = sourceSuppliers.get(sources.size()).get();
+			sources.add(recipes);
+		}
+		return sources.get(source);
+	}
+
+	private boolean isIncluded(int source, T recipe) {
+		if (!hiddenRecipes.isEmpty() && hiddenRecipes.contains(recipe)) {
+			return false;
+		}
+		Set<T> duplicates = getDuplicates(source);
+		return duplicates.isEmpty() || !duplicates.contains(recipe);
+	}
+
+	private boolean hasNoExclusions(int source) {
+		return hiddenRecipes.isEmpty() && getDuplicates(source).isEmpty();
+	}
+
+	private Set<T> getDuplicates(int source) {
+		while (duplicates.size() <= source) {
+			duplicates.add(findDuplicates(duplicates.size()));
+		}
+		return duplicates.get(source);
+	}
+
+	private Set<T> findDuplicates(int source) {
+		List<T> recipes = getSource(source);
+		if (source == 0 || recipes.isEmpty()) {
+			return Set.of();
+		}
+		Set<T> recipeSet = new HashSet<>(recipes);
+		Set<T> found = new HashSet<>();
+		for (int earlierSource = 0; earlierSource < source; earlierSource++) {
+			for (T recipe : getSource(earlierSource)) {
+				if (recipeSet.contains(recipe)) {
+					found.add(recipe);
+				}
+			}
+		}
+		return found.isEmpty() ? Set.of() : found;
+	}
+
+	/**
+	 * A position in the lists: the index of the list, and the index of the next recipe in it.
+	 */
+	private record Position(int source, int index) {
+		public static final Position START = new Position(0, 0);
+	}
+}
@@ -0,0 +1,456 @@
+package mezz.jei.library.recipes.cache;
+
+import com.google.common.hash.Hashing;
+import com.mojang.serialization.Codec;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import mezz.jei.api.helpers.ICodecHelper;
+import mezz.jei.api.ingredients.IIngredientHelper;
+import mezz.jei.api.ingredients.IIngredientSupplier;
+import mezz.jei.api.ingredients.IIngredientType;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.ingredients.subtypes.UidContext;
+import mezz.jei.api.recipe.RecipeIngredientRole;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.common.platform.Services;
+import mezz.jei.core.recipes.snapshot.RecipeIndexFingerprint;
+import mezz.jei.core.recipes.snapshot.RecipeIndexSnapshot;
+import mezz.jei.core.recipes.snapshot.RecipeIndexSnapshotWriter;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.resources.RegistryOps;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * Saves the ingredients of every recipe in a {@link RecipeIndexSnapshot},
+ * so that the next start can build the recipe index without asking recipe categories to set every recipe.
+ * <p>
+ * Recipes are found in the snapshot by their {@link IRecipeCategory#getRegistryName} and a hash of their contents,
+ * see {@link #createGameRecipeHasher}.
+ * Their ingredients are saved as binary NBT with the typed ingredient codec from the {@link ICodecHelper}.
+ * Only recipes from the game's recipe manager can be serialized, so recipes made by plugins,
+ * like anvil and brewing recipes, are never read from the snapshot.
+ * Those recipes, recipes without a registry name, recipes that are not in the snapshot or have changed,
+ * and recipes with ingredients that cannot be read are set by their category like normal.
+ * <p>
+ * The snapshot is only used when its fingerprint matches the current mods, recipes, tags, categories and config.
+ * Otherwise, or if the snapshot cannot be read, every recipe is set normally and a new snapshot is saved.
+ * <p>
+ * This is only used on the thread that registers recipes.
+ */
+public class RecipeIndexCache {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final RecipeIngredientRole[] ROLES = RecipeIngredientRole.values();
+
+	private final Path snapshotPath;
+	private final byte[] fingerprint;
+	private final IIngredientManager ingredientManager;
+	private final Codec<ITypedIngredient<?>> ingredientCodec;
+	private final RegistryOps<Tag> registryOps;
+	private final IContentHasher contentHasher;
+	private final @Nullable RecipeIndexSnapshot snapshot;
+	/**
+	 * Ingredients read from the snapshot, by their index in the snapshot.
+	 * Ingredients that could not be read are stored as {@link Optional#empty()}.
+	 */
+	private final Int2ObjectMap<Optional<ITypedIngredient<?>>> snapshotIngredients = new Int2ObjectOpenHashMap<>();
+	private final RecipeIndexSnapshotWriter snapshotWriter = new RecipeIndexSnapshotWriter(ROLES.length);
+	/**
+	 * The index of each ingredient in the new snapshot, by ingredient type and recipe uid.
+	 */
+	private final Map<IIngredientType<?>, Object2IntMap<Object>> writerIndexes = new HashMap<>();
+	/**
+	 * The content hash of each recipe looked up in the snapshot, until it is added to the new snapshot.
+	 */
+	private final Map<Object, Long> contentHashes = new IdentityHashMap<>();
+	private int cachedRecipes;
+	private int uncachedRecipes;
+	private long hashNanos;
+	private long readIngredientNanos;
+
+	/**
+	 * @param contentHasher hashes the contents of recipes, see {@link #createGameRecipeHasher}
+	 */
+	public RecipeIndexCache(
+		Path snapshotPath,
+		byte[] fingerprint,
+		IIngredientManager ingredientManager,
+		ICodecHelper codecHelper,
+		RegistryAccess registryAccess,
+		IContentHasher contentHasher
+	) {
+		this.snapshotPath = snapshotPath;
+		this.fingerprint = fingerprint;
+		this.ingredientManager = ingredientManager;
+		this.ingredientCodec = codecHelper.getTypedIngredientCodec().codec();
+		this.registryOps = registryAccess.createSerializationContext(NbtOps.INSTANCE);
+		this.contentHasher = contentHasher;
+		this.snapshot = RecipeIndexSnapshot.read(snapshotPath, fingerprint, ROLES.length)
+			.orElse(null);
+	}
+
+	/**
+	 * Reads the saved snapshot, if it is up to date for the current game.
+	 */
+	public static RecipeIndexCache create(
+		Path snapshotPath,
+		Path configDir,
+		List<IRecipeCategory<?>> recipeCategories,
+		IIngredientManager ingredientManager,
+		ICodecHelper codecHelper,
+		RegistryAccess registryAccess
+	) {
+		Minecraft minecraft = Minecraft.getInstance();
+		List<ResourceLocation> recipeIds = Optional.ofNullable(minecraft.level)
+			.map(ClientLevel::getRecipeManager)
+			.map(RecipeManager::getRecipes)
+			.<List<ResourceLocation>>map(recipes -> recipes.stream().map(RecipeHolder::id).toList())
+			.orElse(List.of());
+		byte[] fingerprint = createFingerprint(
+			Services.PLATFORM.getModHelper().getModVersions(),
+			recipeIds,
+			recipeCategories,
+			registryAccess,
+			configDir
+		);
+		return new RecipeIndexCache(snapshotPath, fingerprint, ingredientManager, codecHelper, registryAccess, createGameRecipeHasher(registryAccess));
+	}
+
+	/**
+	 * Hashes recipes from the game's recipe manager, with the codec that the server uses to send them to the client.
+	 * That codec writes compact binary, so it is much cheaper than encoding every recipe to json.
+	 * Recipes that are not {@link RecipeHolder}s have no hash, so they are never read from the snapshot.
+	 * <p>
+	 * The returned hasher reuses one buffer, so it must only be used on one thread.
+	 */
+	public static IContentHasher createGameRecipeHasher(RegistryAccess registryAccess) {
+		RegistryFriendlyByteBuf buffer = new RegistryFriendlyByteBuf(Unpooled.buffer(), registryAccess);
+		return recipe -> {
+			if (!(recipe instanceof RecipeHolder<?> recipeHolder)) {
+				return null;
+			}
+			buffer.clear();
+			Recipe.STREAM_CODEC.encode(buffer, recipeHolder.value());
+			return Hashing.murmur3_128().hashBytes(buffer.nioBuffer()).asLong();
+		};
+	}
+
+	public static Path getDefaultSnapshotPath() {
+		Minecraft minecraft = Minecraft.getInstance();
+		return minecraft.gameDirectory.toPath()
+			.resolve(".cache")
+			.resolve("jei")
+			.resolve("recipe-index.bin");
+	}
+
+	/**
+	 * Returns the ingredients of the recipe from the snapshot.
+	 *
+	 * @return the ingredients, or null if the recipe has to be set by its category
+	 */
+	@Nullable
+	public <T> IIngredientSupplier getIngredientSupplier(IRecipeCategory<T> recipeCategory, T recipe) {
+		if (snapshot == null) {
+			return null;
+		}
+		ResourceLocation registryName = recipeCategory.getRegistryName(recipe);
+		if (registryName == null) {
+			return null;
+		}
+		Long contentHash = getContentHash(recipe);
+		if (contentHash == null) {
+			return null;
+		}
+		contentHashes.put(recipe, contentHash);
+		String recipeTypeUid = recipeCategory.getRecipeType().getUid().toString();
+		int[][] ingredientIndexes = snapshot.getRecipeIngredients(recipeTypeUid, registryName.toString(), contentHash);
+		if (ingredientIndexes == null) {
+			return null;
+		}
+
+		Map<RecipeIngredientRole, List<ITypedIngredient<?>>> ingredients = new EnumMap<>(RecipeIngredientRole.class);
+		for (RecipeIngredientRole role : ROLES) {
+			int[] indexes = ingredientIndexes[role.ordinal()];
+			List<ITypedIngredient<?>> roleIngredients = new ArrayList<>(indexes.length);
+			for (int index : indexes) {
+				Optional<ITypedIngredient<?>> ingredient = getSnapshotIngredient(index);
+				if (ingredient.isEmpty()) {
+					return null;
+				}
+				roleIngredients.add(ingredient.get());
+			}
+			ingredients.put(role, List.copyOf(roleIngredients));
+		}
+		return new CachedIngredientSupplier(ingredients);
+	}
+
+	private Optional<ITypedIngredient<?>> getSnapshotIngredient(int index) {
+		assert snapshot != null;
+		return snapshotIngredients.computeIfAbsent(index, i -> {
+			long start = System.nanoTime();
+			byte[] ingredientBytes = snapshot.getIngredient(i);
+			Optional<ITypedIngredient<?>> ingredient;
+			try {
+				DataInputStream in = new DataInputStream(new ByteArrayInputStream(ingredientBytes));
+				Tag tag = NbtIo.readAnyTag(in, NbtAccounter.unlimitedHeap());
+				ingredient = ingredientCodec.parse(registryOps, tag).result();
+			} catch (IOException | RuntimeException e) {
+				ingredient = Optional.empty();
+			}
+			// remember the saved bytes, so that the ingredient does not have to be encoded again for the new snapshot
+			ingredient.ifPresent(typedIngredient -> getOrCreateWriterIndex(typedIngredient, () -> ingredientBytes));
+			readIngredientNanos += System.nanoTime() - start;
+			return ingredient;
+		});
+	}
+
+	/**
+	 * Adds the ingredients of a recipe that was added to the recipe index, so that they are saved in the new snapshot.
+	 */
+	public <T> void addRecipe(IRecipeCategory<T> recipeCategory, T recipe, IIngredientSupplier ingredientSupplier) {
+		if (ingredientSupplier instanceof CachedIngredientSupplier) {
+			cachedRecipes++;
+		} else {
+			uncachedRecipes++;
+		}
+
+		Long contentHash = contentHashes.remove(recipe);
+		ResourceLocation registryName = recipeCategory.getRegistryName(recipe);
+		if (registryName == null) {
+			return;
+		}
+		if (contentHash == null) {
+			contentHash = getContentHash(recipe);
+			if (contentHash == null) {
+				return;
+			}
+		}
+
+		int[][] ingredientIndexes = new int[ROLES.length][];
+		for (RecipeIngredientRole role : ROLES) {
+			IntSet indexes = new IntLinkedOpenHashSet();
+			for (ITypedIngredient<?> ingredient : ingredientSupplier.getIngredients(role)) {
+				int index = getOrCreateWriterIndex(ingredient);
+				if (index < 0) {
+					// an ingredient that can't be saved, so this recipe can't be cached
+					return;
+				}
+				indexes.add(index);
+			}
+			ingredientIndexes[role.ordinal()] = indexes.toIntArray();
+		}
+		String recipeTypeUid = recipeCategory.getRecipeType().getUid().toString();
+		snapshotWriter.addRecipe(recipeTypeUid, registryName.toString(), contentHash, ingredientIndexes);
+	}
+
+	/**
+	 * Returns a hash of the recipe's contents, so that a recipe that changed without changing its id is not read
+	 * from the snapshot.
+	 *
+	 * @return the hash, or null if the recipe can't be hashed
+	 */
+	@Nullable
+	private Long getContentHash(Object recipe) {
+		long start = System.nanoTime();
+		try {
+			return contentHasher.getContentHash(recipe);
+		} catch (RuntimeException e) {
+			return null;
+		} finally {
+			hashNanos += System.nanoTime() - start;
+		}
+	}
+
+	private int getOrCreateWriterIndex(ITypedIngredient<?> typedIngredient) {
+		return getOrCreateWriterIndex(typedIngredient, () -> {
+			try {
+				Optional<Tag> tag = ingredientCodec.encodeStart(registryOps, typedIngredient).result();
+				if (tag.isEmpty()) {
+					return null;
+				}
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try (DataOutputStream out = new DataOutputStream(bytes)) {
+					NbtIo.writeAnyTag(tag.get(), out);
+				}
+				return bytes.toByteArray();
+			} catch (IOException | RuntimeException e) {
+				return null;
+			}
+		});
+	}
+
+	private <V> int getOrCreateWriterIndex(ITypedIngredient<V> typedIngredient, IngredientEncoder encoder) {
+		IIngredientType<V> type = typedIngredient.getType();
+		IIngredientHelper<V> ingredientHelper = ingredientManager.getIngredientHelper(type);
+		Object uid = ingredientHelper.getUid(typedIngredient, UidContext.Recipe);
+
+		Object2IntMap<Object> indexes = writerIndexes.computeIfAbsent(type, t -> {
+			Object2IntMap<Object> map = new Object2IntOpenHashMap<>();
+			map.defaultReturnValue(Integer.MIN_VALUE);
+			return map;
+		});
+		int index = indexes.getInt(uid);
+		if (index == Integer.MIN_VALUE) {
+			byte[] encoded = encoder.encode();
+			index = encoded == null ? -1 : snapshotWriter.addIngredient(encoded);
+			indexes.put(uid, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Saves a new snapshot on the executor, unless every recipe came from the saved snapshot.
+	 */
+	public void save(Executor saveExecutor) {
+		LOGGER.info(
+			"Recipe index cache: {} recipes loaded from the snapshot, {} recipes set by their category. Hashing recipes took {} ms, reading ingredients took {} ms.",
+			cachedRecipes,
+			uncachedRecipes,
+			hashNanos / 1_000_000,
+			readIngredientNanos / 1_000_000
+		);
+		contentHashes.clear();
+		if (snapshot != null && uncachedRecipes == 0) {
+			return;
+		}
+		saveExecutor.execute(() -> {
+			try {
+				snapshotWriter.write(snapshotPath, fingerprint);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.warn("Failed to save the recipe index snapshot: {}", snapshotPath, e);
+			}
+		});
+	}
+
+	/**
+	 * Creates a hash of everything that the ingredients of the recipes depend on.
+	 */
+	public static byte[] createFingerprint(
+		Map<String, String> modVersions,
+		Collection<ResourceLocation> recipeIds,
+		List<IRecipeCategory<?>> recipeCategories,
+		RegistryAccess registryAccess,
+		Path configDir
+	) {
+		RecipeIndexFingerprint fingerprint = new RecipeIndexFingerprint();
+
+		Map<String, String> sortedModVersions = new TreeMap<>(modVersions);
+		fingerprint.add(sortedModVersions.size());
+		sortedModVersions.forEach((modId, version) -> fingerprint.add(modId).add(version));
+
+		List<String> sortedRecipeIds = recipeIds.stream()
+			.map(ResourceLocation::toString)
+			.sorted()
+			.toList();
+		fingerprint.add(sortedRecipeIds.size());
+		sortedRecipeIds.forEach(fingerprint::add);
+
+		fingerprint.add(recipeCategories.size());
+		for (IRecipeCategory<?> recipeCategory : recipeCategories) {
+			fingerprint.add(recipeCategory.getRecipeType().getUid().toString());
+		}
+
+		addTags(fingerprint, registryAccess, Registries.ITEM);
+		addTags(fingerprint, registryAccess, Registries.FLUID);
+
+		try (Stream<Path> configFiles = Files.list(configDir)) {
+			List<Path> sortedConfigFiles = configFiles
+				.filter(path -> path.getFileName().toString().endsWith(".ini"))
+				.sorted()
+				.toList();
+			for (Path configFile : sortedConfigFiles) {
+				fingerprint
+					.add(configFile.getFileName().toString())
+					.add(Files.readAllBytes(configFile));
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Failed to read the JEI config files for the recipe index fingerprint: {}", configDir, e);
+			// use a fingerprint that can't match a saved one
+			fingerprint.add(String.valueOf(System.nanoTime()));
+		}
+		return fingerprint.build();
+	}
+
+	private static <T> void addTags(RecipeIndexFingerprint fingerprint, RegistryAccess registryAccess, ResourceKey<? extends Registry<T>> registryKey) {
+		Registry<T> registry = registryAccess.registryOrThrow(registryKey);
+		Map<String, List<String>> tags = new TreeMap<>();
+		registry.getTags().forEach(pair -> {
+			List<String> values = pair.getSecond().stream()
+				.map(Holder::unwrapKey)
+				.flatMap(Optional::stream)
+				.map(key -> key.location().toString())
+				.toList();
+			tags.put(pair.getFirst().location().toString(), values);
+		});
+
+		fingerprint.add(registryKey.location().toString());
+		fingerprint.add(tags.size());
+		tags.forEach((tag, values) -> {
+			fingerprint.add(tag).add(values.size());
+			values.forEach(fingerprint::add);
+		});
+	}
+
+	@FunctionalInterface
+	private interface IngredientEncoder {
+		@Nullable
+		byte[] encode();
+	}
+
+	@FunctionalInterface
+	public interface IContentHasher {
+		/**
+		 * @return a hash of the recipe's contents, or null if the recipe can't be hashed and should never be cached
+		 */
+		@Nullable
+		Long getContentHash(Object recipe);
+	}
+
+	private record CachedIngredientSupplier(Map<RecipeIngredientRole, List<ITypedIngredient<?>>> ingredients) implements IIngredientSupplier {
+		@Override
+		public List<ITypedIngredient<?>> getIngredients(RecipeIngredientRole role) {
+			return ingredients.getOrDefault(role, List.of());
+		}
+	}
+}
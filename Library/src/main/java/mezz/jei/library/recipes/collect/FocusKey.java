@@ -0,0 +1,26 @@
+package mezz.jei.library.recipes.collect;
+
+import mezz.jei.api.ingredients.IIngredientHelper;
+import mezz.jei.api.ingredients.IIngredientType;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.ingredients.subtypes.UidContext;
+import mezz.jei.api.recipe.IFocus;
+import mezz.jei.api.recipe.RecipeIngredientRole;
+import mezz.jei.api.runtime.IIngredientManager;
+
+/**
+ * Identifies a focus by its role and the uid of its ingredient, for use as a cache key.
+ * Focuses on ingredients with the same uid in {@link UidContext#Recipe} have the same recipes.
+ */
+public record FocusKey(IIngredientType<?> type, Object uid, RecipeIngredientRole role) {
+	public static FocusKey create(IIngredientManager ingredientManager, IFocus<?> focus) {
+		return create(ingredientManager, focus.getTypedValue(), focus.getRole());
+	}
+
+	private static <T> FocusKey create(IIngredientManager ingredientManager, ITypedIngredient<T> typedIngredient, RecipeIngredientRole role) {
+		IIngredientType<T> type = typedIngredient.getType();
+		IIngredientHelper<T> ingredientHelper = ingredientManager.getIngredientHelper(type);
+		Object uid = ingredientHelper.getUid(typedIngredient, UidContext.Recipe);
+		return new FocusKey(type, uid, role);
+	}
+}
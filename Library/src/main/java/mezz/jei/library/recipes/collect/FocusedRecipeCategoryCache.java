@@ -0,0 +1,144 @@
+package mezz.jei.library.recipes.collect;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import mezz.jei.api.recipe.IFocus;
+import mezz.jei.api.recipe.IFocusGroup;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.api.runtime.IIngredientManager;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Remembers the visible recipe categories and their recipe counts for the most recently looked up focuses,
+ * so that showing the recipes or uses of the same ingredient again does not ask every plugin again.
+ * Focuses are keyed by the uid of their ingredient, so this is only used when every recipe manager plugin is
+ * cacheable, see {@link mezz.jei.library.recipes.PluginManager#isCacheable()}.
+ * <p>
+ * Each entry remembers every recipe type that the plugins returned for its focuses, before hidden categories
+ * were filtered out. Changing the hidden recipes or catalysts of a recipe type only invalidates the entries that
+ * returned that type, because the visibility of the other entries' categories does not depend on it.
+ */
+public class FocusedRecipeCategoryCache {
+	/**
+	 * The number of focus groups to remember.
+	 * Each entry only holds a few small lists, so this mostly limits how much is thrown away on invalidation.
+	 */
+	private static final int MAX_ENTRIES = 128;
+
+	private final IIngredientManager ingredientManager;
+	private final Map<List<FocusKey>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<FocusKey>, Entry> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	public FocusedRecipeCategoryCache(IIngredientManager ingredientManager) {
+		this.ingredientManager = ingredientManager;
+	}
+
+	/**
+	 * Returns the visible recipe categories for the focuses, computing and remembering them if needed.
+	 *
+	 * @param recipeTypesForFocuses  gets every recipe type that has recipes or catalysts for the focuses
+	 * @param visibleCategories      narrows the recipe types down to the sorted visible recipe categories
+	 */
+	@Unmodifiable
+	public List<IRecipeCategory<?>> getRecipeCategories(
+		IFocusGroup focuses,
+		Function<IFocusGroup, Collection<RecipeType<?>>> recipeTypesForFocuses,
+		Function<Collection<RecipeType<?>>, List<IRecipeCategory<?>>> visibleCategories
+	) {
+		Entry entry = getEntry(focuses, recipeTypesForFocuses);
+		if (entry.visibleCategories == null) {
+			entry.visibleCategories = List.copyOf(visibleCategories.apply(entry.recipeTypes));
+		}
+		return entry.visibleCategories;
+	}
+
+	/**
+	 * Returns the number of visible recipes of the recipe type for the focuses, counting and remembering it if needed.
+	 * A plugin can return recipes of a type that it did not list for the focuses, so those types are still counted,
+	 * but their counts are not remembered because changing that type would not invalidate this entry.
+	 */
+	public int getRecipeCount(
+		IFocusGroup focuses,
+		RecipeType<?> recipeType,
+		Function<IFocusGroup, Collection<RecipeType<?>>> recipeTypesForFocuses,
+		ToIntFunction<RecipeType<?>> recipeCount
+	) {
+		Entry entry = getEntry(focuses, recipeTypesForFocuses);
+		if (!entry.recipeTypes.contains(recipeType)) {
+			return recipeCount.applyAsInt(recipeType);
+		}
+		return entry.recipeCounts.computeIfAbsent(recipeType, recipeCount);
+	}
+
+	/**
+	 * Forgets every entry that could show a different result when the given recipe type changes.
+	 */
+	public void invalidate(RecipeType<?> recipeType) {
+		entries.values().removeIf(entry -> entry.recipeTypes.contains(recipeType));
+	}
+
+	/**
+	 * Forgets every entry that could show a different result when any of the given recipe types change.
+	 */
+	public void invalidate(Collection<RecipeType<?>> recipeTypes) {
+		if (!recipeTypes.isEmpty()) {
+			entries.values().removeIf(entry -> recipeTypes.stream().anyMatch(entry.recipeTypes::contains));
+		}
+	}
+
+	/**
+	 * Forgets every entry.
+	 * Adding recipes can give any focus new recipe types, so it invalidates everything.
+	 */
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private Entry getEntry(IFocusGroup focuses, Function<IFocusGroup, Collection<RecipeType<?>>> recipeTypesForFocuses) {
+		List<FocusKey> key = createKey(focuses);
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entry = new Entry(Set.copyOf(recipeTypesForFocuses.apply(focuses)));
+			entries.put(key, entry);
+		}
+		return entry;
+	}
+
+	private List<FocusKey> createKey(IFocusGroup focuses) {
+		List<IFocus<?>> allFocuses = focuses.getAllFocuses();
+		List<FocusKey> key = new ArrayList<>(allFocuses.size());
+		for (IFocus<?> focus : allFocuses) {
+			key.add(FocusKey.create(ingredientManager, focus));
+		}
+		return key;
+	}
+
+	private static class Entry {
+		private final Set<RecipeType<?>> recipeTypes;
+		private final Object2IntMap<RecipeType<?>> recipeCounts = new Object2IntOpenHashMap<>();
+		private @Nullable List<IRecipeCategory<?>> visibleCategories;
+
+		public Entry(Set<RecipeType<?>> recipeTypes) {
+			this.recipeTypes = recipeTypes;
+		}
+	}
+}
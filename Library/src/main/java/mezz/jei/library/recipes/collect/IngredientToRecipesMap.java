@@ -1,34 +1,58 @@
 package mezz.jei.library.recipes.collect;
 
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntCollection;
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import org.jetbrains.annotations.UnmodifiableView;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 public class IngredientToRecipesMap<R> {
-	private final Map<Object, ArrayList<R>> uidToRecipes = new Object2ObjectOpenHashMap<>();
+	/**
+	 * A compressed object reference.
+	 */
+	private static final int REFERENCE_BYTES = 4;
+	/**
+	 * An ArrayList object and the header of its array.
+	 */
+	private static final int ARRAY_LIST_BYTES = 40;
 
-	public void add(R recipe, Collection<Object> ingredientUids) {
-		for (Object uid : ingredientUids) {
-			List<R> recipes = uidToRecipes.computeIfAbsent(uid, k -> new ArrayList<>());
+	private final Int2ObjectMap<ArrayList<R>> idToRecipes = new Int2ObjectOpenHashMap<>();
+
+	public void add(R recipe, IntCollection ingredientIds) {
+		for (IntIterator iterator = ingredientIds.iterator(); iterator.hasNext(); ) {
+			int id = iterator.nextInt();
+			List<R> recipes = idToRecipes.computeIfAbsent(id, k -> new ArrayList<>());
 			recipes.add(recipe);
 		}
 	}
 
 	@UnmodifiableView
-	public List<R> get(Object ingredientUid) {
-		List<R> recipes = uidToRecipes.get(ingredientUid);
+	public List<R> get(int ingredientId) {
+		List<R> recipes = idToRecipes.get(ingredientId);
 		if (recipes == null) {
 			return Collections.emptyList();
 		}
 		return Collections.unmodifiableList(recipes);
 	}
 
+	/**
+	 * Returns a rough estimate of the heap used by this map, assuming compressed references.
+	 * The recipes themselves are not counted.
+	 */
+	public long getEstimatedBytes() {
+		long bytes = (long) (idToRecipes.size() / Hash.DEFAULT_LOAD_FACTOR) * (Integer.BYTES + REFERENCE_BYTES);
+		for (ArrayList<R> recipes : idToRecipes.values()) {
+			bytes += ARRAY_LIST_BYTES + (long) recipes.size() * REFERENCE_BYTES;
+		}
+		return bytes;
+	}
+
 	public void compact() {
-		uidToRecipes.values().forEach(ArrayList::trimToSize);
+		idToRecipes.values().forEach(ArrayList::trimToSize);
 	}
 }
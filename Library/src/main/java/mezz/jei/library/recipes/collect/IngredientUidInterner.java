@@ -0,0 +1,51 @@
+package mezz.jei.library.recipes.collect;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * Gives each ingredient uid that is used by the recipe maps a stable int id,
+ * so that the recipe maps can be keyed by ints instead of by uid objects.
+ * <p>
+ * Uids like the ones made by StackHelper are lists, which are slow to hash and compare,
+ * and keeping one copy of each uid here saves the many duplicate copies the recipe maps would hold otherwise.
+ * <p>
+ * Each recipe manager has its own interner, shared by its recipe maps and catalyst index,
+ * and the ids are only meaningful to them.
+ * The uids are the {@link mezz.jei.api.ingredients.subtypes.UidContext#Recipe} uids of the ingredients in recipes,
+ * most of which are not in the ingredient list, so they get their ids when the recipes are indexed.
+ * This is not thread safe, it is only used while indexing recipes and looking them up on the client thread.
+ */
+public class IngredientUidInterner {
+	public static final int NO_ID = -1;
+
+	private final Object2IntMap<Object> ids;
+
+	public IngredientUidInterner() {
+		this.ids = new Object2IntOpenHashMap<>();
+		this.ids.defaultReturnValue(NO_ID);
+	}
+
+	/**
+	 * @return the id of the uid, assigning a new one if it has never been seen before
+	 */
+	public int getOrCreateId(Object uid) {
+		int id = ids.getInt(uid);
+		if (id == NO_ID) {
+			id = ids.size();
+			ids.put(uid, id);
+		}
+		return id;
+	}
+
+	/**
+	 * @return the id of the uid, or {@link #NO_ID} if it has never been seen before
+	 */
+	public int getId(Object uid) {
+		return ids.getInt(uid);
+	}
+
+	public int size() {
+		return ids.size();
+	}
+}
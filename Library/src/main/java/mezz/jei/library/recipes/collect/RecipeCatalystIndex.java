@@ -0,0 +1,134 @@
+package mezz.jei.library.recipes.collect;
+
+import com.google.common.collect.ImmutableListMultimap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import mezz.jei.api.ingredients.IIngredientHelper;
+import mezz.jei.api.ingredients.IIngredientType;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.ingredients.subtypes.UidContext;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.runtime.IIngredientManager;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Links recipe categories and their catalysts in both directions:
+ * from each recipe type to its catalysts in registration order,
+ * and from each catalyst to the recipe types it is a catalyst for, in recipe category sort order.
+ * <p>
+ * Catalysts are keyed by the int id that their uid gets from the {@link IngredientUidInterner}.
+ * The index is built once, when the recipe manager is created, because catalysts can't be registered later.
+ */
+public class RecipeCatalystIndex {
+	private final RecipeTypeRegistry recipeTypeRegistry;
+	private final IIngredientManager ingredientManager;
+	private final IngredientUidInterner uidInterner;
+	private final Comparator<RecipeType<?>> recipeTypeComparator;
+	/**
+	 * The catalysts of each recipe type, by its {@link RecipeTypeRegistry} ordinal.
+	 */
+	private final List<List<ITypedIngredient<?>>> catalysts;
+	private final Int2ObjectOpenHashMap<List<RecipeType<?>>> catalystIdToRecipeTypes = new Int2ObjectOpenHashMap<>();
+
+	public RecipeCatalystIndex(
+		RecipeTypeRegistry recipeTypeRegistry,
+		ImmutableListMultimap<RecipeType<?>, ITypedIngredient<?>> recipeCatalysts,
+		Comparator<RecipeType<?>> recipeTypeComparator,
+		IIngredientManager ingredientManager,
+		IngredientUidInterner uidInterner
+	) {
+		this.recipeTypeRegistry = recipeTypeRegistry;
+		this.ingredientManager = ingredientManager;
+		this.uidInterner = uidInterner;
+		this.recipeTypeComparator = recipeTypeComparator;
+
+		this.catalysts = new ArrayList<>(recipeTypeRegistry.size());
+		for (RecipeType<?> recipeType : recipeTypeRegistry.getRecipeTypes()) {
+			List<ITypedIngredient<?>> recipeTypeCatalysts = recipeCatalysts.get(recipeType);
+			this.catalysts.add(recipeTypeCatalysts);
+			for (ITypedIngredient<?> catalyst : recipeTypeCatalysts) {
+				int catalystId = uidInterner.getOrCreateId(getUid(catalyst));
+				List<RecipeType<?>> recipeTypes = catalystIdToRecipeTypes.computeIfAbsent(catalystId, k -> new ArrayList<>(1));
+				if (!recipeTypes.contains(recipeType)) {
+					recipeTypes.add(recipeType);
+				}
+			}
+		}
+
+		for (Int2ObjectMap.Entry<List<RecipeType<?>>> entry : catalystIdToRecipeTypes.int2ObjectEntrySet()) {
+			List<RecipeType<?>> recipeTypes = entry.getValue();
+			recipeTypes.sort(recipeTypeComparator);
+			entry.setValue(List.copyOf(recipeTypes));
+		}
+		catalystIdToRecipeTypes.trim();
+	}
+
+	/**
+	 * @return the catalysts of the recipe type, in the order they were registered
+	 */
+	@Unmodifiable
+	public List<ITypedIngredient<?>> getCatalysts(RecipeType<?> recipeType) {
+		int ordinal = recipeTypeRegistry.getOrdinal(recipeType);
+		if (ordinal == RecipeTypeRegistry.NO_ORDINAL) {
+			return List.of();
+		}
+		return catalysts.get(ordinal);
+	}
+
+	/**
+	 * @return the recipe types that the ingredient is a catalyst for, in recipe category sort order
+	 */
+	@Unmodifiable
+	public List<RecipeType<?>> getRecipeTypes(ITypedIngredient<?> catalyst) {
+		int catalystId = getCatalystId(catalyst);
+		if (catalystId == IngredientUidInterner.NO_ID) {
+			return List.of();
+		}
+		return catalystIdToRecipeTypes.getOrDefault(catalystId, List.of());
+	}
+
+	/**
+	 * @return every recipe type that any of the ingredients is a catalyst for, without duplicates, in recipe category sort order
+	 */
+	@Unmodifiable
+	public List<RecipeType<?>> getRecipeTypes(Collection<? extends ITypedIngredient<?>> catalysts) {
+		BitSet ordinals = new BitSet(recipeTypeRegistry.size());
+		for (ITypedIngredient<?> catalyst : catalysts) {
+			for (RecipeType<?> recipeType : getRecipeTypes(catalyst)) {
+				ordinals.set(recipeTypeRegistry.getOrdinal(recipeType));
+			}
+		}
+		List<RecipeType<?>> recipeTypes = new ArrayList<>(ordinals.cardinality());
+		for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+			recipeTypes.add(recipeTypeRegistry.get(ordinal));
+		}
+		recipeTypes.sort(recipeTypeComparator);
+		return List.copyOf(recipeTypes);
+	}
+
+	public boolean isCatalyst(RecipeType<?> recipeType, ITypedIngredient<?> ingredient) {
+		// each catalyst is only used by a few recipe types, so a list scan is fast
+		return getRecipeTypes(ingredient).contains(recipeType);
+	}
+
+	public boolean isCatalyst(ITypedIngredient<?> ingredient) {
+		return !getRecipeTypes(ingredient).isEmpty();
+	}
+
+	private int getCatalystId(ITypedIngredient<?> ingredient) {
+		Object uid = getUid(ingredient);
+		return uidInterner.getId(uid);
+	}
+
+	private <T> Object getUid(ITypedIngredient<T> typedIngredient) {
+		IIngredientType<T> type = typedIngredient.getType();
+		IIngredientHelper<T> ingredientHelper = ingredientManager.getIngredientHelper(type);
+		return ingredientHelper.getUid(typedIngredient, UidContext.Recipe);
+	}
+}
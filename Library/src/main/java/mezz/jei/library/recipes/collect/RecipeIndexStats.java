@@ -0,0 +1,31 @@
+package mezz.jei.library.recipes.collect;
+
+import mezz.jei.api.recipe.RecipeType;
+
+/**
+ * How much the ingredient index of one recipe type costs.
+ *
+ * @param recipeCount           the number of indexed recipes
+ * @param unindexedRecipeCount  the number of recipes waiting to be indexed, when recipes are indexed lazily
+ * @param estimatedBytes        a rough estimate of the heap used by the index, not counting the recipes themselves
+ * @param indexNanos            the total time spent indexing the recipes
+ */
+public record RecipeIndexStats(
+	RecipeType<?> recipeType,
+	int recipeCount,
+	int unindexedRecipeCount,
+	long estimatedBytes,
+	long indexNanos
+) {
+	@Override
+	public String toString() {
+		return String.format(
+			"%s: %d recipes (%d not indexed), ~%d KiB, %.1f ms",
+			recipeType.getUid(),
+			recipeCount,
+			unindexedRecipeCount,
+			estimatedBytes / 1024,
+			indexNanos / 1_000_000.0
+		);
+	}
+}
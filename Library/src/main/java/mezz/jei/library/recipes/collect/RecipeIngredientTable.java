@@ -1,9 +1,9 @@
 package mezz.jei.library.recipes.collect;
 
+import it.unimi.dsi.fastutil.ints.IntCollection;
 import mezz.jei.api.recipe.RecipeType;
 import org.jetbrains.annotations.UnmodifiableView;
 
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,20 +11,31 @@ import java.util.Map;
 public class RecipeIngredientTable {
 	private final Map<RecipeType<?>, IngredientToRecipesMap<?>> map = new HashMap<>();
 
-	public <V> void add(V recipe, RecipeType<V> recipeType, Collection<Object> ingredientUids) {
+	public <V> void add(V recipe, RecipeType<V> recipeType, IntCollection ingredientIds) {
 		@SuppressWarnings("unchecked")
 		IngredientToRecipesMap<V> ingredientToRecipesMap = (IngredientToRecipesMap<V>) this.map.computeIfAbsent(recipeType, k -> new IngredientToRecipesMap<>());
-		ingredientToRecipesMap.add(recipe, ingredientUids);
+		ingredientToRecipesMap.add(recipe, ingredientIds);
 	}
 
 	@UnmodifiableView
-	public <V> List<V> get(RecipeType<V> recipeType, Object ingredientUid) {
+	public <V> List<V> get(RecipeType<V> recipeType, int ingredientId) {
 		@SuppressWarnings("unchecked")
 		IngredientToRecipesMap<V> ingredientToRecipesMap = (IngredientToRecipesMap<V>) this.map.get(recipeType);
 		if (ingredientToRecipesMap == null) {
 			return List.of();
 		}
-		return ingredientToRecipesMap.get(ingredientUid);
+		return ingredientToRecipesMap.get(ingredientId);
+	}
+
+	/**
+	 * @see IngredientToRecipesMap#getEstimatedBytes()
+	 */
+	public long getEstimatedBytes(RecipeType<?> recipeType) {
+		IngredientToRecipesMap<?> ingredientToRecipesMap = this.map.get(recipeType);
+		if (ingredientToRecipesMap == null) {
+			return 0;
+		}
+		return ingredientToRecipesMap.getEstimatedBytes();
 	}
 
 	public void compact() {
@@ -1,8 +1,10 @@
 package mezz.jei.library.recipes.collect;
 
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import mezz.jei.api.ingredients.IIngredientHelper;
 import mezz.jei.api.ingredients.IIngredientSupplier;
@@ -16,73 +18,88 @@ import org.jetbrains.annotations.UnmodifiableView;
 
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
 /**
  * A RecipeMap efficiently links recipes, IRecipeCategory, and Ingredients.
+ * Recipe category catalysts are kept separately, in the {@link RecipeCatalystIndex}.
+ * Ingredients are keyed by the int id that their uid gets from the {@link IngredientUidInterner}.
  */
 public class RecipeMap {
 	private final RecipeIngredientTable recipeTable = new RecipeIngredientTable();
-	private final Multimap<Object, RecipeType<?>> ingredientUidToCategoryMap = Multimaps.newSetMultimap(new Object2ObjectOpenHashMap<>(), () -> new ObjectOpenHashSet<>(2));
-	private final Multimap<Object, RecipeType<?>> categoryCatalystUidToRecipeCategoryMap = Multimaps.newSetMultimap(new Object2ObjectOpenHashMap<>(), ObjectOpenHashSet::new);
+	private final Int2ObjectMap<Set<RecipeType<?>>> ingredientIdToCategoryMap = new Int2ObjectOpenHashMap<>();
 	private final Comparator<RecipeType<?>> recipeTypeComparator;
 	private final IIngredientManager ingredientManager;
+	private final IngredientUidInterner uidInterner;
 	private final RecipeIngredientRole role;
 
-	public RecipeMap(Comparator<RecipeType<?>> recipeTypeComparator, IIngredientManager ingredientManager, RecipeIngredientRole role) {
+	public RecipeMap(Comparator<RecipeType<?>> recipeTypeComparator, IIngredientManager ingredientManager, IngredientUidInterner uidInterner, RecipeIngredientRole role) {
 		this.recipeTypeComparator = recipeTypeComparator;
 		this.ingredientManager = ingredientManager;
+		this.uidInterner = uidInterner;
 		this.role = role;
 	}
 
 	public <T> Stream<RecipeType<?>> getRecipeTypes(ITypedIngredient<T> ingredient) {
-		Object ingredientUid = getIngredientUid(ingredient);
-		Collection<RecipeType<?>> recipeCategoryUids = ingredientUidToCategoryMap.get(ingredientUid);
-		Collection<RecipeType<?>> catalystRecipeCategoryUids = categoryCatalystUidToRecipeCategoryMap.get(ingredientUid);
-		return Stream.concat(recipeCategoryUids.stream(), catalystRecipeCategoryUids.stream())
+		int ingredientId = getIngredientId(ingredient);
+		if (ingredientId == IngredientUidInterner.NO_ID) {
+			return Stream.empty();
+		}
+		Collection<RecipeType<?>> recipeCategoryUids = ingredientIdToCategoryMap.getOrDefault(ingredientId, Set.of());
+		return recipeCategoryUids.stream()
 			.sorted(recipeTypeComparator);
 	}
 
-	public <T> void addCatalystForCategory(RecipeType<?> recipeType, ITypedIngredient<T> ingredient) {
-		Object ingredientUid = getIngredientUid(ingredient);
-		categoryCatalystUidToRecipeCategoryMap.put(ingredientUid, recipeType);
-	}
-
 	@UnmodifiableView
 	public <T> List<T> getRecipes(RecipeType<T> recipeType, ITypedIngredient<?> ingredient) {
-		Object ingredientUid = getIngredientUid(ingredient);
-		return recipeTable.get(recipeType, ingredientUid);
-	}
-
-	public <T> boolean isCatalystForRecipeCategory(RecipeType<T> recipeType, ITypedIngredient<?> ingredient) {
-		Object ingredientUid = getIngredientUid(ingredient);
-		Collection<RecipeType<?>> catalystCategories = categoryCatalystUidToRecipeCategoryMap.get(ingredientUid);
-		return catalystCategories.contains(recipeType);
+		int ingredientId = getIngredientId(ingredient);
+		if (ingredientId == IngredientUidInterner.NO_ID) {
+			return List.of();
+		}
+		return recipeTable.get(recipeType, ingredientId);
 	}
 
 	public <T> void addRecipe(RecipeType<T> recipeType, T recipe, IIngredientSupplier ingredientSupplier) {
-		Set<Object> ingredientUids = new HashSet<>();
+		IntSet ingredientIds = new IntOpenHashSet();
 		Collection<ITypedIngredient<?>> ingredients = ingredientSupplier.getIngredients(this.role);
 		for (ITypedIngredient<?> ingredient : ingredients) {
-			Object ingredientUid = getIngredientUid(ingredient);
-			ingredientUids.add(ingredientUid);
+			int ingredientId = getOrCreateIngredientId(ingredient);
+			ingredientIds.add(ingredientId);
 		}
 
-		if (!ingredientUids.isEmpty()) {
-			for (Object ingredientUid : ingredientUids) {
-				ingredientUidToCategoryMap.put(ingredientUid, recipeType);
+		if (!ingredientIds.isEmpty()) {
+			for (IntIterator iterator = ingredientIds.iterator(); iterator.hasNext(); ) {
+				int ingredientId = iterator.nextInt();
+				ingredientIdToCategoryMap.computeIfAbsent(ingredientId, k -> new ObjectOpenHashSet<>(2))
+					.add(recipeType);
 			}
-			recipeTable.add(recipe, recipeType, ingredientUids);
+			recipeTable.add(recipe, recipeType, ingredientIds);
 		}
 	}
 
+	/**
+	 * Returns a rough estimate of the heap used to index the recipes of the given type.
+	 */
+	public long getEstimatedBytes(RecipeType<?> recipeType) {
+		return recipeTable.getEstimatedBytes(recipeType);
+	}
+
 	public void compact() {
 		recipeTable.compact();
 	}
 
+	private int getIngredientId(ITypedIngredient<?> typedIngredient) {
+		Object ingredientUid = getIngredientUid(typedIngredient);
+		return uidInterner.getId(ingredientUid);
+	}
+
+	private int getOrCreateIngredientId(ITypedIngredient<?> typedIngredient) {
+		Object ingredientUid = getIngredientUid(typedIngredient);
+		return uidInterner.getOrCreateId(ingredientUid);
+	}
+
 	private <T> Object getIngredientUid(ITypedIngredient<T> typedIngredient) {
 		IIngredientType<T> type = typedIngredient.getType();
 		IIngredientHelper<T> ingredientHelper = ingredientManager.getIngredientHelper(type);
@@ -1,8 +1,6 @@
 package mezz.jei.library.recipes.collect;
 
-import mezz.jei.api.ingredients.ITypedIngredient;
 import mezz.jei.api.recipe.category.IRecipeCategory;
-import org.jetbrains.annotations.Unmodifiable;
 import org.jetbrains.annotations.UnmodifiableView;
 
 import java.util.ArrayList;
@@ -14,24 +12,22 @@ import java.util.Set;
 
 public class RecipeTypeData<T> {
 	private final IRecipeCategory<T> recipeCategory;
-	private final List<ITypedIngredient<?>> recipeCategoryCatalysts;
 	private final List<T> recipes = new ArrayList<>();
+	/**
+	 * Recipes that have been added but not indexed yet, when recipes are indexed lazily.
+	 */
+	private List<T> unindexedRecipes = new ArrayList<>();
 	private final Set<T> hiddenRecipes = Collections.newSetFromMap(new IdentityHashMap<>());
+	private long indexNanos;
 
-	public RecipeTypeData(IRecipeCategory<T> recipeCategory, List<ITypedIngredient<?>> recipeCategoryCatalysts) {
+	public RecipeTypeData(IRecipeCategory<T> recipeCategory) {
 		this.recipeCategory = recipeCategory;
-		this.recipeCategoryCatalysts = List.copyOf(recipeCategoryCatalysts);
 	}
 
 	public IRecipeCategory<T> getRecipeCategory() {
 		return recipeCategory;
 	}
 
-	@Unmodifiable
-	public List<ITypedIngredient<?>> getRecipeCategoryCatalysts() {
-		return recipeCategoryCatalysts;
-	}
-
 	@UnmodifiableView
 	public List<T> getRecipes() {
 		return Collections.unmodifiableList(recipes);
@@ -41,6 +37,35 @@ public class RecipeTypeData<T> {
 		this.recipes.addAll(recipes);
 	}
 
+	public void addUnindexedRecipes(Collection<T> recipes) {
+		this.unindexedRecipes.addAll(recipes);
+	}
+
+	@UnmodifiableView
+	public List<T> getUnindexedRecipes() {
+		return Collections.unmodifiableList(unindexedRecipes);
+	}
+
+	/**
+	 * Removes and returns the recipes that have not been indexed yet.
+	 */
+	public List<T> takeUnindexedRecipes() {
+		List<T> taken = unindexedRecipes;
+		unindexedRecipes = new ArrayList<>();
+		return taken;
+	}
+
+	public void addIndexNanos(long nanos) {
+		this.indexNanos += nanos;
+	}
+
+	/**
+	 * @return the total time spent indexing the recipes of this type
+	 */
+	public long getIndexNanos() {
+		return indexNanos;
+	}
+
 	public Set<T> getHiddenRecipes() {
 		return hiddenRecipes;
 	}
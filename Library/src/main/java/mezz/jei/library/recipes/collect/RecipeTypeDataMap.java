@@ -1,39 +1,34 @@
 package mezz.jei.library.recipes.collect;
 
-import com.google.common.collect.ImmutableListMultimap;
-import mezz.jei.api.ingredients.ITypedIngredient;
 import mezz.jei.api.recipe.RecipeType;
 import mezz.jei.api.recipe.category.IRecipeCategory;
 import net.minecraft.resources.ResourceLocation;
-import org.jetbrains.annotations.Unmodifiable;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+/**
+ * Stores the {@link RecipeTypeData} of each recipe type in an array, by its {@link RecipeTypeRegistry} ordinal.
+ */
 public class RecipeTypeDataMap {
-	@Unmodifiable
-	private final Map<RecipeType<?>, RecipeTypeData<?>> uidMap;
-
-	public RecipeTypeDataMap(
-		List<IRecipeCategory<?>> recipeCategories,
-		ImmutableListMultimap<IRecipeCategory<?>, ITypedIngredient<?>> recipeCategoryCatalystsMap
-	) {
-		this.uidMap = recipeCategories.stream()
-			.collect(
-				Collectors.toUnmodifiableMap(
-					IRecipeCategory::getRecipeType,
-					recipeCategory -> {
-						List<ITypedIngredient<?>> catalysts = recipeCategoryCatalystsMap.get(recipeCategory);
-						return new RecipeTypeData<>(recipeCategory, catalysts);
-					}
-				)
-			);
+	private final RecipeTypeRegistry recipeTypeRegistry;
+	private final RecipeTypeData<?>[] data;
+
+	public RecipeTypeDataMap(RecipeTypeRegistry recipeTypeRegistry, List<IRecipeCategory<?>> recipeCategories) {
+		this.recipeTypeRegistry = recipeTypeRegistry;
+		this.data = new RecipeTypeData<?>[recipeTypeRegistry.size()];
+		for (IRecipeCategory<?> recipeCategory : recipeCategories) {
+			int ordinal = recipeTypeRegistry.getOrdinal(recipeCategory.getRecipeType());
+			if (ordinal == RecipeTypeRegistry.NO_ORDINAL) {
+				throw new IllegalStateException("There is no recipe type registered for: " + recipeCategory.getRecipeType());
+			}
+			this.data[ordinal] = new RecipeTypeData<>(recipeCategory);
+		}
 	}
 
 	public <T> RecipeTypeData<T> get(RecipeType<T> recipeType) {
-		RecipeTypeData<?> data = this.uidMap.get(recipeType);
+		int ordinal = recipeTypeRegistry.getOrdinal(recipeType);
+		RecipeTypeData<?> data = ordinal == RecipeTypeRegistry.NO_ORDINAL ? null : this.data[ordinal];
 		if (data == null) {
 			throw new IllegalStateException(
 				"There is no recipe category registered for: " + recipeType +
@@ -46,27 +41,17 @@ public class RecipeTypeDataMap {
 	}
 
 	public void validate(RecipeType<?> recipeType) {
-		if (!uidMap.containsKey(recipeType)) {
+		int ordinal = recipeTypeRegistry.getOrdinal(recipeType);
+		if (ordinal == RecipeTypeRegistry.NO_ORDINAL || data[ordinal] == null) {
 			throw new IllegalStateException("There is no recipe type registered for: " + recipeType);
 		}
 	}
 
 	public Optional<RecipeType<?>> getType(ResourceLocation recipeTypeUid) {
-		return uidMap.keySet()
-			.stream()
-			.filter(recipeType -> recipeType.getUid().equals(recipeTypeUid))
-			.findFirst();
+		return recipeTypeRegistry.getType(recipeTypeUid);
 	}
 
 	public <T> Optional<RecipeType<T>> getType(ResourceLocation recipeTypeUid, Class<? extends T> recipeClass) {
-		return uidMap.keySet()
-			.stream()
-			.filter(recipeType -> recipeType.getUid().equals(recipeTypeUid) && recipeType.getRecipeClass().equals(recipeClass))
-			.map(recipeType -> {
-				@SuppressWarnings("unchecked")
-				RecipeType<T> castRecipeType = (RecipeType<T>) recipeType;
-				return castRecipeType;
-			})
-			.findFirst();
+		return recipeTypeRegistry.getType(recipeTypeUid, recipeClass);
 	}
 }
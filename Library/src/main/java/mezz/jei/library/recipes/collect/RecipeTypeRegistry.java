@@ -0,0 +1,100 @@
+package mezz.jei.library.recipes.collect;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import mezz.jei.api.recipe.RecipeType;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Gives every registered recipe type an ordinal, so that data for each recipe type can be stored in arrays,
+ * and indexes the recipe types by uid.
+ * Resolving a recipe type, or a recipe type uid, is a single hash lookup.
+ */
+public class RecipeTypeRegistry {
+	public static final int NO_ORDINAL = -1;
+
+	private final Object2IntMap<RecipeType<?>> ordinals;
+	private final Map<ResourceLocation, RecipeType<?>> uidIndex;
+	@Unmodifiable
+	private final List<RecipeType<?>> recipeTypes;
+
+	public RecipeTypeRegistry(Collection<RecipeType<?>> recipeTypes) {
+		this.ordinals = new Object2IntOpenHashMap<>(recipeTypes.size());
+		this.ordinals.defaultReturnValue(NO_ORDINAL);
+		this.uidIndex = new HashMap<>(recipeTypes.size());
+		List<RecipeType<?>> recipeTypeList = new ArrayList<>(recipeTypes.size());
+		for (RecipeType<?> recipeType : recipeTypes) {
+			RecipeType<?> existing = uidIndex.putIfAbsent(recipeType.getUid(), recipeType);
+			if (existing != null) {
+				throw new IllegalStateException("Found two recipe types with the same uid: " + existing + " and " + recipeType);
+			}
+			ordinals.put(recipeType, recipeTypeList.size());
+			recipeTypeList.add(recipeType);
+		}
+		this.recipeTypes = List.copyOf(recipeTypeList);
+	}
+
+	/**
+	 * @return the ordinal of the recipe type, or {@link #NO_ORDINAL} if it is not registered
+	 */
+	public int getOrdinal(RecipeType<?> recipeType) {
+		return ordinals.getInt(recipeType);
+	}
+
+	public RecipeType<?> get(int ordinal) {
+		return recipeTypes.get(ordinal);
+	}
+
+	public int size() {
+		return recipeTypes.size();
+	}
+
+	@Unmodifiable
+	public List<RecipeType<?>> getRecipeTypes() {
+		return recipeTypes;
+	}
+
+	public Optional<RecipeType<?>> getType(ResourceLocation recipeTypeUid) {
+		return Optional.ofNullable(uidIndex.get(recipeTypeUid));
+	}
+
+	public <T> Optional<RecipeType<T>> getType(ResourceLocation recipeTypeUid, Class<? extends T> recipeClass) {
+		RecipeType<?> recipeType = uidIndex.get(recipeTypeUid);
+		if (recipeType == null || !recipeType.getRecipeClass().equals(recipeClass)) {
+			return Optional.empty();
+		}
+		@SuppressWarnings("unchecked")
+		RecipeType<T> castRecipeType = (RecipeType<T>) recipeType;
+		return Optional.of(castRecipeType);
+	}
+
+	/**
+	 * Sorts the registered recipe types once with the given comparator,
+	 * and returns a comparator that gives the same order by comparing the sorted positions.
+	 * Recipe types that are not registered are sorted last.
+	 */
+	public Comparator<RecipeType<?>> createComparator(Comparator<RecipeType<?>> comparator) {
+		List<RecipeType<?>> sorted = new ArrayList<>(recipeTypes);
+		sorted.sort(comparator);
+		int[] sortIndexes = new int[recipeTypes.size()];
+		for (int i = 0; i < sorted.size(); i++) {
+			sortIndexes[getOrdinal(sorted.get(i))] = i;
+		}
+		return Comparator.comparingInt(recipeType -> {
+			int ordinal = getOrdinal(recipeType);
+			if (ordinal == NO_ORDINAL) {
+				return Integer.MAX_VALUE;
+			}
+			return sortIndexes[ordinal];
+		});
+	}
+}
@@ -0,0 +1,38 @@
+package mezz.jei.library.recipes.collect;
+
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Indexes the recipe types of a collection of recipe categories by uid.
+ * Categories can still be added to the collection while plugins register them,
+ * so the index is rebuilt when the number of categories changes.
+ * The first recipe type with a uid is the one that is found, like a scan of the categories in order.
+ */
+public class RecipeTypeUidIndex {
+	private final Collection<IRecipeCategory<?>> recipeCategories;
+	private final Map<ResourceLocation, RecipeType<?>> recipeTypesByUid = new HashMap<>();
+	private int indexedRecipeCategoryCount = 0;
+
+	public RecipeTypeUidIndex(Collection<IRecipeCategory<?>> recipeCategories) {
+		this.recipeCategories = recipeCategories;
+	}
+
+	public Optional<RecipeType<?>> get(ResourceLocation uid) {
+		if (indexedRecipeCategoryCount != recipeCategories.size()) {
+			recipeTypesByUid.clear();
+			for (IRecipeCategory<?> recipeCategory : recipeCategories) {
+				RecipeType<?> recipeType = recipeCategory.getRecipeType();
+				recipeTypesByUid.putIfAbsent(recipeType.getUid(), recipeType);
+			}
+			indexedRecipeCategoryCount = recipeCategories.size();
+		}
+		return Optional.ofNullable(recipeTypesByUid.get(uid));
+	}
+}
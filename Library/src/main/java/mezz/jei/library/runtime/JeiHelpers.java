@@ -15,6 +15,7 @@ import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.api.runtime.IIngredientVisibility;
 import mezz.jei.common.platform.Services;
 import mezz.jei.library.gui.helpers.GuiHelper;
+import mezz.jei.library.recipes.collect.RecipeTypeUidIndex;
 import net.minecraft.resources.ResourceLocation;
 import org.jetbrains.annotations.Nullable;
 
@@ -35,6 +36,7 @@ public class JeiHelpers implements IJeiHelpers {
 	private final IPlatformFluidHelper<?> platformFluidHelper;
 	private final ICodecHelper codecHelper;
 	private @Nullable Collection<IRecipeCategory<?>> recipeCategories;
+	private @Nullable RecipeTypeUidIndex recipeTypeUidIndex;
 
 	public JeiHelpers(
 		GuiHelper guiHelper,
@@ -61,6 +63,7 @@ public class JeiHelpers implements IJeiHelpers {
 
 	public void setRecipeCategories(Collection<IRecipeCategory<?>> recipeCategories) {
 		this.recipeCategories = Collections.unmodifiableCollection(recipeCategories);
+		this.recipeTypeUidIndex = new RecipeTypeUidIndex(this.recipeCategories);
 	}
 
 	@Override
@@ -95,27 +98,21 @@ public class JeiHelpers implements IJeiHelpers {
 
 	@Override
 	public <T> Optional<RecipeType<T>> getRecipeType(ResourceLocation uid, Class<? extends T> recipeClass) {
-		return Optional.ofNullable(this.recipeCategories)
-			.flatMap(r -> r.stream()
-				.map(IRecipeCategory::getRecipeType)
-				.filter(t -> t.getUid().equals(uid) && t.getRecipeClass().equals(recipeClass))
-				.map(t -> {
-					@SuppressWarnings("unchecked")
-					RecipeType<T> cast = (RecipeType<T>) t;
-					return cast;
-				})
-				.findFirst()
-			);
+		return getRecipeType(uid)
+			.filter(t -> t.getRecipeClass().equals(recipeClass))
+			.map(t -> {
+				@SuppressWarnings("unchecked")
+				RecipeType<T> cast = (RecipeType<T>) t;
+				return cast;
+			});
 	}
 
 	@Override
 	public Optional<RecipeType<?>> getRecipeType(ResourceLocation uid) {
-		return Optional.ofNullable(this.recipeCategories)
-			.flatMap(r -> r.stream()
-				.map(IRecipeCategory::getRecipeType)
-				.filter(t -> t.getUid().equals(uid))
-				.findFirst()
-			);
+		if (this.recipeTypeUidIndex == null) {
+			return Optional.empty();
+		}
+		return this.recipeTypeUidIndex.get(uid);
 	}
 
 	@Override
@@ -39,6 +39,7 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.core.RegistryAccess;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Path;
 import java.util.List;
@@ -56,6 +57,8 @@ public final class JeiStarter {
 	private final FileWatcher fileWatcher = new FileWatcher("JEI Config File Watcher");
 	private final ConfigManager configManager;
 	private final JeiClientConfigs jeiClientConfigs;
+	@Nullable
+	private RecipeManager recipeManager;
 
 	public JeiStarter(StartData data) {
 		ErrorUtil.checkNotEmpty(data.plugins(), "plugins");
@@ -130,8 +133,13 @@ public final class JeiStarter {
 			vanillaPlugin,
 			recipeCategorySortingConfig,
 			jeiHelpers,
-			ingredientManager
+			ingredientManager,
+			jeiClientConfigs.getClientConfig().isRecipeIndexCacheEnabled(),
+			jeiClientConfigs.getClientConfig().isLazyRecipeIndexEnabled(),
+			jeiClientConfigs.getClientConfig().isRecipeManagerPluginCacheEnabled(),
+			jeiClientConfigs.getClientConfig().getRecipeManagerPluginCacheSize()
 		);
+		this.recipeManager = recipeManager;
 		IRecipeTransferManager recipeTransferManager = PluginLoader.createRecipeTransferManager(
 			vanillaPlugin,
 			plugins,
@@ -179,6 +187,10 @@ public final class JeiStarter {
 		LOGGER.info("Stopping JEI");
 		List<IModPlugin> plugins = data.plugins();
 		PluginCaller.callOnPlugins("Sending Runtime Unavailable", plugins, IModPlugin::onRuntimeUnavailable);
+		if (recipeManager != null) {
+			recipeManager.logRecipeManagerPluginStats();
+			recipeManager = null;
+		}
 		Internal.setRuntime(null);
 		RegistryUtil.setRegistryAccess(null);
 	}
@@ -30,4 +30,13 @@ public class ModHelper implements IPlatformModHelper {
 	public boolean isInDev() {
 		return !FMLLoader.isProduction();
 	}
+
+	@Override
+	public Map<String, String> getModVersions() {
+		Map<String, String> modVersions = new HashMap<>();
+		for (IModInfo modInfo : ModList.get().getMods()) {
+			modVersions.put(modInfo.getModId(), modInfo.getVersion().toString());
+		}
+		return modVersions;
+	}
 }
@@ -0,0 +1,186 @@
+package mezz.jei.test;
+
+import mezz.jei.api.helpers.IColorHelper;
+import mezz.jei.api.recipe.IFocusGroup;
+import mezz.jei.api.recipe.RecipeIngredientRole;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.library.focus.Focus;
+import mezz.jei.library.ingredients.subtypes.SubtypeInterpreters;
+import mezz.jei.library.ingredients.subtypes.SubtypeManager;
+import mezz.jei.library.load.registration.IngredientManagerBuilder;
+import mezz.jei.library.recipes.collect.FocusedRecipeCategoryCache;
+import mezz.jei.test.lib.TestColorHelper;
+import mezz.jei.test.lib.TestIngredient;
+import mezz.jei.test.lib.TestPlugin;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class FocusedRecipeCategoryCacheTest {
+	private static final RecipeType<Object> RECIPE_TYPE_A = RecipeType.create("jei", "test_a", Object.class);
+	private static final RecipeType<Object> RECIPE_TYPE_B = RecipeType.create("jei", "test_b", Object.class);
+	private static final RecipeType<Object> RECIPE_TYPE_C = RecipeType.create("jei", "test_c", Object.class);
+
+	@Nullable
+	private IIngredientManager ingredientManager;
+	@Nullable
+	private FocusedRecipeCategoryCache cache;
+	private int recipeTypeLookups;
+	private int visibilityChecks;
+	private int recipeCounts;
+
+	@BeforeEach
+	public void setup() {
+		TestPlugin testPlugin = new TestPlugin();
+		SubtypeManager subtypeManager = new SubtypeManager(new SubtypeInterpreters());
+		IColorHelper colorHelper = new TestColorHelper();
+		IngredientManagerBuilder ingredientManagerBuilder = new IngredientManagerBuilder(subtypeManager, colorHelper);
+		testPlugin.registerIngredients(ingredientManagerBuilder);
+		this.ingredientManager = ingredientManagerBuilder.build();
+		this.cache = new FocusedRecipeCategoryCache(ingredientManager);
+		this.recipeTypeLookups = 0;
+		this.visibilityChecks = 0;
+		this.recipeCounts = 0;
+	}
+
+	@Test
+	public void testRepeatedLookupIsCached() {
+		Assertions.assertNotNull(cache);
+
+		IFocusGroup focus = createFocus(1, RecipeIngredientRole.OUTPUT);
+		getRecipeCategories(focus);
+		getRecipeCategories(focus);
+		getRecipeCategories(createFocus(1, RecipeIngredientRole.OUTPUT));
+
+		Assertions.assertEquals(1, recipeTypeLookups);
+		Assertions.assertEquals(1, visibilityChecks);
+		Assertions.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testKeyedByIngredientAndRole() {
+		Assertions.assertNotNull(cache);
+
+		getRecipeCategories(createFocus(1, RecipeIngredientRole.OUTPUT));
+		getRecipeCategories(createFocus(1, RecipeIngredientRole.INPUT));
+		getRecipeCategories(createFocus(2, RecipeIngredientRole.OUTPUT));
+
+		Assertions.assertEquals(3, recipeTypeLookups);
+		Assertions.assertEquals(3, cache.size());
+	}
+
+	@Test
+	public void testRecipeCounts() {
+		Assertions.assertNotNull(cache);
+
+		IFocusGroup focus = createFocus(1, RecipeIngredientRole.OUTPUT);
+		Assertions.assertEquals(3, getRecipeCount(focus, RECIPE_TYPE_A));
+		Assertions.assertEquals(3, getRecipeCount(focus, RECIPE_TYPE_A));
+		Assertions.assertEquals(5, getRecipeCount(focus, RECIPE_TYPE_B));
+		Assertions.assertEquals(1, recipeTypeLookups);
+		Assertions.assertEquals(2, recipeCounts);
+
+		// the plugins did not list this recipe type for the focus, but could still return recipes of it,
+		// so it is counted every time instead of being remembered
+		Assertions.assertEquals(7, getRecipeCount(focus, RECIPE_TYPE_C));
+		Assertions.assertEquals(7, getRecipeCount(focus, RECIPE_TYPE_C));
+		Assertions.assertEquals(1, recipeTypeLookups);
+		Assertions.assertEquals(4, recipeCounts);
+	}
+
+	@Test
+	public void testInvalidateRecipeType() {
+		Assertions.assertNotNull(cache);
+
+		// the focus on ingredient 1 has recipe types A and B, the focus on ingredient 2 only has C
+		IFocusGroup focus1 = createFocus(1, RecipeIngredientRole.OUTPUT);
+		IFocusGroup focus2 = createFocus(2, RecipeIngredientRole.OUTPUT);
+		getRecipeCategories(focus1);
+		getRecipeCategories(focus2);
+		getRecipeCount(focus1, RECIPE_TYPE_A);
+		Assertions.assertEquals(2, cache.size());
+
+		cache.invalidate(RECIPE_TYPE_B);
+		Assertions.assertEquals(1, cache.size());
+
+		getRecipeCategories(focus1);
+		getRecipeCategories(focus2);
+		getRecipeCount(focus1, RECIPE_TYPE_A);
+		Assertions.assertEquals(3, recipeTypeLookups);
+		Assertions.assertEquals(3, visibilityChecks);
+		Assertions.assertEquals(2, recipeCounts);
+
+		cache.invalidate(List.of(RECIPE_TYPE_A, RECIPE_TYPE_C));
+		Assertions.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testInvalidateAll() {
+		Assertions.assertNotNull(cache);
+
+		getRecipeCategories(createFocus(1, RecipeIngredientRole.OUTPUT));
+		getRecipeCategories(createFocus(2, RecipeIngredientRole.INPUT));
+		cache.invalidateAll();
+		Assertions.assertEquals(0, cache.size());
+
+		getRecipeCategories(createFocus(1, RecipeIngredientRole.OUTPUT));
+		Assertions.assertEquals(3, recipeTypeLookups);
+	}
+
+	@Test
+	public void testBounded() {
+		Assertions.assertNotNull(cache);
+
+		for (int i = 0; i < 1000; i++) {
+			getRecipeCategories(createFocus(i, RecipeIngredientRole.OUTPUT));
+		}
+		Assertions.assertTrue(cache.size() < 1000, "cache size should be bounded, but it is " + cache.size());
+
+		// the most recently used entries are kept
+		getRecipeCategories(createFocus(999, RecipeIngredientRole.OUTPUT));
+		Assertions.assertEquals(1000, recipeTypeLookups);
+	}
+
+	private IFocusGroup createFocus(int ingredientNumber, RecipeIngredientRole role) {
+		Assertions.assertNotNull(ingredientManager);
+		return Focus.createFromApi(ingredientManager, role, TestIngredient.TYPE, new TestIngredient(ingredientNumber));
+	}
+
+	private void getRecipeCategories(IFocusGroup focuses) {
+		Assertions.assertNotNull(cache);
+		cache.getRecipeCategories(focuses, this::getRecipeTypes, this::getVisibleCategories);
+	}
+
+	private int getRecipeCount(IFocusGroup focuses, RecipeType<?> recipeType) {
+		Assertions.assertNotNull(cache);
+		Map<RecipeType<?>, Integer> counts = Map.of(RECIPE_TYPE_A, 3, RECIPE_TYPE_B, 5, RECIPE_TYPE_C, 7);
+		return cache.getRecipeCount(focuses, recipeType, this::getRecipeTypes, t -> {
+			recipeCounts++;
+			return counts.get(t);
+		});
+	}
+
+	private Collection<RecipeType<?>> getRecipeTypes(IFocusGroup focuses) {
+		recipeTypeLookups++;
+		TestIngredient ingredient = focuses.getAllFocuses().getFirst()
+			.checkedCast(TestIngredient.TYPE)
+			.map(f -> f.getTypedValue().getIngredient())
+			.orElseThrow();
+		if (ingredient.number() == 1) {
+			return List.of(RECIPE_TYPE_A, RECIPE_TYPE_B);
+		}
+		return List.of(RECIPE_TYPE_C);
+	}
+
+	private List<IRecipeCategory<?>> getVisibleCategories(Collection<RecipeType<?>> recipeTypes) {
+		visibilityChecks++;
+		return List.of();
+	}
+}
@@ -9,12 +9,19 @@ import mezz.jei.api.runtime.IIngredientManager;
 import mezz.jei.api.runtime.IIngredientVisibility;
 import mezz.jei.common.config.IClientConfig;
 import mezz.jei.common.config.IClientToggleState;
+import mezz.jei.core.search.PrefixInfo;
+import mezz.jei.core.search.SearchStorageType;
 import mezz.jei.gui.filter.FilterTextSource;
 import mezz.jei.gui.filter.IFilterTextSource;
+import mezz.jei.gui.ingredients.IListElement;
 import mezz.jei.gui.ingredients.IListElementInfo;
 import mezz.jei.gui.ingredients.IngredientFilter;
 import mezz.jei.gui.ingredients.IngredientListElementFactory;
+import mezz.jei.gui.ingredients.IngredientSorter;
 import mezz.jei.gui.ingredients.ListElementInfoTooltip;
+import mezz.jei.gui.search.ElementPrefixParser;
+import mezz.jei.gui.search.ElementSearch;
+import mezz.jei.gui.search.SearchIndexCache;
 import mezz.jei.library.config.EditModeConfig;
 import mezz.jei.library.ingredients.IngredientBlacklistInternal;
 import mezz.jei.library.ingredients.IngredientVisibility;
@@ -35,11 +42,20 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class IngredientFilterTest {
 	private static final int EXTRA_INGREDIENT_COUNT = 5;
@@ -88,7 +104,7 @@ public class IngredientFilterTest {
 			clientConfig,
 			ingredientFilterConfig,
 			ingredientManager,
-			Comparator.comparingInt(Object::hashCode),
+			IngredientSorter.sortIngredients(Comparator.comparingInt(IListElementInfo::getCreatedIndex), baseList),
 			baseList,
 			modIdHelper,
 			ingredientVisibility,
@@ -125,6 +141,59 @@ public class IngredientFilterTest {
 		addIngredients(ingredientFilter, filterTextSource, ingredientVisibility, ingredientManager, modIdHelper, ingredients);
 	}
 
+	@Test
+	public void testParallelBaseListOrder() {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(modIdHelper);
+
+		List<TestIngredient> ingredients = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			ingredients.add(new TestIngredient(TestPlugin.BASE_INGREDIENT_COUNT + i));
+		}
+		ingredientManager.addIngredientsAtRuntime(TestIngredient.TYPE, ingredients);
+
+		List<IListElementInfo<?>> expected = IngredientListElementFactory.createBaseList(ingredientManager, modIdHelper);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<IListElementInfo<?>> parallel = IngredientListElementFactory.createBaseList(ingredientManager, modIdHelper, executor);
+			Assertions.assertEquals(
+				expected.stream().map(i -> i.getTypedIngredient().getIngredient()).toList(),
+				parallel.stream().map(i -> i.getTypedIngredient().getIngredient()).toList()
+			);
+			for (int i = 1; i < parallel.size(); i++) {
+				Assertions.assertTrue(parallel.get(i - 1).getCreatedIndex() < parallel.get(i).getCreatedIndex());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testRemovingManyIngredients() {
+		Assertions.assertNotNull(ingredientFilter);
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(filterTextSource);
+
+		List<TestIngredient> ingredients = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			ingredients.add(new TestIngredient(TestPlugin.BASE_INGREDIENT_COUNT + i));
+		}
+		ingredientManager.addIngredientsAtRuntime(TestIngredient.TYPE, ingredients);
+		filterTextSource.setFilterText("");
+		Assertions.assertEquals(TestPlugin.BASE_INGREDIENT_COUNT + ingredients.size(), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE).size());
+
+		List<TestIngredient> toRemove = ingredients.subList(0, ingredients.size() / 2);
+		ingredientManager.removeIngredientsAtRuntime(TestIngredient.TYPE, toRemove);
+		List<TestIngredient> filteredIngredients = ingredientFilter.getFilteredIngredients(TestIngredient.TYPE);
+		Assertions.assertEquals(TestPlugin.BASE_INGREDIENT_COUNT + ingredients.size() - toRemove.size(), filteredIngredients.size());
+		Assertions.assertFalse(filteredIngredients.contains(toRemove.getFirst()));
+		Assertions.assertTrue(filteredIngredients.contains(ingredients.getLast()));
+
+		// ingredients that were removed are shown again when they are added back
+		ingredientManager.addIngredientsAtRuntime(TestIngredient.TYPE, toRemove);
+		Assertions.assertEquals(TestPlugin.BASE_INGREDIENT_COUNT + ingredients.size(), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE).size());
+	}
+
 	@Test
 	public void testAddingAndRemovingIngredientsWithTooltipStrings() {
 		Assertions.assertNotNull(ingredientFilter);
@@ -160,6 +229,358 @@ public class IngredientFilterTest {
 		}
 	}
 
+	@Test
+	public void testSearchOperators() {
+		Assertions.assertNotNull(ingredientFilter);
+		Assertions.assertNotNull(filterTextSource);
+
+		TestIngredient first = new TestIngredient(0);
+		TestIngredient second = new TestIngredient(1);
+
+		filterTextSource.setFilterText("ingredient#0");
+		Assertions.assertEquals(List.of(first), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+
+		filterTextSource.setFilterText("ingredient#0|ingredient#1");
+		Assertions.assertEquals(Set.of(first, second), Set.copyOf(ingredientFilter.getFilteredIngredients(TestIngredient.TYPE)));
+
+		filterTextSource.setFilterText("display ingredient#1");
+		Assertions.assertEquals(List.of(second), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+
+		filterTextSource.setFilterText("ingredient#0 ingredient#1");
+		Assertions.assertEquals(List.of(), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+
+		filterTextSource.setFilterText("display -ingredient#0");
+		Assertions.assertEquals(List.of(second), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+
+		filterTextSource.setFilterText("-ingredient#1");
+		Assertions.assertEquals(List.of(first), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+	}
+
+	@Test
+	public void testPatternSearch() {
+		Assertions.assertNotNull(ingredientFilter);
+		Assertions.assertNotNull(filterTextSource);
+
+		TestIngredient first = new TestIngredient(0);
+		TestIngredient second = new TestIngredient(1);
+
+		filterTextSource.setFilterText("ingredient#?");
+		Assertions.assertEquals(Set.of(first, second), Set.copyOf(ingredientFilter.getFilteredIngredients(TestIngredient.TYPE)));
+
+		filterTextSource.setFilterText("/ingredient#1$/");
+		Assertions.assertEquals(List.of(second), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+
+		filterTextSource.setFilterText("&/^jei_test_mod:.*_0$/");
+		Assertions.assertEquals(List.of(first), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+
+		filterTextSource.setFilterText("/ingredient#[01]/ -/#0$/");
+		Assertions.assertEquals(List.of(second), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+	}
+
+	@Test
+	public void testRegexKeepsCaseAndAlternation() {
+		Assertions.assertNotNull(ingredientFilter);
+		Assertions.assertNotNull(filterTextSource);
+
+		TestIngredient first = new TestIngredient(0);
+		TestIngredient second = new TestIngredient(1);
+
+		// regular expressions ignore case, and upper case escapes keep their meaning
+		filterTextSource.setFilterText("/Ingredient#\\D*1$/");
+		Assertions.assertEquals(List.of(second), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+
+		filterTextSource.setFilterText("/INGREDIENT#\\d/ -/\\W0$/");
+		Assertions.assertEquals(List.of(second), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+
+		// a | in a regular expression is an alternation, not a separate search
+		filterTextSource.setFilterText("/ingredient#(0|1)$/");
+		Assertions.assertEquals(Set.of(first, second), Set.copyOf(ingredientFilter.getFilteredIngredients(TestIngredient.TYPE)));
+
+		filterTextSource.setFilterText("/#0$|Ingredient#1$/");
+		Assertions.assertEquals(Set.of(first, second), Set.copyOf(ingredientFilter.getFilteredIngredients(TestIngredient.TYPE)));
+
+		// outside of regular expressions, | still separates searches
+		filterTextSource.setFilterText("/#0$/|/#1$/");
+		Assertions.assertEquals(Set.of(first, second), Set.copyOf(ingredientFilter.getFilteredIngredients(TestIngredient.TYPE)));
+	}
+
+	@Test
+	public void testIncrementalSortMatchesFullSort() {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(modIdHelper);
+
+		List<TestIngredient> ingredients = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			ingredients.add(new TestIngredient(100 + i));
+		}
+		List<IListElementInfo<?>> infos = new ArrayList<>(IngredientListElementFactory.createTestList(ingredientManager, TestIngredient.TYPE, ingredients, modIdHelper));
+
+		// many ingredients compare equal, so new ones are often inserted in the same place
+		Comparator<IListElementInfo<?>> comparator = Comparator.comparingInt(info -> {
+			TestIngredient ingredient = (TestIngredient) info.getTypedIngredient().getIngredient();
+			return ingredient.number() % 7;
+		});
+
+		List<IListElementInfo<?>> added = new ArrayList<>(infos.subList(0, 50));
+		IngredientSorter ingredientSorter = IngredientSorter.sortIngredients(comparator, added);
+		for (int i = 50; i < infos.size(); i++) {
+			IListElementInfo<?> info = infos.get(i);
+			ingredientSorter.add(info);
+			added.add(info);
+
+			if (i % 50 == 0 || i == infos.size() - 1) {
+				List<IListElementInfo<?>> expected = new ArrayList<>(added);
+				expected.sort(comparator);
+				Assertions.assertEquals(expected, ingredientSorter.getSortedIngredients());
+
+				List<IListElement<?>> expectedElements = expected.stream()
+					.<IListElement<?>>map(IListElementInfo::getElement)
+					.toList();
+				List<IListElement<?>> shuffledElements = new ArrayList<>(expectedElements);
+				Collections.shuffle(shuffledElements, new Random(i));
+				Assertions.assertEquals(expectedElements, ingredientSorter.sort(shuffledElements));
+			}
+		}
+		// inserting this many ingredients in the same places runs out of room between the sorted indexes
+		Assertions.assertTrue(ingredientSorter.getRenumberCount() > 0);
+	}
+
+	@Test
+	public void testSorterSnapshotAndReplacedInfos() {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(modIdHelper);
+
+		List<TestIngredient> ingredients = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			ingredients.add(new TestIngredient(100 + i));
+		}
+		List<IListElementInfo<?>> infos = new ArrayList<>(IngredientListElementFactory.createTestList(ingredientManager, TestIngredient.TYPE, ingredients, modIdHelper));
+		// every added ingredient goes first, so the sorted indexes run out of room and are renumbered
+		Comparator<IListElementInfo<?>> comparator = Comparator.comparingInt(info -> {
+			TestIngredient ingredient = (TestIngredient) info.getTypedIngredient().getIngredient();
+			return -ingredient.number();
+		});
+		IngredientSorter ingredientSorter = IngredientSorter.sortIngredients(comparator, infos.subList(0, 50));
+
+		List<IListElement<?>> expectedElements = new ArrayList<>();
+		for (int i = 49; i >= 0; i--) {
+			expectedElements.add(infos.get(i).getElement());
+		}
+		List<IListElement<?>> shuffledElements = new ArrayList<>(expectedElements);
+		Collections.shuffle(shuffledElements, new Random(0));
+		long[] sortKeys = ingredientSorter.getSortKeys(shuffledElements);
+		for (int i = 50; i < infos.size(); i++) {
+			ingredientSorter.add(infos.get(i));
+		}
+		Assertions.assertTrue(ingredientSorter.getRenumberCount() > 0);
+		// the snapshot is not changed by the renumbering
+		Assertions.assertEquals(expectedElements, ingredientSorter.sort(shuffledElements, sortKeys));
+
+		List<IListElementInfo<?>> rebuiltInfos = IngredientListElementFactory.rebuildList(ingredientManager, expectedElements, modIdHelper);
+		ingredientSorter.replaceInfos(rebuiltInfos);
+		Assertions.assertEquals(rebuiltInfos, ingredientSorter.getSortedIngredients());
+	}
+
+	@Test
+	public void testAsyncSearch() {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(ingredientVisibility);
+		Assertions.assertNotNull(modIdHelper);
+
+		QueueExecutor searchExecutor = new QueueExecutor();
+		QueueExecutor resultExecutor = new QueueExecutor();
+		FilterTextSource asyncFilterTextSource = new FilterTextSource();
+		List<IListElementInfo<?>> asyncBaseList = IngredientListElementFactory.createBaseList(ingredientManager, modIdHelper);
+		IngredientFilter asyncFilter = new IngredientFilter(
+			asyncFilterTextSource,
+			new TestClientConfig(false),
+			new TestIngredientFilterConfig(),
+			ingredientManager,
+			IngredientSorter.sortIngredients(Comparator.comparingInt(IListElementInfo::getCreatedIndex), asyncBaseList),
+			asyncBaseList,
+			modIdHelper,
+			ingredientVisibility,
+			new TestColorHelper(),
+			new TestClientToggleState(),
+			searchExecutor,
+			resultExecutor,
+			null
+		);
+		int[] changes = new int[1];
+		asyncFilter.addSourceListChangedListener(() -> changes[0]++);
+
+		// the first list is computed right away
+		Assertions.assertEquals(TestPlugin.BASE_INGREDIENT_COUNT, asyncFilter.getElements().size());
+
+		// the last good result is shown until the search is done
+		asyncFilterTextSource.setFilterText("ingredient#0");
+		Assertions.assertEquals(TestPlugin.BASE_INGREDIENT_COUNT, asyncFilter.getElements().size());
+		Assertions.assertEquals(0, changes[0]);
+
+		// a newer keystroke cancels the older search
+		asyncFilterTextSource.setFilterText("ingredient#1");
+		searchExecutor.runAll();
+		resultExecutor.runAll();
+		Assertions.assertEquals(1, changes[0]);
+		List<?> elements = asyncFilter.getElements();
+		Assertions.assertEquals(1, elements.size());
+		Assertions.assertEquals(List.of(new TestIngredient(1)), asyncFilter.getFilteredIngredients(TestIngredient.TYPE));
+
+		// a search that finished before a newer keystroke is not shown
+		asyncFilterTextSource.setFilterText("ingredient#2");
+		searchExecutor.runAll();
+		asyncFilterTextSource.setFilterText("ingredient#3");
+		resultExecutor.runAll();
+		Assertions.assertEquals(1, changes[0]);
+		Assertions.assertSame(elements, asyncFilter.getElements());
+		searchExecutor.runAll();
+		resultExecutor.runAll();
+		Assertions.assertEquals(2, changes[0]);
+		Assertions.assertEquals(List.of(new TestIngredient(3)), asyncFilter.getFilteredIngredients(TestIngredient.TYPE));
+	}
+
+	@Test
+	public void testBulkIndexMatchesSerialIndex() {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(baseList);
+		Assertions.assertNotNull(modIdHelper);
+
+		ElementPrefixParser elementPrefixParser = new ElementPrefixParser(ingredientManager, new TestIngredientFilterConfig(), new TestColorHelper(), modIdHelper);
+		ElementSearch serialSearch = new ElementSearch(elementPrefixParser, SearchStorageType.SUFFIX_TREE);
+		for (IListElementInfo<?> info : baseList) {
+			serialSearch.add(info);
+		}
+		ElementSearch bulkSearch = new ElementSearch(elementPrefixParser, SearchStorageType.SUFFIX_TREE);
+		bulkSearch.addAll(baseList);
+
+		Assertions.assertEquals(serialSearch.getAllIngredients(), bulkSearch.getAllIngredients());
+		List<String> tokens = List.of("ingredient", "ingredient#1", "display", "@jei", "#tooltip", "&jei", "g");
+		for (String token : tokens) {
+			ElementPrefixParser.TokenInfo tokenInfo = elementPrefixParser.parseToken(token).orElseThrow();
+			Assertions.assertEquals(serialSearch.getSearchResults(tokenInfo), bulkSearch.getSearchResults(tokenInfo), token);
+		}
+	}
+
+	@Test
+	public void testDifferentialRebuildMatchesFullRebuild() {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(baseList);
+		Assertions.assertNotNull(modIdHelper);
+
+		ElementPrefixParser elementPrefixParser = new ElementPrefixParser(ingredientManager, new TestIngredientFilterConfig(), new TestColorHelper(), modIdHelper);
+		ElementSearch previousSearch = new ElementSearch(elementPrefixParser, SearchStorageType.SUFFIX_TREE);
+		previousSearch.addAll(baseList);
+
+		// like a language change that only renames the mods
+		IModIdHelper renamedModIdHelper = new TestModIdHelper() {
+			@Override
+			public String getModNameForModId(String modId) {
+				return "RenamedMod(" + modId + ")";
+			}
+		};
+		List<IListElement<?>> elements = baseList.stream()
+			.<IListElement<?>>map(IListElementInfo::getElement)
+			.toList();
+		List<IListElementInfo<?>> reloadedInfos = IngredientListElementFactory.rebuildList(ingredientManager, elements, renamedModIdHelper);
+
+		ElementSearch patchedSearch = new ElementSearch(elementPrefixParser, SearchStorageType.SUFFIX_TREE);
+		List<PrefixInfo<IListElementInfo<?>, IListElement<?>>> rebuiltPrefixes = patchedSearch.addAll(reloadedInfos, previousSearch);
+		Assertions.assertEquals(List.of('@'), rebuiltPrefixes.stream().map(PrefixInfo::getPrefix).toList());
+
+		ElementSearch fullSearch = new ElementSearch(elementPrefixParser, SearchStorageType.SUFFIX_TREE);
+		fullSearch.addAll(reloadedInfos);
+
+		Assertions.assertEquals(fullSearch.getAllIngredients(), patchedSearch.getAllIngredients());
+		List<String> tokens = List.of("ingredient", "ingredient#1", "display", "@renamedmod", "@modname", "#tooltip", "&jei", "g");
+		for (String token : tokens) {
+			ElementPrefixParser.TokenInfo tokenInfo = elementPrefixParser.parseToken(token).orElseThrow();
+			Assertions.assertEquals(fullSearch.getSearchResults(tokenInfo), patchedSearch.getSearchResults(tokenInfo), token);
+		}
+		ElementPrefixParser.TokenInfo renamedToken = elementPrefixParser.parseToken("@renamedmod").orElseThrow();
+		Assertions.assertFalse(patchedSearch.getSearchResults(renamedToken).isEmpty());
+	}
+
+	@Test
+	public void testSearchIndexFingerprint() {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(baseList);
+		Assertions.assertNotNull(modIdHelper);
+
+		TestIngredientFilterConfig config = new TestIngredientFilterConfig();
+		SearchIndexCache.GameState gameState = createGameState("en_us", List.of("vanilla"), Map.of("jei", "1.0.0"));
+		byte[] fingerprint = SearchIndexCache.createFingerprint(baseList, ingredientManager, modIdHelper, config, gameState);
+		Assertions.assertArrayEquals(fingerprint, SearchIndexCache.createFingerprint(baseList, ingredientManager, modIdHelper, config, gameState));
+
+		Assertions.assertFalse(Arrays.equals(fingerprint, SearchIndexCache.createFingerprint(baseList, ingredientManager, modIdHelper, config, createGameState("de_de", List.of("vanilla"), Map.of("jei", "1.0.0")))));
+		Assertions.assertFalse(Arrays.equals(fingerprint, SearchIndexCache.createFingerprint(baseList, ingredientManager, modIdHelper, config, createGameState("en_us", List.of("vanilla", "programmer_art"), Map.of("jei", "1.0.0")))));
+		Assertions.assertFalse(Arrays.equals(fingerprint, SearchIndexCache.createFingerprint(baseList, ingredientManager, modIdHelper, config, createGameState("en_us", List.of("vanilla"), Map.of("jei", "1.0.1")))));
+
+		SearchIndexCache.GameState moreFeatures = new SearchIndexCache.GameState("en_us", List.of("vanilla"), Map.of("jei", "1.0.0"), List.of("minecraft:vanilla", "minecraft:bundle"), List.of());
+		Assertions.assertFalse(Arrays.equals(fingerprint, SearchIndexCache.createFingerprint(baseList, ingredientManager, modIdHelper, config, moreFeatures)));
+		SearchIndexCache.GameState otherCreativeTabs = new SearchIndexCache.GameState("en_us", List.of("vanilla"), Map.of("jei", "1.0.0"), List.of("minecraft:vanilla"), List.of("minecraft:ingredients true 1 31"));
+		Assertions.assertFalse(Arrays.equals(fingerprint, SearchIndexCache.createFingerprint(baseList, ingredientManager, modIdHelper, config, otherCreativeTabs)));
+
+		IModIdHelper aliasedModIdHelper = new TestModIdHelper() {
+			@Override
+			public Set<String> getModAliases(String modId) {
+				return Set.of(modId + "_alias");
+			}
+		};
+		Assertions.assertFalse(Arrays.equals(fingerprint, SearchIndexCache.createFingerprint(baseList, ingredientManager, aliasedModIdHelper, config, gameState)));
+
+		List<IListElementInfo<?>> fewerIngredients = baseList.subList(1, baseList.size());
+		Assertions.assertFalse(Arrays.equals(fingerprint, SearchIndexCache.createFingerprint(fewerIngredients, ingredientManager, modIdHelper, config, gameState)));
+
+		List<IListElementInfo<?>> moreIngredients = new ArrayList<>(baseList);
+		moreIngredients.addAll(IngredientListElementFactory.createTestList(ingredientManager, TestIngredient.TYPE, createIngredients(), modIdHelper));
+		Assertions.assertFalse(Arrays.equals(fingerprint, SearchIndexCache.createFingerprint(moreIngredients, ingredientManager, modIdHelper, config, gameState)));
+
+		TestIngredientFilterConfig advancedTooltipsConfig = new TestIngredientFilterConfig() {
+			@Override
+			public boolean getSearchAdvancedTooltips() {
+				return !super.getSearchAdvancedTooltips();
+			}
+		};
+		Assertions.assertFalse(Arrays.equals(fingerprint, SearchIndexCache.createFingerprint(baseList, ingredientManager, modIdHelper, advancedTooltipsConfig, gameState)));
+	}
+
+	private static SearchIndexCache.GameState createGameState(String language, List<String> resourcePacks, Map<String, String> modVersions) {
+		return new SearchIndexCache.GameState(language, resourcePacks, modVersions, List.of("minecraft:vanilla"), List.of());
+	}
+
+	@Test
+	public void testQueryResultCache() {
+		Assertions.assertNotNull(ingredientFilter);
+		Assertions.assertNotNull(filterTextSource);
+		Assertions.assertNotNull(baseList);
+		Assertions.assertNotNull(editModeConfig);
+
+		TestIngredient first = new TestIngredient(0);
+		TestIngredient second = new TestIngredient(1);
+
+		filterTextSource.setFilterText("ingredient#0");
+		Assertions.assertEquals(List.of(first), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+		filterTextSource.setFilterText("ingredient#1");
+		Assertions.assertEquals(List.of(second), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+		long hits = ingredientFilter.getQueryResultCacheHitCount();
+
+		// switching back is answered from the cache, surrounding whitespace is ignored
+		filterTextSource.setFilterText(" ingredient#0 ");
+		Assertions.assertEquals(List.of(first), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+		Assertions.assertEquals(hits + 1, ingredientFilter.getQueryResultCacheHitCount());
+
+		// hiding an ingredient invalidates the cache
+		@SuppressWarnings("unchecked")
+		ITypedIngredient<TestIngredient> hiddenIngredient = (ITypedIngredient<TestIngredient>) baseList.getFirst().getTypedIngredient();
+		Assertions.assertEquals(first, hiddenIngredient.getIngredient());
+		editModeConfig.addIngredientToConfigBlacklist(hiddenIngredient, IEditModeConfig.HideMode.SINGLE, new TestIngredientHelper());
+		ingredientFilter.updateHidden();
+
+		filterTextSource.setFilterText("ingredient#1");
+		filterTextSource.setFilterText("ingredient#0");
+		Assertions.assertEquals(List.of(), ingredientFilter.getFilteredIngredients(TestIngredient.TYPE));
+	}
+
 	@Test
 	public void testConfigBlacklist() {
 		Assertions.assertNotNull(ingredientFilter);
@@ -256,6 +677,22 @@ public class IngredientFilterTest {
 		}
 	}
 
+	private static class QueueExecutor implements Executor {
+		private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		public void runAll() {
+			Runnable task;
+			while ((task = tasks.poll()) != null) {
+				task.run();
+			}
+		}
+	}
+
 	private static class NullSerializer implements EditModeConfig.ISerializer {
 		@Override
 		public void initialize(EditModeConfig config) {
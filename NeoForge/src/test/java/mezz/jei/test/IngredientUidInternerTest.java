@@ -0,0 +1,162 @@
+package mezz.jei.test;
+
+import mezz.jei.api.helpers.IColorHelper;
+import mezz.jei.api.ingredients.IIngredientSupplier;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.ingredients.subtypes.UidContext;
+import mezz.jei.api.recipe.RecipeIngredientRole;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.library.ingredients.subtypes.SubtypeInterpreters;
+import mezz.jei.library.ingredients.subtypes.SubtypeManager;
+import mezz.jei.library.load.registration.IngredientManagerBuilder;
+import mezz.jei.library.recipes.collect.IngredientUidInterner;
+import mezz.jei.library.recipes.collect.RecipeMap;
+import mezz.jei.library.util.IngredientSupplierHelper;
+import mezz.jei.test.lib.TestColorHelper;
+import mezz.jei.test.lib.TestIngredient;
+import mezz.jei.test.lib.TestPlugin;
+import mezz.jei.test.lib.TestRecipe;
+import mezz.jei.test.lib.TestRecipeCategory;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class IngredientUidInternerTest {
+	private static final RecipeType<TestRecipe> RECIPE_TYPE_A = TestRecipeCategory.createRecipeType("test_interner_a");
+	private static final RecipeType<TestRecipe> RECIPE_TYPE_B = TestRecipeCategory.createRecipeType("test_interner_b");
+
+	@Nullable
+	private IIngredientManager ingredientManager;
+
+	@BeforeEach
+	public void setup() {
+		TestPlugin testPlugin = new TestPlugin();
+		SubtypeManager subtypeManager = new SubtypeManager(new SubtypeInterpreters());
+		IColorHelper colorHelper = new TestColorHelper();
+		IngredientManagerBuilder ingredientManagerBuilder = new IngredientManagerBuilder(subtypeManager, colorHelper);
+		testPlugin.registerIngredients(ingredientManagerBuilder);
+		this.ingredientManager = ingredientManagerBuilder.build();
+	}
+
+	@Test
+	public void testStableIds() {
+		IngredientUidInterner interner = new IngredientUidInterner();
+		int first = interner.getOrCreateId(List.of("minecraft:stone", 1));
+		int second = interner.getOrCreateId("minecraft:dirt");
+		Assertions.assertNotEquals(first, second);
+
+		// an equal uid that is a different object gets the same id
+		Assertions.assertEquals(first, interner.getOrCreateId(new ArrayList<>(List.of("minecraft:stone", 1))));
+		Assertions.assertEquals(first, interner.getId(List.of("minecraft:stone", 1)));
+		Assertions.assertEquals(second, interner.getId("minecraft:dirt"));
+
+		// ids do not change as more uids are added
+		for (int i = 0; i < 1000; i++) {
+			interner.getOrCreateId(i);
+		}
+		Assertions.assertEquals(first, interner.getId(List.of("minecraft:stone", 1)));
+		Assertions.assertEquals(second, interner.getOrCreateId("minecraft:dirt"));
+		Assertions.assertEquals(1002, interner.size());
+	}
+
+	@Test
+	public void testUnknownUid() {
+		IngredientUidInterner interner = new IngredientUidInterner();
+		Assertions.assertEquals(IngredientUidInterner.NO_ID, interner.getId("minecraft:stone"));
+		// looking up an unknown uid does not give it an id
+		Assertions.assertEquals(0, interner.size());
+
+		interner.getOrCreateId("minecraft:dirt");
+		Assertions.assertEquals(IngredientUidInterner.NO_ID, interner.getId("minecraft:stone"));
+		Assertions.assertEquals(1, interner.size());
+	}
+
+	@Test
+	public void testLookupsMatchUidMaps() {
+		Assertions.assertNotNull(ingredientManager);
+		IngredientUidInterner interner = new IngredientUidInterner();
+		Comparator<RecipeType<?>> recipeTypeComparator = Comparator.comparing((RecipeType<?> recipeType) -> recipeType.getUid().toString());
+		Map<RecipeIngredientRole, RecipeMap> recipeMaps = Map.of(
+			RecipeIngredientRole.INPUT, new RecipeMap(recipeTypeComparator, ingredientManager, interner, RecipeIngredientRole.INPUT),
+			RecipeIngredientRole.OUTPUT, new RecipeMap(recipeTypeComparator, ingredientManager, interner, RecipeIngredientRole.OUTPUT)
+		);
+
+		// the maps the recipe maps used before, keyed by the ingredient uids
+		Map<RecipeIngredientRole, Map<Object, Set<RecipeType<?>>>> expectedRecipeTypes = new HashMap<>();
+		Map<RecipeIngredientRole, Map<RecipeType<?>, Map<Object, List<TestRecipe>>>> expectedRecipes = new HashMap<>();
+
+		for (RecipeType<TestRecipe> recipeType : List.of(RECIPE_TYPE_A, RECIPE_TYPE_B)) {
+			TestRecipeCategory recipeCategory = new TestRecipeCategory(recipeType);
+			for (int i = 0; i < 100; i++) {
+				// inputs and outputs overlap, so the same uid is interned for both roles
+				TestRecipe recipe = recipeType == RECIPE_TYPE_A ?
+					TestRecipe.create("a_" + i, i % 13, 10 + i % 17) :
+					TestRecipe.create("b_" + i, 5 + i % 11, i % 7);
+				IIngredientSupplier ingredientSupplier = IngredientSupplierHelper.getIngredientSupplier(recipe, recipeCategory, ingredientManager);
+				for (Map.Entry<RecipeIngredientRole, RecipeMap> entry : recipeMaps.entrySet()) {
+					RecipeIngredientRole role = entry.getKey();
+					entry.getValue().addRecipe(recipeType, recipe, ingredientSupplier);
+					Set<Object> uids = new LinkedHashSet<>();
+					for (ITypedIngredient<?> ingredient : ingredientSupplier.getIngredients(role)) {
+						uids.add(getUid(ingredient));
+					}
+					for (Object uid : uids) {
+						expectedRecipeTypes.computeIfAbsent(role, k -> new HashMap<>())
+							.computeIfAbsent(uid, k -> new LinkedHashSet<>())
+							.add(recipeType);
+						expectedRecipes.computeIfAbsent(role, k -> new HashMap<>())
+							.computeIfAbsent(recipeType, k -> new HashMap<>())
+							.computeIfAbsent(uid, k -> new ArrayList<>())
+							.add(recipe);
+					}
+				}
+			}
+		}
+
+		for (int number = 0; number < 40; number++) {
+			ITypedIngredient<TestIngredient> ingredient = ingredientManager.createTypedIngredient(TestIngredient.TYPE, new TestIngredient(number))
+				.orElseThrow();
+			Object uid = getUid(ingredient);
+			for (Map.Entry<RecipeIngredientRole, RecipeMap> entry : recipeMaps.entrySet()) {
+				RecipeIngredientRole role = entry.getKey();
+				RecipeMap recipeMap = entry.getValue();
+				String message = role + " " + number;
+
+				List<RecipeType<?>> expectedTypes = expectedRecipeTypes.get(role).getOrDefault(uid, Set.of()).stream()
+					.sorted(recipeTypeComparator)
+					.toList();
+				Assertions.assertEquals(expectedTypes, recipeMap.getRecipeTypes(ingredient).toList(), message);
+
+				for (RecipeType<TestRecipe> recipeType : List.of(RECIPE_TYPE_A, RECIPE_TYPE_B)) {
+					List<TestRecipe> expected = expectedRecipes.get(role).getOrDefault(recipeType, Map.of()).getOrDefault(uid, List.of());
+					Assertions.assertEquals(expected, recipeMap.getRecipes(recipeType, ingredient), message + " " + recipeType);
+				}
+			}
+		}
+
+		// both roles share the interner, so each uid has one id
+		int uidCount = 0;
+		for (int number = 0; number < 40; number++) {
+			if (interner.getId(number) != IngredientUidInterner.NO_ID) {
+				uidCount++;
+			}
+		}
+		Assertions.assertEquals(uidCount, interner.size());
+	}
+
+	private <T> Object getUid(ITypedIngredient<T> ingredient) {
+		Assertions.assertNotNull(ingredientManager);
+		return ingredientManager.getIngredientHelper(ingredient.getType())
+			.getUid(ingredient, UidContext.Recipe);
+	}
+}
@@ -0,0 +1,153 @@
+package mezz.jei.test;
+
+import mezz.jei.api.helpers.IColorHelper;
+import mezz.jei.api.ingredients.IIngredientHelper;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.runtime.IEditModeConfig;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.api.runtime.IIngredientVisibility;
+import mezz.jei.library.config.EditModeConfig;
+import mezz.jei.library.ingredients.IngredientBlacklistInternal;
+import mezz.jei.library.ingredients.IngredientVisibility;
+import mezz.jei.library.ingredients.subtypes.SubtypeInterpreters;
+import mezz.jei.library.ingredients.subtypes.SubtypeManager;
+import mezz.jei.library.load.registration.IngredientManagerBuilder;
+import mezz.jei.test.lib.TestClientToggleState;
+import mezz.jei.test.lib.TestColorHelper;
+import mezz.jei.test.lib.TestIngredient;
+import mezz.jei.test.lib.TestPlugin;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class IngredientVisibilityTest {
+	@Nullable
+	private IIngredientManager ingredientManager;
+	@Nullable
+	private IngredientBlacklistInternal blacklist;
+	@Nullable
+	private EditModeConfig editModeConfig;
+	@Nullable
+	private IngredientVisibility ingredientVisibility;
+
+	@BeforeEach
+	public void setup() {
+		TestPlugin testPlugin = new TestPlugin();
+
+		SubtypeManager subtypeManager = new SubtypeManager(new SubtypeInterpreters());
+		IColorHelper colorHelper = new TestColorHelper();
+		IngredientManagerBuilder ingredientManagerBuilder = new IngredientManagerBuilder(subtypeManager, colorHelper);
+		testPlugin.registerIngredients(ingredientManagerBuilder);
+		this.ingredientManager = ingredientManagerBuilder.build();
+
+		this.blacklist = new IngredientBlacklistInternal();
+		this.editModeConfig = new EditModeConfig(new NullSerializer(), ingredientManager);
+		this.ingredientVisibility = new IngredientVisibility(blacklist, new TestClientToggleState(), editModeConfig, ingredientManager);
+	}
+
+	@Test
+	public void testCachedVisibilityMatchesUncached() {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(blacklist);
+		Assertions.assertNotNull(editModeConfig);
+		Assertions.assertNotNull(ingredientVisibility);
+
+		IIngredientHelper<TestIngredient> ingredientHelper = ingredientManager.getIngredientHelper(TestIngredient.TYPE);
+		List<ITypedIngredient<TestIngredient>> ingredients = ingredientManager.getAllIngredients(TestIngredient.TYPE)
+			.stream()
+			.map(ingredient -> ingredientManager.createTypedIngredient(TestIngredient.TYPE, ingredient).orElseThrow())
+			.toList();
+
+		Map<TestIngredient, Boolean> visibility = new HashMap<>();
+		for (ITypedIngredient<TestIngredient> ingredient : ingredients) {
+			visibility.put(ingredient.getIngredient(), ingredientVisibility.isIngredientVisible(ingredient));
+		}
+
+		Map<TestIngredient, Boolean> flipped = new HashMap<>();
+		IIngredientVisibility.IListener listener = new IIngredientVisibility.IListener() {
+			@Override
+			public <V> void onIngredientVisibilityChanged(ITypedIngredient<V> ingredient, boolean visible) {
+				TestIngredient testIngredient = ingredient.getIngredient(TestIngredient.TYPE).orElseThrow();
+				Assertions.assertNull(flipped.put(testIngredient, visible), "notified twice about " + testIngredient);
+			}
+		};
+		ingredientVisibility.registerListener(listener);
+
+		Random random = new Random(1234);
+		for (int step = 0; step < 1000; step++) {
+			ITypedIngredient<TestIngredient> ingredient = ingredients.get(random.nextInt(ingredients.size()));
+			IEditModeConfig.HideMode hideMode = random.nextInt(8) == 0 ? IEditModeConfig.HideMode.WILDCARD : IEditModeConfig.HideMode.SINGLE;
+			switch (random.nextInt(4)) {
+				case 0 -> blacklist.addIngredientToBlacklist(ingredient, ingredientHelper);
+				case 1 -> blacklist.removeIngredientFromBlacklist(ingredient, ingredientHelper);
+				case 2 -> editModeConfig.addIngredientToConfigBlacklist(ingredient, hideMode, ingredientHelper);
+				default -> editModeConfig.removeIngredientFromConfigBlacklist(ingredient, hideMode, ingredientHelper);
+			}
+
+			for (ITypedIngredient<TestIngredient> typedIngredient : ingredients) {
+				TestIngredient testIngredient = typedIngredient.getIngredient();
+				boolean expected = ingredientVisibility.isIngredientVisibleUncached(typedIngredient, ingredientHelper);
+				Assertions.assertEquals(expected, ingredientVisibility.isIngredientVisible(typedIngredient), "step " + step + ": " + testIngredient);
+
+				boolean wasVisible = visibility.put(testIngredient, expected);
+				if (wasVisible != expected) {
+					Assertions.assertEquals(expected, flipped.get(testIngredient), "step " + step + ": listener was not told about " + testIngredient);
+				} else {
+					Assertions.assertFalse(flipped.containsKey(testIngredient), "step " + step + ": listener was told about unchanged " + testIngredient);
+				}
+			}
+			flipped.clear();
+		}
+		// listeners are weakly referenced
+		Reference.reachabilityFence(listener);
+	}
+
+	@Test
+	public void testUnregisteredIngredientsAreNotCached() {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(blacklist);
+		Assertions.assertNotNull(ingredientVisibility);
+
+		IIngredientHelper<TestIngredient> ingredientHelper = ingredientManager.getIngredientHelper(TestIngredient.TYPE);
+		for (TestIngredient ingredient : ingredientManager.getAllIngredients(TestIngredient.TYPE)) {
+			ingredientVisibility.isIngredientVisible(TestIngredient.TYPE, ingredient);
+		}
+		int cachedCount = ingredientVisibility.getCachedCount();
+		Assertions.assertTrue(cachedCount > 0);
+
+		// like the stacks in recipe slots, these are not registered and are only checked once
+		for (int i = 0; i < 1000; i++) {
+			ITypedIngredient<TestIngredient> unregistered = ingredientManager.createTypedIngredient(TestIngredient.TYPE, new TestIngredient(100_000 + i)).orElseThrow();
+			Assertions.assertTrue(ingredientVisibility.isIngredientVisible(unregistered));
+			if (i % 2 == 0) {
+				blacklist.addIngredientToBlacklist(unregistered, ingredientHelper);
+				Assertions.assertFalse(ingredientVisibility.isIngredientVisible(unregistered));
+			}
+		}
+		Assertions.assertEquals(cachedCount, ingredientVisibility.getCachedCount());
+	}
+
+	private static class NullSerializer implements EditModeConfig.ISerializer {
+		@Override
+		public void initialize(EditModeConfig config) {
+
+		}
+
+		@Override
+		public void save(EditModeConfig config) {
+
+		}
+
+		@Override
+		public void load(EditModeConfig config) {
+
+		}
+	}
+}
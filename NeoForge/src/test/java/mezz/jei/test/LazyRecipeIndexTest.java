@@ -0,0 +1,230 @@
+package mezz.jei.test;
+
+import com.google.common.collect.ImmutableListMultimap;
+import mezz.jei.api.helpers.IColorHelper;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.recipe.IFocusGroup;
+import mezz.jei.api.recipe.RecipeIngredientRole;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.library.focus.Focus;
+import mezz.jei.library.focus.FocusGroup;
+import mezz.jei.library.ingredients.subtypes.SubtypeInterpreters;
+import mezz.jei.library.ingredients.subtypes.SubtypeManager;
+import mezz.jei.library.load.registration.IngredientManagerBuilder;
+import mezz.jei.library.recipes.RecipeManagerInternal;
+import mezz.jei.library.recipes.collect.RecipeIndexStats;
+import mezz.jei.test.lib.TestColorHelper;
+import mezz.jei.test.lib.TestIngredient;
+import mezz.jei.test.lib.TestPlugin;
+import mezz.jei.test.lib.TestRecipe;
+import mezz.jei.test.lib.TestRecipeCategory;
+import mezz.jei.test.lib.TestRecipeManagerFactory;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class LazyRecipeIndexTest {
+	private static final RecipeType<TestRecipe> SMELTING = TestRecipeCategory.createRecipeType("test_smelting");
+	private static final RecipeType<TestRecipe> GRINDING = TestRecipeCategory.createRecipeType("test_grinding");
+	private static final RecipeType<TestRecipe> PRESSING = TestRecipeCategory.createRecipeType("test_pressing");
+	private static final RecipeType<TestRecipe> ALL_HIDDEN = TestRecipeCategory.createRecipeType("test_all_hidden");
+	private static final RecipeType<TestRecipe> EMPTY = TestRecipeCategory.createRecipeType("test_empty");
+	private static final List<RecipeType<TestRecipe>> RECIPE_TYPES = List.of(SMELTING, GRINDING, PRESSING, ALL_HIDDEN, EMPTY);
+	private static final int CATALYST = 500;
+
+	@TempDir
+	@Nullable
+	private Path configDir;
+	@Nullable
+	private IIngredientManager ingredientManager;
+
+	@BeforeEach
+	public void setup() {
+		TestPlugin testPlugin = new TestPlugin();
+		SubtypeManager subtypeManager = new SubtypeManager(new SubtypeInterpreters());
+		IColorHelper colorHelper = new TestColorHelper();
+		IngredientManagerBuilder ingredientManagerBuilder = new IngredientManagerBuilder(subtypeManager, colorHelper);
+		testPlugin.registerIngredients(ingredientManagerBuilder);
+		this.ingredientManager = ingredientManagerBuilder.build();
+	}
+
+	@Test
+	public void testUnfocusedLookups() {
+		RecipeManagerInternal eager = createRecipeManager(false);
+		RecipeManagerInternal lazy = createRecipeManager(true);
+
+		for (boolean includeHidden : new boolean[]{false, true}) {
+			Assertions.assertEquals(
+				getRecipeTypes(eager, List.of(), FocusGroup.EMPTY, includeHidden),
+				getRecipeTypes(lazy, List.of(), FocusGroup.EMPTY, includeHidden)
+			);
+			assertSameRecipes(eager, lazy, FocusGroup.EMPTY, includeHidden);
+		}
+	}
+
+	@Test
+	public void testFocusedLookups() {
+		RecipeManagerInternal eager = createRecipeManager(false);
+		RecipeManagerInternal lazy = createRecipeManager(true);
+
+		for (IFocusGroup focuses : createFocusGroups()) {
+			for (boolean includeHidden : new boolean[]{false, true}) {
+				String message = focuses.getAllFocuses() + (includeHidden ? " including hidden" : "");
+				Assertions.assertEquals(
+					getRecipeTypes(eager, List.of(), focuses, includeHidden),
+					getRecipeTypes(lazy, List.of(), focuses, includeHidden),
+					message
+				);
+				assertSameRecipes(eager, lazy, focuses, includeHidden);
+			}
+		}
+	}
+
+	@Test
+	public void testFocusedLookupLimitedToRecipeTypes() {
+		Assertions.assertNotNull(ingredientManager);
+		RecipeManagerInternal eager = createRecipeManager(false);
+
+		for (IFocusGroup focuses : createFocusGroups()) {
+			for (boolean includeHidden : new boolean[]{false, true}) {
+				String message = focuses.getAllFocuses() + (includeHidden ? " including hidden" : "");
+				List<RecipeType<?>> limitTypes = List.of(GRINDING, ALL_HIDDEN);
+
+				// a new lazy recipe manager each time, so that nothing has been indexed by an earlier lookup
+				RecipeManagerInternal lazy = createRecipeManager(true);
+				Assertions.assertEquals(
+					getRecipeTypes(eager, limitTypes, focuses, includeHidden),
+					getRecipeTypes(lazy, limitTypes, focuses, includeHidden),
+					message
+				);
+
+				Map<RecipeType<?>, RecipeIndexStats> indexStats = lazy.getIndexStats().stream()
+					.collect(Collectors.toMap(RecipeIndexStats::recipeType, Function.identity()));
+				Assertions.assertEquals(0, indexStats.get(GRINDING).unindexedRecipeCount(), message);
+				Assertions.assertEquals(0, indexStats.get(ALL_HIDDEN).unindexedRecipeCount(), message);
+				Assertions.assertNotEquals(0, indexStats.get(SMELTING).unindexedRecipeCount(), message);
+				Assertions.assertNotEquals(0, indexStats.get(PRESSING).unindexedRecipeCount(), message);
+			}
+		}
+	}
+
+	@Test
+	public void testHiddenCategories() {
+		RecipeManagerInternal eager = createRecipeManager(false);
+		RecipeManagerInternal lazy = createRecipeManager(true);
+		eager.hideRecipeCategory(PRESSING);
+		lazy.hideRecipeCategory(PRESSING);
+
+		IFocusGroup pressingInput = createFocus(RecipeIngredientRole.INPUT, 20);
+		for (IFocusGroup focuses : List.of(FocusGroup.EMPTY, pressingInput)) {
+			List<RecipeType<?>> visible = getRecipeTypes(lazy, List.of(), focuses, false);
+			Assertions.assertEquals(getRecipeTypes(eager, List.of(), focuses, false), visible);
+			Assertions.assertFalse(visible.contains(PRESSING));
+			Assertions.assertFalse(visible.contains(ALL_HIDDEN));
+			Assertions.assertFalse(visible.contains(EMPTY));
+
+			List<RecipeType<?>> all = getRecipeTypes(lazy, List.of(), focuses, true);
+			Assertions.assertEquals(getRecipeTypes(eager, List.of(), focuses, true), all);
+			Assertions.assertTrue(all.contains(PRESSING));
+		}
+
+		eager.unhideRecipeCategory(PRESSING);
+		lazy.unhideRecipeCategory(PRESSING);
+		List<RecipeType<?>> visible = getRecipeTypes(lazy, List.of(), pressingInput, false);
+		Assertions.assertEquals(getRecipeTypes(eager, List.of(), pressingInput, false), visible);
+		Assertions.assertTrue(visible.contains(PRESSING));
+	}
+
+	private RecipeManagerInternal createRecipeManager(boolean lazyIndexing) {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(configDir);
+		List<IRecipeCategory<?>> recipeCategories = new ArrayList<>();
+		for (RecipeType<TestRecipe> recipeType : RECIPE_TYPES) {
+			recipeCategories.add(new TestRecipeCategory(recipeType));
+		}
+		ITypedIngredient<TestIngredient> catalyst = ingredientManager.createTypedIngredient(TestIngredient.TYPE, new TestIngredient(CATALYST))
+			.orElseThrow();
+		ImmutableListMultimap<RecipeType<?>, ITypedIngredient<?>> recipeCatalysts = ImmutableListMultimap.of(GRINDING, catalyst);
+		RecipeManagerInternal recipeManager = TestRecipeManagerFactory.create(ingredientManager, recipeCategories, recipeCatalysts, configDir, Runnable::run, lazyIndexing);
+
+		// the recipe types share some inputs and outputs, so a focus can be in more than one of them
+		List<TestRecipe> smelting = new ArrayList<>();
+		List<TestRecipe> grinding = new ArrayList<>();
+		List<TestRecipe> pressing = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			smelting.add(TestRecipe.create("smelting_" + i, i % 6, 100 + i));
+			grinding.add(TestRecipe.create("grinding_" + i, 3 + i % 6, 110 + i));
+			pressing.add(TestRecipe.create("pressing_" + i, 20 + i % 3, 100 + i));
+		}
+		List<TestRecipe> allHidden = List.of(
+			TestRecipe.create("all_hidden_0", 1, 300),
+			TestRecipe.create("all_hidden_1", 2, 301)
+		);
+		recipeManager.addRecipes(SMELTING, smelting);
+		recipeManager.addRecipes(GRINDING, grinding);
+		recipeManager.addRecipes(PRESSING, pressing);
+		recipeManager.addRecipes(ALL_HIDDEN, allHidden);
+		recipeManager.hideRecipes(SMELTING, List.of(smelting.get(1), smelting.get(7)));
+		recipeManager.hideRecipes(ALL_HIDDEN, allHidden);
+		return recipeManager;
+	}
+
+	private List<IFocusGroup> createFocusGroups() {
+		Assertions.assertNotNull(ingredientManager);
+		return List.of(
+			createFocus(RecipeIngredientRole.INPUT, 1),
+			createFocus(RecipeIngredientRole.INPUT, 4),
+			createFocus(RecipeIngredientRole.INPUT, 21),
+			createFocus(RecipeIngredientRole.INPUT, 999),
+			createFocus(RecipeIngredientRole.OUTPUT, 105),
+			createFocus(RecipeIngredientRole.OUTPUT, 115),
+			createFocus(RecipeIngredientRole.OUTPUT, 300),
+			createFocus(RecipeIngredientRole.CATALYST, CATALYST),
+			FocusGroup.create(
+				List.of(
+					Focus.createFromApi(ingredientManager, RecipeIngredientRole.INPUT, TestIngredient.TYPE, new TestIngredient(4)),
+					Focus.createFromApi(ingredientManager, RecipeIngredientRole.OUTPUT, TestIngredient.TYPE, new TestIngredient(104))
+				),
+				ingredientManager
+			)
+		);
+	}
+
+	private IFocusGroup createFocus(RecipeIngredientRole role, int ingredientNumber) {
+		Assertions.assertNotNull(ingredientManager);
+		return Focus.createFromApi(ingredientManager, role, TestIngredient.TYPE, new TestIngredient(ingredientNumber));
+	}
+
+	private static List<RecipeType<?>> getRecipeTypes(RecipeManagerInternal recipeManager, List<RecipeType<?>> limitTypes, IFocusGroup focuses, boolean includeHidden) {
+		return recipeManager.getRecipeCategoriesForTypes(limitTypes, focuses, includeHidden)
+			.<RecipeType<?>>map(IRecipeCategory::getRecipeType)
+			.toList();
+	}
+
+	private static void assertSameRecipes(RecipeManagerInternal eager, RecipeManagerInternal lazy, IFocusGroup focuses, boolean includeHidden) {
+		for (RecipeType<TestRecipe> recipeType : RECIPE_TYPES) {
+			String message = recipeType + " " + focuses.getAllFocuses() + (includeHidden ? " including hidden" : "");
+			Assertions.assertEquals(
+				eager.getRecipesStream(recipeType, focuses, includeHidden).toList(),
+				lazy.getRecipesStream(recipeType, focuses, includeHidden).toList(),
+				message
+			);
+			Assertions.assertEquals(
+				eager.getRecipeCount(recipeType, focuses, includeHidden),
+				lazy.getRecipeCount(recipeType, focuses, includeHidden),
+				message
+			);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package mezz.jei.test;
+
+import com.google.common.collect.ImmutableListMultimap;
+import mezz.jei.api.gui.builder.IRecipeLayoutBuilder;
+import mezz.jei.api.helpers.IColorHelper;
+import mezz.jei.api.recipe.IFocusGroup;
+import mezz.jei.api.recipe.RecipeIngredientRole;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.library.focus.Focus;
+import mezz.jei.library.focus.FocusGroup;
+import mezz.jei.library.ingredients.subtypes.SubtypeInterpreters;
+import mezz.jei.library.ingredients.subtypes.SubtypeManager;
+import mezz.jei.library.load.registration.IngredientManagerBuilder;
+import mezz.jei.library.recipes.RecipeManagerInternal;
+import mezz.jei.test.lib.TestColorHelper;
+import mezz.jei.test.lib.TestIngredient;
+import mezz.jei.test.lib.TestPlugin;
+import mezz.jei.test.lib.TestRecipe;
+import mezz.jei.test.lib.TestRecipeCategory;
+import mezz.jei.test.lib.TestRecipeManagerFactory;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ParallelRecipeExtractionTest {
+	private static final RecipeType<TestRecipe> RECIPE_TYPE = TestRecipeCategory.createRecipeType("test_parallel");
+	private static final RecipeType<TestRecipe> OTHER_RECIPE_TYPE = TestRecipeCategory.createRecipeType("test_parallel_other");
+	/**
+	 * More than several batches of recipes, so that the parallel extraction has batches to split up.
+	 */
+	private static final int RECIPE_COUNT = 1000;
+	private static final int INPUT_COUNT = 37;
+	private static final int OUTPUT_COUNT = 211;
+
+	@TempDir
+	@Nullable
+	private Path configDir;
+	@Nullable
+	private IIngredientManager ingredientManager;
+	@Nullable
+	private ExecutorService executor;
+	private final List<TestRecipe> recipes = new ArrayList<>();
+	private final List<TestRecipe> otherRecipes = new ArrayList<>();
+
+	@BeforeEach
+	public void setup() {
+		TestPlugin testPlugin = new TestPlugin();
+		SubtypeManager subtypeManager = new SubtypeManager(new SubtypeInterpreters());
+		IColorHelper colorHelper = new TestColorHelper();
+		IngredientManagerBuilder ingredientManagerBuilder = new IngredientManagerBuilder(subtypeManager, colorHelper);
+		testPlugin.registerIngredients(ingredientManagerBuilder);
+		this.ingredientManager = ingredientManagerBuilder.build();
+		this.executor = Executors.newFixedThreadPool(4);
+
+		recipes.clear();
+		otherRecipes.clear();
+		for (int i = 0; i < RECIPE_COUNT; i++) {
+			recipes.add(TestRecipe.create("recipe_" + i, i % INPUT_COUNT, 1000 + i % OUTPUT_COUNT));
+			otherRecipes.add(TestRecipe.create("other_recipe_" + i, (i * 7) % INPUT_COUNT, 1000 + (i * 3) % OUTPUT_COUNT));
+		}
+	}
+
+	@AfterEach
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testParallelMatchesSerial() {
+		Assertions.assertNotNull(executor);
+		RecipeManagerInternal serial = createRecipeManager(new TestRecipeCategory(RECIPE_TYPE, false), Runnable::run, false);
+		RecipeManagerInternal parallel = createRecipeManager(new TestRecipeCategory(RECIPE_TYPE, true), executor, false);
+
+		assertSameLookups(serial, parallel);
+	}
+
+	@Test
+	public void testRecipesThatAreNotThreadSafe() {
+		Assertions.assertNotNull(executor);
+		Thread thread = Thread.currentThread();
+		Set<Thread> threadUnsafeThreads = ConcurrentHashMap.newKeySet();
+		Set<Thread> threadSafeThreads = ConcurrentHashMap.newKeySet();
+		TestRecipeCategory partlyThreadSafe = new TestRecipeCategory(RECIPE_TYPE, true) {
+			@Override
+			public boolean isThreadSafe(TestRecipe recipe) {
+				return recipes.indexOf(recipe) % 10 != 0;
+			}
+
+			@Override
+			public void setRecipe(IRecipeLayoutBuilder builder, TestRecipe recipe, IFocusGroup focuses) {
+				if (isThreadSafe(recipe)) {
+					threadSafeThreads.add(Thread.currentThread());
+				} else {
+					threadUnsafeThreads.add(Thread.currentThread());
+				}
+				super.setRecipe(builder, recipe, focuses);
+			}
+		};
+
+		RecipeManagerInternal serial = createRecipeManager(new TestRecipeCategory(RECIPE_TYPE, false), Runnable::run, false);
+		RecipeManagerInternal parallel = createRecipeManager(partlyThreadSafe, executor, false);
+
+		Assertions.assertEquals(Set.of(thread), threadUnsafeThreads);
+		Assertions.assertFalse(threadSafeThreads.contains(thread));
+		assertSameLookups(serial, parallel);
+	}
+
+	@Test
+	public void testPrefetchMatchesSerial() {
+		Assertions.assertNotNull(executor);
+		RecipeManagerInternal serial = createRecipeManager(new TestRecipeCategory(RECIPE_TYPE, false), Runnable::run, false);
+		RecipeManagerInternal prefetched = createRecipeManager(new TestRecipeCategory(RECIPE_TYPE, true), executor, true);
+		prefetched.prefetchUnindexedRecipes();
+
+		assertSameLookups(serial, prefetched);
+	}
+
+	private RecipeManagerInternal createRecipeManager(TestRecipeCategory recipeCategory, Executor executor, boolean lazyIndexing) {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(configDir);
+		List<IRecipeCategory<?>> recipeCategories = List.of(
+			recipeCategory,
+			new TestRecipeCategory(OTHER_RECIPE_TYPE, recipeCategory.isThreadSafe())
+		);
+		RecipeManagerInternal recipeManager = TestRecipeManagerFactory.create(ingredientManager, recipeCategories, ImmutableListMultimap.of(), configDir, executor, lazyIndexing);
+		recipeManager.addRecipes(RECIPE_TYPE, recipes);
+		recipeManager.addRecipes(OTHER_RECIPE_TYPE, otherRecipes);
+		return recipeManager;
+	}
+
+	private void assertSameLookups(RecipeManagerInternal expected, RecipeManagerInternal actual) {
+		assertSameLookups(expected, actual, FocusGroup.EMPTY);
+		for (int i = 0; i < INPUT_COUNT; i++) {
+			assertSameLookups(expected, actual, createFocus(RecipeIngredientRole.INPUT, i));
+		}
+		for (int i = 0; i < OUTPUT_COUNT; i++) {
+			assertSameLookups(expected, actual, createFocus(RecipeIngredientRole.OUTPUT, 1000 + i));
+		}
+	}
+
+	private static void assertSameLookups(RecipeManagerInternal expected, RecipeManagerInternal actual, IFocusGroup focuses) {
+		String message = focuses.getAllFocuses().toString();
+		Assertions.assertEquals(getRecipeTypes(expected, focuses), getRecipeTypes(actual, focuses), message);
+		for (RecipeType<TestRecipe> recipeType : List.of(RECIPE_TYPE, OTHER_RECIPE_TYPE)) {
+			List<TestRecipe> expectedRecipes = expected.getRecipesStream(recipeType, focuses, false).toList();
+			Assertions.assertFalse(expectedRecipes.isEmpty(), message);
+			Assertions.assertEquals(expectedRecipes, actual.getRecipesStream(recipeType, focuses, false).toList(), message);
+			Assertions.assertEquals(expected.getRecipeCount(recipeType, focuses, false), actual.getRecipeCount(recipeType, focuses, false), message);
+		}
+	}
+
+	private static List<RecipeType<?>> getRecipeTypes(RecipeManagerInternal recipeManager, IFocusGroup focuses) {
+		return recipeManager.getRecipeCategoriesForTypes(List.of(), focuses, false)
+			.<RecipeType<?>>map(IRecipeCategory::getRecipeType)
+			.toList();
+	}
+
+	private IFocusGroup createFocus(RecipeIngredientRole role, int ingredientNumber) {
+		Assertions.assertNotNull(ingredientManager);
+		return Focus.createFromApi(ingredientManager, role, TestIngredient.TYPE, new TestIngredient(ingredientNumber));
+	}
+}
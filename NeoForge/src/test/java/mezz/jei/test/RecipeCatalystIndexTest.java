@@ -0,0 +1,107 @@
+package mezz.jei.test;
+
+import com.google.common.collect.ImmutableListMultimap;
+import mezz.jei.api.helpers.IColorHelper;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.library.ingredients.TypedIngredient;
+import mezz.jei.library.ingredients.subtypes.SubtypeInterpreters;
+import mezz.jei.library.ingredients.subtypes.SubtypeManager;
+import mezz.jei.library.load.registration.IngredientManagerBuilder;
+import mezz.jei.library.recipes.collect.IngredientUidInterner;
+import mezz.jei.library.recipes.collect.RecipeCatalystIndex;
+import mezz.jei.library.recipes.collect.RecipeTypeRegistry;
+import mezz.jei.test.lib.TestColorHelper;
+import mezz.jei.test.lib.TestIngredient;
+import mezz.jei.test.lib.TestPlugin;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+public class RecipeCatalystIndexTest {
+	private static final RecipeType<Object> RECIPE_TYPE_A = RecipeType.create("jei", "test_a", Object.class);
+	private static final RecipeType<Object> RECIPE_TYPE_B = RecipeType.create("jei", "test_b", Object.class);
+	private static final RecipeType<Object> RECIPE_TYPE_C = RecipeType.create("jei", "test_c", Object.class);
+	private static final RecipeType<Object> RECIPE_TYPE_UNREGISTERED = RecipeType.create("jei", "test_unregistered", Object.class);
+
+	@Nullable
+	private RecipeCatalystIndex catalystIndex;
+
+	@BeforeEach
+	public void setup() {
+		TestPlugin testPlugin = new TestPlugin();
+		SubtypeManager subtypeManager = new SubtypeManager(new SubtypeInterpreters());
+		IColorHelper colorHelper = new TestColorHelper();
+		IngredientManagerBuilder ingredientManagerBuilder = new IngredientManagerBuilder(subtypeManager, colorHelper);
+		testPlugin.registerIngredients(ingredientManagerBuilder);
+		IIngredientManager ingredientManager = ingredientManagerBuilder.build();
+
+		RecipeTypeRegistry recipeTypeRegistry = new RecipeTypeRegistry(List.of(RECIPE_TYPE_A, RECIPE_TYPE_B, RECIPE_TYPE_C));
+		ImmutableListMultimap<RecipeType<?>, ITypedIngredient<?>> recipeCatalysts = ImmutableListMultimap.<RecipeType<?>, ITypedIngredient<?>>builder()
+			.putAll(RECIPE_TYPE_A, catalyst(2), catalyst(1))
+			.putAll(RECIPE_TYPE_B, catalyst(2))
+			.putAll(RECIPE_TYPE_C, catalyst(3), catalyst(3))
+			.putAll(RECIPE_TYPE_UNREGISTERED, catalyst(4))
+			.build();
+		// sort the recipe types in reverse, to check that the index does not just use registration order
+		Comparator<RecipeType<?>> recipeTypeComparator = Comparator.<RecipeType<?>, String>comparing(recipeType -> recipeType.getUid().getPath()).reversed();
+
+		this.catalystIndex = new RecipeCatalystIndex(recipeTypeRegistry, recipeCatalysts, recipeTypeComparator, ingredientManager, new IngredientUidInterner());
+	}
+
+	@Test
+	public void testCatalystsOfRecipeType() {
+		Assertions.assertNotNull(catalystIndex);
+
+		Assertions.assertEquals(List.of(2, 1), numbers(catalystIndex.getCatalysts(RECIPE_TYPE_A)));
+		Assertions.assertEquals(List.of(2), numbers(catalystIndex.getCatalysts(RECIPE_TYPE_B)));
+		Assertions.assertEquals(List.of(), catalystIndex.getCatalysts(RECIPE_TYPE_UNREGISTERED));
+	}
+
+	@Test
+	public void testRecipeTypesOfCatalyst() {
+		Assertions.assertNotNull(catalystIndex);
+
+		Assertions.assertEquals(List.of(RECIPE_TYPE_B, RECIPE_TYPE_A), catalystIndex.getRecipeTypes(catalyst(2)));
+		Assertions.assertEquals(List.of(RECIPE_TYPE_A), catalystIndex.getRecipeTypes(catalyst(1)));
+		// registered twice for the same recipe type, but only listed once
+		Assertions.assertEquals(List.of(RECIPE_TYPE_C), catalystIndex.getRecipeTypes(catalyst(3)));
+		// only registered for a recipe type without a category
+		Assertions.assertEquals(List.of(), catalystIndex.getRecipeTypes(catalyst(4)));
+		Assertions.assertEquals(List.of(), catalystIndex.getRecipeTypes(catalyst(5)));
+	}
+
+	@Test
+	public void testIsCatalyst() {
+		Assertions.assertNotNull(catalystIndex);
+
+		Assertions.assertTrue(catalystIndex.isCatalyst(RECIPE_TYPE_A, catalyst(1)));
+		Assertions.assertFalse(catalystIndex.isCatalyst(RECIPE_TYPE_B, catalyst(1)));
+		Assertions.assertTrue(catalystIndex.isCatalyst(catalyst(3)));
+		Assertions.assertFalse(catalystIndex.isCatalyst(catalyst(5)));
+	}
+
+	@Test
+	public void testBulkRecipeTypes() {
+		Assertions.assertNotNull(catalystIndex);
+
+		List<RecipeType<?>> recipeTypes = catalystIndex.getRecipeTypes(List.of(catalyst(1), catalyst(3), catalyst(2), catalyst(5)));
+		Assertions.assertEquals(List.of(RECIPE_TYPE_C, RECIPE_TYPE_B, RECIPE_TYPE_A), recipeTypes);
+		Assertions.assertEquals(List.of(), catalystIndex.getRecipeTypes(List.of()));
+	}
+
+	private static ITypedIngredient<TestIngredient> catalyst(int number) {
+		return TypedIngredient.createUnvalidated(TestIngredient.TYPE, new TestIngredient(number));
+	}
+
+	private static List<Integer> numbers(List<ITypedIngredient<?>> catalysts) {
+		return catalysts.stream()
+			.map(catalyst -> catalyst.getIngredient(TestIngredient.TYPE).orElseThrow().number())
+			.toList();
+	}
+}
@@ -0,0 +1,143 @@
+package mezz.jei.test;
+
+import mezz.jei.api.helpers.IColorHelper;
+import mezz.jei.api.ingredients.IIngredientSupplier;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.recipe.RecipeIngredientRole;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.core.recipes.snapshot.RecipeIndexFingerprint;
+import mezz.jei.library.focus.FocusFactory;
+import mezz.jei.library.helpers.CodecHelper;
+import mezz.jei.library.ingredients.subtypes.SubtypeInterpreters;
+import mezz.jei.library.ingredients.subtypes.SubtypeManager;
+import mezz.jei.library.load.registration.IngredientManagerBuilder;
+import mezz.jei.library.recipes.cache.RecipeIndexCache;
+import mezz.jei.library.util.IngredientSupplierHelper;
+import mezz.jei.test.lib.TestColorHelper;
+import mezz.jei.test.lib.TestIngredient;
+import mezz.jei.test.lib.TestPlugin;
+import mezz.jei.test.lib.TestRecipe;
+import mezz.jei.test.lib.TestRecipeCategory;
+import net.minecraft.core.RegistryAccess;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RecipeIndexCacheTest {
+	@TempDir
+	@Nullable
+	private Path tempDir;
+	@Nullable
+	private IIngredientManager ingredientManager;
+	@Nullable
+	private CodecHelper codecHelper;
+	private final IRecipeCategory<TestRecipe> recipeCategory = new TestRecipeCategory(TestRecipeCategory.createRecipeType("test_cache"));
+	private final List<TestRecipe> recipes = new ArrayList<>();
+
+	@BeforeEach
+	public void setup() {
+		TestPlugin testPlugin = new TestPlugin();
+		SubtypeManager subtypeManager = new SubtypeManager(new SubtypeInterpreters());
+		IColorHelper colorHelper = new TestColorHelper();
+		IngredientManagerBuilder ingredientManagerBuilder = new IngredientManagerBuilder(subtypeManager, colorHelper);
+		testPlugin.registerIngredients(ingredientManagerBuilder);
+		this.ingredientManager = ingredientManagerBuilder.build();
+		this.codecHelper = new CodecHelper(ingredientManager, new FocusFactory(ingredientManager));
+
+		recipes.clear();
+		for (int i = 0; i < 20; i++) {
+			recipes.add(new TestRecipe("recipe_" + i, List.of(i % 5, i % 3), List.of(100 + i)));
+		}
+	}
+
+	@Test
+	public void testHit() {
+		saveSnapshot(fingerprint("1.0"));
+
+		RecipeIndexCache cache = createCache(fingerprint("1.0"));
+		for (TestRecipe recipe : recipes) {
+			IIngredientSupplier cached = cache.getIngredientSupplier(recipeCategory, recipe);
+			Assertions.assertNotNull(cached, recipe.toString());
+			IIngredientSupplier expected = getIngredientSupplier(recipe);
+			for (RecipeIngredientRole role : RecipeIngredientRole.values()) {
+				// the snapshot only saves each ingredient of a role once, that is all the recipe index needs
+				List<Integer> expectedNumbers = numbers(expected.getIngredients(role)).stream().distinct().toList();
+				Assertions.assertEquals(expectedNumbers, numbers(cached.getIngredients(role)), recipe + " " + role);
+			}
+		}
+	}
+
+	@Test
+	public void testStaleFingerprint() {
+		saveSnapshot(fingerprint("1.0"));
+
+		RecipeIndexCache cache = createCache(fingerprint("1.1"));
+		for (TestRecipe recipe : recipes) {
+			Assertions.assertNull(cache.getIngredientSupplier(recipeCategory, recipe), recipe.toString());
+		}
+	}
+
+	@Test
+	public void testChangedRecipeWithSameId() {
+		saveSnapshot(fingerprint("1.0"));
+
+		RecipeIndexCache cache = createCache(fingerprint("1.0"));
+		TestRecipe changed = new TestRecipe("recipe_0", List.of(4), List.of(999));
+		Assertions.assertEquals(recipeCategory.getRegistryName(recipes.getFirst()), recipeCategory.getRegistryName(changed));
+		Assertions.assertNull(cache.getIngredientSupplier(recipeCategory, changed));
+		Assertions.assertNotNull(cache.getIngredientSupplier(recipeCategory, recipes.get(1)));
+	}
+
+	private void saveSnapshot(byte[] fingerprint) {
+		RecipeIndexCache cache = createCache(fingerprint);
+		for (TestRecipe recipe : recipes) {
+			Assertions.assertNull(cache.getIngredientSupplier(recipeCategory, recipe));
+			cache.addRecipe(recipeCategory, recipe, getIngredientSupplier(recipe));
+		}
+		cache.save(Runnable::run);
+		Assertions.assertTrue(Files.isRegularFile(getSnapshotPath()));
+	}
+
+	private RecipeIndexCache createCache(byte[] fingerprint) {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(codecHelper);
+		return new RecipeIndexCache(
+			getSnapshotPath(),
+			fingerprint,
+			ingredientManager,
+			codecHelper,
+			RegistryAccess.EMPTY,
+			recipe -> recipe instanceof TestRecipe testRecipe ? Long.valueOf(testRecipe.hashCode()) : null
+		);
+	}
+
+	private Path getSnapshotPath() {
+		Assertions.assertNotNull(tempDir);
+		return tempDir.resolve("recipe-index.bin");
+	}
+
+	private IIngredientSupplier getIngredientSupplier(TestRecipe recipe) {
+		Assertions.assertNotNull(ingredientManager);
+		return IngredientSupplierHelper.getIngredientSupplier(recipe, recipeCategory, ingredientManager);
+	}
+
+	private static byte[] fingerprint(String version) {
+		return new RecipeIndexFingerprint()
+			.add(version)
+			.build();
+	}
+
+	private static List<Integer> numbers(List<ITypedIngredient<?>> ingredients) {
+		return ingredients.stream()
+			.map(ingredient -> ingredient.getIngredient(TestIngredient.TYPE).orElseThrow().number())
+			.toList();
+	}
+}
@@ -0,0 +1,286 @@
+package mezz.jei.test;
+
+import com.google.common.collect.ImmutableListMultimap;
+import mezz.jei.api.helpers.IColorHelper;
+import mezz.jei.api.recipe.IFocus;
+import mezz.jei.api.recipe.IFocusGroup;
+import mezz.jei.api.recipe.IRecipeLookup;
+import mezz.jei.api.recipe.IRecipeManager;
+import mezz.jei.api.recipe.RecipeIngredientRole;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.advanced.IRecipeManagerPlugin;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.gui.recipes.lookups.FocusedRecipes;
+import mezz.jei.gui.recipes.lookups.IFocusedRecipes;
+import mezz.jei.library.focus.Focus;
+import mezz.jei.library.focus.FocusGroup;
+import mezz.jei.library.ingredients.subtypes.SubtypeInterpreters;
+import mezz.jei.library.ingredients.subtypes.SubtypeManager;
+import mezz.jei.library.load.registration.IngredientManagerBuilder;
+import mezz.jei.library.recipes.RecipeManager;
+import mezz.jei.library.recipes.RecipeManagerInternal;
+import mezz.jei.test.lib.TestColorHelper;
+import mezz.jei.test.lib.TestIngredient;
+import mezz.jei.test.lib.TestPlugin;
+import mezz.jei.test.lib.TestRecipe;
+import mezz.jei.test.lib.TestRecipeCategory;
+import mezz.jei.test.lib.TestRecipeManagerFactory;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+public class RecipeLookupTest {
+	private static final RecipeType<TestRecipe> RECIPE_TYPE = TestRecipeCategory.createRecipeType("test_lookup");
+	private static final RecipeType<TestRecipe> UNLISTED_RECIPE_TYPE = TestRecipeCategory.createRecipeType("test_unlisted");
+	private static final int RECIPE_COUNT = 50;
+	private static final int PAGE_SIZE = 7;
+
+	@TempDir
+	@Nullable
+	private Path configDir;
+	@Nullable
+	private IIngredientManager ingredientManager;
+	@Nullable
+	private RecipeManagerInternal recipeManager;
+	private final List<TestRecipe> recipes = new ArrayList<>();
+	private final List<TestRecipe> pluginRecipes = new ArrayList<>();
+
+	@BeforeEach
+	public void setup() {
+		Assertions.assertNotNull(configDir);
+		TestPlugin testPlugin = new TestPlugin();
+		SubtypeManager subtypeManager = new SubtypeManager(new SubtypeInterpreters());
+		IColorHelper colorHelper = new TestColorHelper();
+		IngredientManagerBuilder ingredientManagerBuilder = new IngredientManagerBuilder(subtypeManager, colorHelper);
+		testPlugin.registerIngredients(ingredientManagerBuilder);
+		this.ingredientManager = ingredientManagerBuilder.build();
+
+		List<IRecipeCategory<?>> recipeCategories = List.of(
+			new TestRecipeCategory(RECIPE_TYPE),
+			new TestRecipeCategory(UNLISTED_RECIPE_TYPE)
+		);
+		this.recipeManager = TestRecipeManagerFactory.create(ingredientManager, recipeCategories, ImmutableListMultimap.of(), configDir, Runnable::run, false);
+
+		// every recipe uses one of a few inputs, and has its own output
+		recipes.clear();
+		for (int i = 0; i < RECIPE_COUNT; i++) {
+			recipes.add(TestRecipe.create("recipe_" + i, i % 5, 100 + i));
+		}
+		recipeManager.addRecipes(RECIPE_TYPE, recipes);
+		recipeManager.hideRecipes(RECIPE_TYPE, List.of(recipes.get(3), recipes.get(21)));
+
+		// the plugin returns some recipes of its own, and some that JEI already has
+		pluginRecipes.clear();
+		for (int i = 0; i < 10; i++) {
+			pluginRecipes.add(TestRecipe.create("plugin_recipe_" + i, i % 5, 200 + i));
+			pluginRecipes.add(recipes.get(i * 4));
+		}
+		recipeManager.addPlugins(List.of(new ExtraRecipesPlugin()));
+	}
+
+	@Test
+	public void testDuplicatesAreRemoved() {
+		Assertions.assertNotNull(recipeManager);
+
+		List<TestRecipe> expected = new ArrayList<>(recipes);
+		pluginRecipes.stream()
+			.filter(recipe -> !recipes.contains(recipe))
+			.forEach(expected::add);
+
+		List<TestRecipe> results = recipeManager.getRecipesStream(RECIPE_TYPE, FocusGroup.EMPTY, true).toList();
+		Assertions.assertEquals(expected, results);
+
+		expected.remove(recipes.get(3));
+		expected.remove(recipes.get(21));
+		results = recipeManager.getRecipesStream(RECIPE_TYPE, FocusGroup.EMPTY, false).toList();
+		Assertions.assertEquals(expected, results);
+	}
+
+	@Test
+	public void testPagesMatchUnpagedResults() {
+		for (IFocusGroup focuses : createFocusGroups()) {
+			for (boolean includeHidden : new boolean[]{false, true}) {
+				List<TestRecipe> expected = createRecipeLookup(focuses, includeHidden).get().toList();
+				String message = focuses.getAllFocuses() + (includeHidden ? " including hidden" : "");
+				Assertions.assertEquals(expected.size(), new HashSet<>(expected).size(), "duplicate results for " + message);
+				Assertions.assertEquals(expected.size(), createRecipeLookup(focuses, includeHidden).count(), message);
+
+				// read every page forward, then backward, with the same lookup
+				IRecipeLookup<TestRecipe> recipeLookup = createRecipeLookup(focuses, includeHidden);
+				List<TestRecipe> forward = new ArrayList<>();
+				for (int skip = 0; skip < expected.size() + PAGE_SIZE; skip += PAGE_SIZE) {
+					forward.addAll(recipeLookup.getPage(skip, PAGE_SIZE));
+				}
+				Assertions.assertEquals(expected, forward, message);
+				for (int skip = expected.size() - 1; skip >= 0; skip -= PAGE_SIZE) {
+					List<TestRecipe> page = recipeLookup.getPage(skip, PAGE_SIZE);
+					Assertions.assertEquals(expected.subList(skip, Math.min(expected.size(), skip + PAGE_SIZE)), page, message + " from " + skip);
+				}
+				Assertions.assertEquals(expected.size(), recipeLookup.count(), message);
+
+				// pages from a new lookup, out of order
+				Assertions.assertEquals(
+					expected.subList(Math.min(expected.size(), 20), Math.min(expected.size(), 20 + PAGE_SIZE)),
+					createRecipeLookup(focuses, includeHidden).getPage(20, PAGE_SIZE),
+					message
+				);
+				Assertions.assertEquals(List.of(), createRecipeLookup(focuses, includeHidden).getPage(expected.size(), PAGE_SIZE), message);
+			}
+		}
+	}
+
+	@Test
+	public void testFocusedRecipesPaging() {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(recipeManager);
+		IRecipeManager recipeManagerApi = new RecipeManager(recipeManager, ingredientManager);
+		IRecipeCategory<TestRecipe> recipeCategory = recipeManager.getRecipeCategory(RECIPE_TYPE);
+
+		for (IFocusGroup focuses : createFocusGroups()) {
+			List<TestRecipe> expected = createRecipeLookup(focuses, false).get().toList();
+			IFocusedRecipes<TestRecipe> focusedRecipes = FocusedRecipes.create(focuses, recipeManagerApi, recipeCategory);
+			String message = focuses.getAllFocuses().toString();
+
+			List<TestRecipe> forward = new ArrayList<>();
+			for (int skip = 0; skip < expected.size(); skip += PAGE_SIZE) {
+				forward.addAll(focusedRecipes.getRecipes(skip, PAGE_SIZE));
+			}
+			Assertions.assertEquals(expected, forward, message);
+
+			List<TestRecipe> backward = new ArrayList<>();
+			int lastPageStart = (expected.size() - 1) / PAGE_SIZE * PAGE_SIZE;
+			for (int skip = lastPageStart; skip >= 0; skip -= PAGE_SIZE) {
+				backward.addAll(0, focusedRecipes.getRecipes(skip, PAGE_SIZE));
+			}
+			Assertions.assertEquals(expected, backward, message);
+			Assertions.assertEquals(expected.size(), focusedRecipes.getRecipeCount(), message);
+		}
+	}
+
+	@Test
+	public void testPagesAfterRecipesChange() {
+		Assertions.assertNotNull(recipeManager);
+
+		IRecipeLookup<TestRecipe> recipeLookup = createRecipeLookup(FocusGroup.EMPTY, false);
+		List<TestRecipe> before = createRecipeLookup(FocusGroup.EMPTY, false).get().toList();
+		Assertions.assertEquals(before.subList(7, 14), recipeLookup.getPage(7, PAGE_SIZE));
+
+		// hiding a recipe before the page moves the page along
+		recipeManager.hideRecipes(RECIPE_TYPE, List.of(recipes.get(0)));
+		List<TestRecipe> afterHiding = createRecipeLookup(FocusGroup.EMPTY, false).get().toList();
+		Assertions.assertEquals(before.subList(1, before.size()), afterHiding);
+		Assertions.assertEquals(afterHiding.subList(7, 14), recipeLookup.getPage(7, PAGE_SIZE));
+
+		TestRecipe added = TestRecipe.create("added", 1, 300);
+		recipeManager.addRecipes(RECIPE_TYPE, List.of(added));
+		List<TestRecipe> expected = createRecipeLookup(FocusGroup.EMPTY, false).get().toList();
+		Assertions.assertTrue(expected.contains(added));
+		int lastPageStart = expected.size() - PAGE_SIZE;
+		Assertions.assertEquals(expected.subList(lastPageStart, expected.size()), recipeLookup.getPage(lastPageStart, PAGE_SIZE));
+		Assertions.assertEquals(expected.size(), recipeLookup.count());
+	}
+
+	@Test
+	public void testCountOfRecipeTypeNotListedForFocus() {
+		Assertions.assertNotNull(recipeManager);
+
+		// the plugin returns recipes of this type for the focus, without listing the type for it
+		IFocusGroup focus = createFocus(RecipeIngredientRole.INPUT, 1);
+
+		long expected = recipeManager.getRecipesStream(UNLISTED_RECIPE_TYPE, focus, false).count();
+		Assertions.assertTrue(expected > 0);
+		Assertions.assertEquals(expected, recipeManager.getRecipeCount(UNLISTED_RECIPE_TYPE, focus, false));
+		Assertions.assertEquals(expected, recipeManager.getRecipeCount(UNLISTED_RECIPE_TYPE, focus, false));
+	}
+
+	private List<IFocusGroup> createFocusGroups() {
+		Assertions.assertNotNull(ingredientManager);
+		List<IFocus<?>> inputAndOutput = List.of(
+			Focus.createFromApi(ingredientManager, RecipeIngredientRole.INPUT, TestIngredient.TYPE, new TestIngredient(1)),
+			// this output is from a recipe that also has the input above, so that recipe is found for both focuses
+			Focus.createFromApi(ingredientManager, RecipeIngredientRole.OUTPUT, TestIngredient.TYPE, new TestIngredient(106))
+		);
+		return List.of(
+			FocusGroup.EMPTY,
+			createFocus(RecipeIngredientRole.INPUT, 1),
+			createFocus(RecipeIngredientRole.OUTPUT, 200),
+			FocusGroup.create(inputAndOutput, ingredientManager)
+		);
+	}
+
+	private IFocusGroup createFocus(RecipeIngredientRole role, int ingredientNumber) {
+		Assertions.assertNotNull(ingredientManager);
+		return Focus.createFromApi(ingredientManager, role, TestIngredient.TYPE, new TestIngredient(ingredientNumber));
+	}
+
+	private IRecipeLookup<TestRecipe> createRecipeLookup(IFocusGroup focuses, boolean includeHidden) {
+		Assertions.assertNotNull(ingredientManager);
+		Assertions.assertNotNull(recipeManager);
+		IRecipeLookup<TestRecipe> recipeLookup = new RecipeManager(recipeManager, ingredientManager)
+			.createRecipeLookup(RECIPE_TYPE)
+			.limitFocus(focuses.getAllFocuses());
+		if (includeHidden) {
+			recipeLookup.includeHidden();
+		}
+		return recipeLookup;
+	}
+
+	/**
+	 * Adds {@link #pluginRecipes} to the results, the same way as a mod's recipe manager plugin.
+	 */
+	private class ExtraRecipesPlugin implements IRecipeManagerPlugin {
+		@Override
+		public <V> List<RecipeType<?>> getRecipeTypes(IFocus<V> focus) {
+			return List.of(RECIPE_TYPE);
+		}
+
+		@Override
+		public <T, V> List<T> getRecipes(IRecipeCategory<T> recipeCategory, IFocus<V> focus) {
+			if (!recipeCategory.getRecipeType().equals(RECIPE_TYPE) && !recipeCategory.getRecipeType().equals(UNLISTED_RECIPE_TYPE)) {
+				return List.of();
+			}
+			TestIngredient ingredient = focus.checkedCast(TestIngredient.TYPE)
+				.map(f -> f.getTypedValue().getIngredient())
+				.orElse(null);
+			if (ingredient == null) {
+				return List.of();
+			}
+			List<TestRecipe> found = pluginRecipes.stream()
+				.filter(recipe -> switch (focus.getRole()) {
+					case INPUT -> recipe.inputs().contains(ingredient.number());
+					case OUTPUT -> recipe.outputs().contains(ingredient.number());
+					default -> false;
+				})
+				.toList();
+			return castRecipes(recipeCategory, found);
+		}
+
+		@Override
+		public <T> List<T> getRecipes(IRecipeCategory<T> recipeCategory) {
+			if (!recipeCategory.getRecipeType().equals(RECIPE_TYPE)) {
+				return List.of();
+			}
+			return castRecipes(recipeCategory, pluginRecipes);
+		}
+
+		@Override
+		public boolean isCacheable() {
+			return true;
+		}
+
+		private static <T> List<T> castRecipes(IRecipeCategory<T> recipeCategory, List<TestRecipe> recipes) {
+			Class<? extends T> recipeClass = recipeCategory.getRecipeType().getRecipeClass();
+			return recipes.stream()
+				.<T>map(recipeClass::cast)
+				.toList();
+		}
+	}
+}
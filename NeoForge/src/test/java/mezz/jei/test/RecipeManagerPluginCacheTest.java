@@ -0,0 +1,144 @@
+package mezz.jei.test;
+
+import mezz.jei.api.recipe.IFocus;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.advanced.IRecipeManagerPlugin;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.library.recipes.RecipeManagerPluginCache;
+import mezz.jei.library.recipes.RecipeManagerPluginStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RecipeManagerPluginCacheTest {
+	private static final RecipeType<Object> RECIPE_TYPE_A = RecipeType.create("jei", "test_a", Object.class);
+	private static final RecipeType<Object> RECIPE_TYPE_B = RecipeType.create("jei", "test_b", Object.class);
+
+	private int calls;
+
+	@Test
+	public void testRepeatedCallIsCached() {
+		RecipeManagerPluginCache cache = new RecipeManagerPluginCache(1024 * 1024);
+		IRecipeManagerPlugin plugin = new TestRecipeManagerPlugin();
+		RecipeManagerPluginStats stats = new RecipeManagerPluginStats("test");
+
+		List<Object> first = get(cache, plugin, RECIPE_TYPE_A, stats, 3);
+		List<Object> second = get(cache, plugin, RECIPE_TYPE_A, stats, 3);
+		get(cache, plugin, RECIPE_TYPE_B, stats, 3);
+
+		Assertions.assertSame(first, second);
+		Assertions.assertEquals(2, calls);
+		Assertions.assertEquals(1, stats.getCacheHits());
+		Assertions.assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testKeyedByPlugin() {
+		RecipeManagerPluginCache cache = new RecipeManagerPluginCache(1024 * 1024);
+		RecipeManagerPluginStats stats = new RecipeManagerPluginStats("test");
+
+		get(cache, new TestRecipeManagerPlugin(), RECIPE_TYPE_A, stats, 3);
+		get(cache, new TestRecipeManagerPlugin(), RECIPE_TYPE_A, stats, 3);
+
+		Assertions.assertEquals(2, calls);
+		Assertions.assertEquals(0, stats.getCacheHits());
+	}
+
+	@Test
+	public void testBudget() {
+		RecipeManagerPluginCache cache = new RecipeManagerPluginCache(1024);
+		IRecipeManagerPlugin plugin = new TestRecipeManagerPlugin();
+		RecipeManagerPluginStats stats = new RecipeManagerPluginStats("test");
+
+		// too big to fit the budget at all, so it is never remembered
+		get(cache, plugin, RECIPE_TYPE_A, stats, 1000);
+		get(cache, plugin, RECIPE_TYPE_A, stats, 1000);
+		Assertions.assertEquals(2, calls);
+		Assertions.assertEquals(0, cache.size());
+
+		for (int i = 0; i < 100; i++) {
+			RecipeType<Object> recipeType = RecipeType.create("jei", "test_" + i, Object.class);
+			get(cache, plugin, recipeType, stats, 10);
+		}
+		Assertions.assertTrue(cache.size() < 100, "cache size should be bounded, but it is " + cache.size());
+		Assertions.assertTrue(cache.getEstimatedBytes() <= cache.getMaxBytes());
+	}
+
+	@Test
+	public void testRemovePlugin() {
+		RecipeManagerPluginCache cache = new RecipeManagerPluginCache(1024 * 1024);
+		IRecipeManagerPlugin plugin1 = new TestRecipeManagerPlugin();
+		IRecipeManagerPlugin plugin2 = new TestRecipeManagerPlugin();
+		RecipeManagerPluginStats stats = new RecipeManagerPluginStats("test");
+
+		get(cache, plugin1, RECIPE_TYPE_A, stats, 3);
+		get(cache, plugin1, RECIPE_TYPE_B, stats, 3);
+		get(cache, plugin2, RECIPE_TYPE_A, stats, 3);
+		long plugin2Bytes = cache.getEstimatedBytes() / 3;
+
+		cache.remove(plugin1);
+		Assertions.assertEquals(1, cache.size());
+		Assertions.assertEquals(plugin2Bytes, cache.getEstimatedBytes());
+	}
+
+	@Test
+	public void testPluginRemovedDuringCall() {
+		RecipeManagerPluginCache cache = new RecipeManagerPluginCache(1024 * 1024);
+		IRecipeManagerPlugin plugin = new TestRecipeManagerPlugin();
+		RecipeManagerPluginStats stats = new RecipeManagerPluginStats("test");
+
+		get(cache, plugin, RECIPE_TYPE_A, stats, 3);
+
+		// like the plugin manager does when a plugin crashes, it is removed during the call and the result is empty
+		List<Object> result = cache.get(plugin, RECIPE_TYPE_B, null, stats, () -> {
+			calls++;
+			cache.remove(plugin);
+			return List.of();
+		});
+		Assertions.assertEquals(List.of(), result);
+		Assertions.assertEquals(0, cache.size());
+		Assertions.assertEquals(0, cache.getEstimatedBytes());
+
+		// calls that were already started for the removed plugin are not remembered either
+		get(cache, plugin, RECIPE_TYPE_A, stats, 3);
+		get(cache, plugin, RECIPE_TYPE_A, stats, 3);
+		Assertions.assertEquals(4, calls);
+		Assertions.assertEquals(0, stats.getCacheHits());
+		Assertions.assertEquals(0, cache.size());
+	}
+
+	private List<Object> get(RecipeManagerPluginCache cache, IRecipeManagerPlugin plugin, RecipeType<?> recipeType, RecipeManagerPluginStats stats, int resultSize) {
+		return cache.get(plugin, recipeType, null, stats, () -> {
+			calls++;
+			List<Object> result = new ArrayList<>(resultSize);
+			for (int i = 0; i < resultSize; i++) {
+				result.add(new Object());
+			}
+			return result;
+		});
+	}
+
+	private static class TestRecipeManagerPlugin implements IRecipeManagerPlugin {
+		@Override
+		public <V> List<RecipeType<?>> getRecipeTypes(IFocus<V> focus) {
+			return List.of();
+		}
+
+		@Override
+		public <T, V> List<T> getRecipes(IRecipeCategory<T> recipeCategory, IFocus<V> focus) {
+			return List.of();
+		}
+
+		@Override
+		public <T> List<T> getRecipes(IRecipeCategory<T> recipeCategory) {
+			return List.of();
+		}
+
+		@Override
+		public boolean isCacheable() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package mezz.jei.test;
+
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.library.config.RecipeCategorySortingConfig;
+import mezz.jei.library.recipes.collect.RecipeTypeDataMap;
+import mezz.jei.library.recipes.collect.RecipeTypeRegistry;
+import mezz.jei.library.recipes.collect.RecipeTypeUidIndex;
+import mezz.jei.test.lib.TestRecipe;
+import mezz.jei.test.lib.TestRecipeCategory;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+public class RecipeTypeRegistryTest {
+	private static final List<RecipeType<TestRecipe>> RECIPE_TYPES = List.of(
+		RecipeType.create("othermod", "grinding", TestRecipe.class),
+		RecipeType.create("minecraft", "smelting", TestRecipe.class),
+		TestRecipeCategory.createRecipeType("information"),
+		RecipeType.create("minecraft", "crafting", TestRecipe.class),
+		RecipeType.create("othermod", "alloying", TestRecipe.class),
+		RecipeType.create("minecraft", "blasting", TestRecipe.class),
+		TestRecipeCategory.createRecipeType("anvil")
+	);
+	private static final RecipeType<TestRecipe> UNREGISTERED = TestRecipeCategory.createRecipeType("unregistered");
+
+	@TempDir
+	@Nullable
+	private Path configDir;
+
+	@Test
+	public void testOrdinals() {
+		RecipeTypeRegistry registry = new RecipeTypeRegistry(List.copyOf(RECIPE_TYPES));
+		Assertions.assertEquals(RECIPE_TYPES.size(), registry.size());
+		for (int i = 0; i < RECIPE_TYPES.size(); i++) {
+			RecipeType<TestRecipe> recipeType = RECIPE_TYPES.get(i);
+			Assertions.assertEquals(i, registry.getOrdinal(recipeType));
+			Assertions.assertEquals(recipeType, registry.get(i));
+			Assertions.assertEquals(Optional.of(recipeType), registry.getType(recipeType.getUid()));
+			Assertions.assertEquals(Optional.of(recipeType), registry.getType(recipeType.getUid(), TestRecipe.class));
+			Assertions.assertEquals(Optional.empty(), registry.getType(recipeType.getUid(), String.class));
+		}
+		Assertions.assertEquals(RecipeTypeRegistry.NO_ORDINAL, registry.getOrdinal(UNREGISTERED));
+		Assertions.assertEquals(Optional.empty(), registry.getType(UNREGISTERED.getUid()));
+	}
+
+	@Test
+	public void testDuplicateUid() {
+		RecipeType<String> duplicate = RecipeType.create("othermod", "grinding", String.class);
+		List<RecipeType<?>> recipeTypes = new ArrayList<>(RECIPE_TYPES);
+		recipeTypes.add(duplicate);
+
+		IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class, () -> new RecipeTypeRegistry(recipeTypes));
+		Assertions.assertTrue(exception.getMessage().contains(duplicate.getUid().toString()), exception.getMessage());
+	}
+
+	@Test
+	public void testComparatorMatchesSortingConfig() {
+		Assertions.assertNotNull(configDir);
+		List<RecipeType<?>> recipeTypes = List.copyOf(RECIPE_TYPES);
+		RecipeCategorySortingConfig sortingConfig = new RecipeCategorySortingConfig(configDir.resolve("recipe-category-sort-order.ini"));
+		RecipeTypeRegistry registry = new RecipeTypeRegistry(recipeTypes);
+
+		List<Comparator<RecipeType<?>>> comparators = List.of(
+			sortingConfig.getComparator(recipeTypes),
+			Comparator.comparing((RecipeType<?> recipeType) -> recipeType.getUid().getPath()).reversed()
+		);
+		for (Comparator<RecipeType<?>> comparator : comparators) {
+			Comparator<RecipeType<?>> ordinalComparator = registry.createComparator(comparator);
+
+			for (RecipeType<?> a : recipeTypes) {
+				for (RecipeType<?> b : recipeTypes) {
+					Assertions.assertEquals(
+						Integer.signum(comparator.compare(a, b)),
+						Integer.signum(ordinalComparator.compare(a, b)),
+						a + " compared to " + b
+					);
+				}
+			}
+
+			Random random = new Random(42);
+			for (int i = 0; i < 10; i++) {
+				List<RecipeType<?>> shuffled = new ArrayList<>(recipeTypes);
+				Collections.shuffle(shuffled, random);
+				List<RecipeType<?>> expected = new ArrayList<>(shuffled);
+				expected.sort(comparator);
+				shuffled.sort(ordinalComparator);
+				Assertions.assertEquals(expected, shuffled);
+			}
+
+			// recipe types that are not registered are sorted last
+			List<RecipeType<?>> withUnregistered = new ArrayList<>(recipeTypes);
+			withUnregistered.addFirst(UNREGISTERED);
+			withUnregistered.sort(ordinalComparator);
+			Assertions.assertEquals(UNREGISTERED, withUnregistered.getLast());
+		}
+	}
+
+	@Test
+	public void testRecipeTypeDataMap() {
+		List<IRecipeCategory<?>> recipeCategories = new ArrayList<>();
+		for (RecipeType<TestRecipe> recipeType : RECIPE_TYPES) {
+			recipeCategories.add(new TestRecipeCategory(recipeType));
+		}
+		RecipeTypeRegistry registry = new RecipeTypeRegistry(List.copyOf(RECIPE_TYPES));
+		RecipeTypeDataMap recipeTypeDataMap = new RecipeTypeDataMap(registry, recipeCategories);
+
+		for (IRecipeCategory<?> recipeCategory : recipeCategories) {
+			RecipeType<?> recipeType = recipeCategory.getRecipeType();
+			Assertions.assertSame(recipeCategory, recipeTypeDataMap.get(recipeType).getRecipeCategory());
+			recipeTypeDataMap.validate(recipeType);
+		}
+		Assertions.assertThrows(IllegalStateException.class, () -> recipeTypeDataMap.get(UNREGISTERED));
+		Assertions.assertThrows(IllegalStateException.class, () -> recipeTypeDataMap.validate(UNREGISTERED));
+
+		// a registered recipe type without a category has no data
+		List<RecipeType<?>> withoutCategory = new ArrayList<>(RECIPE_TYPES);
+		withoutCategory.add(UNREGISTERED);
+		RecipeTypeDataMap partialDataMap = new RecipeTypeDataMap(new RecipeTypeRegistry(withoutCategory), recipeCategories);
+		Assertions.assertThrows(IllegalStateException.class, () -> partialDataMap.get(UNREGISTERED));
+
+		// a category with a recipe type that is not registered
+		List<IRecipeCategory<?>> withUnregistered = new ArrayList<>(recipeCategories);
+		withUnregistered.add(new TestRecipeCategory(UNREGISTERED));
+		Assertions.assertThrows(IllegalStateException.class, () -> new RecipeTypeDataMap(registry, withUnregistered));
+	}
+
+	@Test
+	public void testUidIndexAfterLateCategory() {
+		List<IRecipeCategory<?>> recipeCategories = new ArrayList<>();
+		recipeCategories.add(new TestRecipeCategory(RECIPE_TYPES.get(0)));
+		recipeCategories.add(new TestRecipeCategory(RECIPE_TYPES.get(1)));
+		RecipeTypeUidIndex uidIndex = new RecipeTypeUidIndex(Collections.unmodifiableCollection(recipeCategories));
+
+		Assertions.assertEquals(Optional.of(RECIPE_TYPES.get(0)), uidIndex.get(RECIPE_TYPES.get(0).getUid()));
+		Assertions.assertEquals(Optional.empty(), uidIndex.get(UNREGISTERED.getUid()));
+
+		// a category registered after the first lookup is found
+		recipeCategories.add(new TestRecipeCategory(UNREGISTERED));
+		Assertions.assertEquals(Optional.of(UNREGISTERED), uidIndex.get(UNREGISTERED.getUid()));
+		Assertions.assertEquals(Optional.of(RECIPE_TYPES.get(1)), uidIndex.get(RECIPE_TYPES.get(1).getUid()));
+
+		// like a scan of the categories, the first recipe type with a uid is found
+		RecipeType<TestRecipe> duplicate = RecipeType.create("othermod", "grinding", TestRecipe.class);
+		recipeCategories.add(new TestRecipeCategory(duplicate));
+		Assertions.assertSame(RECIPE_TYPES.get(0), uidIndex.get(duplicate.getUid()).orElseThrow());
+		Assertions.assertEquals(Optional.empty(), uidIndex.get(ResourceLocation.fromNamespaceAndPath("jei", "missing")));
+	}
+}
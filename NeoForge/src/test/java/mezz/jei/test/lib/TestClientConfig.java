@@ -5,6 +5,7 @@ import mezz.jei.common.config.GiveMode;
 import mezz.jei.common.config.IngredientSortStage;
 import mezz.jei.common.config.IClientConfig;
 import mezz.jei.common.config.RecipeSorterStage;
+import mezz.jei.core.search.SearchStorageType;
 
 import java.util.List;
 import java.util.Set;
@@ -26,6 +27,41 @@ public class TestClientConfig implements IClientConfig {
 		return lowMemorySlowSearchEnabled;
 	}
 
+	@Override
+	public SearchStorageType getSearchStorageType() {
+		return SearchStorageType.SUFFIX_TREE;
+	}
+
+	@Override
+	public boolean isSearchIndexCacheEnabled() {
+		return false;
+	}
+
+	@Override
+	public boolean isRecipeIndexCacheEnabled() {
+		return false;
+	}
+
+	@Override
+	public boolean isLazyRecipeIndexEnabled() {
+		return false;
+	}
+
+	@Override
+	public boolean isRecipeManagerPluginCacheEnabled() {
+		return false;
+	}
+
+	@Override
+	public int getRecipeManagerPluginCacheSize() {
+		return 0;
+	}
+
+	@Override
+	public boolean isLazyTooltipSearchIndexEnabled() {
+		return false;
+	}
+
 	@Override
 	public boolean isCatchRenderErrorsEnabled() {
 		return false;
@@ -35,6 +35,11 @@ public class TestIngredientFilterConfig implements IIngredientFilterConfig {
 		return SearchMode.DISABLED;
 	}
 
+	@Override
+	public SearchMode getFuzzySearchMode() {
+		return SearchMode.DISABLED;
+	}
+
 	@Override
 	public boolean getSearchAdvancedTooltips() {
 		return false;
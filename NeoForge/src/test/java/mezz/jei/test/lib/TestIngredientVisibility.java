@@ -0,0 +1,22 @@
+package mezz.jei.test.lib;
+
+import mezz.jei.api.ingredients.IIngredientType;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.runtime.IIngredientVisibility;
+
+public class TestIngredientVisibility implements IIngredientVisibility {
+	@Override
+	public <V> boolean isIngredientVisible(IIngredientType<V> ingredientType, V ingredient) {
+		return true;
+	}
+
+	@Override
+	public <V> boolean isIngredientVisible(ITypedIngredient<V> typedIngredient) {
+		return true;
+	}
+
+	@Override
+	public void registerListener(IListener listener) {
+
+	}
+}
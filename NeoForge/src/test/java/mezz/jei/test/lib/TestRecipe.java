@@ -0,0 +1,17 @@
+package mezz.jei.test.lib;
+
+import java.util.List;
+
+/**
+ * A recipe that turns the test ingredients with the input numbers into the ones with the output numbers.
+ */
+public record TestRecipe(String name, List<Integer> inputs, List<Integer> outputs) {
+	public static TestRecipe create(String name, int input, int output) {
+		return new TestRecipe(name, List.of(input), List.of(output));
+	}
+
+	@Override
+	public String toString() {
+		return "TestRecipe#" + name;
+	}
+}
@@ -0,0 +1,76 @@
+package mezz.jei.test.lib;
+
+import mezz.jei.api.gui.builder.IRecipeLayoutBuilder;
+import mezz.jei.api.gui.drawable.IDrawable;
+import mezz.jei.api.recipe.IFocusGroup;
+import mezz.jei.api.recipe.RecipeIngredientRole;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
+
+public class TestRecipeCategory implements IRecipeCategory<TestRecipe> {
+	private final RecipeType<TestRecipe> recipeType;
+	private final boolean threadSafe;
+
+	public static RecipeType<TestRecipe> createRecipeType(String path) {
+		return RecipeType.create("jei", path, TestRecipe.class);
+	}
+
+	public TestRecipeCategory(RecipeType<TestRecipe> recipeType) {
+		this(recipeType, false);
+	}
+
+	public TestRecipeCategory(RecipeType<TestRecipe> recipeType, boolean threadSafe) {
+		this.recipeType = recipeType;
+		this.threadSafe = threadSafe;
+	}
+
+	@Override
+	public RecipeType<TestRecipe> getRecipeType() {
+		return recipeType;
+	}
+
+	@Override
+	public Component getTitle() {
+		return Component.literal(recipeType.getUid().toString());
+	}
+
+	@Override
+	public int getWidth() {
+		return 100;
+	}
+
+	@Override
+	public int getHeight() {
+		return 50;
+	}
+
+	@Override
+	public @Nullable IDrawable getIcon() {
+		return null;
+	}
+
+	@Override
+	public void setRecipe(IRecipeLayoutBuilder builder, TestRecipe recipe, IFocusGroup focuses) {
+		for (int input : recipe.inputs()) {
+			builder.addSlot(RecipeIngredientRole.INPUT)
+				.addIngredient(TestIngredient.TYPE, new TestIngredient(input));
+		}
+		for (int output : recipe.outputs()) {
+			builder.addSlot(RecipeIngredientRole.OUTPUT)
+				.addIngredient(TestIngredient.TYPE, new TestIngredient(output));
+		}
+	}
+
+	@Override
+	public ResourceLocation getRegistryName(TestRecipe recipe) {
+		return ResourceLocation.fromNamespaceAndPath("jei", recipe.name());
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return threadSafe;
+	}
+}
@@ -0,0 +1,46 @@
+package mezz.jei.test.lib;
+
+import com.google.common.collect.ImmutableListMultimap;
+import mezz.jei.api.ingredients.ITypedIngredient;
+import mezz.jei.api.recipe.RecipeType;
+import mezz.jei.api.recipe.category.IRecipeCategory;
+import mezz.jei.api.runtime.IIngredientManager;
+import mezz.jei.library.config.RecipeCategorySortingConfig;
+import mezz.jei.library.recipes.RecipeManagerInternal;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates a {@link RecipeManagerInternal} without the rest of JEI, for testing lookups.
+ */
+public final class TestRecipeManagerFactory {
+	private TestRecipeManagerFactory() {
+
+	}
+
+	/**
+	 * @param configDir a directory for the recipe category sorting config
+	 */
+	public static RecipeManagerInternal create(
+		IIngredientManager ingredientManager,
+		List<IRecipeCategory<?>> recipeCategories,
+		ImmutableListMultimap<RecipeType<?>, ITypedIngredient<?>> recipeCatalysts,
+		Path configDir,
+		Executor executor,
+		boolean lazyIndexing
+	) {
+		RecipeCategorySortingConfig sortingConfig = new RecipeCategorySortingConfig(configDir.resolve("recipe-category-sort-order.ini"));
+		return new RecipeManagerInternal(
+			recipeCategories,
+			recipeCatalysts,
+			ingredientManager,
+			sortingConfig,
+			new TestIngredientVisibility(),
+			executor,
+			null,
+			lazyIndexing
+		);
+	}
+}